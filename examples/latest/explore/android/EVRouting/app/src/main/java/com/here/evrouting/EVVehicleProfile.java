@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.evrouting;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// An immutable description of an electric vehicle, as needed for EV routing and isoline calculation.
+// The consumption table and the charging curve are sorted into primitive arrays once, so that
+// values between two table entries can be interpolated with a binary search. The maps handed over
+// to the HERE SDK are also built once and shared by all requests, since they cannot be modified.
+// A profile can be loaded from a JSON file, for example, from the assets of the app:
+// {
+//   "name": "Compact",
+//   "ascentConsumptionInWattHoursPerMeter": 9,
+//   "descentRecoveryInWattHoursPerMeter": 4.3,
+//   "freeFlowSpeedTable": {"0": 0.239, "27": 0.239, "60": 0.196, "90": 0.238},
+//   "totalCapacityInKilowattHours": 80,
+//   "initialChargeInKilowattHours": 10,
+//   "targetChargeInKilowattHours": 72,
+//   "chargingCurve": {"0": 239, "64": 111, "72": 1},
+//   "connectorTypes": ["TESLA", "IEC_62196_TYPE_2_COMBO"]
+// }
+// The JSON is read with org.json, which is part of Android. Apart from that, the class does not depend on
+// Android or the HERE SDK and can be shared between threads.
+public final class EVVehicleProfile {
+
+    public final String name;
+    public final double ascentConsumptionInWattHoursPerMeter;
+    public final double descentRecoveryInWattHoursPerMeter;
+    public final double totalCapacityInKilowattHours;
+    public final double initialChargeInKilowattHours;
+    public final double targetChargeInKilowattHours;
+
+    // Sorted by speed, for interpolation.
+    private final double[] speedsInKilometersPerHour;
+    private final double[] consumptionsInWattHoursPerMeter;
+    // Sorted by charge, for interpolation.
+    private final double[] chargesInKilowattHours;
+    private final double[] chargingPowersInKilowatts;
+
+    private final Map<Integer, Double> freeFlowSpeedTable;
+    private final Map<Double, Double> chargingCurve;
+    private final List<String> connectorTypes;
+    private final int hashCode;
+
+    public static final class Builder {
+        private String name = "";
+        private double ascentConsumptionInWattHoursPerMeter;
+        private double descentRecoveryInWattHoursPerMeter;
+        private double totalCapacityInKilowattHours;
+        private double initialChargeInKilowattHours;
+        private double targetChargeInKilowattHours;
+        private final TreeMap<Integer, Double> freeFlowSpeedTable = new TreeMap<>();
+        private final TreeMap<Double, Double> chargingCurve = new TreeMap<>();
+        private final List<String> connectorTypes = new ArrayList<>();
+
+        public Builder setName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder setAscentConsumptionInWattHoursPerMeter(double value) {
+            ascentConsumptionInWattHoursPerMeter = value;
+            return this;
+        }
+
+        public Builder setDescentRecoveryInWattHoursPerMeter(double value) {
+            descentRecoveryInWattHoursPerMeter = value;
+            return this;
+        }
+
+        public Builder setTotalCapacityInKilowattHours(double value) {
+            totalCapacityInKilowattHours = value;
+            return this;
+        }
+
+        public Builder setInitialChargeInKilowattHours(double value) {
+            initialChargeInKilowattHours = value;
+            return this;
+        }
+
+        public Builder setTargetChargeInKilowattHours(double value) {
+            targetChargeInKilowattHours = value;
+            return this;
+        }
+
+        public Builder addConsumption(int speedInKilometersPerHour, double consumptionInWattHoursPerMeter) {
+            freeFlowSpeedTable.put(speedInKilometersPerHour, consumptionInWattHoursPerMeter);
+            return this;
+        }
+
+        public Builder addChargingPower(double chargeInKilowattHours, double chargingPowerInKilowatts) {
+            chargingCurve.put(chargeInKilowattHours, chargingPowerInKilowatts);
+            return this;
+        }
+
+        // The names of HERE SDK ChargingConnectorType values, for example, "TESLA".
+        public Builder addConnectorType(String connectorType) {
+            connectorTypes.add(connectorType);
+            return this;
+        }
+
+        public EVVehicleProfile build() {
+            if (freeFlowSpeedTable.isEmpty()) {
+                throw new IllegalArgumentException("The consumption table needs at least one entry.");
+            }
+            if (chargingCurve.isEmpty()) {
+                throw new IllegalArgumentException("The charging curve needs at least one entry.");
+            }
+            if (totalCapacityInKilowattHours <= 0) {
+                throw new IllegalArgumentException("The total capacity must be positive.");
+            }
+            return new EVVehicleProfile(this);
+        }
+    }
+
+    private EVVehicleProfile(Builder builder) {
+        name = builder.name;
+        ascentConsumptionInWattHoursPerMeter = builder.ascentConsumptionInWattHoursPerMeter;
+        descentRecoveryInWattHoursPerMeter = builder.descentRecoveryInWattHoursPerMeter;
+        totalCapacityInKilowattHours = builder.totalCapacityInKilowattHours;
+        initialChargeInKilowattHours = builder.initialChargeInKilowattHours;
+        targetChargeInKilowattHours = builder.targetChargeInKilowattHours;
+
+        // The TreeMaps of the builder are already sorted by key.
+        speedsInKilometersPerHour = new double[builder.freeFlowSpeedTable.size()];
+        consumptionsInWattHoursPerMeter = new double[speedsInKilometersPerHour.length];
+        int i = 0;
+        for (Map.Entry<Integer, Double> entry : builder.freeFlowSpeedTable.entrySet()) {
+            speedsInKilometersPerHour[i] = entry.getKey();
+            consumptionsInWattHoursPerMeter[i++] = entry.getValue();
+        }
+
+        chargesInKilowattHours = new double[builder.chargingCurve.size()];
+        chargingPowersInKilowatts = new double[chargesInKilowattHours.length];
+        i = 0;
+        for (Map.Entry<Double, Double> entry : builder.chargingCurve.entrySet()) {
+            chargesInKilowattHours[i] = entry.getKey();
+            chargingPowersInKilowatts[i++] = entry.getValue();
+        }
+
+        freeFlowSpeedTable = Collections.unmodifiableMap(new LinkedHashMap<>(builder.freeFlowSpeedTable));
+        chargingCurve = Collections.unmodifiableMap(new LinkedHashMap<>(builder.chargingCurve));
+        connectorTypes = Collections.unmodifiableList(new ArrayList<>(builder.connectorTypes));
+        hashCode = computeHashCode();
+    }
+
+    // The consumption at the given speed, linearly interpolated between the two nearest table entries.
+    // Speeds outside of the table use the consumption of the first or last entry.
+    public double getConsumptionInWattHoursPerMeter(double speedInKilometersPerHour) {
+        return interpolate(speedsInKilometersPerHour, consumptionsInWattHoursPerMeter, speedInKilometersPerHour);
+    }
+
+    // The charging power at the given battery charge, interpolated the same way as the consumption.
+    public double getChargingPowerInKilowatts(double chargeInKilowattHours) {
+        return interpolate(chargesInKilowattHours, chargingPowersInKilowatts, chargeInKilowattHours);
+    }
+
+    private static double interpolate(double[] xs, double[] ys, double x) {
+        final int last = xs.length - 1;
+        if (x <= xs[0]) {
+            return ys[0];
+        }
+        if (x >= xs[last]) {
+            return ys[last];
+        }
+        final int index = Arrays.binarySearch(xs, x);
+        if (index >= 0) {
+            return ys[index];
+        }
+        // The insertion point is the first entry with a higher x, it is always within the table here.
+        final int high = -index - 1;
+        final int low = high - 1;
+        return ys[low] + (ys[high] - ys[low]) * (x - xs[low]) / (xs[high] - xs[low]);
+    }
+
+    // Speed in km/h to consumption in Wh/m, as expected by EVCarOptions.consumptionModel.freeFlowSpeedTable.
+    public Map<Integer, Double> getFreeFlowSpeedTable() {
+        return freeFlowSpeedTable;
+    }
+
+    // Charge in kWh to charging power in kW, as expected by EVCarOptions.batterySpecifications.chargingCurve.
+    public Map<Double, Double> getChargingCurve() {
+        return chargingCurve;
+    }
+
+    public List<String> getConnectorTypes() {
+        return connectorTypes;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof EVVehicleProfile)) {
+            return false;
+        }
+        EVVehicleProfile profile = (EVVehicleProfile) other;
+        return hashCode == profile.hashCode
+                && name.equals(profile.name)
+                && ascentConsumptionInWattHoursPerMeter == profile.ascentConsumptionInWattHoursPerMeter
+                && descentRecoveryInWattHoursPerMeter == profile.descentRecoveryInWattHoursPerMeter
+                && totalCapacityInKilowattHours == profile.totalCapacityInKilowattHours
+                && initialChargeInKilowattHours == profile.initialChargeInKilowattHours
+                && targetChargeInKilowattHours == profile.targetChargeInKilowattHours
+                && freeFlowSpeedTable.equals(profile.freeFlowSpeedTable)
+                && chargingCurve.equals(profile.chargingCurve)
+                && connectorTypes.equals(profile.connectorTypes);
+    }
+
+    // Computed once, so the profile can be used as a cheap cache key.
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    private int computeHashCode() {
+        int result = name.hashCode();
+        result = 31 * result + Double.hashCode(ascentConsumptionInWattHoursPerMeter);
+        result = 31 * result + Double.hashCode(descentRecoveryInWattHoursPerMeter);
+        result = 31 * result + Double.hashCode(totalCapacityInKilowattHours);
+        result = 31 * result + Double.hashCode(initialChargeInKilowattHours);
+        result = 31 * result + Double.hashCode(targetChargeInKilowattHours);
+        result = 31 * result + freeFlowSpeedTable.hashCode();
+        result = 31 * result + chargingCurve.hashCode();
+        return 31 * result + connectorTypes.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "EVVehicleProfile{name=" + name
+                + ", capacityKWh=" + totalCapacityInKilowattHours
+                + ", speeds=" + speedsInKilometersPerHour.length
+                + ", chargingPoints=" + chargesInKilowattHours.length + "}";
+    }
+
+    public static EVVehicleProfile fromJson(InputStream inputStream) throws IOException {
+        return fromJson(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    public static EVVehicleProfile fromJson(Reader reader) throws IOException {
+        final StringBuilder json = new StringBuilder();
+        final char[] buffer = new char[4096];
+        int length;
+        while ((length = reader.read(buffer)) != -1) {
+            json.append(buffer, 0, length);
+        }
+        return fromJson(json.toString());
+    }
+
+    // Throws an IOException for malformed JSON and an IllegalArgumentException for an incomplete profile.
+    public static EVVehicleProfile fromJson(String json) throws IOException {
+        try {
+            final JSONObject profile = new JSONObject(json);
+            final Builder builder = new Builder()
+                    .setName(profile.optString("name", ""))
+                    .setAscentConsumptionInWattHoursPerMeter(profile.getDouble("ascentConsumptionInWattHoursPerMeter"))
+                    .setDescentRecoveryInWattHoursPerMeter(profile.getDouble("descentRecoveryInWattHoursPerMeter"))
+                    .setTotalCapacityInKilowattHours(profile.getDouble("totalCapacityInKilowattHours"))
+                    .setInitialChargeInKilowattHours(profile.getDouble("initialChargeInKilowattHours"))
+                    .setTargetChargeInKilowattHours(profile.getDouble("targetChargeInKilowattHours"));
+            final JSONObject freeFlowSpeedTable = profile.getJSONObject("freeFlowSpeedTable");
+            for (Iterator<String> speeds = freeFlowSpeedTable.keys(); speeds.hasNext(); ) {
+                final String speed = speeds.next();
+                builder.addConsumption(Integer.parseInt(speed), freeFlowSpeedTable.getDouble(speed));
+            }
+            final JSONObject chargingCurve = profile.getJSONObject("chargingCurve");
+            for (Iterator<String> charges = chargingCurve.keys(); charges.hasNext(); ) {
+                final String charge = charges.next();
+                builder.addChargingPower(Double.parseDouble(charge), chargingCurve.getDouble(charge));
+            }
+            final JSONArray connectorTypes = profile.optJSONArray("connectorTypes");
+            if (connectorTypes != null) {
+                for (int i = 0; i < connectorTypes.length(); i++) {
+                    builder.addConnectorType(connectorTypes.getString(i));
+                }
+            }
+            return builder.build();
+        } catch (JSONException e) {
+            throw new IOException(e.getMessage(), e);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid table key: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.evrouting;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Caches isoline results, so that the reachable area of the same origin is calculated only once:
+// - Entries are keyed by the origin quantized to a grid, the range value and a hash of the vehicle profile.
+//   Origins that fall into the same grid cell share one entry.
+// - Entries expire after a time-to-live, since traffic and charging conditions change over time.
+// - The total weight of all entries, for example, the number of polygon vertices, is bounded.
+//   The least recently used entries are evicted first.
+// - Concurrent requests for the same key are coalesced into a single calculation.
+// - warm() precomputes entries that are missing or about to expire, for example, for a list of depots.
+// Errors are passed on, but not cached.
+// The class does not depend on Android or the HERE SDK. All methods and callbacks are expected
+// to be called on the same thread, for example, the main thread.
+public class IsolineCache<E, R> {
+
+    public interface Callback<E, R> {
+        void onIsolineResult(E error, R result);
+    }
+
+    // Starts the actual calculation, for example, with RoutingEngine.calculateIsoline().
+    public interface IsolineProvider<E, R> {
+        void calculateIsoline(double latitude, double longitude, int rangeValue, Callback<E, R> callback);
+    }
+
+    // Estimates the memory used by a result, for example, the number of polygon vertices.
+    public interface Weigher<R> {
+        int weigh(R result);
+    }
+
+    // Provides a monotonic time, for example, SystemClock::elapsedRealtime.
+    public interface Clock {
+        long nowInMilliseconds();
+    }
+
+    public static final class Key {
+        public final long latitudeIndex;
+        public final long longitudeIndex;
+        public final int rangeValue;
+        public final int profileHash;
+
+        Key(long latitudeIndex, long longitudeIndex, int rangeValue, int profileHash) {
+            this.latitudeIndex = latitudeIndex;
+            this.longitudeIndex = longitudeIndex;
+            this.rangeValue = rangeValue;
+            this.profileHash = profileHash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return latitudeIndex == key.latitudeIndex
+                    && longitudeIndex == key.longitudeIndex
+                    && rangeValue == key.rangeValue
+                    && profileHash == key.profileHash;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Long.hashCode(latitudeIndex);
+            result = 31 * result + Long.hashCode(longitudeIndex);
+            result = 31 * result + rangeValue;
+            return 31 * result + profileHash;
+        }
+
+        @Override
+        public String toString() {
+            return "Key{" + latitudeIndex + ", " + longitudeIndex + ", " + rangeValue + ", " + profileHash + "}";
+        }
+    }
+
+    private static final class Entry<R> {
+        final R result;
+        final int weight;
+        final long createdTimeInMilliseconds;
+
+        Entry(R result, int weight, long createdTimeInMilliseconds) {
+            this.result = result;
+            this.weight = weight;
+            this.createdTimeInMilliseconds = createdTimeInMilliseconds;
+        }
+    }
+
+    private final IsolineProvider<E, R> provider;
+    private final Weigher<R> weigher;
+    private final Clock clock;
+    private final double gridSizeInDegrees;
+    private final long timeToLiveInMilliseconds;
+    private final long maxTotalWeight;
+    // With accessOrder set to true, iteration starts at the least recently used entry.
+    private final LinkedHashMap<Key, Entry<R>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Callbacks that wait for a running calculation, by key.
+    private final Map<Key, List<Callback<E, R>>> pendingCallbacks = new LinkedHashMap<>();
+    private long totalWeight = 0;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long coalescedCount = 0;
+    private long expiredCount = 0;
+    private long evictedCount = 0;
+    private long errorCount = 0;
+    private long warmedCount = 0;
+    private long calculationCount = 0;
+    private long totalCalculationTimeInMilliseconds = 0;
+    private long maxCalculationTimeInMilliseconds = 0;
+
+    public IsolineCache(IsolineProvider<E, R> provider,
+                        Weigher<R> weigher,
+                        Clock clock,
+                        double gridSizeInDegrees,
+                        long timeToLiveInMilliseconds,
+                        long maxTotalWeight) {
+        if (gridSizeInDegrees <= 0) {
+            throw new IllegalArgumentException("The grid size must be positive.");
+        }
+        this.provider = provider;
+        this.weigher = weigher;
+        this.clock = clock;
+        this.gridSizeInDegrees = gridSizeInDegrees;
+        this.timeToLiveInMilliseconds = timeToLiveInMilliseconds;
+        this.maxTotalWeight = maxTotalWeight;
+    }
+
+    public Key createKey(double latitude, double longitude, int rangeValue, int profileHash) {
+        return new Key((long) Math.floor(latitude / gridSizeInDegrees),
+                (long) Math.floor(longitude / gridSizeInDegrees),
+                rangeValue,
+                profileHash);
+    }
+
+    // Calls back right away for a cached result, otherwise once the calculation is done.
+    public void getIsoline(double latitude, double longitude, int rangeValue, int profileHash,
+                           Callback<E, R> callback) {
+        final Key key = createKey(latitude, longitude, rangeValue, profileHash);
+        final Entry<R> entry = getFreshEntry(key);
+        if (entry != null) {
+            hitCount++;
+            callback.onIsolineResult(null, entry.result);
+            return;
+        }
+        missCount++;
+        request(key, latitude, longitude, callback);
+    }
+
+    // Precomputes the entries for the given origins, each given as {latitude, longitude}.
+    // Entries that expire within refreshAheadInMilliseconds are calculated again.
+    // Returns the number of calculations that were started.
+    public int warm(List<double[]> origins, int rangeValue, int profileHash, long refreshAheadInMilliseconds) {
+        int startedCount = 0;
+        for (double[] origin : origins) {
+            final Key key = createKey(origin[0], origin[1], rangeValue, profileHash);
+            if (pendingCallbacks.containsKey(key)) {
+                continue;
+            }
+            // Warming counts as an access, so the entries of warmed origins are evicted last.
+            final Entry<R> entry = entries.get(key);
+            if (entry != null && getAgeInMilliseconds(entry) + refreshAheadInMilliseconds < timeToLiveInMilliseconds) {
+                continue;
+            }
+            warmedCount++;
+            startedCount++;
+            request(key, origin[0], origin[1], null);
+        }
+        return startedCount;
+    }
+
+    private Entry<R> getFreshEntry(Key key) {
+        final Entry<R> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (getAgeInMilliseconds(entry) >= timeToLiveInMilliseconds) {
+            expiredCount++;
+            remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private long getAgeInMilliseconds(Entry<R> entry) {
+        return clock.nowInMilliseconds() - entry.createdTimeInMilliseconds;
+    }
+
+    private void request(final Key key, double latitude, double longitude, Callback<E, R> callback) {
+        List<Callback<E, R>> callbacks = pendingCallbacks.get(key);
+        if (callbacks != null) {
+            coalescedCount++;
+            if (callback != null) {
+                callbacks.add(callback);
+            }
+            return;
+        }
+        callbacks = new ArrayList<>();
+        if (callback != null) {
+            callbacks.add(callback);
+        }
+        pendingCallbacks.put(key, callbacks);
+
+        final long startTime = clock.nowInMilliseconds();
+        provider.calculateIsoline(latitude, longitude, key.rangeValue, (error, result) -> {
+            final long calculationTime = clock.nowInMilliseconds() - startTime;
+            calculationCount++;
+            totalCalculationTimeInMilliseconds += calculationTime;
+            maxCalculationTimeInMilliseconds = Math.max(maxCalculationTimeInMilliseconds, calculationTime);
+
+            final List<Callback<E, R>> waitingCallbacks = pendingCallbacks.remove(key);
+            if (error != null || result == null) {
+                errorCount++;
+            } else {
+                put(key, result);
+            }
+            if (waitingCallbacks != null) {
+                for (Callback<E, R> waitingCallback : waitingCallbacks) {
+                    waitingCallback.onIsolineResult(error, result);
+                }
+            }
+        });
+    }
+
+    private void put(Key key, R result) {
+        final int weight = weigher.weigh(result);
+        if (weight > maxTotalWeight) {
+            // Would evict everything else and still not fit.
+            return;
+        }
+        remove(key);
+        entries.put(key, new Entry<>(result, weight, clock.nowInMilliseconds()));
+        totalWeight += weight;
+
+        final Iterator<Map.Entry<Key, Entry<R>>> iterator = entries.entrySet().iterator();
+        while (totalWeight > maxTotalWeight && iterator.hasNext()) {
+            final Map.Entry<Key, Entry<R>> eldest = iterator.next();
+            totalWeight -= eldest.getValue().weight;
+            iterator.remove();
+            evictedCount++;
+        }
+    }
+
+    private void remove(Key key) {
+        final Entry<R> removed = entries.remove(key);
+        if (removed != null) {
+            totalWeight -= removed.weight;
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // The sum of the weights of all cached results.
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    // The number of requests that were answered from the cache.
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    // The number of requests that needed a calculation, including coalesced ones.
+    public long getMissCount() {
+        return missCount;
+    }
+
+    // The share of requests that were answered from the cache, between 0 and 1.
+    public double getHitRate() {
+        final long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+
+    // The number of requests that joined a calculation that was already running.
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    // The number of entries that were removed, because their time-to-live had passed.
+    public long getExpiredCount() {
+        return expiredCount;
+    }
+
+    // The number of entries that were removed to stay within the maximum total weight.
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    // The number of calculations that failed.
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    // The number of calculations that were started by warm().
+    public long getWarmedCount() {
+        return warmedCount;
+    }
+
+    // The average time a calculation took, in milliseconds.
+    public long getAverageCalculationTimeInMilliseconds() {
+        return calculationCount == 0 ? 0 : totalCalculationTimeInMilliseconds / calculationCount;
+    }
+
+    // The longest time a calculation took, in milliseconds.
+    public long getMaxCalculationTimeInMilliseconds() {
+        return maxCalculationTimeInMilliseconds;
+    }
+
+    @Override
+    public String toString() {
+        return "IsolineCache{size=" + entries.size()
+                + ", weight=" + totalWeight
+                + ", hits=" + hitCount
+                + ", misses=" + missCount
+                + ", hitRate=" + Math.round(getHitRate() * 100) + "%"
+                + ", coalesced=" + coalescedCount
+                + ", expired=" + expiredCount
+                + ", evicted=" + evictedCount
+                + ", errors=" + errorCount
+                + ", warmed=" + warmedCount
+                + ", avgCalculationMs=" + getAverageCalculationTimeInMilliseconds()
+                + ", maxCalculationMs=" + maxCalculationTimeInMilliseconds + "}";
+    }
+}
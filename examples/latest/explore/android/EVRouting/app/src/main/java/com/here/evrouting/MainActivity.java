@@ -27,6 +27,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import android.util.Log;
 import android.view.View;
 
+import com.here.sdk.core.GeoCoordinates;
 import com.here.sdk.core.engine.SDKNativeEngine;
 import com.here.sdk.core.engine.SDKOptions;
 import com.here.sdk.core.errors.InstantiationErrorException;
@@ -35,9 +36,17 @@ import com.here.sdk.mapview.MapScene;
 import com.here.sdk.mapview.MapScheme;
 import com.here.sdk.mapview.MapView;
 
+import java.util.Arrays;
+import java.util.List;
+
 public class MainActivity extends AppCompatActivity {
 
     private static final String TAG = MainActivity.class.getSimpleName();
+    // The reachable areas of these depots are precomputed, replace them with the depots of your fleet.
+    private static final List<GeoCoordinates> DEPOTS = Arrays.asList(
+            new GeoCoordinates(52.520798, 13.409408),
+            new GeoCoordinates(52.530932, 13.384915),
+            new GeoCoordinates(52.497993, 13.428280));
 
     private PermissionsRequestor permissionsRequestor;
     private MapView mapView;
@@ -99,6 +108,7 @@ public class MainActivity extends AppCompatActivity {
             public void onLoadScene(@Nullable MapError mapError) {
                 if (mapError == null) {
                     evRoutingExample = new EVRoutingExample(MainActivity.this, mapView);
+                    evRoutingExample.startIsolineWarmer(DEPOTS);
                 } else {
                     Log.d(TAG, "Loading map failed: mapErrorCode: " + mapError.name());
                 }
@@ -132,6 +142,9 @@ public class MainActivity extends AppCompatActivity {
 
     @Override
     protected void onDestroy() {
+        if (evRoutingExample != null) {
+            evRoutingExample.stopIsolineWarmer();
+        }
         mapView.onDestroy();
         disposeHERESDK();
         super.onDestroy();
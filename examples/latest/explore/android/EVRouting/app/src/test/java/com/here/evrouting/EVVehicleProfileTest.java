@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.evrouting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+public class EVVehicleProfileTest {
+
+    private static final double EPSILON = 1e-12;
+
+    private static EVVehicleProfile.Builder createBuilder() {
+        return new EVVehicleProfile.Builder()
+                .setName("Test")
+                .setAscentConsumptionInWattHoursPerMeter(9)
+                .setDescentRecoveryInWattHoursPerMeter(4.3)
+                .setTotalCapacityInKilowattHours(80)
+                .setInitialChargeInKilowattHours(10)
+                .setTargetChargeInKilowattHours(72)
+                // Added out of order on purpose.
+                .addConsumption(60, 0.196)
+                .addConsumption(0, 0.239)
+                .addConsumption(90, 0.238)
+                .addConsumption(27, 0.239)
+                .addChargingPower(72.0, 1.0)
+                .addChargingPower(0.0, 239.0)
+                .addChargingPower(64.0, 111.0)
+                .addConnectorType("TESLA");
+    }
+
+    // A linear scan over the table, as a reference for the binary search.
+    private static double interpolateByScan(Map<Integer, Double> table, double speed) {
+        Integer lower = null;
+        Integer upper = null;
+        for (Integer key : table.keySet()) {
+            if (key <= speed && (lower == null || key > lower)) {
+                lower = key;
+            }
+            if (key >= speed && (upper == null || key < upper)) {
+                upper = key;
+            }
+        }
+        if (lower == null) {
+            return table.get(upper);
+        }
+        if (upper == null || upper.equals(lower)) {
+            return table.get(lower);
+        }
+        return table.get(lower) + (table.get(upper) - table.get(lower)) * (speed - lower) / (upper - lower);
+    }
+
+    @Test
+    public void returnsTableValuesAtTableEntries() {
+        EVVehicleProfile profile = createBuilder().build();
+
+        assertEquals(0.239, profile.getConsumptionInWattHoursPerMeter(0), EPSILON);
+        assertEquals(0.239, profile.getConsumptionInWattHoursPerMeter(27), EPSILON);
+        assertEquals(0.196, profile.getConsumptionInWattHoursPerMeter(60), EPSILON);
+        assertEquals(0.238, profile.getConsumptionInWattHoursPerMeter(90), EPSILON);
+        assertEquals(111.0, profile.getChargingPowerInKilowatts(64), EPSILON);
+    }
+
+    @Test
+    public void interpolatesLinearlyBetweenEntries() {
+        EVVehicleProfile profile = createBuilder().build();
+
+        // Halfway between 60 and 90 km/h.
+        assertEquals((0.196 + 0.238) / 2, profile.getConsumptionInWattHoursPerMeter(75), EPSILON);
+        assertEquals(0.239 + (0.196 - 0.239) * 3 / 33, profile.getConsumptionInWattHoursPerMeter(30), EPSILON);
+        // A quarter of the way from 64 to 72 kWh.
+        assertEquals(111.0 + (1.0 - 111.0) / 4, profile.getChargingPowerInKilowatts(66), EPSILON);
+    }
+
+    @Test
+    public void clampsOutsideOfTheTable() {
+        EVVehicleProfile profile = createBuilder().build();
+
+        assertEquals(0.239, profile.getConsumptionInWattHoursPerMeter(-5), EPSILON);
+        assertEquals(0.238, profile.getConsumptionInWattHoursPerMeter(250), EPSILON);
+        assertEquals(1.0, profile.getChargingPowerInKilowatts(80), EPSILON);
+    }
+
+    @Test
+    public void matchesLinearScanForRandomSpeedsOnALargeTable() {
+        Random random = new Random(17);
+        EVVehicleProfile.Builder builder = createBuilder();
+        for (int speed = 1; speed <= 250; speed += 1 + random.nextInt(4)) {
+            builder.addConsumption(speed, 0.1 + random.nextDouble() * 0.2);
+        }
+        EVVehicleProfile profile = builder.build();
+
+        for (int i = 0; i < 10000; i++) {
+            double speed = random.nextDouble() * 270 - 10;
+            assertEquals(interpolateByScan(profile.getFreeFlowSpeedTable(), speed),
+                    profile.getConsumptionInWattHoursPerMeter(speed), 1e-9);
+        }
+    }
+
+    @Test
+    public void singleEntryTableIsConstant() {
+        EVVehicleProfile profile = new EVVehicleProfile.Builder()
+                .setTotalCapacityInKilowattHours(50)
+                .addConsumption(50, 0.2)
+                .addChargingPower(0, 100)
+                .build();
+
+        assertEquals(0.2, profile.getConsumptionInWattHoursPerMeter(0), EPSILON);
+        assertEquals(0.2, profile.getConsumptionInWattHoursPerMeter(120), EPSILON);
+        assertEquals(100, profile.getChargingPowerInKilowatts(40), EPSILON);
+    }
+
+    @Test
+    public void tablesAreSortedAndCannotBeModified() {
+        EVVehicleProfile profile = createBuilder().build();
+
+        assertEquals(Arrays.asList(0, 27, 60, 90), Arrays.asList(profile.getFreeFlowSpeedTable().keySet().toArray()));
+        try {
+            profile.getFreeFlowSpeedTable().put(120, 0.3);
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            profile.getConnectorTypes().add("CHADEMO");
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+
+    @Test
+    public void equalProfilesHaveEqualHashCodes() {
+        assertEquals(createBuilder().build(), createBuilder().build());
+        assertEquals(createBuilder().build().hashCode(), createBuilder().build().hashCode());
+        assertNotEquals(createBuilder().build(), createBuilder().setTargetChargeInKilowattHours(60).build());
+    }
+
+    @Test
+    public void loadsTheProfileFromTheAppAssets() throws IOException {
+        File asset = new File("src/main/assets/ev_vehicle_profile.json");
+        if (!asset.exists()) {
+            // Depends on the working directory of the test runner.
+            asset = new File("app/src/main/assets/ev_vehicle_profile.json");
+        }
+        EVVehicleProfile profile;
+        try (InputStream inputStream = new FileInputStream(asset)) {
+            profile = EVVehicleProfile.fromJson(inputStream);
+        }
+
+        assertEquals("Compact", profile.name);
+        assertEquals(80, profile.totalCapacityInKilowattHours, EPSILON);
+        assertEquals(0.196, profile.getConsumptionInWattHoursPerMeter(60), EPSILON);
+        assertEquals(239.0, profile.getChargingPowerInKilowatts(0), EPSILON);
+        assertEquals(3, profile.getConnectorTypes().size());
+        assertEquals(createBuilder().build().getFreeFlowSpeedTable(), profile.getFreeFlowSpeedTable());
+    }
+
+    @Test
+    public void parsesEscapesAndNegativeNumbers() throws IOException {
+        EVVehicleProfile profile = EVVehicleProfile.fromJson("{\"name\": \"Van \\\"XL\\\" \\u00e9\","
+                + " \"ascentConsumptionInWattHoursPerMeter\": 1.2e1,"
+                + " \"descentRecoveryInWattHoursPerMeter\": -4.5,"
+                + " \"freeFlowSpeedTable\": {\"10\": 0.3}, \"totalCapacityInKilowattHours\": 100,"
+                + " \"initialChargeInKilowattHours\": 0, \"targetChargeInKilowattHours\": 80,"
+                + " \"chargingCurve\": {\"0\": 50}, \"connectorTypes\": [], \"unknown\": [true, false, null]}");
+
+        assertEquals("Van \"XL\" é", profile.name);
+        assertEquals(12, profile.ascentConsumptionInWattHoursPerMeter, EPSILON);
+        assertEquals(-4.5, profile.descentRecoveryInWattHoursPerMeter, EPSILON);
+    }
+
+    @Test
+    public void rejectsMalformedOrIncompleteProfiles() {
+        String[] invalidProfiles = {
+                "",
+                "[]",
+                "{\"name\": \"x\"",
+                "{\"freeFlowSpeedTable\": {\"fast\": 0.2}}",
+                "{\"ascentConsumptionInWattHoursPerMeter\": \"9\"}",
+                "{\"ascentConsumptionInWattHoursPerMeter\": 9, \"descentRecoveryInWattHoursPerMeter\": 4,"
+                        + " \"totalCapacityInKilowattHours\": 80, \"initialChargeInKilowattHours\": 10,"
+                        + " \"targetChargeInKilowattHours\": 72, \"freeFlowSpeedTable\": {},"
+                        + " \"chargingCurve\": {\"0\": 1}}"
+        };
+        for (String invalidProfile : invalidProfiles) {
+            try {
+                EVVehicleProfile.fromJson(invalidProfile);
+                fail("Accepted: " + invalidProfile);
+            } catch (IOException | IllegalArgumentException expected) {
+                assertTrue(expected.getMessage() != null);
+            }
+        }
+    }
+}
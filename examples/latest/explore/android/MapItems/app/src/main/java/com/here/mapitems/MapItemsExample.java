@@ -38,7 +38,6 @@ import com.here.sdk.core.Point2D;
 import com.here.sdk.gestures.TapListener;
 import com.here.sdk.mapview.LocationIndicator;
 import com.here.sdk.mapview.MapImage;
-import com.here.sdk.mapview.MapImageFactory;
 import com.here.sdk.mapview.MapMarker;
 import com.here.sdk.mapview.MapMarker3D;
 import com.here.sdk.mapview.MapMarker3DModel;
@@ -102,7 +101,7 @@ public class MapItemsExample {
     }
 
     public void showMapMarkerCluster() {
-        MapImage clusterMapImage = MapImageFactory.fromResource(context.getResources(), R.drawable.green_square);
+        MapImage clusterMapImage = MapImageCache.fromResource(context, R.drawable.green_square);
 
         // Defines a text that indicates how many markers are included in the cluster.
         MapMarkerCluster.CounterStyle counterStyle = new MapMarkerCluster.CounterStyle();
@@ -123,7 +122,7 @@ public class MapItemsExample {
 
     private MapMarker createRandomMapMarkerInViewport(String metaDataText) {
         GeoCoordinates geoCoordinates = createRandomGeoCoordinatesAroundMapCenter();
-        MapImage mapImage = MapImageFactory.fromResource(context.getResources(), R.drawable.green_square);
+        MapImage mapImage = MapImageCache.fromResource(context, R.drawable.green_square);
 
         MapMarker mapMarker = new MapMarker(geoCoordinates, mapImage);
 
@@ -211,7 +210,7 @@ public class MapItemsExample {
     }
 
     private void addPOIMapMarker(GeoCoordinates geoCoordinates) {
-        MapImage mapImage = MapImageFactory.fromResource(context.getResources(), R.drawable.poi);
+        MapImage mapImage = MapImageCache.fromResource(context, R.drawable.poi);
 
         // The bottom, middle position should point to the location.
         // By default, the anchor point is set to 0.5, 0.5.
@@ -227,7 +226,7 @@ public class MapItemsExample {
     }
 
     private void addPhotoMapMarker(GeoCoordinates geoCoordinates) {
-        MapImage mapImage = MapImageFactory.fromResource(context.getResources(), R.drawable.here_car);
+        MapImage mapImage = MapImageCache.fromResource(context, R.drawable.here_car);
         MapMarker mapMarker = new MapMarker(geoCoordinates, mapImage);
 
         mapView.getMapScene().addMapMarker(mapMarker);
@@ -235,7 +234,7 @@ public class MapItemsExample {
     }
 
     private void addCircleMapMarker(GeoCoordinates geoCoordinates) {
-        MapImage mapImage = MapImageFactory.fromResource(context.getResources(), R.drawable.circle);
+        MapImage mapImage = MapImageCache.fromResource(context, R.drawable.circle);
         MapMarker mapMarker = new MapMarker(geoCoordinates, mapImage);
 
         // Optionally, enable a fade in-out animation.
@@ -295,7 +294,7 @@ public class MapItemsExample {
     }
 
     private void addFlatMarker(GeoCoordinates geoCoordinates) {
-        MapImage mapImage = MapImageFactory.fromResource(context.getResources(), R.drawable.poi);
+        MapImage mapImage = MapImageCache.fromResource(context, R.drawable.poi);
 
         // The default scale factor of the map marker is 1.0. For a scale of 2, the map marker becomes 2x larger.
         // For a scale of 0.5, the map marker shrinks to half of its original size.
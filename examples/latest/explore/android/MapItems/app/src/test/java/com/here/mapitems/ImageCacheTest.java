@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.mapitems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ImageCacheTest {
+
+    // Stands in for a decoded MapImage.
+    private static final class FakeImage {
+        final int resourceId;
+
+        FakeImage(int resourceId) {
+            this.resourceId = resourceId;
+        }
+    }
+
+    private final AtomicInteger decodeCount = new AtomicInteger();
+    private final ImageCache.Decoder<FakeImage> decoder = resourceId -> {
+        decodeCount.incrementAndGet();
+        return new FakeImage(resourceId);
+    };
+
+    @Test
+    public void repeatedRequestsAreDecodedOnce() {
+        ImageCache<FakeImage> cache = new ImageCache<>(4, decoder);
+
+        FakeImage first = cache.get(1);
+        FakeImage second = cache.get(1);
+
+        assertSame(first, second);
+        assertEquals(1, decodeCount.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        ImageCache<FakeImage> cache = new ImageCache<>(2, decoder);
+        FakeImage first = cache.get(1);
+        cache.get(2);
+
+        // Touch entry 1, so that entry 2 becomes the least recently used one.
+        cache.get(1);
+        cache.get(3);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertSame(first, cache.get(1));
+        assertEquals(3, decodeCount.get());
+
+        // Entry 2 was evicted, so it needs to be decoded again.
+        cache.get(2);
+        assertEquals(4, decodeCount.get());
+        assertEquals(2, cache.getEvictionCount());
+    }
+
+    @Test
+    public void failedDecodingIsNotCached() {
+        ImageCache<FakeImage> cache = new ImageCache<>(2, resourceId -> {
+            decodeCount.incrementAndGet();
+            return null;
+        });
+
+        assertNull(cache.get(1));
+        assertNull(cache.get(1));
+
+        assertEquals(0, cache.size());
+        assertEquals(2, decodeCount.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cacheWithoutEntriesIsRejected() {
+        new ImageCache<>(0, decoder);
+    }
+
+    @Test
+    public void concurrentAccessStaysBoundedAndConsistent() throws Exception {
+        final int maxEntries = 8;
+        final int threadCount = 8;
+        final int requestsPerThread = 5_000;
+        final ImageCache<FakeImage> cache = new ImageCache<>(maxEntries, decoder);
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            final int seed = t;
+            results.add(executorService.submit((Callable<Boolean>) () -> {
+                startSignal.await();
+                for (int i = 0; i < requestsPerThread; i++) {
+                    // 12 different keys for 8 slots, so that evictions happen as well.
+                    int resourceId = (i * 7 + seed) % 12;
+                    FakeImage image = cache.get(resourceId);
+                    if (image.resourceId != resourceId || cache.size() > maxEntries) {
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        }
+        startSignal.countDown();
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get(30, TimeUnit.SECONDS));
+        }
+        executorService.shutdown();
+
+        assertTrue(cache.size() <= maxEntries);
+        assertEquals(threadCount * requestsPerThread, cache.getHitCount() + cache.getMissCount());
+        assertEquals(decodeCount.get(), cache.getMissCount());
+        assertTrue(cache.getEvictionCount() > 0);
+    }
+
+    @Test
+    public void concurrentMissesForTheSameKeyShareOneInstance() throws Exception {
+        final CountDownLatch decodeStarted = new CountDownLatch(2);
+        final ImageCache<FakeImage> cache = new ImageCache<>(4, resourceId -> {
+            decodeStarted.countDown();
+            try {
+                // Make sure both threads decode at the same time.
+                decodeStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new FakeImage(resourceId);
+        });
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        Future<FakeImage> first = executorService.submit(() -> cache.get(7));
+        Future<FakeImage> second = executorService.submit(() -> cache.get(7));
+
+        assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+        assertEquals(1, cache.size());
+        executorService.shutdown();
+    }
+}
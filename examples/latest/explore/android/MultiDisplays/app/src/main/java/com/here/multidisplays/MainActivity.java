@@ -25,6 +25,8 @@ import android.content.Intent;
 import android.hardware.display.DisplayManager;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.view.Display;
 import android.view.View;
@@ -40,6 +42,7 @@ import com.here.sdk.core.GeoPolygon;
 import com.here.sdk.core.engine.SDKNativeEngine;
 import com.here.sdk.core.engine.SDKOptions;
 import com.here.sdk.core.errors.InstantiationErrorException;
+import com.here.sdk.mapview.MapCamera;
 import com.here.sdk.mapview.MapMeasure;
 import com.here.sdk.mapview.MapPolygon;
 import com.here.sdk.mapview.MapScheme;
@@ -52,18 +55,17 @@ public class MainActivity extends AppCompatActivity {
     private PermissionsRequestor permissionsRequestor;
     private MapView mapView;
 
-    // Handle messages coming from secondary display.
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Reused for each published frame.
+    private final CameraFrame cameraFrame = new CameraFrame();
+    private DisplayChannel.Subscription displayChannelSubscription;
+
+    // Handle messages coming from secondary display, when it runs in another process.
     private final DataBroadcast dataBroadcast = new DataBroadcast() {
         @Override
         public void onReceive(Context context, Intent intent) {
             if (intent.getAction().equals(DataBroadcast.MESSAGE_FROM_SECONDARY_DISPLAY)) {
-                double latitude = intent.getDoubleExtra("latitude", 0);
-                double longitude = intent.getDoubleExtra("longitude", 0);
-                Log.d(TAG, "Current center of secondary display: lat:" + latitude + ", lon: " + longitude);
-
-                // Add circle to this map view's center.
-                GeoCoordinates mapCenterGeoCoordinates = mapView.getCamera().getState().targetCoordinates;
-                addMapCircle(mapCenterGeoCoordinates);
+                onCameraFrameReceived(DataBroadcast.getCameraFrame(intent));
             }
         }
     };
@@ -81,7 +83,16 @@ public class MainActivity extends AppCompatActivity {
         mapView = findViewById(R.id.map_view);
         mapView.onCreate(savedInstanceState);
 
+        // Frames from the secondary display in this process are delivered on the main thread.
+        displayChannelSubscription = DisplayChannel.getDefault().subscribe(
+                DataBroadcast.MESSAGE_FROM_SECONDARY_DISPLAY, mainHandler::post, this::onCameraFrameReceived);
         registerReceiver(dataBroadcast, dataBroadcast.getFilter(DataBroadcast.MESSAGE_FROM_SECONDARY_DISPLAY));
+
+        // Frames for a display without a subscriber in this process are sent as broadcast instead.
+        Context applicationContext = getApplicationContext();
+        DisplayChannel.getDefault().setFallback((topic, frame) ->
+                DataBroadcast.sendCameraFrame(applicationContext, topic, frame));
+
         handleAndroidPermissions();
     }
 
@@ -161,8 +172,29 @@ public class MainActivity extends AppCompatActivity {
 
     public void addButtonClicked(View view) {
         // Send message to secondary display.
+        MapCamera.State cameraState = mapView.getCamera().getState();
+        cameraFrame.set(cameraState.targetCoordinates.latitude,
+                cameraState.targetCoordinates.longitude,
+                cameraState.orientationAtTarget.bearing,
+                cameraState.distanceToTargetInMeters,
+                System.currentTimeMillis());
+        // Each click adds a circle on the other display, so the frame is sent as an event that is not coalesced.
+        cameraFrame.type = CameraFrame.TYPE_ADD_CIRCLE;
+        DisplayChannel.getDefault().publish(DataBroadcast.MESSAGE_FROM_PRIMARY_DISPLAY, cameraFrame);
+    }
+
+    private void onCameraFrameReceived(CameraFrame frame) {
+        long latencyInMilliseconds = System.currentTimeMillis() - frame.timestampInMilliseconds;
+        Log.d(TAG, "Current center of secondary display: lat:" + frame.latitude + ", lon: " + frame.longitude +
+                ", heading: " + frame.headingInDegrees + ", distance: " + frame.distanceToTargetInMeters +
+                ", latency: " + latencyInMilliseconds + " ms.");
+        if (frame.type != CameraFrame.TYPE_ADD_CIRCLE) {
+            return;
+        }
+
+        // Add circle to this map view's center.
         GeoCoordinates mapCenterGeoCoordinates = mapView.getCamera().getState().targetCoordinates;
-        dataBroadcast.sendMessageToSecondaryDisplay(this, mapCenterGeoCoordinates);
+        addMapCircle(mapCenterGeoCoordinates);
     }
 
     private void addMapCircle(GeoCoordinates geoCoordinates) {
@@ -188,6 +220,8 @@ public class MainActivity extends AppCompatActivity {
 
     @Override
     protected void onDestroy() {
+        displayChannelSubscription.unsubscribe();
+        DisplayChannel.getDefault().setFallback(null);
         unregisterReceiver(dataBroadcast);
         mapView.onDestroy();
         disposeHERESDK();
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.multidisplays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DisplayChannelTest {
+
+    private static final String TOPIC = "secondary";
+
+    // Runs the posted tasks only when the test asks for it, like a busy main thread.
+    private static class ManualExecutor implements Executor {
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+
+    // Copies the values, as the delivered frame is reused.
+    private static class RecordingSubscriber implements DisplayChannel.Subscriber {
+        final List<Double> latitudes = new ArrayList<>();
+        final List<Long> sequenceNumbers = new ArrayList<>();
+
+        @Override
+        public void onFrame(CameraFrame frame) {
+            latitudes.add(frame.latitude);
+            sequenceNumbers.add(frame.sequenceNumber);
+        }
+    }
+
+    private final List<String> fallbackTopics = new ArrayList<>();
+    private DisplayChannel channel;
+    private ManualExecutor executor;
+    private RecordingSubscriber subscriber;
+    private final CameraFrame frame = new CameraFrame();
+
+    @Before
+    public void setUp() {
+        channel = new DisplayChannel((topic, cameraFrame) -> fallbackTopics.add(topic));
+        executor = new ManualExecutor();
+        subscriber = new RecordingSubscriber();
+    }
+
+    private boolean publish(double latitude) {
+        frame.type = CameraFrame.TYPE_CAMERA_UPDATE;
+        return channel.publish(TOPIC, frame.set(latitude, 13.4, 90, 5000, 1000));
+    }
+
+    private void publishAddCircle(double latitude) {
+        frame.type = CameraFrame.TYPE_ADD_CIRCLE;
+        channel.publish(TOPIC, frame.set(latitude, 13.4, 90, 5000, 1000));
+    }
+
+    @Test
+    public void frameRoundTrip() {
+        frame.set(52.5, 13.4, 271.5, 4321.0, 1234567890123L).sequenceNumber = 42;
+        frame.type = CameraFrame.TYPE_ADD_CIRCLE;
+        ByteBuffer buffer = ByteBuffer.allocate(CameraFrame.SIZE_IN_BYTES);
+        frame.writeTo(buffer);
+        CameraFrame copy = new CameraFrame().readFrom(buffer);
+
+        assertEquals(frame.toString(), copy.toString());
+        assertEquals(frame.toString(), CameraFrame.fromByteArray(frame.toByteArray()).toString());
+        assertNull(CameraFrame.fromByteArray(new byte[3]));
+    }
+
+    @Test
+    public void deliversFramesOnExecutor() {
+        channel.subscribe(TOPIC, executor, subscriber);
+
+        assertTrue(publish(1));
+        assertTrue(subscriber.latitudes.isEmpty());
+
+        executor.runAll();
+        assertEquals(Arrays.asList(1.0), subscriber.latitudes);
+    }
+
+    @Test
+    public void coalescesToLatestFramePerSubscriber() {
+        DisplayChannel.Subscription subscription = channel.subscribe(TOPIC, executor, subscriber);
+
+        publish(1);
+        publish(2);
+        publish(3);
+        // Only one delivery is scheduled for the three frames.
+        assertEquals(1, executor.tasks.size());
+
+        executor.runAll();
+        publish(4);
+        executor.runAll();
+
+        assertEquals(Arrays.asList(3.0, 4.0), subscriber.latitudes);
+        assertEquals(2, subscription.getCoalescedCount());
+        assertEquals(2, subscription.getDeliveredCount());
+    }
+
+    @Test
+    public void queuesEventsInsteadOfCoalescing() {
+        DisplayChannel.Subscription subscription = channel.subscribe(TOPIC, executor, subscriber);
+
+        publishAddCircle(1);
+        publish(2);
+        publishAddCircle(3);
+        publish(4);
+        publish(5);
+        publishAddCircle(6);
+        assertEquals(1, executor.tasks.size());
+
+        executor.runAll();
+        // All events are delivered, only the latest camera update is, in the order of publishing.
+        assertEquals(Arrays.asList(1.0, 3.0, 5.0, 6.0), subscriber.latitudes);
+        assertEquals(3, subscription.getEventCount());
+        assertEquals(2, subscription.getCoalescedCount());
+        assertEquals(4, subscription.getDeliveredCount());
+    }
+
+    @Test
+    public void deliveredEventsAreNotOverwritten() {
+        List<CameraFrame> events = new ArrayList<>();
+        channel.subscribe(TOPIC, executor, deliveredFrame -> {
+            if (deliveredFrame.isEvent()) {
+                events.add(deliveredFrame);
+            }
+        });
+
+        publishAddCircle(1);
+        publishAddCircle(2);
+        executor.runAll();
+        publishAddCircle(3);
+        executor.runAll();
+
+        assertEquals(3, events.size());
+        assertEquals(1.0, events.get(0).latitude, 0);
+        assertEquals(2.0, events.get(1).latitude, 0);
+    }
+
+    @Test
+    public void coalescesIndependentlyForEachSubscriber() {
+        ManualExecutor fastExecutor = new ManualExecutor();
+        RecordingSubscriber fastSubscriber = new RecordingSubscriber();
+        channel.subscribe(TOPIC, executor, subscriber);
+        channel.subscribe(TOPIC, fastExecutor, fastSubscriber);
+
+        publish(1);
+        fastExecutor.runAll();
+        publish(2);
+        fastExecutor.runAll();
+        executor.runAll();
+
+        assertEquals(Arrays.asList(1.0, 2.0), fastSubscriber.latitudes);
+        assertEquals(Arrays.asList(2.0), subscriber.latitudes);
+    }
+
+    @Test
+    public void keepsOrderWithConcurrentPublishers() throws InterruptedException {
+        ExecutorService deliveryExecutor = Executors.newSingleThreadExecutor();
+        List<Long> sequenceNumbers = new ArrayList<>();
+        CountDownLatch lastFrameLatch = new CountDownLatch(1);
+        int publisherCount = 4;
+        int framesPerPublisher = 20000;
+        channel.subscribe(TOPIC, deliveryExecutor, deliveredFrame -> {
+            sequenceNumbers.add(deliveredFrame.sequenceNumber);
+            if (deliveredFrame.latitude < 0) {
+                lastFrameLatch.countDown();
+            }
+        });
+
+        List<Thread> publishers = new ArrayList<>();
+        for (int p = 0; p < publisherCount; p++) {
+            Thread publisher = new Thread(() -> {
+                CameraFrame publisherFrame = new CameraFrame();
+                for (int i = 0; i < framesPerPublisher; i++) {
+                    channel.publish(TOPIC, publisherFrame.set(i, 0, 0, 0, 0));
+                }
+            });
+            publishers.add(publisher);
+            publisher.start();
+        }
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+        channel.publish(TOPIC, new CameraFrame().set(-1, 0, 0, 0, 0));
+        assertTrue(lastFrameLatch.await(10, TimeUnit.SECONDS));
+        deliveryExecutor.shutdown();
+
+        // Frames are coalesced, but a subscriber never receives an older frame after a newer one.
+        for (int i = 1; i < sequenceNumbers.size(); i++) {
+            assertTrue(sequenceNumbers.get(i) > sequenceNumbers.get(i - 1));
+        }
+        assertEquals(publisherCount * framesPerPublisher, (long) sequenceNumbers.get(sequenceNumbers.size() - 1));
+    }
+
+    @Test
+    public void usesFallbackWithoutSubscriber() {
+        assertFalse(publish(1));
+        assertEquals(Arrays.asList(TOPIC), fallbackTopics);
+        assertEquals(1, channel.getFallbackCount());
+
+        channel.subscribe("other", executor, subscriber);
+        assertFalse(publish(2));
+        assertEquals(2, channel.getFallbackCount());
+    }
+
+    @Test
+    public void unsubscribeStopsPendingDelivery() {
+        DisplayChannel.Subscription subscription = channel.subscribe(TOPIC, executor, subscriber);
+        publish(1);
+        subscription.unsubscribe();
+        executor.runAll();
+
+        assertTrue(subscriber.latitudes.isEmpty());
+        assertFalse(publish(2));
+    }
+}
@@ -31,6 +31,8 @@ import com.here.sdk.core.GeoPolyline;
 import com.here.sdk.core.Point2D;
 import com.here.sdk.core.errors.InstantiationErrorException;
 import com.here.sdk.core.threading.TaskHandle;
+import com.here.sdk.examples.shared.HEREWaypointAccessor;
+import com.here.sdk.examples.shared.RouteCache;
 import com.here.sdk.mapview.MapCamera;
 import com.here.sdk.mapview.MapImage;
 import com.here.sdk.mapview.MapImageFactory;
@@ -38,7 +40,6 @@ import com.here.sdk.mapview.MapMarker;
 import com.here.sdk.mapview.MapMeasure;
 import com.here.sdk.mapview.MapPolyline;
 import com.here.sdk.mapview.MapView;
-import com.here.sdk.routing.CalculateRouteCallback;
 import com.here.sdk.routing.CarOptions;
 import com.here.sdk.routing.Maneuver;
 import com.here.sdk.routing.ManeuverAction;
@@ -61,12 +62,20 @@ import java.util.Locale;
 public class RoutingExample {
 
     private static final String TAG = RoutingExample.class.getName();
+    private static final int ROUTE_CACHE_MAX_ENTRIES = 16;
+    // Routes consider the current traffic, so a cached route is only reused for a few minutes.
+    private static final long ROUTE_TIME_TO_LIVE_IN_MILLISECONDS = 5 * 60 * 1000;
 
     private final Context context;
     private final MapView mapView;
     private final List<MapMarker> mapMarkerList = new ArrayList<>();
     private final List<MapPolyline> mapPolylines = new ArrayList<>();
+    private final TrafficOverlay<GeoCoordinates, MapPolyline> trafficOverlay;
     private final RoutingEngine routingEngine;
+    private final RouteCache<Waypoint, CarOptions, List<Route>, RoutingError> routeCache;
+    // The waypoints and the polyline of the shown route, so that its traffic can be refreshed.
+    private List<Waypoint> routeWaypoints;
+    private MapPolyline routeMapPolyline;
     private GeoCoordinates startGeoCoordinates;
     private GeoCoordinates destinationGeoCoordinates;
 
@@ -83,6 +92,26 @@ public class RoutingExample {
         } catch (InstantiationErrorException e) {
             throw new RuntimeException("Initialization of RoutingEngine failed: " + e.error.name());
         }
+
+        // Requests with the same quantized waypoints and options are answered from the cache.
+        routeCache = new RouteCache<>(
+                (waypoints, carOptions, callback) ->
+                        routingEngine.calculateRoute(waypoints, carOptions, callback::onRouteCalculated),
+                new HEREWaypointAccessor(),
+                ROUTE_CACHE_MAX_ENTRIES,
+                ROUTE_TIME_TO_LIVE_IN_MILLISECONDS);
+
+        trafficOverlay = new TrafficOverlay<>(new TrafficOverlay.Renderer<GeoCoordinates, MapPolyline>() {
+            @Override
+            public MapPolyline add(TrafficSpanMerger.Segment<GeoCoordinates> segment) {
+                return addTrafficMapPolyline(segment);
+            }
+
+            @Override
+            public void remove(MapPolyline mapPolyline) {
+                mapView.getMapScene().removeMapPolyline(mapPolyline);
+            }
+        });
     }
 
     public void addRoute() {
@@ -94,16 +123,17 @@ public class RoutingExample {
         List<Waypoint> waypoints =
                 new ArrayList<>(Arrays.asList(startWaypoint, destinationWaypoint));
 
-        routingEngine.calculateRoute(
+        routeCache.calculateRoute(
                 waypoints,
                 new CarOptions(),
-                new CalculateRouteCallback() {
+                new RouteCache.Callback<List<Route>, RoutingError>() {
                     @Override
                     public void onRouteCalculated(@Nullable RoutingError routingError, @Nullable List<Route> routes) {
                         if (routingError == null) {
                             Route route = routes.get(0);
                             showRouteDetails(route);
                             showRouteOnMap(route);
+                            routeWaypoints = waypoints;
                             logRouteSectionDetails(route);
                             logRouteViolations(route);
                         } else {
@@ -172,7 +202,7 @@ public class RoutingExample {
         // Show route as polyline.
         GeoPolyline routeGeoPolyline = route.getGeometry();
         float widthInPixels = 20;
-        MapPolyline routeMapPolyline = new MapPolyline(routeGeoPolyline,
+        routeMapPolyline = new MapPolyline(routeGeoPolyline,
                 widthInPixels,
                 Color.valueOf(0, 0.56f, 0.54f, 0.63f)); // RGBA
 
@@ -180,7 +210,7 @@ public class RoutingExample {
         mapPolylines.add(routeMapPolyline);
 
         // Optionally, render traffic on route.
-        showTrafficOnRoute(route);
+        updateTrafficOnRoute(route);
 
         GeoCoordinates startPoint =
                 route.getSections().get(0).getDeparturePlace().mapMatchedCoordinates;
@@ -222,16 +252,17 @@ public class RoutingExample {
         List<Waypoint> waypoints = new ArrayList<>(Arrays.asList(new Waypoint(startGeoCoordinates),
                 waypoint1, waypoint2, new Waypoint(destinationGeoCoordinates)));
 
-        routingEngine.calculateRoute(
+        routeCache.calculateRoute(
                 waypoints,
                 new CarOptions(),
-                new CalculateRouteCallback() {
+                new RouteCache.Callback<List<Route>, RoutingError>() {
                     @Override
                     public void onRouteCalculated(@Nullable RoutingError routingError, @Nullable List<Route> routes) {
                         if (routingError == null) {
                             Route route = routes.get(0);
                             showRouteDetails(route);
                             showRouteOnMap(route);
+                            routeWaypoints = waypoints;
                             logRouteSectionDetails(route);
                             logRouteViolations(route);
 
@@ -245,6 +276,46 @@ public class RoutingExample {
                 });
     }
 
+    // Requests the current traffic for the shown route. The route is calculated again by the routing engine,
+    // as the route cache would answer with the same traffic information. Only the traffic segments that
+    // changed are removed from or added to the map.
+    public void refreshTrafficOnRoute() {
+        if (routeWaypoints == null) {
+            showDialog("Error", "Please add a route first.");
+            return;
+        }
+
+        List<Waypoint> waypoints = routeWaypoints;
+        routingEngine.calculateRoute(waypoints, new CarOptions(), (routingError, routes) -> {
+            if (routingError != null) {
+                showDialog("Error while refreshing the traffic:", routingError.toString());
+                return;
+            }
+            if (waypoints != routeWaypoints) {
+                // The map was cleared or another route was shown meanwhile.
+                return;
+            }
+
+            Route route = routes.get(0);
+            if (!route.getGeometry().vertices.equals(routeMapPolyline.getGeometry().vertices)) {
+                // With the current traffic, another route is faster.
+                replaceRouteMapPolyline(route.getGeometry());
+            }
+            updateTrafficOnRoute(route);
+        });
+    }
+
+    private void replaceRouteMapPolyline(GeoPolyline routeGeoPolyline) {
+        mapView.getMapScene().removeMapPolyline(routeMapPolyline);
+        int index = mapPolylines.indexOf(routeMapPolyline);
+        float widthInPixels = 20;
+        routeMapPolyline = new MapPolyline(routeGeoPolyline,
+                widthInPixels,
+                Color.valueOf(0, 0.56f, 0.54f, 0.63f)); // RGBA
+        mapView.getMapScene().addMapPolyline(routeMapPolyline);
+        mapPolylines.set(index, routeMapPolyline);
+    }
+
     public void clearMap() {
         clearWaypointMapMarker();
         clearRoute();
@@ -262,37 +333,59 @@ public class RoutingExample {
             mapView.getMapScene().removeMapPolyline(mapPolyline);
         }
         mapPolylines.clear();
+        trafficOverlay.clear();
+        routeWaypoints = null;
+        routeMapPolyline = null;
     }
 
-    // This renders the traffic jam factor on top of the route as multiple MapPolylines per span.
-    private void showTrafficOnRoute(Route route) {
+    // This renders the traffic jam factor on top of the route. Adjacent spans with the same
+    // severity are merged, so that only one MapPolyline is created per merged segment.
+    // When the traffic of the shown route is refreshed, only the segments that changed are removed from
+    // or added to the map.
+    private void updateTrafficOnRoute(Route route) {
         if (route.getLengthInMeters() / 1000 > 5000) {
             Log.d(TAG, "Skip showing traffic-on-route for longer routes.");
+            trafficOverlay.clear();
             return;
         }
 
+        long startTime = System.nanoTime();
+        TrafficSpanMerger<GeoCoordinates> trafficSpanMerger = new TrafficSpanMerger<>();
         for (Section section : route.getSections()) {
             for (Span span : section.getSpans()) {
                 TrafficSpeed trafficSpeed = span.getTrafficSpeed();
-                Color lineColor = getTrafficColor(trafficSpeed.jamFactor);
-                if (lineColor == null) {
-                    // We skip rendering low traffic.
-                    continue;
-                }
-                GeoPolyline spanGeoPolyline;
-                try {
-                    // A polyline needs to have two or more coordinates.
-                    spanGeoPolyline = new GeoPolyline(span.getPolyline());
-                } catch (InstantiationErrorException e) {
-                    e.printStackTrace();
-                    return;
-                }
-                float widthInPixels = 10;
-                MapPolyline trafficSpanMapPolyline = new MapPolyline(spanGeoPolyline, widthInPixels, lineColor);
-                mapView.getMapScene().addMapPolyline(trafficSpanMapPolyline);
-                mapPolylines.add(trafficSpanMapPolyline);
+                trafficSpanMerger.addSpan(TrafficSpanMerger.getSeverity(trafficSpeed.jamFactor), span.getPolyline());
             }
         }
+        List<TrafficSpanMerger.Segment<GeoCoordinates>> segments = trafficSpanMerger.getSegments();
+        long mergeTime = System.nanoTime();
+
+        trafficOverlay.update(segments);
+        long endTime = System.nanoTime();
+
+        Log.d(TAG, "Traffic on route: " + trafficSpanMerger.getSpanCount() + " spans, "
+                + segments.size() + " segments, added: " + trafficOverlay.getLastAddedCount()
+                + ", removed: " + trafficOverlay.getLastRemovedCount()
+                + ", kept: " + trafficOverlay.getLastKeptCount()
+                + ", merge: " + (mergeTime - startTime) / 1000 + " us"
+                + ", render: " + (endTime - mergeTime) / 1000 + " us");
+    }
+
+    @Nullable
+    private MapPolyline addTrafficMapPolyline(TrafficSpanMerger.Segment<GeoCoordinates> segment) {
+        GeoPolyline segmentGeoPolyline;
+        try {
+            // A polyline needs to have two or more coordinates.
+            segmentGeoPolyline = new GeoPolyline(segment.vertices);
+        } catch (InstantiationErrorException e) {
+            e.printStackTrace();
+            return null;
+        }
+        float widthInPixels = 10;
+        MapPolyline trafficMapPolyline = new MapPolyline(segmentGeoPolyline, widthInPixels,
+                getTrafficColor(segment.severity));
+        mapView.getMapScene().addMapPolyline(trafficMapPolyline);
+        return trafficMapPolyline;
     }
 
     // Define a traffic color scheme based on the route's jam factor.
@@ -300,14 +393,12 @@ public class RoutingExample {
     // 4 <= jamFactor < 8: Moderate or slow traffic.
     // 8 <= jamFactor < 10: Severe traffic.
     // jamFactor = 10: No traffic, ie. the road is blocked.
-    // Returns null in case of no or light traffic.
-    @Nullable
-    private Color getTrafficColor(Double jamFactor) {
-        if (jamFactor == null || jamFactor < 4) {
-            return null;
-        } else if (jamFactor >= 4 && jamFactor < 8) {
+    // See TrafficSpanMerger.getSeverity() for the severity of a jam factor.
+    // Low traffic is not rendered, so SEVERITY_NONE has no color.
+    private Color getTrafficColor(int severity) {
+        if (severity == TrafficSpanMerger.SEVERITY_MODERATE) {
             return Color.valueOf(1, 1, 0, 0.63f); // Yellow
-        } else if (jamFactor >= 8 && jamFactor < 10) {
+        } else if (severity == TrafficSpanMerger.SEVERITY_SEVERE) {
             return Color.valueOf(1, 0, 0, 0.63f); // Red
         }
         return Color.valueOf(0, 0, 0, 0.63f); // Black
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.search;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Turns the text a user is typing into as few autosuggest requests as possible:
+// - Text changes are debounced, so only the text that stays unchanged for a while is requested.
+// - A request that is still running is cancelled as soon as a newer query is issued.
+// - Each request gets a sequence number, so late replies for older queries are dropped and
+//   can never overwrite the results of a newer query.
+// - Results are kept in a small LRU cache, so that, for example, deleting a character shows
+//   the results for the shorter text again without a new request.
+// The class does not depend on Android or the HERE SDK. All methods and callbacks are expected
+// to be called on the same thread, for example, the main thread.
+public class AutosuggestController<E, R> {
+
+    // Allows to cancel a running request or a scheduled task, for example, a HERE SDK TaskHandle.
+    public interface Cancellable {
+        void cancel();
+    }
+
+    public interface SuggestCallback<E, R> {
+        void onSuggestCompleted(E error, List<R> results);
+    }
+
+    // Starts the actual request, for example, with SearchEngine.suggest().
+    public interface SuggestEngine<E, R> {
+        Cancellable suggest(String query, SuggestCallback<E, R> callback);
+    }
+
+    // Runs a task after a delay, for example, with Handler.postDelayed().
+    public interface Scheduler {
+        Cancellable schedule(Runnable task, long delayInMilliseconds);
+    }
+
+    public interface Listener<E, R> {
+        void onSuggestions(String query, List<R> results, boolean isFromCache);
+
+        void onError(String query, E error);
+    }
+
+    private final SuggestEngine<E, R> suggestEngine;
+    private final Scheduler scheduler;
+    private final Listener<E, R> listener;
+    private final long debounceInMilliseconds;
+    private final int maxCacheEntries;
+    // With accessOrder set to true, iteration starts at the least recently used entry.
+    private final LinkedHashMap<String, List<R>> cache;
+
+    private Cancellable scheduledQuery;
+    private Cancellable inFlightRequest;
+    private long latestSequenceNumber = 0;
+
+    private int issuedCount = 0;
+    private int cancelledCount = 0;
+    private int cachedCount = 0;
+    private int debouncedCount = 0;
+    private int staleCount = 0;
+
+    public AutosuggestController(SuggestEngine<E, R> suggestEngine,
+                                 Scheduler scheduler,
+                                 Listener<E, R> listener,
+                                 long debounceInMilliseconds,
+                                 int maxCacheEntries) {
+        this.suggestEngine = suggestEngine;
+        this.scheduler = scheduler;
+        this.listener = listener;
+        this.debounceInMilliseconds = debounceInMilliseconds;
+        this.maxCacheEntries = maxCacheEntries;
+        this.cache = new LinkedHashMap<String, List<R>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<R>> eldest) {
+                return size() > AutosuggestController.this.maxCacheEntries;
+            }
+        };
+    }
+
+    // Call this for each change of the typed text.
+    public void onQueryChanged(String text) {
+        final String query = normalize(text);
+
+        if (scheduledQuery != null) {
+            // The previous text was replaced before it was requested.
+            scheduledQuery.cancel();
+            scheduledQuery = null;
+            debouncedCount++;
+        }
+
+        // Any running request belongs to an older text now.
+        cancelInFlightRequest();
+        final long sequenceNumber = ++latestSequenceNumber;
+
+        if (query.isEmpty()) {
+            return;
+        }
+
+        List<R> cachedResults = cache.get(query);
+        if (cachedResults != null) {
+            cachedCount++;
+            listener.onSuggestions(query, cachedResults, true);
+            return;
+        }
+
+        scheduledQuery = scheduler.schedule(() -> {
+            scheduledQuery = null;
+            issue(query, sequenceNumber);
+        }, debounceInMilliseconds);
+    }
+
+    // Cancels everything that is pending, for example, when the search UI is closed.
+    public void cancel() {
+        if (scheduledQuery != null) {
+            scheduledQuery.cancel();
+            scheduledQuery = null;
+        }
+        cancelInFlightRequest();
+        latestSequenceNumber++;
+    }
+
+    // The cached results depend on the search area, so the cache should be cleared when the area changes.
+    public void clearCache() {
+        cache.clear();
+    }
+
+    private void issue(final String query, final long sequenceNumber) {
+        issuedCount++;
+        final boolean[] isCompleted = {false};
+        Cancellable request = suggestEngine.suggest(query, (error, results) -> {
+            isCompleted[0] = true;
+            if (sequenceNumber != latestSequenceNumber) {
+                // A reply for a cancelled or older query, for example, when the engine could not cancel it in time.
+                staleCount++;
+                return;
+            }
+            inFlightRequest = null;
+
+            if (error != null) {
+                listener.onError(query, error);
+                return;
+            }
+
+            List<R> unmodifiableResults = results == null
+                    ? Collections.<R>emptyList()
+                    : Collections.unmodifiableList(results);
+            if (maxCacheEntries > 0) {
+                cache.put(query, unmodifiableResults);
+            }
+            listener.onSuggestions(query, unmodifiableResults, false);
+        });
+
+        // The engine may have replied synchronously, for example, from an offline index.
+        if (!isCompleted[0]) {
+            inFlightRequest = request;
+        }
+    }
+
+    private void cancelInFlightRequest() {
+        if (inFlightRequest != null) {
+            inFlightRequest.cancel();
+            inFlightRequest = null;
+            cancelledCount++;
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // The number of requests that were sent to the engine.
+    public int getIssuedCount() {
+        return issuedCount;
+    }
+
+    // The number of running requests that were cancelled, because a newer query was issued.
+    public int getCancelledCount() {
+        return cancelledCount;
+    }
+
+    // The number of queries that were answered from the cache.
+    public int getCachedCount() {
+        return cachedCount;
+    }
+
+    // The number of queries that were replaced by a newer text before they were requested.
+    public int getDebouncedCount() {
+        return debouncedCount;
+    }
+
+    // The number of replies that were dropped, because they belonged to an older query.
+    public int getStaleCount() {
+        return staleCount;
+    }
+
+    @Override
+    public String toString() {
+        return "AutosuggestController{issued=" + issuedCount
+                + ", cancelled=" + cancelledCount
+                + ", cached=" + cachedCount
+                + ", debounced=" + debouncedCount
+                + ", stale=" + staleCount + "}";
+    }
+}
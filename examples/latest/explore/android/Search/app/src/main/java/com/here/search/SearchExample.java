@@ -20,6 +20,8 @@
 package com.here.search;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.widget.Toast;
 
@@ -35,6 +37,7 @@ import com.here.sdk.core.LanguageCode;
 import com.here.sdk.core.Metadata;
 import com.here.sdk.core.Point2D;
 import com.here.sdk.core.errors.InstantiationErrorException;
+import com.here.sdk.core.threading.TaskHandle;
 import com.here.sdk.gestures.GestureState;
 import com.here.sdk.mapview.MapCamera;
 import com.here.sdk.mapview.MapImage;
@@ -61,12 +64,16 @@ import java.util.List;
 public class SearchExample {
 
     private static final String LOG_TAG = SearchExample.class.getName();
+    private static final long AUTOSUGGEST_DEBOUNCE_IN_MILLISECONDS = 250;
+    private static final int AUTOSUGGEST_MAX_CACHE_ENTRIES = 32;
 
     private final Context context;
     private final MapView mapView;
     private final MapCamera camera;
     private final List<MapMarker> mapMarkerList = new ArrayList<>();
     private SearchEngine searchEngine;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final AutosuggestController<SearchError, Suggestion> autosuggestController;
 
     public SearchExample(Context context, MapView mapView) {
         this.context = context;
@@ -82,6 +89,8 @@ public class SearchExample {
             throw new RuntimeException("Initialization of SearchEngine failed: " + e.error.name());
         }
 
+        autosuggestController = createAutosuggestController();
+
         setTapGestureHandler();
         setLongPressGestureHandler();
 
@@ -246,16 +255,40 @@ public class SearchExample {
         }
     }
 
-    private final SuggestCallback autosuggestCallback = new SuggestCallback() {
-        @Override
-        public void onSuggestCompleted(@Nullable SearchError searchError, @Nullable List<Suggestion> list) {
-            if (searchError != null) {
-                Log.d(LOG_TAG, "Autosuggest Error: " + searchError.name());
-                return;
-            }
+    // Coalesces the queries of a user typing a search term. Only the latest text is requested,
+    // running requests for older texts are cancelled and late replies are ignored.
+    private AutosuggestController<SearchError, Suggestion> createAutosuggestController() {
+        AutosuggestController.SuggestEngine<SearchError, Suggestion> suggestEngine = (query, callback) -> {
+            SearchOptions searchOptions = new SearchOptions();
+            searchOptions.languageCode = LanguageCode.EN_US;
+            searchOptions.maxItems = 5;
+
+            TextQuery.Area queryArea = new TextQuery.Area(getMapViewCenter());
+            TaskHandle taskHandle = searchEngine.suggest(new TextQuery(query, queryArea), searchOptions,
+                    new SuggestCallback() {
+                        @Override
+                        public void onSuggestCompleted(@Nullable SearchError searchError, @Nullable List<Suggestion> list) {
+                            callback.onSuggestCompleted(searchError, list);
+                        }
+                    });
+            return taskHandle::cancel;
+        };
+
+        AutosuggestController.Scheduler scheduler = (task, delayInMilliseconds) -> {
+            handler.postDelayed(task, delayInMilliseconds);
+            return () -> handler.removeCallbacks(task);
+        };
+
+        return new AutosuggestController<>(suggestEngine, scheduler, autosuggestListener,
+                AUTOSUGGEST_DEBOUNCE_IN_MILLISECONDS, AUTOSUGGEST_MAX_CACHE_ENTRIES);
+    }
 
-            // If error is null, list is guaranteed to be not empty.
-            Log.d(LOG_TAG, "Autosuggest results: " + list.size());
+    private final AutosuggestController.Listener<SearchError, Suggestion> autosuggestListener =
+            new AutosuggestController.Listener<SearchError, Suggestion>() {
+        @Override
+        public void onSuggestions(String query, List<Suggestion> list, boolean isFromCache) {
+            Log.d(LOG_TAG, "Autosuggest results for '" + query + "': " + list.size()
+                    + (isFromCache ? " (cached)" : "") + ". " + autosuggestController);
 
             for (Suggestion autosuggestResult : list) {
                 String addressText = "Not a place.";
@@ -268,35 +301,22 @@ public class SearchExample {
                         " addressText: " + addressText);
             }
         }
+
+        @Override
+        public void onError(String query, SearchError searchError) {
+            Log.d(LOG_TAG, "Autosuggest Error: " + searchError.name());
+        }
     };
 
     private void autoSuggestExample() {
-        GeoCoordinates centerGeoCoordinates = getMapViewCenter();
-
-        SearchOptions searchOptions = new SearchOptions();
-        searchOptions.languageCode = LanguageCode.EN_US;
-        searchOptions.maxItems = 5;
-
-        TextQuery.Area queryArea = new TextQuery.Area(centerGeoCoordinates);
-
-        // Simulate a user typing a search term.
-        searchEngine.suggest(
-                new TextQuery("p", // User typed "p".
-                        queryArea),
-                searchOptions,
-                autosuggestCallback);
-
-        searchEngine.suggest(
-                new TextQuery("pi", // User typed "pi".
-                        queryArea),
-                searchOptions,
-                autosuggestCallback);
-
-        searchEngine.suggest(
-                new TextQuery("piz", // User typed "piz".
-                        queryArea),
-                searchOptions,
-                autosuggestCallback);
+        // The results depend on the map center, which may have changed since the last search.
+        autosuggestController.clearCache();
+
+        // Simulate a user typing a search term. As the text changes faster than the debounce
+        // interval, only one request for "piz" is sent.
+        autosuggestController.onQueryChanged("p"); // User typed "p".
+        autosuggestController.onQueryChanged("pi"); // User typed "pi".
+        autosuggestController.onQueryChanged("piz"); // User typed "piz".
     }
 
     private void geocodeAddressAtLocation(String queryString, GeoCoordinates geoCoordinates) {
@@ -0,0 +1,290 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+public class AutosuggestControllerTest {
+
+    private static final long DEBOUNCE = 300;
+
+    // A virtual clock that runs scheduled tasks only when the test advances the time.
+    private static class VirtualClock implements AutosuggestController.Scheduler {
+        private static class ScheduledTask {
+            final Runnable task;
+            final long dueTime;
+            boolean isCancelled;
+
+            ScheduledTask(Runnable task, long dueTime) {
+                this.task = task;
+                this.dueTime = dueTime;
+            }
+        }
+
+        private final List<ScheduledTask> scheduledTasks = new ArrayList<>();
+        private long now = 0;
+
+        @Override
+        public AutosuggestController.Cancellable schedule(Runnable task, long delayInMilliseconds) {
+            ScheduledTask scheduledTask = new ScheduledTask(task, now + delayInMilliseconds);
+            scheduledTasks.add(scheduledTask);
+            return () -> scheduledTask.isCancelled = true;
+        }
+
+        void advanceBy(long milliseconds) {
+            now += milliseconds;
+            Iterator<ScheduledTask> iterator = scheduledTasks.iterator();
+            List<ScheduledTask> dueTasks = new ArrayList<>();
+            while (iterator.hasNext()) {
+                ScheduledTask scheduledTask = iterator.next();
+                if (scheduledTask.isCancelled) {
+                    iterator.remove();
+                } else if (scheduledTask.dueTime <= now) {
+                    iterator.remove();
+                    dueTasks.add(scheduledTask);
+                }
+            }
+            for (ScheduledTask dueTask : dueTasks) {
+                dueTask.task.run();
+            }
+        }
+    }
+
+    // Keeps all requests, so that the test decides when and in which order they complete.
+    private static class FakeEngine implements AutosuggestController.SuggestEngine<String, String> {
+        static class Request {
+            final String query;
+            final AutosuggestController.SuggestCallback<String, String> callback;
+            boolean isCancelled;
+
+            Request(String query, AutosuggestController.SuggestCallback<String, String> callback) {
+                this.query = query;
+                this.callback = callback;
+            }
+
+            void complete() {
+                callback.onSuggestCompleted(null, Collections.singletonList(query + " result"));
+            }
+
+            void fail(String error) {
+                callback.onSuggestCompleted(error, null);
+            }
+        }
+
+        final List<Request> requests = new ArrayList<>();
+        boolean repliesSynchronously = false;
+
+        @Override
+        public AutosuggestController.Cancellable suggest(String query,
+                                                         AutosuggestController.SuggestCallback<String, String> callback) {
+            Request request = new Request(query, callback);
+            requests.add(request);
+            if (repliesSynchronously) {
+                request.complete();
+            }
+            return () -> request.isCancelled = true;
+        }
+    }
+
+    private static class RecordingListener implements AutosuggestController.Listener<String, String> {
+        final List<String> delivered = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+
+        @Override
+        public void onSuggestions(String query, List<String> results, boolean isFromCache) {
+            delivered.add(query + (isFromCache ? " (cached)" : "") + " -> " + results);
+        }
+
+        @Override
+        public void onError(String query, String error) {
+            errors.add(query + " -> " + error);
+        }
+    }
+
+    private VirtualClock clock;
+    private FakeEngine engine;
+    private RecordingListener listener;
+    private AutosuggestController<String, String> controller;
+
+    @Before
+    public void setUp() {
+        clock = new VirtualClock();
+        engine = new FakeEngine();
+        listener = new RecordingListener();
+        controller = new AutosuggestController<>(engine, clock, listener, DEBOUNCE, 2);
+    }
+
+    @Test
+    public void fastTypingIsCoalescedIntoOneRequest() {
+        controller.onQueryChanged("p");
+        clock.advanceBy(100);
+        controller.onQueryChanged("pi");
+        clock.advanceBy(100);
+        controller.onQueryChanged("piz");
+        clock.advanceBy(DEBOUNCE - 1);
+        assertTrue(engine.requests.isEmpty());
+
+        clock.advanceBy(1);
+        assertEquals(1, engine.requests.size());
+        assertEquals("piz", engine.requests.get(0).query);
+        assertEquals(1, controller.getIssuedCount());
+        assertEquals(2, controller.getDebouncedCount());
+
+        engine.requests.get(0).complete();
+        assertEquals(Collections.singletonList("piz -> [piz result]"), listener.delivered);
+    }
+
+    @Test
+    public void runningRequestIsCancelledByNewerQuery() {
+        controller.onQueryChanged("pi");
+        clock.advanceBy(DEBOUNCE);
+        controller.onQueryChanged("piz");
+
+        assertTrue(engine.requests.get(0).isCancelled);
+        assertEquals(1, controller.getCancelledCount());
+
+        clock.advanceBy(DEBOUNCE);
+        assertEquals(2, engine.requests.size());
+        assertFalse(engine.requests.get(1).isCancelled);
+    }
+
+    @Test
+    public void staleReplyCannotOverwriteNewerResults() {
+        controller.onQueryChanged("pi");
+        clock.advanceBy(DEBOUNCE);
+        controller.onQueryChanged("piz");
+        clock.advanceBy(DEBOUNCE);
+
+        // The newer request completes first, then the engine replies to the cancelled one anyway.
+        engine.requests.get(1).complete();
+        engine.requests.get(0).complete();
+
+        assertEquals(Collections.singletonList("piz -> [piz result]"), listener.delivered);
+        assertEquals(1, controller.getStaleCount());
+    }
+
+    @Test
+    public void repeatedQueryIsAnsweredFromCache() {
+        controller.onQueryChanged("pi");
+        clock.advanceBy(DEBOUNCE);
+        engine.requests.get(0).complete();
+        controller.onQueryChanged("piz");
+        clock.advanceBy(DEBOUNCE);
+        engine.requests.get(1).complete();
+
+        // The user deletes the last character.
+        controller.onQueryChanged("PI ");
+
+        assertEquals(2, engine.requests.size());
+        assertEquals(1, controller.getCachedCount());
+        assertEquals("pi (cached) -> [pi result]", listener.delivered.get(2));
+    }
+
+    @Test
+    public void cacheIsBoundedAndEvictsLeastRecentlyUsedQuery() {
+        for (String query : new String[]{"a", "b", "c"}) {
+            controller.onQueryChanged(query);
+            clock.advanceBy(DEBOUNCE);
+            engine.requests.get(engine.requests.size() - 1).complete();
+        }
+
+        controller.onQueryChanged("c");
+        controller.onQueryChanged("b");
+        assertEquals(2, controller.getCachedCount());
+
+        // "a" was evicted, so it needs a new request.
+        controller.onQueryChanged("a");
+        clock.advanceBy(DEBOUNCE);
+        assertEquals(4, engine.requests.size());
+    }
+
+    @Test
+    public void clearedCacheRequestsAgain() {
+        controller.onQueryChanged("pi");
+        clock.advanceBy(DEBOUNCE);
+        engine.requests.get(0).complete();
+
+        controller.clearCache();
+        controller.onQueryChanged("pi");
+        clock.advanceBy(DEBOUNCE);
+
+        assertEquals(2, engine.requests.size());
+        assertEquals(0, controller.getCachedCount());
+    }
+
+    @Test
+    public void errorsAreReportedAndNotCached() {
+        controller.onQueryChanged("pi");
+        clock.advanceBy(DEBOUNCE);
+        engine.requests.get(0).fail("OFFLINE");
+
+        assertEquals(Collections.singletonList("pi -> OFFLINE"), listener.errors);
+
+        controller.onQueryChanged("pi");
+        clock.advanceBy(DEBOUNCE);
+        assertEquals(2, engine.requests.size());
+    }
+
+    @Test
+    public void emptyTextCancelsPendingWork() {
+        controller.onQueryChanged("pi");
+        clock.advanceBy(DEBOUNCE);
+        controller.onQueryChanged("piz");
+        controller.onQueryChanged("");
+        clock.advanceBy(DEBOUNCE);
+
+        assertEquals(1, engine.requests.size());
+        assertTrue(engine.requests.get(0).isCancelled);
+        assertTrue(listener.delivered.isEmpty());
+    }
+
+    @Test
+    public void cancelDropsLateReplies() {
+        controller.onQueryChanged("pi");
+        clock.advanceBy(DEBOUNCE);
+        controller.cancel();
+        engine.requests.get(0).complete();
+
+        assertTrue(listener.delivered.isEmpty());
+        assertEquals(1, controller.getCancelledCount());
+        assertEquals(1, controller.getStaleCount());
+    }
+
+    @Test
+    public void synchronousReplyIsNotCountedAsCancelled() {
+        engine.repliesSynchronously = true;
+        controller.onQueryChanged("pi");
+        clock.advanceBy(DEBOUNCE);
+        controller.onQueryChanged("piz");
+
+        assertEquals(0, controller.getCancelledCount());
+        assertEquals("pi -> [pi result]", listener.delivered.get(0));
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.sdk.examples.shared;
+
+import com.here.sdk.routing.Waypoint;
+
+// Reads the properties of a HERE SDK Waypoint for the RouteCache, so that the example apps that cache
+// routes do not need their own accessor. It is kept apart from the RouteCache, which does not depend
+// on the HERE SDK.
+public class HEREWaypointAccessor implements RouteCache.WaypointAccessor<Waypoint> {
+
+    @Override
+    public double getLatitude(Waypoint waypoint) {
+        return waypoint.coordinates.latitude;
+    }
+
+    @Override
+    public double getLongitude(Waypoint waypoint) {
+        return waypoint.coordinates.longitude;
+    }
+
+    @Override
+    public Double getHeadingInDegrees(Waypoint waypoint) {
+        return waypoint.headingInDegrees;
+    }
+
+    @Override
+    public Object getType(Waypoint waypoint) {
+        return waypoint.type;
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.sdk.examples.shared;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// A bounded cache for route results that sits in front of a routing engine.
+// When the same start, destination and options are requested again, the cached result is
+// returned without a new calculation:
+// - Waypoints are quantized to COORDINATE_PRECISION_IN_DEGREES, so that taps that are only
+//   a few meters apart result in the same key. Their heading and type are compared as they are.
+// - The options are part of the key and are compared with equals(). Options of a different
+//   class, for example, TruckOptions instead of CarOptions, never match. The options instance is kept
+//   in the key, so it must not be changed after it was passed to calculateRoute().
+// - Results expire after a time-to-live, as routes of an online engine depend on the current traffic.
+// - The least recently used entry is evicted when the cache is full.
+// - Identical requests that are issued while a calculation is running, wait for the same result.
+// Errors are not cached. The class does not depend on Android or the HERE SDK. All methods and callbacks
+// are expected to be called on the same thread, for example, the main thread.
+public class RouteCache<W, O, R, E> {
+
+    // About 11 meters in latitude direction.
+    public static final double COORDINATE_PRECISION_IN_DEGREES = 0.0001;
+
+    // Reads the properties of a waypoint that change the calculated route.
+    public interface WaypointAccessor<W> {
+        double getLatitude(W waypoint);
+
+        double getLongitude(W waypoint);
+
+        // Can be null, if no heading is set.
+        Double getHeadingInDegrees(W waypoint);
+
+        // For example, the WaypointType. Compared with equals().
+        Object getType(W waypoint);
+    }
+
+    public interface Callback<R, E> {
+        void onRouteCalculated(E error, R routes);
+    }
+
+    // Starts the actual calculation, for example, with RoutingInterface.calculateRoute().
+    public interface Engine<W, O, R, E> {
+        void calculateRoute(List<W> waypoints, O options, Callback<R, E> callback);
+    }
+
+    public interface Clock {
+        long getTimeInMilliseconds();
+    }
+
+    private static final class Key {
+        private final long[] quantizedCoordinates;
+        // The heading and the type of each waypoint.
+        private final Object[] waypointAttributes;
+        private final Object options;
+        private final int hashCode;
+
+        Key(long[] quantizedCoordinates, Object[] waypointAttributes, Object options) {
+            this.quantizedCoordinates = quantizedCoordinates;
+            this.waypointAttributes = waypointAttributes;
+            this.options = options;
+            this.hashCode = 31 * (31 * Arrays.hashCode(quantizedCoordinates) + Arrays.hashCode(waypointAttributes))
+                    + Objects.hashCode(options);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return hashCode == key.hashCode
+                    && Arrays.equals(quantizedCoordinates, key.quantizedCoordinates)
+                    && Arrays.equals(waypointAttributes, key.waypointAttributes)
+                    && haveSameClass(options, key.options)
+                    && Objects.equals(options, key.options);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        private static boolean haveSameClass(Object first, Object second) {
+            return first == null || second == null ? first == second : first.getClass() == second.getClass();
+        }
+    }
+
+    private static final class Entry<R> {
+        final R routes;
+        final long expirationTimeInMilliseconds;
+
+        Entry(R routes, long expirationTimeInMilliseconds) {
+            this.routes = routes;
+            this.expirationTimeInMilliseconds = expirationTimeInMilliseconds;
+        }
+    }
+
+    private final Engine<W, O, R, E> engine;
+    private final WaypointAccessor<W> waypointAccessor;
+    private final int maxEntries;
+    private final long timeToLiveInMilliseconds;
+    private final Clock clock;
+    // With accessOrder set to true, iteration starts at the least recently used entry.
+    private final LinkedHashMap<Key, Entry<R>> cache;
+    private final Map<Key, List<Callback<R, E>>> pendingCallbacks = new HashMap<>();
+
+    private int hitCount = 0;
+    private int missCount = 0;
+    private int expiredCount = 0;
+    private int evictionCount = 0;
+    private int coalescedCount = 0;
+
+    public RouteCache(Engine<W, O, R, E> engine,
+                      WaypointAccessor<W> waypointAccessor,
+                      int maxEntries,
+                      long timeToLiveInMilliseconds) {
+        this(engine, waypointAccessor, maxEntries, timeToLiveInMilliseconds,
+                () -> System.nanoTime() / 1000000);
+    }
+
+    public RouteCache(Engine<W, O, R, E> engine,
+                      WaypointAccessor<W> waypointAccessor,
+                      int maxEntries,
+                      long timeToLiveInMilliseconds,
+                      Clock clock) {
+        this.engine = engine;
+        this.waypointAccessor = waypointAccessor;
+        this.maxEntries = maxEntries;
+        this.timeToLiveInMilliseconds = timeToLiveInMilliseconds;
+        this.clock = clock;
+        this.cache = new LinkedHashMap<Key, Entry<R>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry<R>> eldest) {
+                if (size() > RouteCache.this.maxEntries) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public void calculateRoute(List<W> waypoints, O options, Callback<R, E> callback) {
+        final Key key = createKey(waypoints, options);
+
+        Entry<R> entry = cache.get(key);
+        if (entry != null) {
+            if (clock.getTimeInMilliseconds() < entry.expirationTimeInMilliseconds) {
+                hitCount++;
+                callback.onRouteCalculated(null, entry.routes);
+                return;
+            }
+            cache.remove(key);
+            expiredCount++;
+        }
+
+        List<Callback<R, E>> callbacks = pendingCallbacks.get(key);
+        if (callbacks != null) {
+            // The same route is already being calculated.
+            coalescedCount++;
+            callbacks.add(callback);
+            return;
+        }
+
+        missCount++;
+        callbacks = new ArrayList<>();
+        callbacks.add(callback);
+        pendingCallbacks.put(key, callbacks);
+
+        engine.calculateRoute(waypoints, options, (error, routes) -> {
+            List<Callback<R, E>> waitingCallbacks = pendingCallbacks.remove(key);
+            if (error == null && maxEntries > 0) {
+                cache.put(key, new Entry<>(routes, clock.getTimeInMilliseconds() + timeToLiveInMilliseconds));
+            }
+            for (Callback<R, E> waitingCallback : waitingCallbacks) {
+                waitingCallback.onRouteCalculated(error, routes);
+            }
+        });
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private Key createKey(List<W> waypoints, O options) {
+        long[] quantizedCoordinates = new long[waypoints.size() * 2];
+        Object[] waypointAttributes = new Object[waypoints.size() * 2];
+        for (int i = 0; i < waypoints.size(); i++) {
+            W waypoint = waypoints.get(i);
+            quantizedCoordinates[2 * i] =
+                    Math.round(waypointAccessor.getLatitude(waypoint) / COORDINATE_PRECISION_IN_DEGREES);
+            quantizedCoordinates[2 * i + 1] =
+                    Math.round(waypointAccessor.getLongitude(waypoint) / COORDINATE_PRECISION_IN_DEGREES);
+            waypointAttributes[2 * i] = waypointAccessor.getHeadingInDegrees(waypoint);
+            waypointAttributes[2 * i + 1] = waypointAccessor.getType(waypoint);
+        }
+        return new Key(quantizedCoordinates, waypointAttributes, options);
+    }
+
+    // The number of requests that were answered from the cache.
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    // The number of requests that were sent to the engine.
+    public int getMissCount() {
+        return missCount;
+    }
+
+    // The number of cached results that were dropped, because their time-to-live had passed.
+    public int getExpiredCount() {
+        return expiredCount;
+    }
+
+    // The number of cached results that were dropped to make room for newer results.
+    public int getEvictionCount() {
+        return evictionCount;
+    }
+
+    // The number of requests that waited for an identical request that was already running.
+    public int getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteCache{hits=" + hitCount
+                + ", misses=" + missCount
+                + ", expired=" + expiredCount
+                + ", evicted=" + evictionCount
+                + ", coalesced=" + coalescedCount + "}";
+    }
+}
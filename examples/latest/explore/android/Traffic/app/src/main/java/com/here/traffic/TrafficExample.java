@@ -63,6 +63,7 @@ public class TrafficExample {
     private final TrafficEngine trafficEngine;
     // Visualizes traffic incidents found with the TrafficEngine.
     private final List<MapPolyline> mapPolylines = new ArrayList<>();
+    private PolylineSpatialIndex<TrafficIncident> trafficIncidentIndex;
 
     public TrafficExample(Context context, MapView mapView) {
         this.context = context;
@@ -204,8 +205,9 @@ public class TrafficExample {
                 if (trafficQueryError == null) {
                     // If error is null, it is guaranteed that the list will not be null.
                     String trafficMessage = "Found " + trafficIncidentsList.size() + " result(s).";
-                    TrafficIncident nearestIncident =
-                            getNearestTrafficIncident(centerCoords, trafficIncidentsList);
+                    // The index is built once per result and can be reused for further lookups.
+                    trafficIncidentIndex = createTrafficIncidentIndex(trafficIncidentsList);
+                    TrafficIncident nearestIncident = getNearestTrafficIncident(centerCoords);
                     if (nearestIncident != null) {
                         trafficMessage += " Nearest incident: " + nearestIncident.getDescription().text;
                     }
@@ -220,29 +222,46 @@ public class TrafficExample {
         });
     }
 
-    @Nullable
-    private TrafficIncident getNearestTrafficIncident(GeoCoordinates currentGeoCoords,
-                                                      List<TrafficIncident> trafficIncidentsList) {
-        if (trafficIncidentsList.size() == 0) {
-            return null;
-        }
+    private PolylineSpatialIndex<TrafficIncident> createTrafficIncidentIndex(List<TrafficIncident> trafficIncidentsList) {
+        long startTime = System.nanoTime();
+        PolylineSpatialIndex.Builder<TrafficIncident, GeoCoordinates> builder =
+                new PolylineSpatialIndex.Builder<>(new PolylineSpatialIndex.CoordinatesAccessor<GeoCoordinates>() {
+                    @Override
+                    public double getLatitude(GeoCoordinates geoCoordinates) {
+                        return geoCoordinates.latitude;
+                    }
 
-        // By default, traffic incidents results are not sorted by distance.
-        double nearestDistance = Double.MAX_VALUE;
-        TrafficIncident nearestTrafficIncident = null;
+                    @Override
+                    public double getLongitude(GeoCoordinates geoCoordinates) {
+                        return geoCoordinates.longitude;
+                    }
+                });
         for (TrafficIncident trafficIncident : trafficIncidentsList) {
             // In case lengthInMeters == 0 then the polyline consistes of two equal coordinates.
             // It is guaranteed that each incident has a valid polyline.
-            for (GeoCoordinates geoCoords : trafficIncident.getLocation().polyline.vertices) {
-                double currentDistance = currentGeoCoords.distanceTo(geoCoords);
-                if (currentDistance < nearestDistance) {
-                    nearestDistance = currentDistance;
-                    nearestTrafficIncident = trafficIncident;
-                }
-            }
+            builder.add(trafficIncident, trafficIncident.getLocation().polyline.vertices);
         }
+        PolylineSpatialIndex<TrafficIncident> index = builder.build();
+        Log.d(TAG, "Indexed " + index.getSegmentCount() + " segments of " + index.getItemCount()
+                + " incidents in " + (System.nanoTime() - startTime) / 1000 + " us.");
+        return index;
+    }
 
-        return nearestTrafficIncident;
+    // By default, traffic incidents results are not sorted by distance.
+    // Returns the incident with the polyline segment that is closest to the given coordinates.
+    @Nullable
+    private TrafficIncident getNearestTrafficIncident(GeoCoordinates currentGeoCoords) {
+        if (trafficIncidentIndex == null) {
+            return null;
+        }
+
+        PolylineSpatialIndex.Nearest<TrafficIncident> nearest =
+                trafficIncidentIndex.findNearest(currentGeoCoords.latitude, currentGeoCoords.longitude);
+        if (nearest == null) {
+            return null;
+        }
+        Log.d(TAG, "Nearest incident is " + (int) nearest.distanceInMeters + " m away.");
+        return nearest.item;
     }
 
     private void clearTrafficIncidentsMapPolylines() {
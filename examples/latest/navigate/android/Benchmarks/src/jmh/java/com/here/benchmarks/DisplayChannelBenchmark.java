@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.benchmarks;
+
+import com.here.multidisplays.CameraFrame;
+import com.here.multidisplays.DisplayChannel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Measures sending camera frames from one display to the other in the MultiDisplays app.
+// The subscriber runs on its own thread, like the main thread of the receiving activity.
+// - Latency: the time from publishing a frame until the subscriber has received it, with the
+//   DisplayChannel versus posting a new frame object for each update to the subscriber thread.
+//   The former broadcast additionally pays Binder and Bundle costs, which need a device to measure.
+// - Throughput: how many frames can be published per microsecond. The subscriber only receives
+//   the latest frame, so a fast publisher does not build up a backlog.
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DisplayChannelBenchmark {
+
+    private static final String TOPIC = "secondary";
+
+    private ExecutorService subscriberThread;
+    private DisplayChannel channel;
+    private final CameraFrame frame = new CameraFrame();
+    private volatile long lastReceivedSequenceNumber = -1;
+    private long nextQueuedSequenceNumber = 0;
+
+    @Setup
+    public void setup() {
+        subscriberThread = Executors.newSingleThreadExecutor();
+        channel = new DisplayChannel(null);
+        channel.subscribe(TOPIC, subscriberThread,
+                receivedFrame -> lastReceivedSequenceNumber = receivedFrame.sequenceNumber);
+    }
+
+    @TearDown
+    public void tearDown() {
+        subscriberThread.shutdownNow();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public long latencyChannel() {
+        channel.publish(TOPIC, frame.set(52.5, 13.4, 90, 5000, System.currentTimeMillis()));
+        long sequenceNumber = frame.sequenceNumber;
+        while (lastReceivedSequenceNumber < sequenceNumber) {
+            // Busy waiting keeps the measured latency free of the wake-up time of this thread.
+        }
+        return sequenceNumber;
+    }
+
+    // A new frame object and task per update, like a message queue without coalescing.
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public long latencyQueued() {
+        final CameraFrame queuedFrame = new CameraFrame().set(52.5, 13.4, 90, 5000, System.currentTimeMillis());
+        queuedFrame.sequenceNumber = nextQueuedSequenceNumber++;
+        subscriberThread.execute(() -> lastReceivedSequenceNumber = queuedFrame.sequenceNumber);
+        while (lastReceivedSequenceNumber < queuedFrame.sequenceNumber) {
+            // Busy waiting, same as above.
+        }
+        return queuedFrame.sequenceNumber;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public long throughputChannel() {
+        channel.publish(TOPIC, frame.set(52.5, 13.4, 90, 5000, 0));
+        return frame.sequenceNumber;
+    }
+}
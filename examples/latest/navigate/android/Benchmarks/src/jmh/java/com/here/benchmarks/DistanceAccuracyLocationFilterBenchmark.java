@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.benchmarks;
+
+import com.here.hikingdiary.locationfilter.DistanceAccuracyLocationFilter;
+import com.here.sdk.core.GeoCoordinates;
+import com.here.sdk.core.Location;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Measures DistanceAccuracyLocationFilter.checkIfLocationCanBeUsed() for a stream of locations
+// with mixed accuracy, as it is called for every location update of the HikingDiary app.
+// Note that GeoCoordinates.distanceTo() is implemented natively in the HERE SDK. With the
+// mock JAR it does not calculate a distance, so the numbers show the overhead of the filter itself.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DistanceAccuracyLocationFilterBenchmark {
+
+    private static final int NUMBER_OF_LOCATIONS = 1024;
+
+    private Location[] locations;
+    private DistanceAccuracyLocationFilter locationFilter;
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        locations = new Location[NUMBER_OF_LOCATIONS];
+        double latitude = 52.530932;
+        double longitude = 13.384915;
+        for (int i = 0; i < NUMBER_OF_LOCATIONS; i++) {
+            Location location = new Location(new GeoCoordinates(latitude, longitude));
+            // Every 8th location has no accuracy information, the others range from 0 to 20 m.
+            location.horizontalAccuracyInMeters = i % 8 == 0 ? null : random.nextDouble() * 20;
+            locations[i] = location;
+            latitude += (random.nextDouble() - 0.3) * 0.0002;
+            longitude += (random.nextDouble() - 0.3) * 0.0002;
+        }
+        locationFilter = new DistanceAccuracyLocationFilter();
+    }
+
+    @Benchmark
+    public boolean checkIfLocationCanBeUsed() {
+        index = (index + 1) % NUMBER_OF_LOCATIONS;
+        return locationFilter.checkIfLocationCanBeUsed(locations[index]);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.benchmarks;
+
+import com.here.evrouting.EVVehicleProfile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Compares consumption lookups for the EVRouting app in lookups per second:
+// Building the speed table as a fresh HashMap for each request, like getEVCarOptions() did before,
+// and interpolating with a scan over its entries, versus scanning a HashMap that is built once,
+// versus the sorted arrays of an EVVehicleProfile that are searched with a binary search.
+// The table has 4 entries like the example profile, or 64 entries for a detailed profile.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EVVehicleProfileBenchmark {
+
+    private static final int NUMBER_OF_SPEEDS = 1024;
+
+    @Param({"4", "64"})
+    public int tableSize;
+
+    private int[] tableSpeeds;
+    private double[] tableConsumptions;
+    private Map<Integer, Double> sharedTable;
+    private EVVehicleProfile profile;
+    private double[] speeds;
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(tableSize);
+        tableSpeeds = new int[tableSize];
+        tableConsumptions = new double[tableSize];
+        EVVehicleProfile.Builder builder = new EVVehicleProfile.Builder()
+                .setTotalCapacityInKilowattHours(80)
+                .addChargingPower(0, 239);
+        for (int i = 0; i < tableSize; i++) {
+            tableSpeeds[i] = i * 200 / tableSize;
+            tableConsumptions[i] = 0.15 + random.nextDouble() * 0.1;
+            builder.addConsumption(tableSpeeds[i], tableConsumptions[i]);
+        }
+        profile = builder.build();
+        sharedTable = buildTable();
+
+        speeds = new double[NUMBER_OF_SPEEDS];
+        for (int i = 0; i < NUMBER_OF_SPEEDS; i++) {
+            speeds[i] = random.nextDouble() * 210;
+        }
+    }
+
+    private Map<Integer, Double> buildTable() {
+        Map<Integer, Double> table = new HashMap<>();
+        for (int i = 0; i < tableSize; i++) {
+            table.put(tableSpeeds[i], tableConsumptions[i]);
+        }
+        return table;
+    }
+
+    private static double interpolateByScan(Map<Integer, Double> table, double speed) {
+        Map.Entry<Integer, Double> lower = null;
+        Map.Entry<Integer, Double> upper = null;
+        for (Map.Entry<Integer, Double> entry : table.entrySet()) {
+            int key = entry.getKey();
+            if (key <= speed && (lower == null || key > lower.getKey())) {
+                lower = entry;
+            }
+            if (key >= speed && (upper == null || key < upper.getKey())) {
+                upper = entry;
+            }
+        }
+        if (lower == null) {
+            return upper.getValue();
+        }
+        if (upper == null || upper.getKey().equals(lower.getKey())) {
+            return lower.getValue();
+        }
+        return lower.getValue() + (upper.getValue() - lower.getValue())
+                * (speed - lower.getKey()) / (upper.getKey() - lower.getKey());
+    }
+
+    private double nextSpeed() {
+        index = (index + 1) & (NUMBER_OF_SPEEDS - 1);
+        return speeds[index];
+    }
+
+    @Benchmark
+    public double rebuildAndScan() {
+        return interpolateByScan(buildTable(), nextSpeed());
+    }
+
+    @Benchmark
+    public double sharedMapScan() {
+        return interpolateByScan(sharedTable, nextSpeed());
+    }
+
+    @Benchmark
+    public double profileBinarySearch() {
+        return profile.getConsumptionInWattHoursPerMeter(nextSpeed());
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2022-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.benchmarks;
+
+import com.here.hikingdiary.GPXTrackJournal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Compares the save and delete latency of the HikingDiary GPX track storage for a growing number
+// of stored tracks. Before, GPXManager rewrote the whole GPXDocument for each save and delete.
+// GPXDocument.save() is native, so the old strategy is modeled by writing all track payloads into
+// a new file, which is synced and renamed, like a document save does. The journal only appends a record.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class GPXTrackJournalBenchmark {
+
+    // Roughly the encoded size of a one hour hike with one accepted location every 15 m.
+    private static final int PAYLOAD_SIZE = 16 * 1024;
+
+    @Param({"10", "100", "300"})
+    public int storedTracks;
+
+    private File directory;
+    private byte[] payload;
+    private GPXTrackJournal journal;
+    private long trackIdToDelete;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+        directory = Files.createTempDirectory("gpx-benchmark").toFile();
+        payload = new byte[PAYLOAD_SIZE];
+        new Random(42).nextBytes(payload);
+    }
+
+    // Saving keeps appending tracks, so the journal is recreated for each iteration.
+    @Setup(Level.Iteration)
+    public void setupJournal() throws IOException {
+        File journalFile = new File(directory, "tracks.journal");
+        Files.deleteIfExists(journalFile.toPath());
+        journal = new GPXTrackJournal(journalFile);
+        for (int i = 0; i < storedTracks; i++) {
+            journal.append("track" + i, "description", 1000, payload);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownJournal() throws IOException {
+        journal.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    // The delete benchmark needs a fresh track for each invocation. This is not part of the measured time.
+    @Setup(Level.Invocation)
+    public void setupTrackToDelete() throws IOException {
+        trackIdToDelete = journal.append("to be deleted", "description", 1000, payload);
+    }
+
+    @Benchmark
+    public long journalSave() throws IOException {
+        return journal.append("new track", "description", 1000, payload);
+    }
+
+    @Benchmark
+    public boolean journalDelete() throws IOException {
+        return journal.delete(trackIdToDelete);
+    }
+
+    // Saving or deleting a track rewrote all other stored tracks as well.
+    @Benchmark
+    public boolean documentRewrite() throws IOException {
+        File documentFile = new File(directory, "document.gpx");
+        File temporaryFile = new File(directory, "document.gpx.tmp");
+        try (FileOutputStream fileOutputStream = new FileOutputStream(temporaryFile)) {
+            for (int i = 0; i < storedTracks; i++) {
+                fileOutputStream.write(payload);
+            }
+            fileOutputStream.getFD().sync();
+        }
+        return temporaryFile.renameTo(documentFile);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.benchmarks;
+
+import com.here.sdk.core.LanguageCode;
+import com.here.sdk.examples.shared.LanguageCodeConverter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Measures the conversion between LanguageCode and Locale, as done on every voice setup
+// and whenever the TTS locale is queried. Each invocation converts the next value of a
+// fixed sequence, so that lookups are not limited to a single map entry.
+// The former per-app converters found the LanguageCode for a Locale with a scan over the entries
+// of a HashMap. This scan is kept below as a baseline for the reverse map of the shared converter.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LanguageCodeConverterBenchmark {
+
+    private LanguageCode[] languageCodes;
+    private Locale[] locales;
+    // Locales with a country that is not supported, so that the language-only fallback is used.
+    private Locale[] fallbackLocales;
+    private HashMap<LanguageCode, Locale> languageCodeMap;
+    private int index;
+
+    @Setup
+    public void setup() {
+        languageCodes = LanguageCode.values();
+        locales = new Locale[languageCodes.length];
+        fallbackLocales = new Locale[languageCodes.length];
+        languageCodeMap = new HashMap<>();
+        for (int i = 0; i < languageCodes.length; i++) {
+            locales[i] = LanguageCodeConverter.getLocale(languageCodes[i]);
+            fallbackLocales[i] = new Locale(locales[i].getLanguage(), "AQ");
+            languageCodeMap.put(languageCodes[i], locales[i]);
+        }
+    }
+
+    private int nextIndex() {
+        index = (index + 1) % languageCodes.length;
+        return index;
+    }
+
+    @Benchmark
+    public Locale getLocale() {
+        return LanguageCodeConverter.getLocale(languageCodes[nextIndex()]);
+    }
+
+    // The loop of the former getLanguageCode().
+    @Benchmark
+    public LanguageCode scanGetLanguageCode() {
+        Locale locale = locales[nextIndex()];
+        String language = locale.getLanguage();
+        String country = locale.getCountry();
+        for (Map.Entry<LanguageCode, Locale> entry : languageCodeMap.entrySet()) {
+            Locale localeEntry = entry.getValue();
+            if (language.equals(localeEntry.getLanguage()) && country.equals(localeEntry.getCountry())) {
+                return entry.getKey();
+            }
+        }
+        return LanguageCode.EN_US;
+    }
+
+    @Benchmark
+    public LanguageCode getLanguageCode() {
+        return LanguageCodeConverter.getLanguageCode(locales[nextIndex()]);
+    }
+
+    @Benchmark
+    public LanguageCode getLanguageCodeWithLanguageFallback() {
+        return LanguageCodeConverter.getLanguageCode(fallbackLocales[nextIndex()]);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.benchmarks;
+
+import android.util.Log;
+
+import com.here.navigation.NavigationEventSink;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Compares the logging of one route progress update in the Navigation app:
+// Building the log strings with concatenation, like it was done before, versus recording the
+// events in a NavigationEventSink, where messages are only formatted when they are printed.
+// Run with "-prof gc" to see the allocated bytes per update (gc.alloc.rate.norm).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NavigationEventSinkBenchmark {
+
+    private static final String TAG = "NavigationExample";
+
+    private NavigationEventSink sink;
+    private NavigationEventSink printingSink;
+    private Blackhole blackhole;
+    private int remainingDistanceInMeters = 120000;
+    private long trafficDelayInSeconds = 95;
+    private Double turnAngle = 42.5;
+    private final String roadName = "Invalidenstraße";
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        sink = new NavigationEventSink(512, this::print, System::currentTimeMillis);
+        // The DEBUG events are only recorded.
+        sink.setPrintLevel(NavigationEventSink.Level.INFO);
+        printingSink = new NavigationEventSink(512, this::print, System::currentTimeMillis);
+        printingSink.setPrintLevel(NavigationEventSink.Level.DEBUG);
+    }
+
+    private void print(NavigationEventSink.Level level, NavigationEventSink.Type type,
+                       long timeInMilliseconds, String message) {
+        blackhole.consume(message);
+    }
+
+    @Benchmark
+    public void stringConcatenation() {
+        remainingDistanceInMeters--;
+        String message = "Distance to destination in meters: " + remainingDistanceInMeters;
+        blackhole.consume(message);
+        Log.d(TAG, message);
+        message = "Traffic delay ahead in seconds: " + trafficDelayInSeconds;
+        blackhole.consume(message);
+        Log.d(TAG, message);
+        message = "At the next maneuver: Make a right turn of " + turnAngle + " degrees.";
+        blackhole.consume(message);
+        Log.d(TAG, message);
+        message = "RIGHT_TURN on " + roadName + " in " + (remainingDistanceInMeters % 1000) + " meters.";
+        blackhole.consume(message);
+        Log.d(TAG, message);
+    }
+
+    @Benchmark
+    public void eventSinkRecorded() {
+        recordEvents(sink);
+    }
+
+    // The events are printed right away, so all messages are formatted, too.
+    @Benchmark
+    public void eventSinkPrinted() {
+        recordEvents(printingSink);
+    }
+
+    private void recordEvents(NavigationEventSink eventSink) {
+        remainingDistanceInMeters--;
+        eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROUTE_PROGRESS,
+                "Distance to destination in meters: {}, traffic delay ahead in seconds: {}")
+                .with(remainingDistanceInMeters)
+                .with(trafficDelayInSeconds)
+                .commit();
+        eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROUTE_PROGRESS,
+                "At the next maneuver: Make a right turn of {} degrees.")
+                .with(turnAngle)
+                .commit();
+        eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROUTE_PROGRESS,
+                "RIGHT_TURN on {} in {} meters.")
+                .with(roadName)
+                .with(remainingDistanceInMeters % 1000)
+                .commit();
+    }
+}
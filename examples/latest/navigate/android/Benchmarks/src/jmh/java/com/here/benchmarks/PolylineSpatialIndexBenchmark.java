@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.benchmarks;
+
+import com.here.traffic.PolylineSpatialIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Compares finding the nearest traffic incident in the Traffic app: checking every vertex of every incident,
+// like it was done before, versus a query on a PolylineSpatialIndex. Building the index is measured separately,
+// as it happens once per incident query result.
+// The vertices are plain lat/lon pairs, as GeoCoordinates.distanceTo() is not available without native code.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PolylineSpatialIndexBenchmark {
+
+    private static final PolylineSpatialIndex.CoordinatesAccessor<double[]> LAT_LON =
+            new PolylineSpatialIndex.CoordinatesAccessor<double[]>() {
+                @Override
+                public double getLatitude(double[] vertex) {
+                    return vertex[0];
+                }
+
+                @Override
+                public double getLongitude(double[] vertex) {
+                    return vertex[1];
+                }
+            };
+
+    private static final int QUERY_COUNT = 1024;
+
+    @Param({"1000", "10000"})
+    public int incidentCount;
+
+    private List<List<double[]>> incidents;
+    private double[][] queries;
+    private PolylineSpatialIndex<List<double[]>> index;
+    private int nextQuery = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(incidentCount);
+        incidents = new ArrayList<>(incidentCount);
+        // Incidents of up to a few hundred meters, spread over an area of about 45 x 55 km.
+        for (int i = 0; i < incidentCount; i++) {
+            double latitude = 52.3 + random.nextDouble() * 0.4;
+            double longitude = 13.0 + random.nextDouble() * 0.8;
+            int vertexCount = 2 + random.nextInt(20);
+            List<double[]> vertices = new ArrayList<>(vertexCount);
+            for (int j = 0; j < vertexCount; j++) {
+                vertices.add(new double[]{latitude, longitude});
+                latitude += (random.nextDouble() - 0.5) * 0.0005;
+                longitude += (random.nextDouble() - 0.5) * 0.0005;
+            }
+            incidents.add(vertices);
+        }
+
+        queries = new double[QUERY_COUNT][];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queries[i] = new double[]{52.3 + random.nextDouble() * 0.4, 13.0 + random.nextDouble() * 0.8};
+        }
+
+        index = buildIndex();
+    }
+
+    @Benchmark
+    public Object bruteForceVertices() {
+        double[] query = nextQuery();
+        double nearestDistance = Double.MAX_VALUE;
+        List<double[]> nearestIncident = null;
+        for (List<double[]> incident : incidents) {
+            for (double[] vertex : incident) {
+                double distance = haversine(query, vertex);
+                if (distance < nearestDistance) {
+                    nearestDistance = distance;
+                    nearestIncident = incident;
+                }
+            }
+        }
+        return nearestIncident;
+    }
+
+    @Benchmark
+    public Object indexQuery() {
+        double[] query = nextQuery();
+        return index.findNearest(query[0], query[1]).item;
+    }
+
+    @Benchmark
+    public Object indexBuild() {
+        return buildIndex();
+    }
+
+    private PolylineSpatialIndex<List<double[]>> buildIndex() {
+        PolylineSpatialIndex.Builder<List<double[]>, double[]> builder = new PolylineSpatialIndex.Builder<>(LAT_LON);
+        for (List<double[]> incident : incidents) {
+            builder.add(incident, incident);
+        }
+        return builder.build();
+    }
+
+    private double[] nextQuery() {
+        nextQuery = (nextQuery + 1) % QUERY_COUNT;
+        return queries[nextQuery];
+    }
+
+    private static double haversine(double[] from, double[] to) {
+        double earthRadiusInMeters = 6371000;
+        double dLat = Math.toRadians(to[0] - from[0]);
+        double dLon = Math.toRadians(to[1] - from[1]);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(from[0])) * Math.cos(Math.toRadians(to[0]))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * earthRadiusInMeters * Math.asin(Math.sqrt(a));
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.benchmarks;
+
+import com.here.offlinemaps.RegionCatalogIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Compares looking up regions in the OfflineMaps app while a region picker is rendered:
+// Scanning the tree of downloadable regions for each lookup, like findRegion() did before, versus
+// a RegionCatalogIndex that is built once per catalog. Each benchmark resolves a batch of lookups.
+// The synthetic catalog has 10 continents with 20 countries each and 24 states per country.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RegionCatalogIndexBenchmark {
+
+    private static final int CONTINENT_COUNT = 10;
+    private static final int COUNTRY_COUNT = 20;
+    private static final int PREFIX_RESULT_COUNT = 20;
+    private static final String CATALOG_VERSION = "47.47,47.47";
+
+    private static final class SyntheticRegion {
+        final String id;
+        final String name;
+        final long sizeInBytes;
+        final List<SyntheticRegion> children = new ArrayList<>();
+
+        SyntheticRegion(String id, String name, long sizeInBytes) {
+            this.id = id;
+            this.name = name;
+            this.sizeInBytes = sizeInBytes;
+        }
+    }
+
+    private static final RegionCatalogIndex.RegionAccessor<SyntheticRegion> ACCESSOR =
+            new RegionCatalogIndex.RegionAccessor<SyntheticRegion>() {
+                @Override
+                public String getId(SyntheticRegion region) {
+                    return region.id;
+                }
+
+                @Override
+                public String getName(SyntheticRegion region) {
+                    return region.name;
+                }
+
+                @Override
+                public long getSizeInBytes(SyntheticRegion region) {
+                    return region.sizeInBytes;
+                }
+
+                @Override
+                public List<SyntheticRegion> getChildren(SyntheticRegion region) {
+                    return region.children.isEmpty() ? null : region.children;
+                }
+            };
+
+    // The number of lookups per benchmark invocation.
+    @Param({"100"})
+    public int lookupCount;
+
+    @Param({"24"})
+    public int statesPerCountry;
+
+    private List<SyntheticRegion> catalog;
+    private RegionCatalogIndex<SyntheticRegion> index;
+    private String[] countryNames;
+    private String[] regionIds;
+    private String[] namePrefixes;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(statesPerCountry);
+        catalog = new ArrayList<>();
+        List<SyntheticRegion> countries = new ArrayList<>();
+        List<SyntheticRegion> allRegions = new ArrayList<>();
+        for (int c = 0; c < CONTINENT_COUNT; c++) {
+            SyntheticRegion continent = new SyntheticRegion("C" + c, randomName(random), 0);
+            catalog.add(continent);
+            allRegions.add(continent);
+            for (int n = 0; n < COUNTRY_COUNT; n++) {
+                SyntheticRegion country = new SyntheticRegion(continent.id + "-" + n, randomName(random), 0);
+                continent.children.add(country);
+                countries.add(country);
+                allRegions.add(country);
+                for (int s = 0; s < statesPerCountry; s++) {
+                    SyntheticRegion state = new SyntheticRegion(country.id + "-" + s, randomName(random),
+                            1 + random.nextInt(500 * 1024 * 1024));
+                    country.children.add(state);
+                    allRegions.add(state);
+                }
+            }
+        }
+        index = new RegionCatalogIndex<>(catalog, CATALOG_VERSION, ACCESSOR);
+
+        countryNames = new String[lookupCount];
+        regionIds = new String[lookupCount];
+        namePrefixes = new String[lookupCount];
+        for (int i = 0; i < lookupCount; i++) {
+            countryNames[i] = countries.get(random.nextInt(countries.size())).name;
+            regionIds[i] = allRegions.get(random.nextInt(allRegions.size())).id;
+            namePrefixes[i] = allRegions.get(random.nextInt(allRegions.size())).name.substring(0, 2);
+        }
+    }
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        name.append((char) ('A' + random.nextInt(26)));
+        for (int i = 0; i < 7; i++) {
+            name.append((char) ('a' + random.nextInt(26)));
+        }
+        return name.toString();
+    }
+
+    // The nested loop of the former findRegion(), which only looks at continents and countries.
+    @Benchmark
+    public int scanByName() {
+        int foundCount = 0;
+        for (String countryName : countryNames) {
+            SyntheticRegion found = null;
+            for (SyntheticRegion continent : catalog) {
+                if (continent.name.equals(countryName)) {
+                    found = continent;
+                    break;
+                }
+                for (SyntheticRegion country : continent.children) {
+                    if (country.name.equals(countryName)) {
+                        found = country;
+                        break;
+                    }
+                }
+                if (found != null) {
+                    break;
+                }
+            }
+            if (found != null) {
+                foundCount++;
+            }
+        }
+        return foundCount;
+    }
+
+    @Benchmark
+    public int indexByName() {
+        int foundCount = 0;
+        for (String countryName : countryNames) {
+            if (index.findByName(countryName) != null) {
+                foundCount++;
+            }
+        }
+        return foundCount;
+    }
+
+    @Benchmark
+    public int scanById() {
+        int foundCount = 0;
+        for (String regionId : regionIds) {
+            if (scanById(catalog, regionId) != null) {
+                foundCount++;
+            }
+        }
+        return foundCount;
+    }
+
+    @Benchmark
+    public int indexById() {
+        int foundCount = 0;
+        for (String regionId : regionIds) {
+            if (index.findById(regionId) != null) {
+                foundCount++;
+            }
+        }
+        return foundCount;
+    }
+
+    @Benchmark
+    public int scanByNamePrefix() {
+        int foundCount = 0;
+        for (String namePrefix : namePrefixes) {
+            List<SyntheticRegion> results = new ArrayList<>();
+            scanByNamePrefix(catalog, namePrefix.toLowerCase(Locale.ROOT), results);
+            results.sort((a, b) -> a.name.toLowerCase(Locale.ROOT).compareTo(b.name.toLowerCase(Locale.ROOT)));
+            foundCount += Math.min(results.size(), PREFIX_RESULT_COUNT);
+        }
+        return foundCount;
+    }
+
+    @Benchmark
+    public int indexByNamePrefix() {
+        int foundCount = 0;
+        for (String namePrefix : namePrefixes) {
+            foundCount += index.findByNamePrefix(namePrefix, PREFIX_RESULT_COUNT).size();
+        }
+        return foundCount;
+    }
+
+    @Benchmark
+    public Object indexBuild() {
+        return new RegionCatalogIndex<>(catalog, CATALOG_VERSION, ACCESSOR);
+    }
+
+    // The check that runs each time the list of downloadable regions is received again.
+    @Benchmark
+    public boolean indexIsBuiltFrom() {
+        return index.isBuiltFrom(catalog, CATALOG_VERSION);
+    }
+
+    private static SyntheticRegion scanById(List<SyntheticRegion> regions, String regionId) {
+        for (SyntheticRegion region : regions) {
+            if (region.id.equals(regionId)) {
+                return region;
+            }
+            SyntheticRegion found = scanById(region.children, regionId);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private static void scanByNamePrefix(List<SyntheticRegion> regions, String lowerCasePrefix,
+                                         List<SyntheticRegion> results) {
+        for (SyntheticRegion region : regions) {
+            if (region.name.toLowerCase(Locale.ROOT).startsWith(lowerCasePrefix)) {
+                results.add(region);
+            }
+            scanByNamePrefix(region.children, lowerCasePrefix, results);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.benchmarks;
+
+import com.here.hikingdiary.TravelledPath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Compares the cost of handling one more location of a GPX track in the HikingDiary app:
+// Recomputing the full path, like it was done before, versus appending a single vertex to a TravelledPath.
+// The vertices are plain lat/lon pairs, as GeoCoordinates.distanceTo() is not available without native code.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TravelledPathBenchmark {
+
+    private static final TravelledPath.DistanceCalculator<double[]> HAVERSINE = (from, to) -> {
+        double earthRadiusInMeters = 6371000;
+        double dLat = Math.toRadians(to[0] - from[0]);
+        double dLon = Math.toRadians(to[1] - from[1]);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(from[0])) * Math.cos(Math.toRadians(to[0]))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * earthRadiusInMeters * Math.asin(Math.sqrt(a));
+    };
+
+    @Param({"10000", "50000", "100000"})
+    public int trackSize;
+
+    private List<double[]> track;
+    private double[] nextVertex;
+    private TravelledPath<double[]> travelledPath;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(trackSize);
+        track = new ArrayList<>(trackSize);
+        double latitude = 52.530932;
+        double longitude = 13.384915;
+        for (int i = 0; i < trackSize; i++) {
+            track.add(new double[]{latitude, longitude});
+            latitude += (random.nextDouble() - 0.3) * 0.0002;
+            longitude += (random.nextDouble() - 0.3) * 0.0002;
+        }
+        nextVertex = new double[]{latitude, longitude};
+    }
+
+    // The incremental benchmark keeps appending vertices, so the path is rebuilt for each iteration.
+    @Setup(Level.Iteration)
+    public void setupTravelledPath() {
+        travelledPath = new TravelledPath<>(HAVERSINE);
+        for (double[] vertex : track) {
+            travelledPath.addVertex(vertex);
+            travelledPath.sealTailIfFull();
+        }
+    }
+
+    @Benchmark
+    public int fullRecomputation() {
+        List<double[]> vertices = new ArrayList<>(track);
+        vertices.add(nextVertex);
+        return TravelledPath.computeLengthInMeters(vertices, HAVERSINE);
+    }
+
+    @Benchmark
+    public int incrementalUpdate() {
+        travelledPath.addVertex(nextVertex);
+        int tailSize = travelledPath.getTailVertices().size();
+        travelledPath.sealTailIfFull();
+        return tailSize + travelledPath.getLengthInMeters();
+    }
+}
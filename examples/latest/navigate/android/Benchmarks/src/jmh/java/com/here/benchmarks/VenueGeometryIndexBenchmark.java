@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.benchmarks;
+
+import com.here.sdk.examples.venues.VenueGeometryIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Compares typing a search text in the IndoorMap app for a large venue, one character after the other:
+// Scanning all geometries and creating all labels for each keystroke, like it was done before, versus
+// refining the results with a VenueGeometryIndex and only creating the labels of new results.
+// Building the index is measured separately, as it happens once when a venue is selected.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VenueGeometryIndexBenchmark {
+
+    private static final String[] NAME_WORDS = {"Gate", "Café", "Restroom", "Starbucks", "Duty-Free",
+            "Lounge", "Pharmacy", "Baggage", "Claim", "Security", "Check-In", "Zara", "Food", "Court",
+            "Office", "Storage", "Elevator", "Stairs", "Shop", "Bakery"};
+
+    private static final String TYPED_TEXT = "Starbucks K4";
+
+    // Name and address of a geometry.
+    private static final class Geometry {
+        final String name;
+        final String address;
+
+        Geometry(String name, String address) {
+            this.name = name;
+            this.address = address;
+        }
+    }
+
+    @Param({"20000"})
+    public int geometryCount;
+
+    private List<Geometry> geometries;
+    private VenueGeometryIndex<Geometry> index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(geometryCount);
+        geometries = new ArrayList<>(geometryCount);
+        for (int i = 0; i < geometryCount; i++) {
+            String name = NAME_WORDS[random.nextInt(NAME_WORDS.length)] + " "
+                    + (char) ('A' + random.nextInt(26)) + random.nextInt(100);
+            String address = "Terminal " + (1 + random.nextInt(3)) + ", Level " + random.nextInt(5)
+                    + ", Unit " + random.nextInt(1000);
+            geometries.add(new Geometry(name, address));
+        }
+        index = buildIndex();
+    }
+
+    @Benchmark
+    public int scanPerKeystroke() {
+        int shownCount = 0;
+        for (int length = 1; length <= TYPED_TEXT.length(); length++) {
+            String filter = TYPED_TEXT.substring(0, length).toLowerCase(Locale.ROOT);
+            List<String> labels = new ArrayList<>();
+            for (Geometry geometry : geometries) {
+                if (geometry.name.toLowerCase(Locale.ROOT).contains(filter)) {
+                    labels.add(createLabel(geometry));
+                }
+            }
+            shownCount += labels.size();
+        }
+        return shownCount;
+    }
+
+    @Benchmark
+    public int indexPerKeystroke() {
+        List<String> labels = new ArrayList<>();
+        int[] shownIds = new int[0];
+        int shownCount = 0;
+        // A new venue is selected, so no earlier query can be refined.
+        index.search("", VenueGeometryIndex.NAME);
+        for (int length = 1; length <= TYPED_TEXT.length(); length++) {
+            int[] ids = index.search(TYPED_TEXT.substring(0, length), VenueGeometryIndex.NAME);
+            VenueGeometryIndex.updateLabels(labels, shownIds, ids, id -> createLabel(index.getGeometry(id)));
+            shownIds = ids;
+            shownCount += labels.size();
+        }
+        return shownCount;
+    }
+
+    @Benchmark
+    public Object indexBuild() {
+        return buildIndex();
+    }
+
+    private VenueGeometryIndex<Geometry> buildIndex() {
+        return new VenueGeometryIndex<>(geometries, (geometry, field) -> {
+            switch (field) {
+                case VenueGeometryIndex.NAME:
+                    return geometry.name;
+                case VenueGeometryIndex.ADDRESS:
+                    return geometry.address;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private static String createLabel(Geometry geometry) {
+        return geometry.name + ", " + geometry.address;
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.evrouting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Searches along a route that is too long for a single corridor query:
+// - The route is split into segments of limited length and vertex count. Consecutive segments
+//   overlap, so that results close to a split point are found by at least one segment.
+// - At most maxConcurrentRequests segment queries are running at the same time.
+// - Results are merged in segment order and deduplicated by ID with a HashSet, so results that
+//   were found by two overlapping segments or that are excluded by the caller are dropped in O(1).
+// - The listener is told how many segments are done after each segment.
+// Starting a new search cancels the previous one: late replies of the previous search are ignored.
+// The class does not depend on Android or the HERE SDK. All methods and callbacks are expected
+// to be called on the same thread, for example, the main thread.
+public class CorridorSearch<V, E, R> {
+
+    public interface CoordinatesAccessor<V> {
+        double getLatitude(V vertex);
+
+        double getLongitude(V vertex);
+    }
+
+    // Provides the unique ID of a result, for example, Place.getId().
+    public interface IdAccessor<R> {
+        String getId(R result);
+    }
+
+    public interface SearchCallback<E, R> {
+        void onSearchCompleted(E error, List<R> results);
+    }
+
+    // Runs the query for the corridor around the given vertices, for example, with SearchEngine.search().
+    public interface SegmentSearchEngine<V, E, R> {
+        void search(List<V> segmentVertices, SearchCallback<E, R> callback);
+    }
+
+    public interface Listener<E, R> {
+        void onProgress(int completedSegmentCount, int segmentCount);
+
+        // The errors of failed segments are listed, the results of all other segments are merged.
+        void onCompleted(List<R> results, List<E> errors);
+    }
+
+    private static final double EARTH_RADIUS_IN_METERS = 6371000;
+
+    private final SegmentSearchEngine<V, E, R> searchEngine;
+    private final CoordinatesAccessor<V> coordinatesAccessor;
+    private final IdAccessor<R> idAccessor;
+    private final double maxSegmentLengthInMeters;
+    private final double overlapInMeters;
+    private final int maxVerticesPerSegment;
+    private final int maxConcurrentRequests;
+
+    private long searchId = 0;
+    private Listener<E, R> listener;
+    private List<List<V>> segments = Collections.emptyList();
+    private List<List<R>> segmentResults = new ArrayList<>();
+    private final List<E> errors = new ArrayList<>();
+    private Set<String> excludedIds = Collections.emptySet();
+    private int nextSegmentIndex = 0;
+    private int runningCount = 0;
+    private int completedCount = 0;
+    private boolean isStartingRequests = false;
+
+    private int duplicateCount = 0;
+    private int excludedCount = 0;
+    private int maxRunningCount = 0;
+
+    public CorridorSearch(SegmentSearchEngine<V, E, R> searchEngine,
+                          CoordinatesAccessor<V> coordinatesAccessor,
+                          IdAccessor<R> idAccessor,
+                          double maxSegmentLengthInMeters,
+                          double overlapInMeters,
+                          int maxVerticesPerSegment,
+                          int maxConcurrentRequests) {
+        if (overlapInMeters >= maxSegmentLengthInMeters) {
+            throw new IllegalArgumentException("The overlap must be shorter than a segment.");
+        }
+        if (maxVerticesPerSegment < 2 || maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("Invalid limits.");
+        }
+        this.searchEngine = searchEngine;
+        this.coordinatesAccessor = coordinatesAccessor;
+        this.idAccessor = idAccessor;
+        this.maxSegmentLengthInMeters = maxSegmentLengthInMeters;
+        this.overlapInMeters = overlapInMeters;
+        this.maxVerticesPerSegment = maxVerticesPerSegment;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    // Results with an ID in excludedIds are not reported, for example, charging stations
+    // that are already part of the route.
+    public void search(List<V> vertices, Set<String> excludedIds, Listener<E, R> listener) {
+        cancel();
+        this.listener = listener;
+        this.excludedIds = excludedIds;
+        segments = split(vertices);
+        segmentResults = new ArrayList<>(Collections.<List<R>>nCopies(segments.size(), null));
+        if (segments.isEmpty()) {
+            finish();
+            return;
+        }
+        startRequests();
+    }
+
+    public void cancel() {
+        searchId++;
+        listener = null;
+        segments = Collections.emptyList();
+        segmentResults = new ArrayList<>();
+        errors.clear();
+        nextSegmentIndex = 0;
+        runningCount = 0;
+        completedCount = 0;
+    }
+
+    // Splits the vertices into overlapping segments. Each segment starts at a vertex that lies at
+    // least overlapInMeters before the end of the previous segment, measured along the route.
+    List<List<V>> split(List<V> vertices) {
+        final List<List<V>> result = new ArrayList<>();
+        if (vertices.size() < 2) {
+            if (!vertices.isEmpty()) {
+                result.add(vertices);
+            }
+            return result;
+        }
+
+        // The distance from the first vertex to each vertex, measured along the route.
+        final double[] offsets = new double[vertices.size()];
+        for (int i = 1; i < vertices.size(); i++) {
+            offsets[i] = offsets[i - 1] + distanceInMeters(vertices.get(i - 1), vertices.get(i));
+        }
+
+        int startIndex = 0;
+        while (true) {
+            int endIndex = startIndex + 1;
+            while (endIndex + 1 < vertices.size()
+                    && endIndex + 1 - startIndex < maxVerticesPerSegment
+                    && offsets[endIndex + 1] - offsets[startIndex] <= maxSegmentLengthInMeters) {
+                endIndex++;
+            }
+            result.add(vertices.subList(startIndex, endIndex + 1));
+            if (endIndex == vertices.size() - 1) {
+                return result;
+            }
+
+            // Go back from the end until the overlap is reached, but always make progress.
+            int nextStartIndex = endIndex;
+            while (nextStartIndex - 1 > startIndex && offsets[endIndex] - offsets[nextStartIndex] < overlapInMeters) {
+                nextStartIndex--;
+            }
+            startIndex = nextStartIndex;
+        }
+    }
+
+    private void startRequests() {
+        if (isStartingRequests) {
+            // A synchronous reply: the loop below will continue.
+            return;
+        }
+        isStartingRequests = true;
+        final long currentSearchId = searchId;
+        while (currentSearchId == searchId
+                && runningCount < maxConcurrentRequests
+                && nextSegmentIndex < segments.size()) {
+            final int segmentIndex = nextSegmentIndex++;
+            runningCount++;
+            maxRunningCount = Math.max(maxRunningCount, runningCount);
+            searchEngine.search(segments.get(segmentIndex),
+                    (error, results) -> onSegmentCompleted(currentSearchId, segmentIndex, error, results));
+        }
+        isStartingRequests = false;
+        if (currentSearchId == searchId && completedCount == segments.size() && listener != null) {
+            finish();
+        }
+    }
+
+    private void onSegmentCompleted(long currentSearchId, int segmentIndex, E error, List<R> results) {
+        if (currentSearchId != searchId) {
+            // A reply of a cancelled search.
+            return;
+        }
+        runningCount--;
+        completedCount++;
+        if (error != null) {
+            errors.add(error);
+        } else {
+            segmentResults.set(segmentIndex, results == null ? Collections.<R>emptyList() : results);
+        }
+        listener.onProgress(completedCount, segments.size());
+        if (currentSearchId != searchId) {
+            // The listener started a new search.
+            return;
+        }
+        startRequests();
+    }
+
+    private void finish() {
+        final Set<String> seenIds = new HashSet<>();
+        final List<R> merged = new ArrayList<>();
+        for (List<R> results : segmentResults) {
+            if (results == null) {
+                continue;
+            }
+            for (R result : results) {
+                final String id = idAccessor.getId(result);
+                if (excludedIds.contains(id)) {
+                    excludedCount++;
+                } else if (!seenIds.add(id)) {
+                    duplicateCount++;
+                } else {
+                    merged.add(result);
+                }
+            }
+        }
+        final Listener<E, R> completedListener = listener;
+        final List<E> completedErrors = new ArrayList<>(errors);
+        cancel();
+        completedListener.onCompleted(merged, completedErrors);
+    }
+
+    private double distanceInMeters(V from, V to) {
+        double lat1 = Math.toRadians(coordinatesAccessor.getLatitude(from));
+        double lat2 = Math.toRadians(coordinatesAccessor.getLatitude(to));
+        double deltaLat = lat2 - lat1;
+        double deltaLon = Math.toRadians(coordinatesAccessor.getLongitude(to) - coordinatesAccessor.getLongitude(from));
+        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
+        return 2 * EARTH_RADIUS_IN_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // The number of results that were found by more than one segment.
+    public int getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    // The number of results that were dropped, because their ID was excluded.
+    public int getExcludedCount() {
+        return excludedCount;
+    }
+
+    // The highest number of segment queries that were running at the same time.
+    public int getMaxRunningCount() {
+        return maxRunningCount;
+    }
+
+    @Override
+    public String toString() {
+        return "CorridorSearch{duplicates=" + duplicateCount
+                + ", excluded=" + excludedCount
+                + ", maxRunning=" + maxRunningCount + "}";
+    }
+}
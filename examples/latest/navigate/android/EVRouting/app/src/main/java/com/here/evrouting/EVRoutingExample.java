@@ -20,6 +20,9 @@
 package com.here.evrouting;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.appcompat.app.AlertDialog;
@@ -66,18 +69,36 @@ import com.here.sdk.search.SearchError;
 import com.here.sdk.search.SearchOptions;
 import com.here.sdk.search.TextQuery;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 // This example shows how to calculate routes for electric vehicles that contain necessary charging stations
 // (indicated with red charging icon). In addition, all existing charging stations are searched along the route
 // (indicated with green charging icon). You can also visualize the reachable area from your starting point
-// (isoline routing).
+// (isoline routing). Reachable areas are cached and precomputed for a configurable list of depots, see IsolineCache.
 public class EVRoutingExample {
 
+    private static final String TAG = EVRoutingExample.class.getSimpleName();
+    private static final int ISOLINE_RANGE_IN_WATT_HOURS = 400;
+    // Origins within the same grid cell of about 100 m share one cached reachable area.
+    private static final double ISOLINE_GRID_SIZE_IN_DEGREES = 0.001;
+    private static final long ISOLINE_TIME_TO_LIVE_IN_MILLISECONDS = 30 * 60 * 1000;
+    // Limits the cache to about 200,000 polygon vertices in total.
+    private static final long ISOLINE_CACHE_MAX_VERTICES = 200_000;
+    // The depots are warmed every 10 minutes, entries that expire within the next 10 minutes are refreshed.
+    private static final long ISOLINE_WARM_INTERVAL_IN_MILLISECONDS = 10 * 60 * 1000;
+    private static final String VEHICLE_PROFILE_ASSET = "ev_vehicle_profile.json";
+    private static final int SEARCH_HALF_WIDTH_IN_METERS = 200;
+    // Long routes are searched in segments of up to 100 km that overlap by 1 km, with up to 4 requests at a time.
+    private static final double SEARCH_SEGMENT_LENGTH_IN_METERS = 100 * 1000;
+    private static final double SEARCH_SEGMENT_OVERLAP_IN_METERS = 1000;
+
     private final Context context;
     private final MapView mapView;
     private final List<MapMarker> mapMarkers = new ArrayList<>();
@@ -87,7 +108,24 @@ public class EVRoutingExample {
     private final SearchEngine searchEngine;
     private GeoCoordinates startGeoCoordinates;
     private GeoCoordinates destinationGeoCoordinates;
-    private final List<String> chargingStationsIDs = new ArrayList<>();
+    private final Set<String> chargingStationsIDs = new HashSet<>();
+    private final CorridorSearch<GeoCoordinates, SearchError, Place> corridorSearch;
+    private final IsolineCache<RoutingError, List<Isoline>> isolineCache;
+    private final int evCarOptionsHash;
+    // The tables of the vehicle profile are built once and shared by all route and isoline requests.
+    private final EVVehicleProfile vehicleProfile;
+    private final List<ChargingConnectorType> chargingConnectorTypes = new ArrayList<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<double[]> depotCoordinates = new ArrayList<>();
+    private final Runnable isolineWarmTask = new Runnable() {
+        @Override
+        public void run() {
+            int startedCount = isolineCache.warm(depotCoordinates, ISOLINE_RANGE_IN_WATT_HOURS,
+                    evCarOptionsHash, ISOLINE_WARM_INTERVAL_IN_MILLISECONDS);
+            Log.d(TAG, "Warming " + startedCount + " depot isolines. " + isolineCache);
+            mainHandler.postDelayed(this, ISOLINE_WARM_INTERVAL_IN_MILLISECONDS);
+        }
+    };
 
     public EVRoutingExample(Context context, MapView mapView) {
         this.context = context;
@@ -109,11 +147,76 @@ public class EVRoutingExample {
         } catch (InstantiationErrorException e) {
             throw new RuntimeException("Initialization of SearchEngine failed: " + e.error.name());
         }
+
+        vehicleProfile = loadVehicleProfile();
+        for (String connectorType : vehicleProfile.getConnectorTypes()) {
+            try {
+                chargingConnectorTypes.add(ChargingConnectorType.valueOf(connectorType));
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "Unknown connector type in vehicle profile: " + connectorType);
+            }
+        }
+
+        corridorSearch = new CorridorSearch<>(
+                this::searchChargingStations,
+                new CorridorSearch.CoordinatesAccessor<GeoCoordinates>() {
+                    @Override
+                    public double getLatitude(GeoCoordinates geoCoordinates) {
+                        return geoCoordinates.latitude;
+                    }
+
+                    @Override
+                    public double getLongitude(GeoCoordinates geoCoordinates) {
+                        return geoCoordinates.longitude;
+                    }
+                },
+                Place::getId,
+                SEARCH_SEGMENT_LENGTH_IN_METERS,
+                SEARCH_SEGMENT_OVERLAP_IN_METERS,
+                1000,
+                4);
+
+        // Any change of the vehicle profile results in a different hash, so outdated isolines are not reused.
+        evCarOptionsHash = vehicleProfile.hashCode();
+        isolineCache = new IsolineCache<>(
+                this::calculateIsoline,
+                isolines -> {
+                    int vertexCount = 0;
+                    for (Isoline isoline : isolines) {
+                        for (GeoPolygon geoPolygon : isoline.getPolygons()) {
+                            vertexCount += geoPolygon.vertices.size();
+                        }
+                    }
+                    return vertexCount;
+                },
+                SystemClock::elapsedRealtime,
+                ISOLINE_GRID_SIZE_IN_DEGREES,
+                ISOLINE_TIME_TO_LIVE_IN_MILLISECONDS,
+                ISOLINE_CACHE_MAX_VERTICES);
+    }
+
+    // Precomputes the reachable areas of the given depots, so that they can be shown without waiting.
+    // The depots are warmed again periodically until stopIsolineWarmer() is called. An empty list stops warming.
+    public void startIsolineWarmer(List<GeoCoordinates> depots) {
+        mainHandler.removeCallbacks(isolineWarmTask);
+        depotCoordinates.clear();
+        for (GeoCoordinates depot : depots) {
+            depotCoordinates.add(new double[]{depot.latitude, depot.longitude});
+        }
+        if (!depotCoordinates.isEmpty()) {
+            mainHandler.post(isolineWarmTask);
+        }
+    }
+
+    public void stopIsolineWarmer() {
+        mainHandler.removeCallbacks(isolineWarmTask);
+        Log.d(TAG, "Stopped warming depot isolines. " + isolineCache);
     }
 
     // Calculates an EV car route based on random start / destination coordinates near viewport center.
     public void addEVRouteButtonClicked() {
         chargingStationsIDs.clear();
+        corridorSearch.cancel();
 
         startGeoCoordinates = createRandomGeoCoordinatesInViewport();
         destinationGeoCoordinates = createRandomGeoCoordinatesInViewport();
@@ -140,18 +243,27 @@ public class EVRoutingExample {
         });
     }
 
+    // Loads the vehicle profile from the assets of the app. The asset is the only source of the
+    // vehicle values, so the app cannot calculate EV routes without it.
+    private EVVehicleProfile loadVehicleProfile() {
+        try (InputStream inputStream = context.getAssets().open(VEHICLE_PROFILE_ASSET)) {
+            EVVehicleProfile profile = EVVehicleProfile.fromJson(inputStream);
+            Log.d(TAG, "Loaded " + profile);
+            return profile;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new RuntimeException("Loading " + VEHICLE_PROFILE_ASSET + " failed: " + e.getMessage(), e);
+        }
+    }
+
     private EVCarOptions getEVCarOptions()  {
         EVCarOptions evCarOptions = new EVCarOptions();
 
         // The below three options are the minimum you must specify or routing will result in an error.
-        evCarOptions.consumptionModel.ascentConsumptionInWattHoursPerMeter = 9;
-        evCarOptions.consumptionModel.descentRecoveryInWattHoursPerMeter = 4.3;
-        evCarOptions.consumptionModel.freeFlowSpeedTable = new HashMap<Integer, Double>() {{
-            put(0, 0.239);
-            put(27, 0.239);
-            put(60, 0.196);
-            put(90, 0.238);
-        }};
+        evCarOptions.consumptionModel.ascentConsumptionInWattHoursPerMeter =
+                vehicleProfile.ascentConsumptionInWattHoursPerMeter;
+        evCarOptions.consumptionModel.descentRecoveryInWattHoursPerMeter =
+                vehicleProfile.descentRecoveryInWattHoursPerMeter;
+        evCarOptions.consumptionModel.freeFlowSpeedTable = vehicleProfile.getFreeFlowSpeedTable();
 
         // Must be 0 for isoline calculation.
         evCarOptions.routeOptions.alternatives = 0;
@@ -165,17 +277,11 @@ public class EVRoutingExample {
         evCarOptions.avoidanceOptions = new AvoidanceOptions();
         evCarOptions.routeOptions.speedCapInMetersPerSecond = null;
         evCarOptions.routeOptions.optimizationMode = OptimizationMode.FASTEST;
-        evCarOptions.batterySpecifications.connectorTypes =
-                new ArrayList<>(Arrays.asList(ChargingConnectorType.TESLA,
-                    ChargingConnectorType.IEC_62196_TYPE_1_COMBO, ChargingConnectorType.IEC_62196_TYPE_2_COMBO));
-        evCarOptions.batterySpecifications.totalCapacityInKilowattHours = 80.0;
-        evCarOptions.batterySpecifications.initialChargeInKilowattHours = 10.0;
-        evCarOptions.batterySpecifications.targetChargeInKilowattHours = 72.0;
-        evCarOptions.batterySpecifications.chargingCurve = new HashMap<Double, Double>() {{
-            put(0.0, 239.0);
-            put(64.0, 111.0);
-            put(72.0, 1.0);
-        }};
+        evCarOptions.batterySpecifications.connectorTypes = new ArrayList<>(chargingConnectorTypes);
+        evCarOptions.batterySpecifications.totalCapacityInKilowattHours = vehicleProfile.totalCapacityInKilowattHours;
+        evCarOptions.batterySpecifications.initialChargeInKilowattHours = vehicleProfile.initialChargeInKilowattHours;
+        evCarOptions.batterySpecifications.targetChargeInKilowattHours = vehicleProfile.targetChargeInKilowattHours;
+        evCarOptions.batterySpecifications.chargingCurve = vehicleProfile.getChargingCurve();
 
         // Note: More EV options are availeble, the above shows only the minimum viable options.
 
@@ -275,25 +381,16 @@ public class EVRoutingExample {
 
     // Perform a search for charging stations along the found route.
     private void searchAlongARoute(Route route) {
-        // We specify here that we only want to include results
-        // within a max distance of xx meters from any point of the route.
-        int halfWidthInMeters = 200;
-        GeoCorridor routeCorridor = new GeoCorridor(route.getGeometry().vertices, halfWidthInMeters);
-        TextQuery.Area queryArea = new TextQuery.Area(routeCorridor, mapView.getCamera().getState().targetCoordinates);
-        TextQuery textQuery = new TextQuery("charging station", queryArea);
-
-        SearchOptions searchOptions = new SearchOptions();
-        searchOptions.languageCode = LanguageCode.EN_US;
-        searchOptions.maxItems = 30;
-
-        searchEngine.search(textQuery, searchOptions, new SearchCallback() {
+        List<GeoCoordinates> routeVertices = route.getGeometry().vertices;
+        searchChargingStations(routeVertices, new CorridorSearch.SearchCallback<SearchError, Place>() {
             @Override
             public void onSearchCompleted(SearchError searchError, List<Place> items) {
                 if (searchError != null) {
                     if (searchError == SearchError.POLYLINE_TOO_LONG) {
-                        // Increasing halfWidthInMeters will result in less precise results with the benefit of a less
-                        // complex route shape.
-                        Log.d("Search", "Route too long or halfWidthInMeters too small.");
+                        // Increasing halfWidthInMeters would result in less precise results with the benefit of a less
+                        // complex route shape. Instead, the route is searched in shorter segments.
+                        Log.d("Search", "Route too long or halfWidthInMeters too small, searching in segments.");
+                        searchAlongARouteInSegments(routeVertices);
                     } else {
                         Log.d("Search", "No charging stations found along the route. Error: " + searchError);
                     }
@@ -302,19 +399,63 @@ public class EVRoutingExample {
 
                 // If error is nil, it is guaranteed that the items will not be nil.
                 Log.d("Search","Search along route found " + items.size() + " charging stations:");
-                for (Place place : items) {
-                    if (chargingStationsIDs.contains(place.getId())) {
-                        Log.d("Search", "Skipping: This charging station was already required to reach the destination (see red charging icon).");
-                    } else {
-                        // Only suggestions may not contain geoCoordinates, so it's safe to unwrap this search result's coordinates.
-                        addCircleMapMarker(place.getGeoCoordinates(), R.drawable.charging);
-                        Log.d("Search", place.getAddress().addressText);
-                    }
+                showChargingStations(items);
+            }
+        });
+    }
+
+    private void searchAlongARouteInSegments(List<GeoCoordinates> routeVertices) {
+        corridorSearch.search(routeVertices, chargingStationsIDs, new CorridorSearch.Listener<SearchError, Place>() {
+            @Override
+            public void onProgress(int completedSegmentCount, int segmentCount) {
+                Log.d("Search", "Searched " + completedSegmentCount + " of " + segmentCount + " route segments.");
+            }
+
+            @Override
+            public void onCompleted(List<Place> places, List<SearchError> errors) {
+                for (SearchError searchError : errors) {
+                    Log.d("Search", "A route segment could not be searched. Error: " + searchError);
                 }
+                // Required charging stations and stations found by two overlapping segments are already removed.
+                Log.d("Search", "Search along route segments found " + places.size() + " charging stations. "
+                        + corridorSearch);
+                showChargingStations(places);
             }
         });
     }
 
+    private void searchChargingStations(List<GeoCoordinates> vertices,
+                                        CorridorSearch.SearchCallback<SearchError, Place> callback) {
+        // We specify here that we only want to include results
+        // within a max distance of xx meters from any point of the route.
+        GeoCorridor routeCorridor = new GeoCorridor(vertices, SEARCH_HALF_WIDTH_IN_METERS);
+        TextQuery.Area queryArea = new TextQuery.Area(routeCorridor, mapView.getCamera().getState().targetCoordinates);
+        TextQuery textQuery = new TextQuery("charging station", queryArea);
+
+        SearchOptions searchOptions = new SearchOptions();
+        searchOptions.languageCode = LanguageCode.EN_US;
+        searchOptions.maxItems = 30;
+
+        searchEngine.search(textQuery, searchOptions, new SearchCallback() {
+            @Override
+            public void onSearchCompleted(SearchError searchError, List<Place> items) {
+                callback.onSearchCompleted(searchError, items);
+            }
+        });
+    }
+
+    private void showChargingStations(List<Place> places) {
+        for (Place place : places) {
+            if (chargingStationsIDs.contains(place.getId())) {
+                Log.d("Search", "Skipping: This charging station was already required to reach the destination (see red charging icon).");
+            } else {
+                // Only suggestions may not contain geoCoordinates, so it's safe to unwrap this search result's coordinates.
+                addCircleMapMarker(place.getGeoCoordinates(), R.drawable.charging);
+                Log.d("Search", place.getAddress().addressText);
+            }
+        }
+    }
+
     // Shows the reachable area for this electric vehicle from the current start coordinates and EV car options when the goal is
     // to consume 400 Wh or less (see options below).
     public void onReachableAreaButtonClicked() {
@@ -326,37 +467,49 @@ public class EVRoutingExample {
         // Clear previously added polygon area, if any.
         clearIsolines();
 
-        // This finds the area that an electric vehicle can reach by consuming 400 Wh or less,
-        // while trying to take the fastest possible route into any possible straight direction from start.
-        // Note: We have specified evCarOptions.routeOptions.optimizationMode = OptimizationMode.FASTEST for EV car options above.
-        List<Integer> rangeValues = Collections.singletonList(400);
+        final long startTime = SystemClock.elapsedRealtime();
+        isolineCache.getIsoline(startGeoCoordinates.latitude, startGeoCoordinates.longitude,
+                ISOLINE_RANGE_IN_WATT_HOURS, evCarOptionsHash, (routingError, list) -> {
+            if (routingError != null) {
+                showDialog("Error while calculating reachable area:", routingError.toString());
+                return;
+            }
+            Log.d(TAG, "Reachable area available after " + (SystemClock.elapsedRealtime() - startTime) + " ms. "
+                    + isolineCache);
+
+            // When routingError is nil, the isolines list is guaranteed to contain at least one isoline.
+            // The number of isolines matches the number of requested range values. Here we have used one range value,
+            // so only one isoline object is expected.
+            Isoline isoline = list.get(0);
+
+            // If there is more than one polygon, the other polygons indicate separate areas, for example, islands, that
+            // can only be reached by a ferry.
+            for (GeoPolygon geoPolygon : isoline.getPolygons()) {
+                // Show polygon on map.
+                Color fillColor = Color.valueOf(0, 0.56f, 0.54f, 0.5f); // RGBA
+                MapPolygon mapPolygon = new MapPolygon(geoPolygon, fillColor);
+                mapView.getMapScene().addMapPolygon(mapPolygon);
+                mapPolygons.add(mapPolygon);
+            }
+        });
+    }
+
+    // This finds the area that an electric vehicle can reach by consuming the given Wh or less,
+    // while trying to take the fastest possible route into any possible straight direction from start.
+    // Note: We have specified evCarOptions.routeOptions.optimizationMode = OptimizationMode.FASTEST for EV car options above.
+    private void calculateIsoline(double latitude, double longitude, int rangeInWattHours,
+                                  IsolineCache.Callback<RoutingError, List<Isoline>> callback) {
+        List<Integer> rangeValues = Collections.singletonList(rangeInWattHours);
 
         IsolineOptions.Calculation calculationOptions =
                 new IsolineOptions.Calculation(IsolineRangeType.CONSUMPTION_IN_WATT_HOURS, rangeValues, IsolineCalculationMode.BALANCED);
         IsolineOptions isolineOptions = new IsolineOptions(calculationOptions, getEVCarOptions());
 
-        routingEngine.calculateIsoline(new Waypoint(startGeoCoordinates), isolineOptions, new CalculateIsolineCallback() {
+        Waypoint origin = new Waypoint(new GeoCoordinates(latitude, longitude));
+        routingEngine.calculateIsoline(origin, isolineOptions, new CalculateIsolineCallback() {
             @Override
             public void onIsolineCalculated(RoutingError routingError, List<Isoline> list) {
-                if (routingError != null) {
-                    showDialog("Error while calculating reachable area:", routingError.toString());
-                    return;
-                }
-
-                // When routingError is nil, the isolines list is guaranteed to contain at least one isoline.
-                // The number of isolines matches the number of requested range values. Here we have used one range value,
-                // so only one isoline object is expected.
-                Isoline isoline = list.get(0);
-
-                // If there is more than one polygon, the other polygons indicate separate areas, for example, islands, that
-                // can only be reached by a ferry.
-                for (GeoPolygon geoPolygon : isoline.getPolygons()) {
-                    // Show polygon on map.
-                      Color fillColor = Color.valueOf(0, 0.56f, 0.54f, 0.5f); // RGBA
-                    MapPolygon mapPolygon = new MapPolygon(geoPolygon, fillColor);
-                    mapView.getMapScene().addMapPolygon(mapPolygon);
-                    mapPolygons.add(mapPolygon);
-                }
+                callback.onIsolineResult(routingError, list);
             }
         });
     }
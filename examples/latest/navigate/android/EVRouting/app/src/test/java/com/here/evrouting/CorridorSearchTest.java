@@ -0,0 +1,327 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.evrouting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class CorridorSearchTest {
+
+    private static final double HALF_WIDTH_IN_METERS = 200;
+    private static final double METERS_PER_DEGREE_LATITUDE = 111195;
+
+    private static final CorridorSearch.CoordinatesAccessor<double[]> ACCESSOR =
+            new CorridorSearch.CoordinatesAccessor<double[]>() {
+                @Override
+                public double getLatitude(double[] vertex) {
+                    return vertex[0];
+                }
+
+                @Override
+                public double getLongitude(double[] vertex) {
+                    return vertex[1];
+                }
+            };
+
+    private static final class Station {
+        final String id;
+        final double[] coordinates;
+
+        Station(String id, double[] coordinates) {
+            this.id = id;
+            this.coordinates = coordinates;
+        }
+    }
+
+    // A route of 1,500 km heading east with a vertex every 500 m and a slight wave.
+    private static List<double[]> createLongRoute() {
+        List<double[]> vertices = new ArrayList<>();
+        double metersPerDegreeLongitude = METERS_PER_DEGREE_LATITUDE * Math.cos(Math.toRadians(45));
+        for (int i = 0; i <= 3000; i++) {
+            double latitude = 45 + 0.05 * Math.sin(i / 100.0);
+            vertices.add(new double[]{latitude, 0.5 + i * 500 / metersPerDegreeLongitude});
+        }
+        return vertices;
+    }
+
+    // Stations within 150 m of a route vertex are expected, stations 5 km away are not.
+    private static List<Station> createStations(List<double[]> route, long seed) {
+        Random random = new Random(seed);
+        List<Station> stations = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            double[] vertex = route.get(random.nextInt(route.size()));
+            boolean isNearRoute = i % 5 != 0;
+            double offsetInMeters = isNearRoute ? (random.nextDouble() * 2 - 1) * 150 : 5000;
+            stations.add(new Station((isNearRoute ? "near-" : "far-") + i,
+                    new double[]{vertex[0] + offsetInMeters / METERS_PER_DEGREE_LATITUDE, vertex[1]}));
+        }
+        return stations;
+    }
+
+    private static double distanceInMeters(double[] from, double[] to) {
+        double dLat = Math.toRadians(to[0] - from[0]);
+        double dLon = Math.toRadians(to[1] - from[1]);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(from[0])) * Math.cos(Math.toRadians(to[0]))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * 6371000 * Math.asin(Math.sqrt(a));
+    }
+
+    // Returns all stations within the corridor of a segment. Replies are either synchronous
+    // or deferred until completeNext() is called.
+    private static class FakeSearchEngine implements CorridorSearch.SegmentSearchEngine<double[], String, Station> {
+        final List<Station> stations;
+        final boolean isSynchronous;
+        final List<Runnable> pendingReplies = new ArrayList<>();
+        int running = 0;
+        int maxRunning = 0;
+        int requestCount = 0;
+
+        FakeSearchEngine(List<Station> stations, boolean isSynchronous) {
+            this.stations = stations;
+            this.isSynchronous = isSynchronous;
+        }
+
+        @Override
+        public void search(List<double[]> segmentVertices, CorridorSearch.SearchCallback<String, Station> callback) {
+            requestCount++;
+            List<Station> found = new ArrayList<>();
+            for (Station station : stations) {
+                for (double[] vertex : segmentVertices) {
+                    if (distanceInMeters(vertex, station.coordinates) <= HALF_WIDTH_IN_METERS) {
+                        found.add(station);
+                        break;
+                    }
+                }
+            }
+            if (isSynchronous) {
+                callback.onSearchCompleted(null, found);
+                return;
+            }
+            running++;
+            maxRunning = Math.max(maxRunning, running);
+            pendingReplies.add(() -> {
+                running--;
+                callback.onSearchCompleted(null, found);
+            });
+        }
+
+        // Replies in a shuffled order, like a real network would.
+        void completeAll(Random random) {
+            while (!pendingReplies.isEmpty()) {
+                pendingReplies.remove(random.nextInt(pendingReplies.size())).run();
+            }
+        }
+    }
+
+    private static class RecordingListener implements CorridorSearch.Listener<String, Station> {
+        final List<Integer> progress = new ArrayList<>();
+        List<Station> results;
+        List<String> errors;
+        int completedCount = 0;
+
+        @Override
+        public void onProgress(int completedSegmentCount, int segmentCount) {
+            progress.add(completedSegmentCount);
+        }
+
+        @Override
+        public void onCompleted(List<Station> results, List<String> errors) {
+            this.results = results;
+            this.errors = errors;
+            completedCount++;
+        }
+    }
+
+    private static CorridorSearch<double[], String, Station> createSearch(FakeSearchEngine engine) {
+        return new CorridorSearch<>(engine, ACCESSOR, station -> station.id, 100 * 1000, 1000, 1000, 4);
+    }
+
+    @Test
+    public void splitCoversTheRouteWithOverlappingSegmentsOfLimitedLength() {
+        List<double[]> route = createLongRoute();
+        CorridorSearch<double[], String, Station> search = createSearch(new FakeSearchEngine(
+                Collections.<Station>emptyList(), true));
+
+        List<List<double[]>> segments = search.split(route);
+
+        assertEquals(16, segments.size());
+        assertTrue(segments.get(0).get(0) == route.get(0));
+        List<double[]> lastSegment = segments.get(segments.size() - 1);
+        assertTrue(lastSegment.get(lastSegment.size() - 1) == route.get(route.size() - 1));
+        for (int i = 0; i < segments.size(); i++) {
+            List<double[]> segment = segments.get(i);
+            double length = 0;
+            for (int j = 1; j < segment.size(); j++) {
+                length += distanceInMeters(segment.get(j - 1), segment.get(j));
+            }
+            assertTrue(length <= 100 * 1000);
+            if (i > 0) {
+                // The segment starts at least 1 km before the end of the previous one.
+                List<double[]> previous = segments.get(i - 1);
+                int overlapIndex = previous.indexOf(segment.get(0));
+                assertTrue(overlapIndex > 0);
+                double overlap = 0;
+                for (int j = overlapIndex + 1; j < previous.size(); j++) {
+                    overlap += distanceInMeters(previous.get(j - 1), previous.get(j));
+                }
+                assertTrue(overlap >= 1000);
+            }
+        }
+    }
+
+    @Test
+    public void splitRespectsMaxVerticesPerSegment() {
+        List<double[]> route = createLongRoute();
+        CorridorSearch<double[], String, Station> search = new CorridorSearch<>(
+                new FakeSearchEngine(Collections.<Station>emptyList(), true),
+                ACCESSOR, station -> station.id, 100 * 1000, 1000, 50, 4);
+
+        for (List<double[]> segment : search.split(route)) {
+            assertTrue(segment.size() <= 50);
+        }
+    }
+
+    @Test
+    public void findsEveryStationAlongA1500KilometerRouteExactlyOnce() {
+        List<double[]> route = createLongRoute();
+        List<Station> stations = createStations(route, 7);
+        FakeSearchEngine engine = new FakeSearchEngine(stations, false);
+        CorridorSearch<double[], String, Station> search = createSearch(engine);
+        RecordingListener listener = new RecordingListener();
+
+        search.search(route, Collections.<String>emptySet(), listener);
+        engine.completeAll(new Random(3));
+
+        Set<String> expectedIds = new HashSet<>();
+        for (Station station : stations) {
+            if (station.id.startsWith("near-")) {
+                expectedIds.add(station.id);
+            }
+        }
+        Set<String> foundIds = new HashSet<>();
+        for (Station station : listener.results) {
+            assertTrue("Duplicate: " + station.id, foundIds.add(station.id));
+        }
+        assertEquals(expectedIds, foundIds);
+        assertEquals(1, listener.completedCount);
+        assertTrue(listener.errors.isEmpty());
+        assertEquals(16, engine.requestCount);
+        assertEquals(4, engine.maxRunning);
+        assertEquals(4, search.getMaxRunningCount());
+    }
+
+    @Test
+    public void overlappingSegmentsProduceDuplicatesThatAreMerged() {
+        List<double[]> route = createLongRoute();
+        // Stations at the start vertex of each segment are found by two segments.
+        CorridorSearch<double[], String, Station> probe = createSearch(new FakeSearchEngine(
+                Collections.<Station>emptyList(), true));
+        List<Station> stations = new ArrayList<>();
+        List<List<double[]>> segments = probe.split(route);
+        for (int i = 1; i < segments.size(); i++) {
+            stations.add(new Station("split-" + i, segments.get(i).get(0)));
+        }
+        CorridorSearch<double[], String, Station> search = createSearch(new FakeSearchEngine(stations, true));
+        RecordingListener listener = new RecordingListener();
+
+        search.search(route, Collections.<String>emptySet(), listener);
+
+        assertEquals(stations.size(), listener.results.size());
+        assertEquals(stations.size(), search.getDuplicateCount());
+    }
+
+    @Test
+    public void reportsProgressForEachSegmentAndExcludesKnownStations() {
+        List<double[]> route = createLongRoute();
+        List<Station> stations = createStations(route, 11);
+        CorridorSearch<double[], String, Station> search = createSearch(new FakeSearchEngine(stations, true));
+        RecordingListener listener = new RecordingListener();
+        Set<String> excludedIds = new HashSet<>();
+        excludedIds.add("near-1");
+        excludedIds.add("near-2");
+
+        search.search(route, excludedIds, listener);
+
+        assertEquals(16, listener.progress.size());
+        for (int i = 0; i < listener.progress.size(); i++) {
+            assertEquals(i + 1, (int) listener.progress.get(i));
+        }
+        for (Station station : listener.results) {
+            assertFalse(excludedIds.contains(station.id));
+        }
+        assertTrue(search.getExcludedCount() >= 2);
+    }
+
+    @Test
+    public void failedSegmentsAreReportedAndOtherResultsKept() {
+        List<double[]> route = createLongRoute();
+        List<Station> stations = createStations(route, 5);
+        final int[] requestIndex = {0};
+        FakeSearchEngine engine = new FakeSearchEngine(stations, true);
+        CorridorSearch<double[], String, Station> search = new CorridorSearch<>((vertices, callback) -> {
+            if (requestIndex[0]++ == 3) {
+                callback.onSearchCompleted("SERVER_UNREACHABLE", null);
+            } else {
+                engine.search(vertices, callback);
+            }
+        }, ACCESSOR, station -> station.id, 100 * 1000, 1000, 1000, 4);
+        RecordingListener listener = new RecordingListener();
+
+        search.search(route, Collections.<String>emptySet(), listener);
+
+        assertEquals(Collections.singletonList("SERVER_UNREACHABLE"), listener.errors);
+        assertFalse(listener.results.isEmpty());
+        assertEquals(1, listener.completedCount);
+    }
+
+    @Test
+    public void repliesOfACancelledSearchAreIgnored() {
+        List<double[]> route = createLongRoute();
+        FakeSearchEngine engine = new FakeSearchEngine(createStations(route, 13), false);
+        CorridorSearch<double[], String, Station> search = createSearch(engine);
+        RecordingListener firstListener = new RecordingListener();
+        RecordingListener secondListener = new RecordingListener();
+
+        search.search(route, Collections.<String>emptySet(), firstListener);
+        List<Runnable> staleReplies = new ArrayList<>(engine.pendingReplies);
+        engine.pendingReplies.clear();
+        search.search(route.subList(0, 10), Collections.<String>emptySet(), secondListener);
+        for (Runnable staleReply : staleReplies) {
+            staleReply.run();
+        }
+        engine.completeAll(new Random(1));
+
+        assertEquals(0, firstListener.completedCount);
+        assertTrue(firstListener.progress.isEmpty());
+        assertEquals(1, secondListener.completedCount);
+        assertEquals(Collections.singletonList(1), secondListener.progress);
+    }
+}
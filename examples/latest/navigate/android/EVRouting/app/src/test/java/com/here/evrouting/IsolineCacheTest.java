@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.evrouting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class IsolineCacheTest {
+
+    private static final long TIME_TO_LIVE = 60000;
+    private static final int PROFILE_HASH = 42;
+
+    // Answers only when complete() is called, so that running calculations can be observed.
+    private static class FakeIsolineProvider implements IsolineCache.IsolineProvider<String, double[]> {
+        final List<IsolineCache.Callback<String, double[]>> pending = new ArrayList<>();
+        final List<double[]> requestedOrigins = new ArrayList<>();
+
+        @Override
+        public void calculateIsoline(double latitude, double longitude, int rangeValue,
+                                     IsolineCache.Callback<String, double[]> callback) {
+            requestedOrigins.add(new double[]{latitude, longitude, rangeValue});
+            pending.add(callback);
+        }
+
+        void complete(int index, String error, double[] result) {
+            pending.set(index, null).onIsolineResult(error, result);
+        }
+    }
+
+    private final FakeIsolineProvider provider = new FakeIsolineProvider();
+    private final List<Object> results = new ArrayList<>();
+    private long now = 0;
+    private IsolineCache<String, double[]> cache;
+
+    @Before
+    public void setUp() {
+        // The weight of a fake result is its length.
+        cache = new IsolineCache<>(provider, result -> result.length, () -> now, 0.001, TIME_TO_LIVE, 100);
+    }
+
+    private void get(double latitude, double longitude) {
+        cache.getIsoline(latitude, longitude, 400, PROFILE_HASH, (error, result) -> results.add(error != null ? error : result));
+    }
+
+    @Test
+    public void secondRequestWithinSameGridCellIsAHit() {
+        get(52.52001, 13.40001);
+        now += 250;
+        double[] polygon = new double[10];
+        provider.complete(0, null, polygon);
+
+        get(52.52009, 13.40009);
+
+        assertEquals(1, provider.requestedOrigins.size());
+        assertEquals(2, results.size());
+        assertSame(polygon, results.get(1));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(0.5, cache.getHitRate(), 1e-9);
+        assertEquals(250, cache.getAverageCalculationTimeInMilliseconds());
+    }
+
+    @Test
+    public void differentCellRangeOrProfileIsAMiss() {
+        get(52.52001, 13.40001);
+        provider.complete(0, null, new double[1]);
+
+        get(52.52101, 13.40001);
+        cache.getIsoline(52.52001, 13.40001, 500, PROFILE_HASH, (error, result) -> { });
+        cache.getIsoline(52.52001, 13.40001, 400, PROFILE_HASH + 1, (error, result) -> { });
+
+        assertEquals(4, provider.requestedOrigins.size());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void entriesExpireAfterTimeToLive() {
+        get(52.52, 13.40);
+        provider.complete(0, null, new double[1]);
+
+        now += TIME_TO_LIVE - 1;
+        get(52.52, 13.40);
+        assertEquals(1, provider.requestedOrigins.size());
+
+        now += 1;
+        get(52.52, 13.40);
+        assertEquals(2, provider.requestedOrigins.size());
+        assertEquals(1, cache.getExpiredCount());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void concurrentRequestsAreCoalesced() {
+        get(52.52, 13.40);
+        get(52.52, 13.40);
+        get(52.52, 13.40);
+        assertEquals(1, provider.requestedOrigins.size());
+
+        provider.complete(0, null, new double[3]);
+
+        assertEquals(3, results.size());
+        assertEquals(2, cache.getCoalescedCount());
+    }
+
+    @Test
+    public void errorsArePassedOnButNotCached() {
+        get(52.52, 13.40);
+        provider.complete(0, "NO_ROUTE", null);
+        get(52.52, 13.40);
+
+        assertEquals(Collections.singletonList("NO_ROUTE"), results);
+        assertEquals(2, provider.requestedOrigins.size());
+        assertEquals(1, cache.getErrorCount());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntriesAreEvictedToStayWithinTotalWeight() {
+        get(52.0, 13.0);
+        provider.complete(0, null, new double[40]);
+        get(53.0, 13.0);
+        provider.complete(1, null, new double[40]);
+        // The first entry is used again, so the second one becomes the least recently used.
+        get(52.0, 13.0);
+
+        get(54.0, 13.0);
+        provider.complete(2, null, new double[40]);
+
+        assertEquals(2, cache.size());
+        assertEquals(80, cache.getTotalWeight());
+        assertEquals(1, cache.getEvictedCount());
+        get(52.0, 13.0);
+        assertEquals(3, provider.requestedOrigins.size());
+        get(53.0, 13.0);
+        assertEquals(4, provider.requestedOrigins.size());
+    }
+
+    @Test
+    public void resultsHeavierThanTheWholeCacheAreNotStored() {
+        get(52.52, 13.40);
+        provider.complete(0, null, new double[101]);
+
+        assertEquals(1, results.size());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void warmingPrecomputesDepotsAndRefreshesEntriesThatExpireSoon() {
+        List<double[]> depots = Arrays.asList(new double[]{52.52, 13.40}, new double[]{52.53, 13.38});
+
+        assertEquals(2, cache.warm(depots, 400, PROFILE_HASH, 10000));
+        // Running calculations are not started twice.
+        assertEquals(0, cache.warm(depots, 400, PROFILE_HASH, 10000));
+        provider.complete(0, null, new double[1]);
+        provider.complete(1, null, new double[1]);
+
+        get(52.52, 13.40);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(0, cache.warm(depots, 400, PROFILE_HASH, 10000));
+
+        now += TIME_TO_LIVE - 10000;
+        assertEquals(2, cache.warm(depots, 400, PROFILE_HASH, 10000));
+        assertEquals(4, cache.getWarmedCount());
+        assertNull(provider.pending.get(0));
+    }
+
+    @Test
+    public void keysOfNegativeCoordinatesAreNotMerged() {
+        assertTrue(cache.createKey(-0.0005, 0, 400, 0).equals(cache.createKey(-0.0009, 0, 400, 0)));
+        assertTrue(!cache.createKey(-0.0005, 0, 400, 0).equals(cache.createKey(0.0005, 0, 400, 0)));
+    }
+}
@@ -20,7 +20,7 @@
 package com.here.hikingdiary;
 
 import android.content.Context;
-import android.os.Environment;
+import android.util.Log;
 
 import com.here.hikingdiary.positioning.HEREPositioningSimulator;
 import com.here.sdk.core.GeoCoordinates;
@@ -29,27 +29,91 @@ import com.here.sdk.core.LocationListener;
 import com.here.sdk.navigation.GPXDocument;
 import com.here.sdk.navigation.GPXOptions;
 import com.here.sdk.navigation.GPXTrack;
+import com.here.sdk.navigation.GPXTrackWriter;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-// A class to manage a GPXDocument containing multiple GPX tracks.
+// A class to manage multiple GPX tracks.
+// The tracks are stored in an append-only GPXTrackJournal, so saving or deleting a track does not
+// rewrite all other tracks.
 public class GPXManager {
-    public GPXDocument gpxDocument = new GPXDocument(new ArrayList<>());
-    private String gpxDocumentFileName;
-    private Context context;
-    private HEREPositioningSimulator locationSimulator = new HEREPositioningSimulator();
+    private static final String TAG = GPXManager.class.getSimpleName();
+    private static final String JOURNAL_FILE_NAME = "gpxTracks.journal";
+
+    // Flags to mark which optional Location fields are stored.
+    private static final int HAS_ALTITUDE = 1;
+    private static final int HAS_HORIZONTAL_ACCURACY = 1 << 1;
+    private static final int HAS_BEARING = 1 << 2;
+    private static final int HAS_SPEED = 1 << 3;
+    private static final int HAS_TIME = 1 << 4;
+
+    private final GPXTrackJournal gpxTrackJournal;
+    private final String gpxDocumentFileName;
+    private final Context context;
+    private final HEREPositioningSimulator locationSimulator = new HEREPositioningSimulator();
+    // Compaction rewrites all live tracks, so it is done in the background.
+    private final ExecutorService compactionExecutor = Executors.newSingleThreadExecutor();
 
     public GPXManager(String gpxDocumentFileName, Context context) {
         this.gpxDocumentFileName = gpxDocumentFileName;
         this.context = context;
+        File journalFile = new File(context.getFilesDir(), JOURNAL_FILE_NAME);
+        try {
+            gpxTrackJournal = new GPXTrackJournal(journalFile);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot open GPX track journal: " + e.getMessage());
+        }
+        if (gpxTrackJournal.getDiscardedBytesOnOpen() > 0) {
+            Log.w(TAG, "Discarded an unreadable track of " + gpxTrackJournal.getDiscardedBytesOnOpen() + " bytes.");
+        }
+        if (!gpxTrackJournal.isImportCompleted()) {
+            importGPXDocument(gpxDocumentFileName);
+        }
+    }
+
+    // Tracks stored by former versions of this app are copied once into the journal.
+    // The journal records when this is done, so an existing journal file alone does not skip the import.
+    // If a track cannot be saved, the tracks copied so far are removed again and the import is not marked as
+    // completed, so that it is repeated with the next start without duplicating tracks.
+    private void importGPXDocument(String gpxDocumentFileName) {
         GPXDocument loadedGPXDocument = loadGPXDocument(gpxDocumentFileName);
         if (loadedGPXDocument != null) {
-            gpxDocument = loadedGPXDocument;
+            List<Long> importedTrackIds = new ArrayList<>();
+            try {
+                for (GPXTrack gpxTrack : loadedGPXDocument.getTracks()) {
+                    // Tracks with less than two locations were never stored by the former versions either.
+                    if (gpxTrack.getLocations().size() >= 2) {
+                        importedTrackIds.add(appendGPXTrack(gpxTrack));
+                    }
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Importing GPX tracks failed: " + e.getMessage());
+                for (long trackId : importedTrackIds) {
+                    try {
+                        gpxTrackJournal.delete(trackId);
+                    } catch (IOException deleteError) {
+                        Log.e(TAG, "Removing an imported GPX track failed: " + deleteError.getMessage());
+                    }
+                }
+                return;
+            }
+        }
+        try {
+            gpxTrackJournal.markImportCompleted();
+        } catch (IOException e) {
+            Log.e(TAG, "Marking the GPX import as completed failed: " + e.getMessage());
         }
     }
 
@@ -84,28 +148,99 @@ public class GPXManager {
             gpxTrack.setDescription(getCurrentDate());
         }
 
-        gpxDocument.addTrack(gpxTrack);
+        try {
+            appendGPXTrack(gpxTrack);
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "Saving GPX track failed: " + e.getMessage());
+            return false;
+        }
+    }
 
-        return gpxDocument.save(gpxDocumentFileName);
+    private long appendGPXTrack(GPXTrack gpxTrack) throws IOException {
+        int distanceInMeters = TravelledPath.computeLengthInMeters(
+                getGeoCoordinatesList(gpxTrack), GeoCoordinates::distanceTo);
+        return gpxTrackJournal.append(gpxTrack.getName(), gpxTrack.getDescription(), distanceInMeters,
+                encodeLocations(gpxTrack.getLocations()));
+    }
+
+    public int getGPXTrackCount() {
+        return gpxTrackJournal.size();
     }
 
     public GPXTrack getGPXTrack(int index) {
-        if (gpxDocument.getTracks().isEmpty()) {
+        GPXTrackJournal.Entry entry = gpxTrackJournal.getEntryAt(index);
+        if (entry == null) {
             return null;
         }
 
-        if (index < 0 || index > gpxDocument.getTracks().size() - 1) {
+        try {
+            return createGPXTrack(entry, gpxTrackJournal.readPayload(entry.trackId));
+        } catch (IOException e) {
+            Log.e(TAG, "Loading GPX track failed: " + e.getMessage());
             return null;
         }
-
-        return gpxDocument.getTracks().get(index);
     }
+
     public boolean deleteGPXTrack(int index) {
-        List<GPXTrack> gpxTracks = gpxDocument.getTracks();
-        gpxTracks.remove(index);
+        GPXTrackJournal.Entry entry = gpxTrackJournal.getEntryAt(index);
+        if (entry == null) {
+            return false;
+        }
+
+        boolean isDeleted;
+        try {
+            isDeleted = gpxTrackJournal.delete(entry.trackId);
+        } catch (IOException e) {
+            Log.e(TAG, "Deleting GPX track failed: " + e.getMessage());
+            return false;
+        }
+
+        if (gpxTrackJournal.needsCompaction()) {
+            compactionExecutor.execute(() -> {
+                try {
+                    gpxTrackJournal.compact();
+                } catch (IOException e) {
+                    // The journal is still complete, compaction will be tried again with the next deletion.
+                    Log.e(TAG, "Compacting GPX track journal failed: " + e.getMessage());
+                }
+            });
+        }
+        return isDeleted;
+    }
+
+    // The names and descriptions are kept in the index of the journal, so no track data needs to be loaded.
+    public List<String> getGPXTrackNames() {
+        List<String> names = new ArrayList<>();
+        for (GPXTrackJournal.Entry entry : gpxTrackJournal.getEntries()) {
+            names.add(entry.name);
+        }
+        return names;
+    }
 
-        // Replace the existing document with the updated tracks list.
-        gpxDocument = new GPXDocument(gpxTracks);
+    public List<String> getGPXTrackDescriptions() {
+        List<String> descriptions = new ArrayList<>();
+        for (GPXTrackJournal.Entry entry : gpxTrackJournal.getEntries()) {
+            descriptions.add(entry.description);
+        }
+        return descriptions;
+    }
+
+    // Writes all tracks into a single GPX document, for example, to share them with other apps.
+    // The journal stays the storage of the tracks, the document is only written on demand.
+    public boolean exportGPXDocument() {
+        List<GPXTrack> gpxTracks = new ArrayList<>();
+        try {
+            int skippedCount = gpxTrackJournal.forEachTrack(
+                    (entry, payload) -> gpxTracks.add(createGPXTrack(entry, payload)));
+            if (skippedCount > 0) {
+                Log.w(TAG, "Skipped " + skippedCount + " unreadable tracks in the GPX export.");
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Exporting GPX tracks failed: " + e.getMessage());
+            return false;
+        }
+        GPXDocument gpxDocument = new GPXDocument(gpxTracks);
         return gpxDocument.save(gpxDocumentFileName);
     }
 
@@ -118,6 +253,83 @@ public class GPXManager {
         return geoCoordinatesList;
     }
 
+    private GPXTrack createGPXTrack(GPXTrackJournal.Entry entry, byte[] payload) throws IOException {
+        GPXTrackWriter gpxTrackWriter = new GPXTrackWriter();
+        for (Location location : decodeLocations(payload)) {
+            gpxTrackWriter.onLocationUpdated(location);
+        }
+        GPXTrack gpxTrack = gpxTrackWriter.getTrack();
+        gpxTrack.setName(entry.name);
+        gpxTrack.setDescription(entry.description);
+        return gpxTrack;
+    }
+
+    // A compact binary representation of the locations of a track. Only the fields that are set are stored.
+    private static byte[] encodeLocations(List<Location> locations) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(locations.size() * 48);
+        DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+        dataOutputStream.writeInt(locations.size());
+        for (Location location : locations) {
+            int flags = 0;
+            flags |= location.coordinates.altitude != null ? HAS_ALTITUDE : 0;
+            flags |= location.horizontalAccuracyInMeters != null ? HAS_HORIZONTAL_ACCURACY : 0;
+            flags |= location.bearingInDegrees != null ? HAS_BEARING : 0;
+            flags |= location.speedInMetersPerSecond != null ? HAS_SPEED : 0;
+            flags |= location.time != null ? HAS_TIME : 0;
+
+            dataOutputStream.writeByte(flags);
+            dataOutputStream.writeDouble(location.coordinates.latitude);
+            dataOutputStream.writeDouble(location.coordinates.longitude);
+            if ((flags & HAS_ALTITUDE) != 0) {
+                dataOutputStream.writeDouble(location.coordinates.altitude);
+            }
+            if ((flags & HAS_HORIZONTAL_ACCURACY) != 0) {
+                dataOutputStream.writeDouble(location.horizontalAccuracyInMeters);
+            }
+            if ((flags & HAS_BEARING) != 0) {
+                dataOutputStream.writeDouble(location.bearingInDegrees);
+            }
+            if ((flags & HAS_SPEED) != 0) {
+                dataOutputStream.writeDouble(location.speedInMetersPerSecond);
+            }
+            if ((flags & HAS_TIME) != 0) {
+                dataOutputStream.writeLong(location.time.getTime());
+            }
+        }
+        dataOutputStream.flush();
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    private static List<Location> decodeLocations(byte[] payload) throws IOException {
+        DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(payload));
+        int count = dataInputStream.readInt();
+        List<Location> locations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int flags = dataInputStream.readByte();
+            double latitude = dataInputStream.readDouble();
+            double longitude = dataInputStream.readDouble();
+            GeoCoordinates geoCoordinates = (flags & HAS_ALTITUDE) != 0
+                    ? new GeoCoordinates(latitude, longitude, dataInputStream.readDouble())
+                    : new GeoCoordinates(latitude, longitude);
+
+            Location location = new Location(geoCoordinates);
+            if ((flags & HAS_HORIZONTAL_ACCURACY) != 0) {
+                location.horizontalAccuracyInMeters = dataInputStream.readDouble();
+            }
+            if ((flags & HAS_BEARING) != 0) {
+                location.bearingInDegrees = dataInputStream.readDouble();
+            }
+            if ((flags & HAS_SPEED) != 0) {
+                location.speedInMetersPerSecond = dataInputStream.readDouble();
+            }
+            if ((flags & HAS_TIME) != 0) {
+                location.time = new Date(dataInputStream.readLong());
+            }
+            locations.add(location);
+        }
+        return locations;
+    }
+
     private String getCurrentDate() {
         Date date = new Date();
         DateFormat formatter = new SimpleDateFormat("yy/MM/dd, HH:mm");
@@ -0,0 +1,528 @@
+/*
+ * Copyright (C) 2022-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.hikingdiary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UTFDataFormatException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// An append-only journal that stores one record per track.
+// Saving a track appends a single record and deleting a track appends a small tombstone record,
+// so the cost of both operations does not depend on the number of stored tracks.
+// An in-memory index maps each track ID to the position of its payload, together with the name,
+// description and distance, so that the diary menu can be shown without reading any track data.
+// Deleted records are removed by compact(), which rewrites only the live records. The tombstone of the
+// last handed out track ID is kept, so that IDs are never handed out twice.
+//
+// Record layout:
+//   int magic, byte type (TRACK, DELETE or IMPORT_COMPLETED), long trackId,
+//   [type TRACK only: UTF name, UTF description, int distanceInMeters, int payloadLength, byte[] payload],
+//   int crc32 (over all preceding bytes of the record).
+//
+// A crash can only tear the last record, as records are only appended and each append is synced.
+// When the journal is opened, the index is rebuilt from the record headers only: payloads are skipped,
+// so opening does not read the track data. The CRC of the last record is checked on open, the CRC of
+// all other track records is checked when their payload is read. A torn last record is cut off, a record
+// in the middle that cannot be decoded is skipped.
+public class GPXTrackJournal implements Closeable {
+
+    public static final class Entry {
+        public final long trackId;
+        public final String name;
+        public final String description;
+        public final int distanceInMeters;
+        // Position and size of the whole record in the journal file.
+        final long recordOffset;
+        final int recordLength;
+        // Position and size of the payload within the journal file.
+        final long payloadOffset;
+        final int payloadLength;
+
+        Entry(long trackId, String name, String description, int distanceInMeters,
+              long recordOffset, int recordLength, long payloadOffset, int payloadLength) {
+            this.trackId = trackId;
+            this.name = name;
+            this.description = description;
+            this.distanceInMeters = distanceInMeters;
+            this.recordOffset = recordOffset;
+            this.recordLength = recordLength;
+            this.payloadOffset = payloadOffset;
+            this.payloadLength = payloadLength;
+        }
+
+        Entry movedTo(long newRecordOffset) {
+            long delta = newRecordOffset - recordOffset;
+            return new Entry(trackId, name, description, distanceInMeters,
+                    newRecordOffset, recordLength, payloadOffset + delta, payloadLength);
+        }
+    }
+
+    public interface TrackVisitor {
+        void visit(Entry entry, byte[] payload) throws IOException;
+    }
+
+    private static final int MAGIC = 0x47505852; // "GPXR"
+    private static final byte TYPE_TRACK = 1;
+    private static final byte TYPE_DELETE = 2;
+    // Marks that the tracks of an older storage format were copied into the journal.
+    private static final byte TYPE_IMPORT_COMPLETED = 3;
+    // magic + type + trackId
+    private static final int HEADER_LENGTH = 4 + 1 + 8;
+    private static final int CRC_LENGTH = 4;
+    // The length of all records without a body, such as DELETE.
+    private static final int EMPTY_RECORD_LENGTH = HEADER_LENGTH + CRC_LENGTH;
+    // Do not compact for a few deleted tracks, as compaction rewrites all live records.
+    private static final long MIN_DEAD_BYTES_FOR_COMPACTION = 256 * 1024;
+
+    private final File file;
+    // Only one compaction at a time. Compaction does not hold the lock of the journal while it copies.
+    private final Object compactionLock = new Object();
+    private RandomAccessFile randomAccessFile;
+    // In the order the tracks were saved, so that tracks can be listed and accessed by their position.
+    private final List<Entry> entries = new ArrayList<>();
+    private final HashMap<Long, Entry> entriesByTrackId = new HashMap<>();
+    private long nextTrackId = 1;
+    private boolean isImportCompleted = false;
+    private long deadBytes = 0;
+    private int discardedBytesOnOpen = 0;
+
+    public GPXTrackJournal(File file) throws IOException {
+        this.file = file;
+        // A leftover from an interrupted compaction. The journal itself is still complete.
+        File compactionFile = getCompactionFile();
+        if (compactionFile.exists() && !compactionFile.delete()) {
+            throw new IOException("Cannot delete " + compactionFile);
+        }
+        randomAccessFile = new RandomAccessFile(file, "rw");
+        recover();
+    }
+
+    public synchronized List<Entry> getEntries() {
+        return new ArrayList<>(entries);
+    }
+
+    public synchronized Entry getEntry(long trackId) {
+        return entriesByTrackId.get(trackId);
+    }
+
+    // Returns null, if there is no track at the given position.
+    public synchronized Entry getEntryAt(int index) {
+        if (index < 0 || index >= entries.size()) {
+            return null;
+        }
+        return entries.get(index);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Appends a track and returns its ID.
+    public synchronized long append(String name, String description, int distanceInMeters, byte[] payload)
+            throws IOException {
+        long trackId = nextTrackId++;
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(payload.length + 128);
+        DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+        writeHeader(dataOutputStream, TYPE_TRACK, trackId);
+        dataOutputStream.writeUTF(name);
+        dataOutputStream.writeUTF(description);
+        dataOutputStream.writeInt(distanceInMeters);
+        dataOutputStream.writeInt(payload.length);
+        int payloadOffsetInRecord = dataOutputStream.size();
+        dataOutputStream.write(payload);
+        byte[] record = finishRecord(byteArrayOutputStream, dataOutputStream);
+
+        long recordOffset = appendRecord(record);
+        addEntry(new Entry(trackId, name, description, distanceInMeters,
+                recordOffset, record.length, recordOffset + payloadOffsetInRecord, payload.length));
+        return trackId;
+    }
+
+    // Marks a track as deleted. The space is reclaimed with the next compaction.
+    public synchronized boolean delete(long trackId) throws IOException {
+        Entry entry = entriesByTrackId.get(trackId);
+        if (entry == null) {
+            return false;
+        }
+
+        appendRecord(createEmptyRecord(TYPE_DELETE, trackId));
+
+        removeEntry(trackId);
+        deadBytes += entry.recordLength + EMPTY_RECORD_LENGTH;
+        return true;
+    }
+
+    public synchronized boolean isImportCompleted() {
+        return isImportCompleted;
+    }
+
+    public synchronized void markImportCompleted() throws IOException {
+        if (isImportCompleted) {
+            return;
+        }
+        appendRecord(createEmptyRecord(TYPE_IMPORT_COMPLETED, 0));
+        isImportCompleted = true;
+    }
+
+    // Reads the whole record to check its CRC, as the CRC was not checked when the journal was opened.
+    public synchronized byte[] readPayload(long trackId) throws IOException {
+        Entry entry = entriesByTrackId.get(trackId);
+        if (entry == null) {
+            return null;
+        }
+        byte[] record = readRecord(entry.recordOffset, entry.recordLength);
+        if (!hasValidCrc(record)) {
+            throw new IOException("Track " + trackId + " is corrupt.");
+        }
+        int payloadOffsetInRecord = (int) (entry.payloadOffset - entry.recordOffset);
+        return Arrays.copyOfRange(record, payloadOffsetInRecord, payloadOffsetInRecord + entry.payloadLength);
+    }
+
+    // Calls the visitor for each live track, in the order the tracks were saved. The tracks are read one
+    // by one, so other calls are not blocked for the whole iteration. Tracks that are deleted meanwhile
+    // are left out. Returns the number of tracks that were skipped, because they could not be read.
+    public int forEachTrack(TrackVisitor visitor) throws IOException {
+        int skippedCount = 0;
+        for (Entry entry : getEntries()) {
+            byte[] payload;
+            try {
+                payload = readPayload(entry.trackId);
+            } catch (IOException e) {
+                skippedCount++;
+                continue;
+            }
+            if (payload != null) {
+                visitor.visit(entry, payload);
+            }
+        }
+        return skippedCount;
+    }
+
+    public synchronized boolean needsCompaction() {
+        return deadBytes >= MIN_DEAD_BYTES_FOR_COMPACTION && deadBytes >= getLiveBytes();
+    }
+
+    // Rewrites all live records into a new file, which then atomically replaces the journal.
+    // If the process dies meanwhile, the old journal stays untouched.
+    // The live records are copied without holding the lock, so tracks can still be listed, read, saved and
+    // deleted meanwhile. Only the records that were appended during the copy are copied under the lock,
+    // right before the new file replaces the journal.
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            List<Entry> snapshotEntries;
+            boolean snapshotIsImportCompleted;
+            long snapshotLastTrackId;
+            long snapshotLength;
+            long snapshotDeadBytes;
+            synchronized (this) {
+                snapshotEntries = new ArrayList<>(entries);
+                snapshotIsImportCompleted = isImportCompleted;
+                snapshotLastTrackId = nextTrackId - 1;
+                snapshotLength = randomAccessFile.length();
+                snapshotDeadBytes = deadBytes;
+            }
+
+            File compactionFile = getCompactionFile();
+            HashMap<Long, Long> compactedOffsetsByTrackId = new HashMap<>();
+            long compactedDeadBytes = 0;
+            long offset = 0;
+            try (FileOutputStream fileOutputStream = new FileOutputStream(compactionFile);
+                 // Records before the snapshot length are never changed, so they can be read with a
+                 // separate file handle.
+                 RandomAccessFile snapshotFile = new RandomAccessFile(file, "r")) {
+                if (snapshotIsImportCompleted) {
+                    fileOutputStream.write(createEmptyRecord(TYPE_IMPORT_COMPLETED, 0));
+                    offset += EMPTY_RECORD_LENGTH;
+                }
+                boolean isLastTrackLive = false;
+                for (Entry entry : snapshotEntries) {
+                    fileOutputStream.write(readRecord(snapshotFile, entry.recordOffset, entry.recordLength));
+                    compactedOffsetsByTrackId.put(entry.trackId, offset);
+                    offset += entry.recordLength;
+                    isLastTrackLive |= entry.trackId == snapshotLastTrackId;
+                }
+                // Without this tombstone, the ID of a deleted last track would be handed out again after reopening.
+                if (snapshotLastTrackId > 0 && !isLastTrackLive) {
+                    fileOutputStream.write(createEmptyRecord(TYPE_DELETE, snapshotLastTrackId));
+                    offset += EMPTY_RECORD_LENGTH;
+                    compactedDeadBytes = EMPTY_RECORD_LENGTH;
+                }
+            }
+
+            synchronized (this) {
+                // Tracks, tombstones and markers appended meanwhile are copied as they are. Tracks deleted
+                // meanwhile were copied above and are dead bytes in the new file as well.
+                try (FileOutputStream fileOutputStream = new FileOutputStream(compactionFile, true)) {
+                    long appendedLength = randomAccessFile.length() - snapshotLength;
+                    if (appendedLength > 0) {
+                        fileOutputStream.write(readRecord(randomAccessFile, snapshotLength, (int) appendedLength));
+                    }
+                    fileOutputStream.getFD().sync();
+                }
+                replaceWithCompactionFile(compactionFile);
+
+                List<Entry> liveEntries = new ArrayList<>(entries);
+                entries.clear();
+                entriesByTrackId.clear();
+                for (Entry entry : liveEntries) {
+                    Long compactedOffset = compactedOffsetsByTrackId.get(entry.trackId);
+                    addEntry(entry.movedTo(compactedOffset != null
+                            ? compactedOffset
+                            : offset + entry.recordOffset - snapshotLength));
+                }
+                deadBytes = compactedDeadBytes + deadBytes - snapshotDeadBytes;
+            }
+        }
+    }
+
+    public synchronized long getFileLength() throws IOException {
+        return randomAccessFile.length();
+    }
+
+    public synchronized long getLiveBytes() {
+        long liveBytes = 0;
+        for (Entry entry : entries) {
+            liveBytes += entry.recordLength;
+        }
+        return liveBytes;
+    }
+
+    public synchronized long getDeadBytes() {
+        return deadBytes;
+    }
+
+    // The number of bytes that were discarded when the journal was opened, because of an incomplete write
+    // or a record that could not be decoded.
+    public synchronized int getDiscardedBytesOnOpen() {
+        return discardedBytesOnOpen;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        randomAccessFile.close();
+    }
+
+    private File getCompactionFile() {
+        return new File(file.getPath() + ".compact");
+    }
+
+    private void addEntry(Entry entry) {
+        entries.add(entry);
+        entriesByTrackId.put(entry.trackId, entry);
+    }
+
+    private Entry removeEntry(long trackId) {
+        Entry entry = entriesByTrackId.remove(trackId);
+        if (entry != null) {
+            entries.remove(entry);
+        }
+        return entry;
+    }
+
+    private static void writeHeader(DataOutputStream dataOutputStream, byte type, long trackId) throws IOException {
+        dataOutputStream.writeInt(MAGIC);
+        dataOutputStream.writeByte(type);
+        dataOutputStream.writeLong(trackId);
+    }
+
+    private static byte[] finishRecord(ByteArrayOutputStream byteArrayOutputStream,
+                                       DataOutputStream dataOutputStream) throws IOException {
+        CRC32 crc32 = new CRC32();
+        crc32.update(byteArrayOutputStream.toByteArray());
+        dataOutputStream.writeInt((int) crc32.getValue());
+        dataOutputStream.flush();
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    private static byte[] createEmptyRecord(byte type, long trackId) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(EMPTY_RECORD_LENGTH);
+        DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+        writeHeader(dataOutputStream, type, trackId);
+        return finishRecord(byteArrayOutputStream, dataOutputStream);
+    }
+
+    private static boolean hasValidCrc(byte[] record) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(record, 0, record.length - CRC_LENGTH);
+        int storedCrc = ((record[record.length - 4] & 0xFF) << 24)
+                | ((record[record.length - 3] & 0xFF) << 16)
+                | ((record[record.length - 2] & 0xFF) << 8)
+                | (record[record.length - 1] & 0xFF);
+        return storedCrc == (int) crc32.getValue();
+    }
+
+    private byte[] readRecord(long recordOffset, int recordLength) throws IOException {
+        return readRecord(randomAccessFile, recordOffset, recordLength);
+    }
+
+    private static byte[] readRecord(RandomAccessFile randomAccessFile, long recordOffset, int recordLength)
+            throws IOException {
+        byte[] record = new byte[recordLength];
+        randomAccessFile.seek(recordOffset);
+        randomAccessFile.readFully(record);
+        return record;
+    }
+
+    private void replaceWithCompactionFile(File compactionFile) throws IOException {
+        randomAccessFile.close();
+        if (!compactionFile.renameTo(file)) {
+            // Keep working with the old journal, it is still complete.
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            throw new IOException("Cannot replace " + file + " with compacted journal.");
+        }
+        randomAccessFile = new RandomAccessFile(file, "rw");
+    }
+
+    // Writes the record in one call and syncs it to the storage before the index is updated.
+    private long appendRecord(byte[] record) throws IOException {
+        long recordOffset = randomAccessFile.length();
+        randomAccessFile.seek(recordOffset);
+        randomAccessFile.write(record);
+        randomAccessFile.getFD().sync();
+        return recordOffset;
+    }
+
+    // Reads the record headers to rebuild the index. Only the last record can be torn by a crash, so a record
+    // that is incomplete or cannot be decoded and reaches the end of the file is cut off, so that the next
+    // append starts at a valid position. A record in the middle of the file that cannot be decoded is skipped,
+    // so that the tracks after it are kept. If the length of such a record is unknown, the tracks after it
+    // cannot be found, so opening fails instead of discarding them.
+    private void recover() throws IOException {
+        long fileLength = randomAccessFile.length();
+        long offset = 0;
+
+        while (offset < fileLength) {
+            Entry entry;
+            byte type;
+            boolean isReadable = true;
+            try {
+                randomAccessFile.seek(offset);
+                if (randomAccessFile.readInt() != MAGIC) {
+                    if (isZeroFilled(offset, fileLength)) {
+                        // The file was extended by a write that never reached the storage.
+                        break;
+                    }
+                    throw new IOException("Journal " + file + " is corrupt at offset " + offset + ".");
+                }
+                type = randomAccessFile.readByte();
+                long trackId = randomAccessFile.readLong();
+                if (type == TYPE_TRACK) {
+                    // The lengths are read first, so that a record with an invalid name can still be skipped.
+                    long nameOffset = randomAccessFile.getFilePointer();
+                    skipUTF();
+                    skipUTF();
+                    int distanceInMeters = randomAccessFile.readInt();
+                    int payloadLength = randomAccessFile.readInt();
+                    long payloadOffset = randomAccessFile.getFilePointer();
+                    if (payloadLength < 0) {
+                        throw new IOException("Journal " + file + " has an invalid track at offset " + offset + ".");
+                    }
+                    long recordLength = payloadOffset - offset + payloadLength + CRC_LENGTH;
+                    if (recordLength > fileLength - offset) {
+                        break;
+                    }
+                    String name = "";
+                    String description = "";
+                    try {
+                        randomAccessFile.seek(nameOffset);
+                        name = randomAccessFile.readUTF();
+                        description = randomAccessFile.readUTF();
+                    } catch (UTFDataFormatException e) {
+                        isReadable = false;
+                    }
+                    entry = new Entry(trackId, name, description, distanceInMeters,
+                            offset, (int) recordLength, payloadOffset, payloadLength);
+                } else if (type == TYPE_DELETE || type == TYPE_IMPORT_COMPLETED) {
+                    if (EMPTY_RECORD_LENGTH > fileLength - offset) {
+                        break;
+                    }
+                    entry = new Entry(trackId, "", "", 0, offset, EMPTY_RECORD_LENGTH, 0, 0);
+                } else {
+                    throw new IOException("Journal " + file + " has an unknown record at offset " + offset + ".");
+                }
+            } catch (EOFException e) {
+                // The record was not written completely.
+                break;
+            }
+
+            // The CRC of the last record is checked, as it can be torn. Records without a body are small enough
+            // to always be checked.
+            boolean isLastRecord = offset + entry.recordLength == fileLength;
+            if (isReadable && (isLastRecord || type != TYPE_TRACK)) {
+                isReadable = hasValidCrc(readRecord(offset, entry.recordLength));
+            }
+            if (!isReadable) {
+                if (isLastRecord) {
+                    break;
+                }
+                discardedBytesOnOpen += entry.recordLength;
+                deadBytes += entry.recordLength;
+                offset += entry.recordLength;
+                continue;
+            }
+
+            if (type == TYPE_TRACK) {
+                addEntry(entry);
+            } else if (type == TYPE_DELETE) {
+                Entry deletedEntry = removeEntry(entry.trackId);
+                if (deletedEntry != null) {
+                    deadBytes += deletedEntry.recordLength;
+                }
+                deadBytes += EMPTY_RECORD_LENGTH;
+            } else {
+                isImportCompleted = true;
+            }
+            nextTrackId = Math.max(nextTrackId, entry.trackId + 1);
+            offset += entry.recordLength;
+        }
+
+        if (offset < fileLength) {
+            discardedBytesOnOpen += (int) (fileLength - offset);
+            randomAccessFile.setLength(offset);
+            randomAccessFile.getFD().sync();
+        }
+    }
+
+    private void skipUTF() throws IOException {
+        int utfLength = randomAccessFile.readUnsignedShort();
+        randomAccessFile.seek(randomAccessFile.getFilePointer() + utfLength);
+    }
+
+    private boolean isZeroFilled(long offset, long fileLength) throws IOException {
+        randomAccessFile.seek(offset);
+        for (long position = offset; position < fileLength; position++) {
+            if (randomAccessFile.read() != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
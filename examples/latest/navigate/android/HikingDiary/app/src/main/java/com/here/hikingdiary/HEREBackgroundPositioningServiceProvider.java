@@ -41,6 +41,7 @@ public class HEREBackgroundPositioningServiceProvider {
     private final LocationListener locationListener;
     private Activity activity;
     private boolean shouldUnbind;
+    private boolean isInBackground;
     private final Context context;
 
     public HEREBackgroundPositioningServiceProvider(Activity activity, LocationListener locationListener) {
@@ -52,17 +53,8 @@ public class HEREBackgroundPositioningServiceProvider {
     private final ServiceConnection connection = new ServiceConnection() {
         public void onServiceConnected(ComponentName className, IBinder service) {
             positioningService = ((HEREBackgroundPositioningService.LocalBinder) service).getService();
-            positioningService.registerListener(new BackgroundServiceListener() {
-                @Override
-                public void onStateUpdate(HEREBackgroundPositioningService.State state) {
-                    Log.i(TAG, "onStateUpdate: " + state);
-                }
-
-                @Override
-                public void onLocationUpdated(Location location) {
-                    locationListener.onLocationUpdated(location);
-                }
-            });
+            positioningService.registerListener(serviceListener);
+            positioningService.setInBackground(isInBackground);
         }
 
         public void onServiceDisconnected(ComponentName className) {
@@ -70,6 +62,18 @@ public class HEREBackgroundPositioningServiceProvider {
         }
     };
 
+    private final BackgroundServiceListener serviceListener = new BackgroundServiceListener() {
+        @Override
+        public void onStateUpdate(HEREBackgroundPositioningService.State state) {
+            Log.i(TAG, "onStateUpdate: " + state);
+        }
+
+        @Override
+        public void onLocationUpdated(Location location) {
+            locationListener.onLocationUpdated(location);
+        }
+    };
+
     public void startForegroundService() {
         HEREBackgroundPositioningService.start(context);
         openBinder();
@@ -80,6 +84,14 @@ public class HEREBackgroundPositioningServiceProvider {
         closeBinder();
     }
 
+    // While in the background, the service delivers locations in batches.
+    public void setInBackground(boolean inBackground) {
+        isInBackground = inBackground;
+        if (positioningService != null) {
+            positioningService.setInBackground(inBackground);
+        }
+    }
+
     private void openBinder() {
         Intent intent = new Intent(activity, HEREBackgroundPositioningService.class);
         if (activity.bindService(intent, connection, Context.BIND_NOT_FOREGROUND)) {
@@ -94,6 +106,10 @@ public class HEREBackgroundPositioningServiceProvider {
 
     private void closeBinder() {
         if (shouldUnbind) {
+            if (positioningService != null) {
+                positioningService.unregisterListener(serviceListener);
+                positioningService = null;
+            }
             activity.unbindService(connection);
             shouldUnbind = false;
         }
@@ -50,6 +50,9 @@ public class HikingApp {
     private MapView mapView;
     private Context context;
     private MapPolyline myPathMapPolyline;
+    // Polylines of the sealed chunks of the travelled path. They do not change anymore while hiking.
+    private final List<MapPolyline> sealedPathMapPolylines = new ArrayList<>();
+    private final TravelledPath<GeoCoordinates> travelledPath = new TravelledPath<>(GeoCoordinates::distanceTo);
     private boolean isHiking = false;
     private boolean isGPXTrackLoaded = false;
     private GPXTrackWriter gpxTrackWriter = new GPXTrackWriter();
@@ -89,6 +92,7 @@ public class HikingApp {
         animateCameraToCurrentLocation();
         setMessage("Start Hike.");
         gpxTrackWriter = new GPXTrackWriter();
+        travelledPath.clear();
     }
 
     public void onStopHikingButtonClicked() {
@@ -116,47 +120,56 @@ public class HikingApp {
         }
         if (isHiking && locationFilter.checkIfLocationCanBeUsed(location)) {
             gpxTrackWriter.onLocationUpdated(location);
+            travelledPath.addVertex(location.coordinates);
             MapPolyline mapPolyline = updateTravelledPath();
             if (mapPolyline != null) {
-                int distanceTravelled = getLengthOfGeoPolylineInMeters(mapPolyline.getGeometry());
-                setMessage("Hike Distance: " + distanceTravelled + " m");
+                setMessage("Hike Distance: " + travelledPath.getLengthInMeters() + " m");
             }
         }
     }
 
+    // Only the tail of the travelled path is updated, the sealed chunks stay untouched.
+    // This way the cost of an update does not grow with the length of the hike.
     private MapPolyline updateTravelledPath() {
-        List<GeoCoordinates> geoCoordinatesList = gpxManager.getGeoCoordinatesList(gpxTrackWriter.getTrack());
-        if (geoCoordinatesList.size() < 2) {
+        List<GeoCoordinates> tailGeoCoordinatesList = travelledPath.getTailVertices();
+        if (tailGeoCoordinatesList.size() < 2) {
             return null;
         }
         GeoPolyline geoPolyline;
         try {
-            geoPolyline = new GeoPolyline(geoCoordinatesList);
+            geoPolyline = new GeoPolyline(tailGeoCoordinatesList);
         } catch (InstantiationErrorException e) {
             throw new RuntimeException(e);
         }
         if (myPathMapPolyline == null) {
-            addMapPolyline(geoPolyline);
-            return myPathMapPolyline;
+            myPathMapPolyline = createPathMapPolyline(geoPolyline);
+            mapView.getMapScene().addMapPolyline(myPathMapPolyline);
+        } else {
+            myPathMapPolyline.setGeometry(geoPolyline);
+        }
+
+        MapPolyline tailMapPolyline = myPathMapPolyline;
+        if (travelledPath.sealTailIfFull()) {
+            // Keep the full chunk on the map. The next update starts a new tail polyline.
+            sealedPathMapPolylines.add(myPathMapPolyline);
+            myPathMapPolyline = null;
         }
-        myPathMapPolyline.setGeometry(geoPolyline);
-        return myPathMapPolyline;
+        return tailMapPolyline;
     }
 
     private int getLengthOfGeoPolylineInMeters(GeoPolyline geoPolyline) {
-        int length = 0;
-
-        for (int i = 1; i < geoPolyline.vertices.size(); i++) {
-            length += (int) geoPolyline.vertices.get(i).distanceTo(geoPolyline.vertices.get(i-1));
-        }
-        return length;
+        return TravelledPath.computeLengthInMeters(geoPolyline.vertices, GeoCoordinates::distanceTo);
     }
     private void addMapPolyline(GeoPolyline geoPolyline) {
         clearMap();
-        myPathMapPolyline = new MapPolyline(geoPolyline,
+        myPathMapPolyline = createPathMapPolyline(geoPolyline);
+        mapView.getMapScene().addMapPolyline(myPathMapPolyline);
+    }
+
+    private MapPolyline createPathMapPolyline(GeoPolyline geoPolyline) {
+        return new MapPolyline(geoPolyline,
                 20,
                 new Color(0, (float) 0.56, (float) 0.54, (float) 0.63));
-        mapView.getMapScene().addMapPolyline(myPathMapPolyline);
     }
 
     private void clearMap() {
@@ -164,6 +177,10 @@ public class HikingApp {
             mapView.getMapScene().removeMapPolyline(myPathMapPolyline);
             myPathMapPolyline = null;
         }
+        for (MapPolyline sealedPathMapPolyline : sealedPathMapPolylines) {
+            mapView.getMapScene().removeMapPolyline(sealedPathMapPolyline);
+        }
+        sealedPathMapPolylines.clear();
         positioningVisualizer.clearMap();
     }
 
@@ -210,17 +227,13 @@ public class HikingApp {
     }
 
     public List<String> getMenuEntryKeys() {
-        List<String> entryKeys = new ArrayList<>();
-        for (GPXTrack track : gpxManager.gpxDocument.getTracks()) {
-            entryKeys.add(track.getName());
-        }
-        return entryKeys;
+        return gpxManager.getGPXTrackNames();
     }
 
     public List<String> getMenuEntryDescriptions() {
         List<String> entryDescriptions = new ArrayList<>();
-        for (GPXTrack track : gpxManager.gpxDocument.getTracks()) {
-            entryDescriptions.add("Hike done on: " + track.getDescription());
+        for (String description : gpxManager.getGPXTrackDescriptions()) {
+            entryDescriptions.add("Hike done on: " + description);
         }
         return entryDescriptions;
     }
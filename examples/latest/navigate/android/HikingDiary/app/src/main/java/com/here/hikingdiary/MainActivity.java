@@ -268,6 +268,9 @@ public class MainActivity extends AppCompatActivity {
 
     @Override
     protected void onPause() {
+        if (hikingApp != null) {
+            hikingApp.hereBackgroundPositioningServiceProvider.setInBackground(true);
+        }
         mapView.onPause();
         super.onPause();
     }
@@ -276,6 +279,9 @@ public class MainActivity extends AppCompatActivity {
     protected void onResume() {
         mapView.onResume();
         super.onResume();
+        if (hikingApp != null) {
+            hikingApp.hereBackgroundPositioningServiceProvider.setInBackground(false);
+        }
     }
 
     @Override
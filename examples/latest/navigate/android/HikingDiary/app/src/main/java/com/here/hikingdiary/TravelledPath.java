@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.hikingdiary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// A class to keep the travelled path of an ongoing hike.
+// Each accepted location appends a single vertex and updates a running length total,
+// so that the cost per location update does not grow with the length of the hike.
+// The vertices are split into chunks: only the last chunk (the tail) changes
+// when a new vertex is added, so only the tail needs to be redrawn on the map.
+public class TravelledPath<T> {
+
+    // Calculates the distance between two vertices, for example, GeoCoordinates::distanceTo.
+    public interface DistanceCalculator<T> {
+        double distanceInMeters(T from, T to);
+    }
+
+    // Drawing one polyline per chunk keeps the geometry that needs to be updated small.
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private final DistanceCalculator<T> distanceCalculator;
+    private final int chunkSize;
+    private final List<T> vertices = new ArrayList<>();
+    private int lengthInMeters = 0;
+    private int tailStartIndex = 0;
+
+    public TravelledPath(DistanceCalculator<T> distanceCalculator) {
+        this(distanceCalculator, DEFAULT_CHUNK_SIZE);
+    }
+
+    public TravelledPath(DistanceCalculator<T> distanceCalculator, int chunkSize) {
+        if (chunkSize < 2) {
+            throw new IllegalArgumentException("A chunk needs at least two vertices.");
+        }
+        this.distanceCalculator = distanceCalculator;
+        this.chunkSize = chunkSize;
+    }
+
+    public void addVertex(T vertex) {
+        if (!vertices.isEmpty()) {
+            T lastVertex = vertices.get(vertices.size() - 1);
+            // Each segment is truncated to full meters, same as computeLengthInMeters() does.
+            lengthInMeters += (int) distanceCalculator.distanceInMeters(lastVertex, vertex);
+        }
+        vertices.add(vertex);
+    }
+
+    public int getLengthInMeters() {
+        return lengthInMeters;
+    }
+
+    public int size() {
+        return vertices.size();
+    }
+
+    public List<T> getVertices() {
+        return Collections.unmodifiableList(vertices);
+    }
+
+    // The vertices of the chunk that is still growing.
+    public List<T> getTailVertices() {
+        return Collections.unmodifiableList(vertices.subList(tailStartIndex, vertices.size()));
+    }
+
+    // Once the tail has reached the chunk size, it is sealed and a new tail is started.
+    // The new tail starts with the last vertex of the sealed chunk, so that both chunks stay connected.
+    // Returns true, if the tail was sealed.
+    public boolean sealTailIfFull() {
+        if (vertices.size() - tailStartIndex < chunkSize) {
+            return false;
+        }
+        tailStartIndex = vertices.size() - 1;
+        return true;
+    }
+
+    public void clear() {
+        vertices.clear();
+        lengthInMeters = 0;
+        tailStartIndex = 0;
+    }
+
+    // Walks all vertices to compute the length of a path. This is O(n), so
+    // it should only be used for paths that are not growing, like a loaded diary entry.
+    public static <T> int computeLengthInMeters(List<T> vertices, DistanceCalculator<T> distanceCalculator) {
+        int length = 0;
+        for (int i = 1; i < vertices.size(); i++) {
+            length += (int) distanceCalculator.distanceInMeters(vertices.get(i - 1), vertices.get(i));
+        }
+        return length;
+    }
+}
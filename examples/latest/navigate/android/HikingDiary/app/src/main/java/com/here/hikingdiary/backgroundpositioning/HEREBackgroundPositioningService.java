@@ -25,7 +25,10 @@ import android.content.Context;
 import android.content.Intent;
 import android.os.Binder;
 import android.os.Build;
+import android.os.Handler;
 import android.os.IBinder;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
@@ -44,29 +47,72 @@ import com.here.sdk.location.LocationFeature;
 import com.here.sdk.location.LocationStatusListener;
 
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 // A reference implementation using HERE Positioning to get notified on location updates
 // on foreground as well as on background from various location sources available from
 // a device and HERE services.
+// Any number of listeners can be registered. While the app is in the background, locations are
+// delivered in batches and the accuracy is lowered while the device is stationary, see LocationBatcher.
 public class HEREBackgroundPositioningService extends Service {
     public enum State {STOPPED, STARTING, RUNNING, FAILED}
 
     private static final String TAG = HEREBackgroundPositioningService.class.getSimpleName();
     private static final String KEY_CONTENT_INTENT = "contentIntent";
+    // In the background, listeners are notified at least every 20 locations or every 30 seconds.
+    private static final int MAX_BATCH_SIZE = 20;
+    private static final long MAX_BATCH_DELAY_IN_MILLISECONDS = 30 * 1000;
+    // A device that stays within 15 meters for 2 minutes is considered to be stationary.
+    private static final double STATIONARY_RADIUS_IN_METERS = 15;
+    private static final long STATIONARY_DELAY_IN_MILLISECONDS = 2 * 60 * 1000;
+    private static final LocationAccuracy MOVING_ACCURACY = LocationAccuracy.BEST_AVAILABLE;
+    private static final LocationAccuracy STATIONARY_ACCURACY = LocationAccuracy.TENS_OF_METERS;
     private static boolean running;
     private NotificationUtils notificationUtils;
     private LocationEngine locationEngine;
-    private BackgroundServiceListener serviceListener;
+    // Listeners may be added or removed while locations are reported, so each report iterates over a snapshot.
+    private final List<BackgroundServiceListener> serviceListeners = new CopyOnWriteArrayList<>();
     private State serviceState = State.STOPPED;
-    private Location location;
+    private LocationAccuracy locationAccuracy = MOVING_ACCURACY;
+    // True from restarting the engine with a new accuracy until the first location of the restarted engine.
+    // A stop status that is delivered late for the restart must not be reported as a stopped service.
+    private boolean isChangingAccuracy = false;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable flushTask = this::flushDueLocations;
+
+    private final LocationBatcher<Location> locationBatcher = new LocationBatcher<>(
+            new LocationBatcher.LocationAccessor<Location>() {
+                @Override
+                public double getLatitude(Location location) {
+                    return location.coordinates.latitude;
+                }
+
+                @Override
+                public double getLongitude(Location location) {
+                    return location.coordinates.longitude;
+                }
+
+                @Override
+                public double getHorizontalAccuracyInMeters(Location location) {
+                    return location.horizontalAccuracyInMeters != null ? location.horizontalAccuracyInMeters : 0;
+                }
+            },
+            SystemClock::elapsedRealtime,
+            this::reportLocationUpdates,
+            this::onStationaryChanged,
+            MAX_BATCH_SIZE,
+            MAX_BATCH_DELAY_IN_MILLISECONDS,
+            STATIONARY_RADIUS_IN_METERS,
+            STATIONARY_DELAY_IN_MILLISECONDS);
 
     final private LocationListener locationListener = new LocationListener() {
         @Override
         public void onLocationUpdated(@NonNull Location updateLocation) {
             Log.v(TAG, "onLocationUpdated");
-            location = updateLocation;
+            isChangingAccuracy = false;
             setStateRunning();
-            reportLocationUpdate();
+            locationBatcher.onLocationReceived(updateLocation);
+            scheduleFlush();
         }
     };
 
@@ -80,6 +126,14 @@ public class HEREBackgroundPositioningService extends Service {
                 case ALREADY_STARTED:
                     break;
 
+                case ENGINE_STOPPED:
+                    if (isChangingAccuracy) {
+                        Log.i(TAG, "onStatusChanged: Ignored stop, as the accuracy is being changed.");
+                        break;
+                    }
+                    setStateStopped();
+                    break;
+
                 default:
                     setStateStopped();
                     break;
@@ -106,7 +160,34 @@ public class HEREBackgroundPositioningService extends Service {
     }
 
     public void registerListener(BackgroundServiceListener listener) {
-        serviceListener = listener;
+        if (!serviceListeners.contains(listener)) {
+            serviceListeners.add(listener);
+        }
+    }
+
+    public void unregisterListener(BackgroundServiceListener listener) {
+        serviceListeners.remove(listener);
+    }
+
+    // Call this when the app moves to the background or back to the foreground.
+    public void setInBackground(boolean inBackground) {
+        locationBatcher.setInBackground(inBackground);
+        scheduleFlush();
+    }
+
+    // The number of locations received from the LocationEngine.
+    public long getReceivedLocationCount() {
+        return locationBatcher.getReceivedCount();
+    }
+
+    // The number of locations reported to the registered listeners.
+    public long getDeliveredLocationCount() {
+        return locationBatcher.getDeliveredCount();
+    }
+
+    // The number of locations that were not reported, because the device was stationary.
+    public long getDroppedLocationCount() {
+        return locationBatcher.getDroppedCount();
     }
 
     // Start foreground service.
@@ -145,7 +226,11 @@ public class HEREBackgroundPositioningService extends Service {
     public void onDestroy() {
         super.onDestroy();
         // The service is no longer used and is being destroyed
+        mainHandler.removeCallbacksAndMessages(null);
+        locationBatcher.flush();
+        Log.i(TAG, "onDestroy: " + locationBatcher);
         stopLocating();
+        serviceListeners.clear();
         running = false;
     }
 
@@ -195,7 +280,7 @@ public class HEREBackgroundPositioningService extends Service {
             locationEngine = new LocationEngine();
             locationEngine.addLocationListener(locationListener);
             locationEngine.addLocationStatusListener(statusListener);
-            final LocationEngineStatus status = locationEngine.start(LocationAccuracy.BEST_AVAILABLE);
+            final LocationEngineStatus status = locationEngine.start(locationAccuracy);
             switch (status) {
                 case ENGINE_STARTED:
                 case ALREADY_STARTED:
@@ -254,22 +339,62 @@ public class HEREBackgroundPositioningService extends Service {
         return true;
     }
 
-    // Reports service state to registered listener.
+    // Reports service state to registered listeners.
     private void reportStateValue() {
-        final BackgroundServiceListener listener = serviceListener;
-        if (listener != null) {
+        for (final BackgroundServiceListener listener : serviceListeners) {
             listener.onStateUpdate(serviceState);
         }
     }
 
-    // Reports location update to registered listener.
-    private void reportLocationUpdate() {
-        if (location == null) {
+    // Reports a batch of location updates to registered listeners, oldest location first.
+    private void reportLocationUpdates(List<Location> locations) {
+        for (final BackgroundServiceListener listener : serviceListeners) {
+            for (final Location location : locations) {
+                listener.onLocationUpdated(location);
+            }
+        }
+    }
+
+    // Makes sure buffered locations are reported, even when no further location is received.
+    private void scheduleFlush() {
+        mainHandler.removeCallbacks(flushTask);
+        final long delayInMilliseconds = locationBatcher.getMillisecondsUntilDue();
+        if (delayInMilliseconds >= 0) {
+            mainHandler.postDelayed(flushTask, delayInMilliseconds);
+        }
+    }
+
+    private void flushDueLocations() {
+        locationBatcher.flushIfDue();
+        scheduleFlush();
+    }
+
+    // Lowers the accuracy while the device is stationary to save battery, and restores it once it moves again.
+    private void onStationaryChanged(boolean isStationary) {
+        locationAccuracy = isStationary ? STATIONARY_ACCURACY : MOVING_ACCURACY;
+        Log.i(TAG, "onStationaryChanged: " + isStationary + ", accuracy: " + locationAccuracy.name());
+        // This is called from within a location update, so the engine is restarted afterwards.
+        mainHandler.post(this::applyLocationAccuracy);
+    }
+
+    private void applyLocationAccuracy() {
+        if (locationEngine == null) {
             return;
         }
-        final BackgroundServiceListener listener = serviceListener;
-        if (listener != null) {
-            listener.onLocationUpdated(location);
+        // The stop status of the restart may be delivered asynchronously, even after start() returned.
+        isChangingAccuracy = true;
+        locationEngine.stop();
+        final LocationEngineStatus status = locationEngine.start(locationAccuracy);
+        Log.i(TAG, "applyLocationAccuracy: start() returned " + status.name());
+        switch (status) {
+            case ENGINE_STARTED:
+            case ALREADY_STARTED:
+            case OK:
+                break;
+            default:
+                isChangingAccuracy = false;
+                setStateStopped();
+                break;
         }
     }
 
@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2022-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.hikingdiary.backgroundpositioning;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Decides when received locations are handed over to the listeners of the background service:
+// - While the app is in the foreground, each location is delivered right away.
+// - While the app is in the background, locations are buffered and delivered as one batch,
+//   once maxBatchSize locations were collected or the oldest buffered location is older than
+//   maxBatchDelayInMilliseconds. This way listeners are woken up less often.
+// - When all locations stay within stationaryRadiusInMeters for stationaryDelayInMilliseconds,
+//   the device is considered to be stationary. The MotionListener is notified, so that the
+//   accuracy of the location source can be lowered. While stationary, locations within the radius
+//   carry no new information and are dropped. The first location that is farther away than the radius
+//   and than its own horizontal accuracy switches back. Otherwise, the less accurate locations of the
+//   lowered accuracy would end the stationary state right away.
+// The class does not depend on Android or the HERE SDK. All methods are expected to be called
+// on the same thread, for example, the main thread.
+public class LocationBatcher<L> {
+
+    // Provides the coordinates of a location, for example, from Location.coordinates.
+    public interface LocationAccessor<L> {
+        double getLatitude(L location);
+
+        double getLongitude(L location);
+
+        // 0, if the accuracy is unknown.
+        double getHorizontalAccuracyInMeters(L location);
+    }
+
+    public interface BatchListener<L> {
+        void onLocationsDelivered(List<L> locations);
+    }
+
+    public interface MotionListener {
+        void onStationaryChanged(boolean isStationary);
+    }
+
+    // Provides a monotonic time, for example, SystemClock::elapsedRealtime.
+    public interface Clock {
+        long nowInMilliseconds();
+    }
+
+    private static final double EARTH_RADIUS_IN_METERS = 6371000;
+
+    private final LocationAccessor<L> accessor;
+    private final Clock clock;
+    private final BatchListener<L> batchListener;
+    private final MotionListener motionListener;
+    private final int maxBatchSize;
+    private final long maxBatchDelayInMilliseconds;
+    private final double stationaryRadiusInMeters;
+    private final long stationaryDelayInMilliseconds;
+
+    private final List<L> buffer = new ArrayList<>();
+    private long firstBufferedTimeInMilliseconds;
+    private boolean isInBackground = false;
+    private boolean isStationary = false;
+    private L anchorLocation;
+    private long anchorTimeInMilliseconds;
+
+    private long receivedCount = 0;
+    private long deliveredCount = 0;
+    private long droppedCount = 0;
+    private long batchCount = 0;
+
+    public LocationBatcher(LocationAccessor<L> accessor,
+                           Clock clock,
+                           BatchListener<L> batchListener,
+                           MotionListener motionListener,
+                           int maxBatchSize,
+                           long maxBatchDelayInMilliseconds,
+                           double stationaryRadiusInMeters,
+                           long stationaryDelayInMilliseconds) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("A batch needs at least one location.");
+        }
+        this.accessor = accessor;
+        this.clock = clock;
+        this.batchListener = batchListener;
+        this.motionListener = motionListener;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayInMilliseconds = maxBatchDelayInMilliseconds;
+        this.stationaryRadiusInMeters = stationaryRadiusInMeters;
+        this.stationaryDelayInMilliseconds = stationaryDelayInMilliseconds;
+    }
+
+    public void onLocationReceived(L location) {
+        receivedCount++;
+        final long now = clock.nowInMilliseconds();
+
+        if (updateMotionState(location, now)) {
+            // Stationary and within the radius of the anchor.
+            droppedCount++;
+            flushIfDue();
+            return;
+        }
+
+        if (buffer.isEmpty()) {
+            firstBufferedTimeInMilliseconds = now;
+        }
+        buffer.add(location);
+
+        if (!isInBackground) {
+            flush();
+        } else {
+            flushIfDue();
+        }
+    }
+
+    // Returns true, if the location should be dropped.
+    private boolean updateMotionState(L location, long now) {
+        double radiusInMeters = isStationary
+                ? Math.max(stationaryRadiusInMeters, accessor.getHorizontalAccuracyInMeters(location))
+                : stationaryRadiusInMeters;
+        if (anchorLocation == null || distanceInMeters(anchorLocation, location) > radiusInMeters) {
+            // Moving: the new location becomes the anchor for the next stationary check.
+            anchorLocation = location;
+            anchorTimeInMilliseconds = now;
+            setStationary(false);
+            return false;
+        }
+
+        if (isStationary) {
+            return true;
+        }
+
+        if (now - anchorTimeInMilliseconds >= stationaryDelayInMilliseconds) {
+            setStationary(true);
+        }
+        return false;
+    }
+
+    private void setStationary(boolean stationary) {
+        if (isStationary == stationary) {
+            return;
+        }
+        isStationary = stationary;
+        if (motionListener != null) {
+            motionListener.onStationaryChanged(stationary);
+        }
+    }
+
+    // Switching to the foreground delivers all buffered locations, so the UI is up-to-date.
+    public void setInBackground(boolean inBackground) {
+        isInBackground = inBackground;
+        if (!inBackground) {
+            flush();
+        }
+    }
+
+    // Should be called periodically while locations are buffered, since a batch may also
+    // become due when no further location is received.
+    public void flushIfDue() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        if (buffer.size() >= maxBatchSize
+                || clock.nowInMilliseconds() - firstBufferedTimeInMilliseconds >= maxBatchDelayInMilliseconds) {
+            flush();
+        }
+    }
+
+    public void flush() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        // The listener gets its own copy, so the buffer can be reused right away.
+        final List<L> batch = Collections.unmodifiableList(new ArrayList<>(buffer));
+        buffer.clear();
+        deliveredCount += batch.size();
+        batchCount++;
+        batchListener.onLocationsDelivered(batch);
+    }
+
+    // Returns the time in milliseconds until the buffered locations are due, or -1 if nothing is buffered.
+    public long getMillisecondsUntilDue() {
+        if (buffer.isEmpty()) {
+            return -1;
+        }
+        long elapsed = clock.nowInMilliseconds() - firstBufferedTimeInMilliseconds;
+        return Math.max(0, maxBatchDelayInMilliseconds - elapsed);
+    }
+
+    private double distanceInMeters(L from, L to) {
+        double lat1 = Math.toRadians(accessor.getLatitude(from));
+        double lat2 = Math.toRadians(accessor.getLatitude(to));
+        double deltaLat = lat2 - lat1;
+        double deltaLon = Math.toRadians(accessor.getLongitude(to) - accessor.getLongitude(from));
+        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
+        return 2 * EARTH_RADIUS_IN_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    public boolean isStationary() {
+        return isStationary;
+    }
+
+    public boolean isInBackground() {
+        return isInBackground;
+    }
+
+    // The number of locations that are waiting to be delivered.
+    public int getBufferedCount() {
+        return buffer.size();
+    }
+
+    // The number of locations that were received from the location source.
+    public long getReceivedCount() {
+        return receivedCount;
+    }
+
+    // The number of locations that were handed over to the listener.
+    public long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    // The number of locations that were dropped, because the device was stationary.
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    // The number of batches that were handed over to the listener.
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    @Override
+    public String toString() {
+        return "LocationBatcher{received=" + receivedCount
+                + ", delivered=" + deliveredCount
+                + ", dropped=" + droppedCount
+                + ", batches=" + batchCount
+                + ", buffered=" + buffer.size()
+                + ", stationary=" + isStationary + "}";
+    }
+}
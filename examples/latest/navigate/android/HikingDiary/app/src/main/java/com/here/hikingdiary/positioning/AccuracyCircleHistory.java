@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.hikingdiary.positioning;
+
+// Keeps the accuracy circles of the most recent locations, for example, as MapPolygons on the map:
+// - The circles are kept in a ring buffer with a fixed capacity. Once it is full, the circle of the
+//   oldest location is moved to the newest location, so that no circle needs to be removed or created.
+// - Optionally, a location is only added when its accuracy differs by at least
+//   minAccuracyDifferenceInMeters from the newest circle. For a device that reports a steady accuracy,
+//   this keeps only the circles where the accuracy actually changed.
+// The class does not depend on Android or the HERE SDK. All methods are expected to be called on the
+// same thread, for example, the main thread on which locations are delivered.
+public class AccuracyCircleHistory<C> {
+
+    // Creates, moves and removes the visual circles, for example, MapPolygons.
+    // The accuracy is null, if the location has no accuracy information.
+    public interface Renderer<C> {
+        C add(double latitude, double longitude, Double accuracyInMeters);
+
+        void update(C circle, double latitude, double longitude, Double accuracyInMeters);
+
+        void remove(C circle);
+    }
+
+    private final Renderer<C> renderer;
+    private final int capacity;
+    private final Object[] circles;
+    private final Double[] accuracies;
+    // The slot of the oldest circle.
+    private int head = 0;
+    private int size = 0;
+    private double minAccuracyDifferenceInMeters = 0;
+
+    private int addedCount = 0;
+    private int reusedCount = 0;
+    private int prunedCount = 0;
+
+    public AccuracyCircleHistory(Renderer<C> renderer, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The history must hold at least one circle.");
+        }
+        this.renderer = renderer;
+        this.capacity = capacity;
+        this.circles = new Object[capacity];
+        this.accuracies = new Double[capacity];
+    }
+
+    // 0 keeps a circle for every location.
+    public void setMinAccuracyDifferenceInMeters(double minAccuracyDifferenceInMeters) {
+        this.minAccuracyDifferenceInMeters = minAccuracyDifferenceInMeters;
+    }
+
+    // Returns true, if a circle was added or moved to the location.
+    public boolean add(double latitude, double longitude, Double accuracyInMeters) {
+        if (size > 0 && isSimilar(accuracies[slot(size - 1)], accuracyInMeters)) {
+            prunedCount++;
+            return false;
+        }
+
+        if (size < capacity) {
+            int slot = slot(size);
+            circles[slot] = renderer.add(latitude, longitude, accuracyInMeters);
+            accuracies[slot] = accuracyInMeters;
+            size++;
+            addedCount++;
+            return true;
+        }
+
+        // The oldest circle becomes the newest one.
+        C circle = get(0);
+        renderer.update(circle, latitude, longitude, accuracyInMeters);
+        accuracies[head] = accuracyInMeters;
+        head = slot(1);
+        reusedCount++;
+        return true;
+    }
+
+    private boolean isSimilar(Double accuracy, Double newAccuracy) {
+        if (minAccuracyDifferenceInMeters <= 0) {
+            return false;
+        }
+        if (accuracy == null || newAccuracy == null) {
+            // A location without accuracy information is similar only to another one without.
+            return accuracy == null && newAccuracy == null;
+        }
+        return Math.abs(accuracy - newAccuracy) < minAccuracyDifferenceInMeters;
+    }
+
+    private int slot(int index) {
+        return (head + index) % capacity;
+    }
+
+    // Index 0 is the oldest circle.
+    @SuppressWarnings("unchecked")
+    public C get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return (C) circles[slot(index)];
+    }
+
+    public Double getAccuracyInMeters(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return accuracies[slot(index)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Removes all circles.
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            renderer.remove(get(i));
+        }
+        for (int i = 0; i < capacity; i++) {
+            circles[i] = null;
+            accuracies[i] = null;
+        }
+        head = 0;
+        size = 0;
+    }
+
+    // The number of circles that were created.
+    public int getAddedCount() {
+        return addedCount;
+    }
+
+    // The number of times the oldest circle was moved to a new location.
+    public int getReusedCount() {
+        return reusedCount;
+    }
+
+    // The number of locations that did not get a circle, because their accuracy was similar to the newest circle.
+    public int getPrunedCount() {
+        return prunedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "AccuracyCircleHistory{size=" + size + "/" + capacity
+                + ", added=" + addedCount
+                + ", reused=" + reusedCount
+                + ", pruned=" + prunedCount + "}";
+    }
+}
@@ -2,6 +2,7 @@ package com.here.hikingdiary.positioning;
 
 import android.util.Log;
 
+import com.here.hikingdiary.TravelledPath;
 import com.here.sdk.core.Color;
 
 import com.here.sdk.core.GeoCircle;
@@ -20,15 +21,54 @@ import java.util.List;
 
 // A class to visualize the incoming raw location signals on the map during a trip.
 public class HEREPositioningVisualizer {
+    // Drawing too many items on the map view may slow down rendering, so only the last circles are kept.
+    private static final int MAX_LOCATION_CIRCLES = 150;
+    // The polyline is drawn in chunks, so that only the last chunk needs to be updated for a new signal.
+    private static final int POLYLINE_CHUNK_SIZE = 100;
+
+    // Black means that no accuracy information is available.
+    private final Color noAccuracyColor = Color.valueOf(android.graphics.Color.BLACK);
+    // Green means that we have very good accuracy.
+    private final Color goodAccuracyColor = Color.valueOf(android.graphics.Color.GREEN);
+    // Orange means that we have acceptable accuracy.
+    private final Color acceptableAccuracyColor = Color.valueOf(android.graphics.Color.rgb(255, 165, 0));
+    // Red means, the accuracy is quite bad, ie > 50 m.
+    // The location will be ignored for our hiking diary.
+    private final Color badAccuracyColor = Color.valueOf(android.graphics.Color.RED);
+
     private MapView mapView;
     private LocationIndicator locationIndicator = new LocationIndicator();
-    private List<MapPolygon> mapCircles = new ArrayList<>();
+    private final AccuracyCircleHistory<MapPolygon> mapCircles;
     private MapPolyline mapPolyline;
-    private List<GeoCoordinates> geoCoordinatesList = new ArrayList<>();
+    // Polylines of the sealed chunks of the location signals. They do not change anymore.
+    private final List<MapPolyline> sealedMapPolylines = new ArrayList<>();
+    private final TravelledPath<GeoCoordinates> locationSignalPath =
+            new TravelledPath<>(GeoCoordinates::distanceTo, POLYLINE_CHUNK_SIZE);
     private double accuracyRadiusThresholdInMeters = 10.0;
 
     public HEREPositioningVisualizer(MapView mapView) {
         this.mapView = mapView;
+        mapCircles = new AccuracyCircleHistory<>(new AccuracyCircleHistory.Renderer<MapPolygon>() {
+            @Override
+            public MapPolygon add(double latitude, double longitude, Double accuracyInMeters) {
+                MapPolygon mapPolygon = new MapPolygon(
+                        createCircle(latitude, longitude), getFillColor(accuracyInMeters));
+                mapView.getMapScene().addMapPolygon(mapPolygon);
+                return mapPolygon;
+            }
+
+            @Override
+            public void update(MapPolygon mapPolygon, double latitude, double longitude, Double accuracyInMeters) {
+                // Reuses the circle of the oldest location instead of removing it and adding a new one.
+                mapPolygon.setGeometry(createCircle(latitude, longitude));
+                mapPolygon.setFillColor(getFillColor(accuracyInMeters));
+            }
+
+            @Override
+            public void remove(MapPolygon mapPolygon) {
+                mapView.getMapScene().removeMapPolygon(mapPolygon);
+            }
+        }, MAX_LOCATION_CIRCLES);
         setupMyLocationIndicator();
     }
 
@@ -36,29 +76,19 @@ public class HEREPositioningVisualizer {
         locationIndicator.updateLocation(location);
     }
 
+    // When set to a value greater than 0, a circle is only added when its accuracy differs by at least
+    // this value from the previous circle. This avoids many circles of the same color at a steady accuracy.
+    public void setMinAccuracyDifferenceInMeters(double minAccuracyDifferenceInMeters) {
+        mapCircles.setMinAccuracyDifferenceInMeters(minAccuracyDifferenceInMeters);
+    }
+
     // Renders the last n location signals and connects them with a polyline.
     // The accuracy of each location is indicated through a colored circle.
     public void renderUnfilteredLocationSignals(Location location) {
         Log.d("Received accuracy ", String.valueOf(location.horizontalAccuracyInMeters));
 
-        // Black means that no accuracy information is available.
-        Color fillColor = Color.valueOf(android.graphics.Color.BLACK);
-        if (location.horizontalAccuracyInMeters != null) {
-            double accuracy = location.horizontalAccuracyInMeters;
-            if (accuracy < accuracyRadiusThresholdInMeters / 2) {
-                // Green means that we have very good accuracy.
-                fillColor = Color.valueOf(android.graphics.Color.GREEN);
-            } else if (accuracy <= accuracyRadiusThresholdInMeters) {
-                // Orange means that we have acceptable accuracy.
-                fillColor = Color.valueOf(android.graphics.Color.rgb(255, 165, 0)); // Orange color
-            } else {
-                // Red means, the accuracy is quite bad, ie > 50 m.
-                // The location will be ignored for our hiking diary.
-                fillColor = Color.valueOf(android.graphics.Color.RED);
-            }
-        }
-
-        addLocationCircle(location.coordinates, 1, fillColor);
+        mapCircles.add(location.coordinates.latitude, location.coordinates.longitude,
+                location.horizontalAccuracyInMeters);
         updateMapPolyline(location);
     }
 
@@ -67,12 +97,14 @@ public class HEREPositioningVisualizer {
             mapView.getMapScene().removeMapPolyline(mapPolyline);
             mapPolyline = null;
         }
-
-        for (MapPolygon circle : mapCircles) {
-            mapView.getMapScene().removeMapPolygon(circle);
+        for (MapPolyline sealedMapPolyline : sealedMapPolylines) {
+            mapView.getMapScene().removeMapPolyline(sealedMapPolyline);
         }
+        sealedMapPolylines.clear();
+
+        mapCircles.clear();
 
-        geoCoordinatesList.clear();
+        locationSignalPath.clear();
     }
 
     private void setupMyLocationIndicator() {
@@ -81,31 +113,37 @@ public class HEREPositioningVisualizer {
         mapView.addLifecycleListener(locationIndicator);
     }
 
-    private void addLocationCircle(GeoCoordinates center, double radiusInMeters, Color fillColor) {
-        GeoCircle geoCircle = new GeoCircle(center, radiusInMeters);
-        GeoPolygon geoPolygon = new GeoPolygon(geoCircle);
-        MapPolygon mapPolygon = new MapPolygon(geoPolygon, fillColor);
-        mapView.getMapScene().addMapPolygon(mapPolygon);
-        mapCircles.add(mapPolygon);
-
-        if (mapCircles.size() > 150) {
-            // Drawing too many items on the map view may slow down rendering, so we remove the oldest circle.
-            mapView.getMapScene().removeMapPolygon(mapCircles.get(0));
-            mapCircles.remove(0);
+    private Color getFillColor(Double accuracyInMeters) {
+        if (accuracyInMeters == null) {
+            return noAccuracyColor;
+        }
+        if (accuracyInMeters < accuracyRadiusThresholdInMeters / 2) {
+            return goodAccuracyColor;
+        }
+        if (accuracyInMeters <= accuracyRadiusThresholdInMeters) {
+            return acceptableAccuracyColor;
         }
+        return badAccuracyColor;
     }
 
+    private static GeoPolygon createCircle(double latitude, double longitude) {
+        double radiusInMeters = 1;
+        return new GeoPolygon(new GeoCircle(new GeoCoordinates(latitude, longitude), radiusInMeters));
+    }
+
+    // Only the tail of the polyline is updated, the sealed chunks stay untouched.
     private void updateMapPolyline(Location location) {
-        geoCoordinatesList.add(location.coordinates);
+        locationSignalPath.addVertex(location.coordinates);
 
-        if (geoCoordinatesList.size() < 2) {
+        List<GeoCoordinates> tailGeoCoordinatesList = locationSignalPath.getTailVertices();
+        if (tailGeoCoordinatesList.size() < 2) {
             return;
         }
 
         // We are sure that the number of vertices is greater than 1 (see above), so it will not crash.
         GeoPolyline geoPolyline;
         try {
-            geoPolyline = new GeoPolyline(geoCoordinatesList);
+            geoPolyline = new GeoPolyline(tailGeoCoordinatesList);
         } catch (InstantiationErrorException e) {
             e.printStackTrace();
             return;
@@ -114,11 +152,16 @@ public class HEREPositioningVisualizer {
         // Add polyline to the map, if the instance is null.
         if (mapPolyline == null) {
             addMapPolyline(geoPolyline);
-            return;
+        } else {
+            // Update the polyline shape that connects the raw location signals.
+            mapPolyline.setGeometry(geoPolyline);
         }
 
-        // Update the polyline shape that connects the raw location signals.
-        mapPolyline.setGeometry(geoPolyline);
+        if (locationSignalPath.sealTailIfFull()) {
+            // Keep the full chunk on the map. The next signal starts a new tail polyline.
+            sealedMapPolylines.add(mapPolyline);
+            mapPolyline = null;
+        }
     }
 
     private void addMapPolyline(GeoPolyline geoPolyline) {
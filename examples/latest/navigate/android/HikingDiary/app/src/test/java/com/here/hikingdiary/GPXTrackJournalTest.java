@@ -0,0 +1,550 @@
+/*
+ * Copyright (C) 2022-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.hikingdiary;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+
+public class GPXTrackJournalTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File journalFile;
+    private GPXTrackJournal journal;
+
+    @Before
+    public void setUp() throws IOException {
+        journalFile = new File(temporaryFolder.getRoot(), "tracks.journal");
+        journal = new GPXTrackJournal(journalFile);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        journal.close();
+    }
+
+    private static byte[] createPayload(int length, int seed) {
+        byte[] payload = new byte[length];
+        for (int i = 0; i < length; i++) {
+            payload[i] = (byte) (i * 31 + seed);
+        }
+        return payload;
+    }
+
+    private GPXTrackJournal reopen() throws IOException {
+        journal.close();
+        journal = new GPXTrackJournal(journalFile);
+        return journal;
+    }
+
+    @Test
+    public void appendedTracksAreIndexedAndReadable() throws IOException {
+        byte[] firstPayload = createPayload(100, 1);
+        byte[] secondPayload = createPayload(2000, 2);
+
+        long firstId = journal.append("first", "Hike done on: Monday", 1200, firstPayload);
+        long secondId = journal.append("second", "Hike done on: Tuesday", 3400, secondPayload);
+
+        List<GPXTrackJournal.Entry> entries = journal.getEntries();
+        assertEquals(2, entries.size());
+        assertEquals("first", entries.get(0).name);
+        assertEquals("Hike done on: Tuesday", entries.get(1).description);
+        assertEquals(3400, entries.get(1).distanceInMeters);
+        assertArrayEquals(firstPayload, journal.readPayload(firstId));
+        assertArrayEquals(secondPayload, journal.readPayload(secondId));
+    }
+
+    @Test
+    public void indexIsRebuiltWhenReopened() throws IOException {
+        long firstId = journal.append("first", "", 1, createPayload(10, 1));
+        long secondId = journal.append("second", "", 2, createPayload(20, 2));
+        journal.append("third", "", 3, createPayload(30, 3));
+        journal.delete(secondId);
+
+        reopen();
+
+        List<GPXTrackJournal.Entry> entries = journal.getEntries();
+        assertEquals(2, entries.size());
+        assertEquals("first", entries.get(0).name);
+        assertEquals("third", entries.get(1).name);
+        assertArrayEquals(createPayload(10, 1), journal.readPayload(firstId));
+        assertNull(journal.readPayload(secondId));
+        assertEquals(0, journal.getDiscardedBytesOnOpen());
+
+        // IDs are never handed out twice.
+        long fourthId = journal.append("fourth", "", 4, createPayload(5, 4));
+        assertTrue(fourthId > secondId);
+    }
+
+    @Test
+    public void deleteOnlyAppendsATombstone() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            journal.append("track" + i, "", i, createPayload(5_000, i));
+        }
+        long lengthBeforeDelete = journal.getFileLength();
+
+        assertTrue(journal.delete(journal.getEntries().get(3).trackId));
+        assertFalse(journal.delete(12345));
+
+        // The journal grows by a small tombstone, no matter how many tracks are stored.
+        assertTrue(journal.getFileLength() - lengthBeforeDelete < 32);
+        assertEquals(19, journal.size());
+    }
+
+    @Test
+    public void compactionKeepsLiveTracksAndReclaimsSpace() throws IOException {
+        List<Long> trackIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            trackIds.add(journal.append("track" + i, "description" + i, i, createPayload(1_000 + i, i)));
+        }
+        for (int i = 0; i < 10; i += 2) {
+            journal.delete(trackIds.get(i));
+        }
+        long lengthBeforeCompaction = journal.getFileLength();
+
+        journal.compact();
+
+        assertEquals(0, journal.getDeadBytes());
+        assertEquals(journal.getLiveBytes(), journal.getFileLength());
+        assertTrue(journal.getFileLength() < lengthBeforeCompaction);
+        for (int i = 1; i < 10; i += 2) {
+            assertArrayEquals(createPayload(1_000 + i, i), journal.readPayload(trackIds.get(i)));
+        }
+
+        // The compacted journal can be reopened and appended to.
+        reopen();
+        assertEquals(5, journal.size());
+        long newId = journal.append("new", "", 0, createPayload(10, 99));
+        assertArrayEquals(createPayload(10, 99), journal.readPayload(newId));
+        assertArrayEquals(createPayload(1_009, 9), journal.readPayload(trackIds.get(9)));
+    }
+
+    @Test
+    public void tracksSavedAndDeletedDuringCompactionAreKept() throws Exception {
+        List<Long> liveIds = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            liveIds.add(journal.append("track" + i, "", i, createPayload(2000, i)));
+        }
+
+        AtomicBoolean isDone = new AtomicBoolean(false);
+        AtomicReference<Throwable> compactionError = new AtomicReference<>();
+        Thread compactionThread = new Thread(() -> {
+            try {
+                while (!isDone.get()) {
+                    journal.compact();
+                }
+            } catch (Throwable e) {
+                compactionError.set(e);
+            }
+        });
+        compactionThread.start();
+
+        // Saves and deletes tracks while the journal is compacted over and over.
+        for (int i = 50; i < 250; i++) {
+            liveIds.add(journal.append("track" + i, "", i, createPayload(2000, i)));
+            long deletedId = liveIds.remove(i % liveIds.size());
+            assertTrue(journal.delete(deletedId));
+            assertEquals(liveIds.size(), journal.size());
+        }
+        isDone.set(true);
+        compactionThread.join();
+        assertNull(compactionError.get());
+
+        for (int reopenCount = 0; reopenCount < 2; reopenCount++) {
+            assertEquals(liveIds.size(), journal.size());
+            for (long trackId : liveIds) {
+                GPXTrackJournal.Entry entry = journal.getEntry(trackId);
+                assertArrayEquals(createPayload(2000, entry.distanceInMeters), journal.readPayload(trackId));
+            }
+            reopen();
+            assertEquals(0, journal.getDiscardedBytesOnOpen());
+        }
+    }
+
+    @Test
+    public void compactionIsOnlyNeededWhenMostBytesAreDead() throws IOException {
+        List<Long> trackIds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            trackIds.add(journal.append("track" + i, "", i, createPayload(100_000, i)));
+        }
+        assertFalse(journal.needsCompaction());
+
+        for (int i = 0; i < 3; i++) {
+            journal.delete(trackIds.get(i));
+        }
+        assertFalse(journal.needsCompaction());
+
+        journal.delete(trackIds.get(3));
+        assertTrue(journal.needsCompaction());
+    }
+
+    @Test
+    public void truncatedWriteIsDiscardedAtEveryPossibleCutOffset() throws IOException {
+        journal.append("first", "", 1, createPayload(300, 1));
+        long secondId = journal.append("second", "", 2, createPayload(50, 2));
+        long lengthWithTwoTracks = journal.getFileLength();
+        journal.delete(secondId);
+        long lengthWithTombstone = journal.getFileLength();
+        journal.append("third", "", 3, createPayload(200, 3));
+        long fullLength = journal.getFileLength();
+        journal.close();
+
+        byte[] original = Files.readAllBytes(journalFile.toPath());
+
+        // Simulate a crash during the write of the last two records by cutting the file at each offset.
+        for (long cut = lengthWithTwoTracks; cut < fullLength; cut++) {
+            Files.write(journalFile.toPath(), Arrays.copyOf(original, (int) cut));
+
+            journal = new GPXTrackJournal(journalFile);
+            List<GPXTrackJournal.Entry> entries = journal.getEntries();
+            if (cut < lengthWithTombstone) {
+                // The tombstone is incomplete, so the second track is still there.
+                assertEquals(2, entries.size());
+                assertEquals(lengthWithTwoTracks, journal.getFileLength());
+            } else {
+                assertEquals(1, entries.size());
+                assertEquals(lengthWithTombstone, journal.getFileLength());
+            }
+            assertEquals("first", entries.get(0).name);
+            assertArrayEquals(createPayload(300, 1), journal.readPayload(entries.get(0).trackId));
+            assertEquals(cut - journal.getFileLength(), journal.getDiscardedBytesOnOpen());
+
+            // Appending after the recovery results in a valid journal.
+            long newId = journal.append("after crash", "", 4, createPayload(10, 4));
+            journal.close();
+            journal = new GPXTrackJournal(journalFile);
+            assertArrayEquals(createPayload(10, 4), journal.readPayload(newId));
+            assertEquals(0, journal.getDiscardedBytesOnOpen());
+            journal.close();
+        }
+        journal = new GPXTrackJournal(journalFile);
+    }
+
+    @Test
+    public void corruptLastRecordIsDiscarded() throws IOException {
+        journal.append("first", "", 1, createPayload(100, 1));
+        long lengthWithOneTrack = journal.getFileLength();
+        journal.append("second", "", 2, createPayload(100, 2));
+        long fullLength = journal.getFileLength();
+        journal.close();
+
+        // Flip a payload byte of the last record, as if the storage did not persist the full write.
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(journalFile, "rw")) {
+            long position = fullLength - 20;
+            randomAccessFile.seek(position);
+            int value = randomAccessFile.read();
+            randomAccessFile.seek(position);
+            randomAccessFile.write(value ^ 0xFF);
+        }
+
+        journal = new GPXTrackJournal(journalFile);
+        assertEquals(1, journal.size());
+        assertEquals(lengthWithOneTrack, journal.getFileLength());
+        assertEquals(fullLength - lengthWithOneTrack, journal.getDiscardedBytesOnOpen());
+    }
+
+    @Test
+    public void leftoverFromInterruptedCompactionIsIgnored() throws IOException {
+        long trackId = journal.append("first", "", 1, createPayload(100, 1));
+        journal.close();
+        Files.write(new File(journalFile.getPath() + ".compact").toPath(), createPayload(7, 7));
+
+        journal = new GPXTrackJournal(journalFile);
+
+        assertFalse(new File(journalFile.getPath() + ".compact").exists());
+        assertArrayEquals(createPayload(100, 1), journal.readPayload(trackId));
+    }
+
+    @Test
+    public void entriesCanBeAccessedByPosition() throws IOException {
+        long firstId = journal.append("first", "", 1, createPayload(10, 1));
+        journal.append("second", "", 2, createPayload(10, 2));
+        journal.append("third", "", 3, createPayload(10, 3));
+        journal.delete(firstId);
+
+        assertEquals("second", journal.getEntryAt(0).name);
+        assertEquals("third", journal.getEntryAt(1).name);
+        assertNull(journal.getEntryAt(2));
+        assertNull(journal.getEntryAt(-1));
+    }
+
+    @Test
+    public void undecodableLastRecordIsDiscarded() throws IOException {
+        long trackId = journal.append("first", "", 1, createPayload(100, 1));
+        long validLength = journal.getFileLength();
+        journal.close();
+
+        // A complete track record, but the name is not valid modified UTF-8.
+        try (DataOutputStream dataOutputStream =
+                     new DataOutputStream(new FileOutputStream(journalFile, true))) {
+            dataOutputStream.writeInt(0x47505852);
+            dataOutputStream.writeByte(1);
+            dataOutputStream.writeLong(2);
+            dataOutputStream.writeShort(2);
+            dataOutputStream.writeByte(0xFF);
+            dataOutputStream.writeByte(0xFF);
+            dataOutputStream.writeShort(0);
+            dataOutputStream.writeInt(0);
+            dataOutputStream.writeInt(0);
+            dataOutputStream.writeInt(0);
+        }
+
+        journal = new GPXTrackJournal(journalFile);
+        assertEquals(1, journal.size());
+        assertEquals(validLength, journal.getFileLength());
+        assertArrayEquals(createPayload(100, 1), journal.readPayload(trackId));
+    }
+
+    @Test
+    public void undecodableMiddleRecordIsSkippedAndLaterTracksAreKept() throws IOException {
+        long firstId = journal.append("first", "", 1, createPayload(100, 1));
+        long secondId = journal.append("second", "", 2, createPayload(100, 2));
+        long thirdId = journal.append("third", "", 3, createPayload(100, 3));
+        GPXTrackJournal.Entry secondEntry = journal.getEntry(secondId);
+        long fullLength = journal.getFileLength();
+        journal.close();
+
+        // Makes the name of the second track invalid modified UTF-8, as if the storage corrupted it.
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(journalFile, "rw")) {
+            randomAccessFile.seek(secondEntry.recordOffset + 4 + 1 + 8 + 2);
+            randomAccessFile.write(0xFF);
+        }
+
+        journal = new GPXTrackJournal(journalFile);
+        assertEquals(2, journal.size());
+        assertNull(journal.getEntry(secondId));
+        assertArrayEquals(createPayload(100, 1), journal.readPayload(firstId));
+        assertArrayEquals(createPayload(100, 3), journal.readPayload(thirdId));
+        assertEquals(fullLength, journal.getFileLength());
+        assertEquals(secondEntry.recordLength, journal.getDiscardedBytesOnOpen());
+
+        // The skipped record does not disturb later appends and is removed by the next compaction.
+        long fourthId = journal.append("fourth", "", 4, createPayload(100, 4));
+        assertTrue(fourthId > thirdId);
+        journal.compact();
+        reopen();
+        assertEquals(3, journal.size());
+        assertEquals(0, journal.getDiscardedBytesOnOpen());
+        assertArrayEquals(createPayload(100, 4), journal.readPayload(fourthId));
+    }
+
+    @Test
+    public void tombstoneWithBadCrcInTheMiddleIsSkipped() throws IOException {
+        long firstId = journal.append("first", "", 1, createPayload(10, 1));
+        journal.delete(firstId);
+        long tombstoneOffset = journal.getFileLength() - (4 + 1 + 8 + 4);
+        long secondId = journal.append("second", "", 2, createPayload(10, 2));
+        journal.close();
+
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(journalFile, "rw")) {
+            randomAccessFile.seek(tombstoneOffset + 4 + 1 + 8);
+            randomAccessFile.writeInt(0);
+        }
+
+        journal = new GPXTrackJournal(journalFile);
+        assertEquals(2, journal.size());
+        assertArrayEquals(createPayload(10, 2), journal.readPayload(secondId));
+    }
+
+    @Test
+    public void recordOfUnknownLengthInTheMiddleFailsToOpen() throws IOException {
+        journal.append("first", "", 1, createPayload(100, 1));
+        long secondId = journal.append("second", "", 2, createPayload(100, 2));
+        journal.append("third", "", 3, createPayload(100, 3));
+        long secondOffset = journal.getEntry(secondId).recordOffset;
+        long fullLength = journal.getFileLength();
+        journal.close();
+
+        // Without a valid magic, the start of the third track cannot be found.
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(journalFile, "rw")) {
+            randomAccessFile.seek(secondOffset);
+            randomAccessFile.writeInt(0x12345678);
+        }
+
+        try {
+            new GPXTrackJournal(journalFile).close();
+            fail("A journal that cannot be read completely must not be opened.");
+        } catch (IOException expected) {
+            // Nothing was discarded.
+        }
+        assertEquals(fullLength, journalFile.length());
+        journal = new GPXTrackJournal(new File(temporaryFolder.getRoot(), "other.journal"));
+    }
+
+    @Test
+    public void zeroFilledTailIsDiscarded() throws IOException {
+        long trackId = journal.append("first", "", 1, createPayload(100, 1));
+        long validLength = journal.getFileLength();
+        journal.close();
+
+        try (FileOutputStream fileOutputStream = new FileOutputStream(journalFile, true)) {
+            fileOutputStream.write(new byte[64]);
+        }
+
+        journal = new GPXTrackJournal(journalFile);
+        assertEquals(validLength, journal.getFileLength());
+        assertArrayEquals(createPayload(100, 1), journal.readPayload(trackId));
+    }
+
+    @Test
+    public void corruptPayloadOfEarlierTrackIsReportedWhenRead() throws IOException {
+        long firstId = journal.append("first", "", 1, createPayload(100, 1));
+        long secondId = journal.append("second", "", 2, createPayload(100, 2));
+        long lengthWithOneTrack = journal.getEntry(secondId).recordOffset;
+        journal.close();
+
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(journalFile, "rw")) {
+            long position = lengthWithOneTrack - 20;
+            randomAccessFile.seek(position);
+            int value = randomAccessFile.read();
+            randomAccessFile.seek(position);
+            randomAccessFile.write(value ^ 0xFF);
+        }
+
+        // Opening reads only the headers, so the second track stays available.
+        journal = new GPXTrackJournal(journalFile);
+        assertEquals(2, journal.size());
+        assertArrayEquals(createPayload(100, 2), journal.readPayload(secondId));
+        try {
+            journal.readPayload(firstId);
+            fail("A corrupt payload must not be returned.");
+        } catch (IOException expected) {
+            // The CRC of the record does not match.
+        }
+    }
+
+    @Test
+    public void idsAreNotReusedAfterCompaction() throws IOException {
+        journal.append("first", "", 1, createPayload(10, 1));
+        long lastId = journal.append("last", "", 2, createPayload(10, 2));
+        journal.delete(lastId);
+
+        journal.compact();
+        reopen();
+
+        assertEquals(1, journal.size());
+        assertTrue(journal.append("new", "", 3, createPayload(10, 3)) > lastId);
+    }
+
+    @Test
+    public void importMarkerSurvivesReopenAndCompaction() throws IOException {
+        assertFalse(journal.isImportCompleted());
+        long trackId = journal.append("imported", "", 1, createPayload(10, 1));
+        journal.markImportCompleted();
+
+        reopen();
+        assertTrue(journal.isImportCompleted());
+
+        journal.delete(trackId);
+        journal.compact();
+        reopen();
+        assertTrue(journal.isImportCompleted());
+        assertEquals(0, journal.size());
+    }
+
+    @Test
+    public void recordWithoutBodyAndBadCrcIsDiscarded() throws IOException {
+        long trackId = journal.append("first", "", 1, createPayload(10, 1));
+        long validLength = journal.getFileLength();
+        journal.close();
+
+        // A tombstone with a wrong CRC must not delete the track.
+        try (DataOutputStream dataOutputStream =
+                     new DataOutputStream(new FileOutputStream(journalFile, true))) {
+            dataOutputStream.writeInt(0x47505852);
+            dataOutputStream.writeByte(2);
+            dataOutputStream.writeLong(trackId);
+            CRC32 crc32 = new CRC32();
+            crc32.update(1);
+            dataOutputStream.writeInt((int) crc32.getValue());
+        }
+
+        journal = new GPXTrackJournal(journalFile);
+        assertEquals(1, journal.size());
+        assertEquals(validLength, journal.getFileLength());
+    }
+
+    @Test
+    public void forEachTrackVisitsLiveTracksForTheExport() throws IOException {
+        journal.append("first", "", 1, createPayload(100, 1));
+        long secondId = journal.append("second", "", 2, createPayload(100, 2));
+        journal.append("third", "", 3, createPayload(100, 3));
+        journal.delete(secondId);
+
+        List<String> names = new ArrayList<>();
+        List<byte[]> payloads = new ArrayList<>();
+        int skippedCount = journal.forEachTrack((entry, payload) -> {
+            names.add(entry.name);
+            payloads.add(payload);
+        });
+
+        assertEquals(0, skippedCount);
+        assertEquals(Arrays.asList("first", "third"), names);
+        assertArrayEquals(createPayload(100, 1), payloads.get(0));
+        assertArrayEquals(createPayload(100, 3), payloads.get(1));
+    }
+
+    @Test
+    public void forEachTrackSkipsCorruptTracks() throws IOException {
+        journal.append("first", "", 1, createPayload(100, 1));
+        long secondId = journal.append("second", "", 2, createPayload(100, 2));
+        long lengthWithOneTrack = journal.getEntry(secondId).recordOffset;
+        journal.close();
+
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(journalFile, "rw")) {
+            long position = lengthWithOneTrack - 20;
+            randomAccessFile.seek(position);
+            int value = randomAccessFile.read();
+            randomAccessFile.seek(position);
+            randomAccessFile.write(value ^ 0xFF);
+        }
+
+        journal = new GPXTrackJournal(journalFile);
+        List<String> names = new ArrayList<>();
+        int skippedCount = journal.forEachTrack((entry, payload) -> names.add(entry.name));
+
+        assertEquals(1, skippedCount);
+        assertEquals(Arrays.asList("second"), names);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.hikingdiary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TravelledPathTest {
+
+    // A plain JVM stand-in for GeoCoordinates::distanceTo, so no HERE SDK is needed.
+    static final TravelledPath.DistanceCalculator<double[]> HAVERSINE = (from, to) -> {
+        double earthRadiusInMeters = 6371000;
+        double dLat = Math.toRadians(to[0] - from[0]);
+        double dLon = Math.toRadians(to[1] - from[1]);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(from[0])) * Math.cos(Math.toRadians(to[0]))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * earthRadiusInMeters * Math.asin(Math.sqrt(a));
+    };
+
+    // Simulates a hike with roughly 15 m between accepted locations.
+    static List<double[]> createSyntheticHike(int numberOfPoints, long seed) {
+        Random random = new Random(seed);
+        List<double[]> points = new ArrayList<>(numberOfPoints);
+        double latitude = 52.530932;
+        double longitude = 13.384915;
+        for (int i = 0; i < numberOfPoints; i++) {
+            points.add(new double[]{latitude, longitude});
+            latitude += (random.nextDouble() - 0.3) * 0.0002;
+            longitude += (random.nextDouble() - 0.3) * 0.0002;
+        }
+        return points;
+    }
+
+    @Test
+    public void runningLengthMatchesFullRecomputationAfterEachVertex() {
+        List<double[]> hike = createSyntheticHike(2_000, 1);
+        TravelledPath<double[]> travelledPath = new TravelledPath<>(HAVERSINE);
+
+        for (int i = 0; i < hike.size(); i++) {
+            travelledPath.addVertex(hike.get(i));
+            int expected = TravelledPath.computeLengthInMeters(hike.subList(0, i + 1), HAVERSINE);
+            assertEquals(expected, travelledPath.getLengthInMeters());
+        }
+        assertEquals(hike.size(), travelledPath.size());
+    }
+
+    @Test
+    public void emptyAndSingleVertexPathsHaveNoLength() {
+        TravelledPath<double[]> travelledPath = new TravelledPath<>(HAVERSINE);
+        assertEquals(0, travelledPath.getLengthInMeters());
+
+        travelledPath.addVertex(new double[]{52.5, 13.4});
+        assertEquals(0, travelledPath.getLengthInMeters());
+    }
+
+    @Test
+    public void clearResetsLengthAndVertices() {
+        TravelledPath<double[]> travelledPath = new TravelledPath<>(HAVERSINE, 3);
+        for (double[] point : createSyntheticHike(10, 2)) {
+            travelledPath.addVertex(point);
+            travelledPath.sealTailIfFull();
+        }
+
+        travelledPath.clear();
+
+        assertEquals(0, travelledPath.size());
+        assertEquals(0, travelledPath.getLengthInMeters());
+        assertEquals(0, travelledPath.getTailVertices().size());
+    }
+
+    @Test
+    public void sealedChunksAndTailCoverAllVerticesWithoutGaps() {
+        List<double[]> hike = createSyntheticHike(1_234, 3);
+        TravelledPath<double[]> travelledPath = new TravelledPath<>(HAVERSINE, 100);
+        List<List<double[]>> chunks = new ArrayList<>();
+
+        for (double[] point : hike) {
+            travelledPath.addVertex(point);
+            List<double[]> tail = new ArrayList<>(travelledPath.getTailVertices());
+            assertTrue(tail.size() <= 100);
+            if (travelledPath.sealTailIfFull()) {
+                chunks.add(tail);
+            }
+        }
+        chunks.add(new ArrayList<>(travelledPath.getTailVertices()));
+
+        // Each chunk starts where the previous one ended, so the drawn path is continuous
+        // and the sum of all chunk lengths equals the length of the full path.
+        int lengthOfChunks = 0;
+        List<double[]> joined = new ArrayList<>(chunks.get(0));
+        lengthOfChunks += TravelledPath.computeLengthInMeters(chunks.get(0), HAVERSINE);
+        for (int i = 1; i < chunks.size(); i++) {
+            List<double[]> previous = chunks.get(i - 1);
+            assertTrue(previous.get(previous.size() - 1) == chunks.get(i).get(0));
+            joined.addAll(chunks.get(i).subList(1, chunks.get(i).size()));
+            lengthOfChunks += TravelledPath.computeLengthInMeters(chunks.get(i), HAVERSINE);
+        }
+        assertEquals(hike.size(), joined.size());
+        assertEquals(TravelledPath.computeLengthInMeters(hike, HAVERSINE), lengthOfChunks);
+        assertEquals(travelledPath.getLengthInMeters(), lengthOfChunks);
+    }
+
+    @Test
+    public void tailIsNotSealedBeforeChunkSizeIsReached() {
+        TravelledPath<double[]> travelledPath = new TravelledPath<>(HAVERSINE, 5);
+        for (double[] point : createSyntheticHike(4, 4)) {
+            travelledPath.addVertex(point);
+            assertFalse(travelledPath.sealTailIfFull());
+        }
+        assertEquals(4, travelledPath.getTailVertices().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void chunkSizeBelowTwoIsRejected() {
+        new TravelledPath<>(HAVERSINE, 1);
+    }
+}
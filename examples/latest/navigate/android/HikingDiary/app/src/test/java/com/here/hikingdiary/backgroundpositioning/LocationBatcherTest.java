@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.hikingdiary.backgroundpositioning;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LocationBatcherTest {
+
+    private static final int MAX_BATCH_SIZE = 5;
+    private static final long MAX_BATCH_DELAY_IN_MILLISECONDS = 30000;
+    private static final double STATIONARY_RADIUS_IN_METERS = 15;
+    private static final long STATIONARY_DELAY_IN_MILLISECONDS = 60000;
+    // Roughly 11 m in latitude direction.
+    private static final double STEP_IN_DEGREES = 0.0001;
+
+    private final List<List<double[]>> batches = new ArrayList<>();
+    private final List<Boolean> motionChanges = new ArrayList<>();
+    private long now = 0;
+    private LocationBatcher<double[]> batcher;
+
+    @Before
+    public void setUp() {
+        batcher = new LocationBatcher<>(
+                new LocationBatcher.LocationAccessor<double[]>() {
+                    @Override
+                    public double getLatitude(double[] location) {
+                        return location[0];
+                    }
+
+                    @Override
+                    public double getLongitude(double[] location) {
+                        return location[1];
+                    }
+
+                    @Override
+                    public double getHorizontalAccuracyInMeters(double[] location) {
+                        return location.length > 2 ? location[2] : 0;
+                    }
+                },
+                () -> now,
+                batches::add,
+                motionChanges::add,
+                MAX_BATCH_SIZE,
+                MAX_BATCH_DELAY_IN_MILLISECONDS,
+                STATIONARY_RADIUS_IN_METERS,
+                STATIONARY_DELAY_IN_MILLISECONDS);
+    }
+
+    // Simulates a walk with one location per second and roughly 11 m between locations.
+    private void walk(int numberOfLocations) {
+        for (int i = 0; i < numberOfLocations; i++) {
+            now += 1000;
+            batcher.onLocationReceived(new double[]{52.53 + i * STEP_IN_DEGREES, 13.38});
+        }
+    }
+
+    // Simulates a device that stays at the same spot with a few meters of GPS noise.
+    private void standStill(int numberOfLocations, long intervalInMilliseconds) {
+        for (int i = 0; i < numberOfLocations; i++) {
+            now += intervalInMilliseconds;
+            double noise = (i % 3 - 1) * 0.00002;
+            batcher.onLocationReceived(new double[]{52.6 + noise, 13.38 - noise});
+        }
+    }
+
+    private int deliveredLocations() {
+        int count = 0;
+        for (List<double[]> batch : batches) {
+            count += batch.size();
+        }
+        return count;
+    }
+
+    @Test
+    public void deliversEachLocationRightAwayInForeground() {
+        walk(12);
+
+        assertEquals(12, batches.size());
+        assertEquals(12, batcher.getDeliveredCount());
+        assertEquals(0, batcher.getBufferedCount());
+    }
+
+    @Test
+    public void deliversFullBatchesInBackground() {
+        batcher.setInBackground(true);
+        walk(12);
+
+        assertEquals(2, batches.size());
+        assertEquals(MAX_BATCH_SIZE, batches.get(0).size());
+        assertEquals(2, batcher.getBufferedCount());
+        assertEquals(10, batcher.getDeliveredCount());
+        assertEquals(12, batcher.getReceivedCount());
+    }
+
+    @Test
+    public void batchIsDueAfterMaxDelayWithoutFurtherLocations() {
+        batcher.setInBackground(true);
+        walk(2);
+        assertEquals(MAX_BATCH_DELAY_IN_MILLISECONDS - 1000, batcher.getMillisecondsUntilDue());
+
+        now += MAX_BATCH_DELAY_IN_MILLISECONDS - 1001;
+        batcher.flushIfDue();
+        assertTrue(batches.isEmpty());
+
+        now += 1;
+        batcher.flushIfDue();
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals(-1, batcher.getMillisecondsUntilDue());
+    }
+
+    @Test
+    public void locationsKeepTheirOrderAcrossBatches() {
+        batcher.setInBackground(true);
+        walk(13);
+        batcher.flush();
+
+        List<double[]> delivered = new ArrayList<>();
+        for (List<double[]> batch : batches) {
+            delivered.addAll(batch);
+        }
+        assertEquals(13, delivered.size());
+        for (int i = 1; i < delivered.size(); i++) {
+            assertTrue(delivered.get(i)[0] > delivered.get(i - 1)[0]);
+        }
+    }
+
+    @Test
+    public void switchingToForegroundDeliversBufferedLocations() {
+        batcher.setInBackground(true);
+        walk(3);
+        assertTrue(batches.isEmpty());
+
+        batcher.setInBackground(false);
+
+        assertEquals(1, batches.size());
+        assertEquals(3, batches.get(0).size());
+    }
+
+    @Test
+    public void becomesStationaryAfterDelayAndDropsLocationsWithinRadius() {
+        // One location every 10 seconds: the 7th location is 60 seconds after the anchor.
+        standStill(7, 10000);
+        assertTrue(batcher.isStationary());
+        assertEquals(1, motionChanges.size());
+        assertTrue(motionChanges.get(0));
+        assertEquals(0, batcher.getDroppedCount());
+
+        standStill(10, 10000);
+
+        assertEquals(17, batcher.getReceivedCount());
+        assertEquals(7, batcher.getDeliveredCount());
+        assertEquals(10, batcher.getDroppedCount());
+    }
+
+    @Test
+    public void movingAgainRestoresAccuracyAndDelivery() {
+        standStill(20, 10000);
+        assertTrue(batcher.isStationary());
+
+        walk(3);
+
+        assertFalse(batcher.isStationary());
+        assertEquals(2, motionChanges.size());
+        assertFalse(motionChanges.get(1));
+        assertEquals(batcher.getReceivedCount(), batcher.getDeliveredCount() + batcher.getDroppedCount());
+    }
+
+    @Test
+    public void inaccurateLocationsWithinTheirAccuracyStayStationary() {
+        standStill(20, 10000);
+        assertTrue(batcher.isStationary());
+
+        // About 33 m away, but only accurate to 50 m, as the accuracy was lowered.
+        now += 10000;
+        batcher.onLocationReceived(new double[]{52.6003, 13.38, 50});
+        assertTrue(batcher.isStationary());
+
+        // About 89 m away, which is more than the accuracy.
+        now += 10000;
+        batcher.onLocationReceived(new double[]{52.6008, 13.38, 50});
+        assertFalse(batcher.isStationary());
+        assertEquals(2, motionChanges.size());
+    }
+
+    @Test
+    public void walkingNeverBecomesStationary() {
+        batcher.setInBackground(true);
+        walk(600);
+
+        assertTrue(motionChanges.isEmpty());
+        assertEquals(0, batcher.getDroppedCount());
+        assertEquals(600, deliveredLocations());
+    }
+
+    @Test
+    public void stationaryDropsAreCountedInBackgroundAndPendingBatchStillFlushes() {
+        batcher.setInBackground(true);
+        // The batch of the first 4 locations becomes due after 30 seconds, the next 3 stay buffered.
+        standStill(7, 10000);
+        assertEquals(1, batches.size());
+        assertEquals(4, batches.get(0).size());
+        assertEquals(3, batcher.getBufferedCount());
+
+        // Dropped locations are not buffered, but the pending batch still becomes due.
+        standStill(3, 10000);
+        assertEquals(2, batches.size());
+        assertEquals(3, batches.get(1).size());
+        assertEquals(3, batcher.getDroppedCount());
+        assertEquals(0, batcher.getBufferedCount());
+    }
+}
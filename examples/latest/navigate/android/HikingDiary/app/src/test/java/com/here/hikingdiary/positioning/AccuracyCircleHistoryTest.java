@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.hikingdiary.positioning;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AccuracyCircleHistoryTest {
+
+    // A plain JVM stand-in for a MapPolygon on the map.
+    static class FakeCircle {
+        double latitude;
+        Double accuracyInMeters;
+        int updateCount = 0;
+    }
+
+    static class FakeRenderer implements AccuracyCircleHistory.Renderer<FakeCircle> {
+        final List<FakeCircle> circlesOnMap = new ArrayList<>();
+
+        @Override
+        public FakeCircle add(double latitude, double longitude, Double accuracyInMeters) {
+            FakeCircle circle = new FakeCircle();
+            circle.latitude = latitude;
+            circle.accuracyInMeters = accuracyInMeters;
+            circlesOnMap.add(circle);
+            return circle;
+        }
+
+        @Override
+        public void update(FakeCircle circle, double latitude, double longitude, Double accuracyInMeters) {
+            circle.latitude = latitude;
+            circle.accuracyInMeters = accuracyInMeters;
+            circle.updateCount++;
+        }
+
+        @Override
+        public void remove(FakeCircle circle) {
+            circlesOnMap.remove(circle);
+        }
+    }
+
+    private FakeRenderer renderer;
+
+    @Before
+    public void setUp() {
+        renderer = new FakeRenderer();
+    }
+
+    @Test
+    public void fillsUpToTheCapacity() {
+        AccuracyCircleHistory<FakeCircle> history = new AccuracyCircleHistory<>(renderer, 3);
+        history.add(1, 0, 5.0);
+        history.add(2, 0, 6.0);
+
+        assertEquals(2, history.size());
+        assertEquals(2, renderer.circlesOnMap.size());
+        assertEquals(1, history.get(0).latitude, 0);
+        assertEquals(2, history.get(1).latitude, 0);
+        assertEquals(0, history.getReusedCount());
+    }
+
+    @Test
+    public void wrapsAroundByReusingTheOldestCircle() {
+        AccuracyCircleHistory<FakeCircle> history = new AccuracyCircleHistory<>(renderer, 3);
+        for (int i = 1; i <= 3; i++) {
+            history.add(i, 0, (double) i);
+        }
+        FakeCircle oldestCircle = history.get(0);
+
+        history.add(4, 0, 4.0);
+
+        // No circle was created or removed, the oldest one moved to the newest location.
+        assertEquals(3, renderer.circlesOnMap.size());
+        assertEquals(3, history.size());
+        assertSame(oldestCircle, history.get(2));
+        assertEquals(4, oldestCircle.latitude, 0);
+        assertEquals(1, oldestCircle.updateCount);
+        assertEquals(2, history.get(0).latitude, 0);
+        assertEquals(3, history.get(1).latitude, 0);
+    }
+
+    @Test
+    public void keepsTheOrderAfterManyWraparounds() {
+        AccuracyCircleHistory<FakeCircle> history = new AccuracyCircleHistory<>(renderer, 4);
+        for (int i = 1; i <= 23; i++) {
+            history.add(i, 0, (double) i);
+        }
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(20 + i, history.get(i).latitude, 0);
+            assertEquals(20.0 + i, history.getAccuracyInMeters(i), 0);
+        }
+        assertEquals(4, history.getAddedCount());
+        assertEquals(19, history.getReusedCount());
+        assertEquals(4, renderer.circlesOnMap.size());
+    }
+
+    @Test
+    public void capacityOfOneAlwaysMovesTheSameCircle() {
+        AccuracyCircleHistory<FakeCircle> history = new AccuracyCircleHistory<>(renderer, 1);
+        history.add(1, 0, 5.0);
+        FakeCircle circle = history.get(0);
+        history.add(2, 0, 5.0);
+        history.add(3, 0, 5.0);
+
+        assertSame(circle, history.get(0));
+        assertEquals(3, circle.latitude, 0);
+        assertEquals(1, renderer.circlesOnMap.size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getOutsideOfTheSizeThrows() {
+        AccuracyCircleHistory<FakeCircle> history = new AccuracyCircleHistory<>(renderer, 3);
+        history.add(1, 0, 5.0);
+
+        history.get(1);
+    }
+
+    @Test
+    public void pruningKeepsOnlyCirclesWithADifferentAccuracy() {
+        AccuracyCircleHistory<FakeCircle> history = new AccuracyCircleHistory<>(renderer, 10);
+        history.setMinAccuracyDifferenceInMeters(2);
+
+        // Each row: the accuracy and whether a circle is expected for it.
+        Object[][] trace = {
+                {5.0, true},       // The first location always gets a circle.
+                {5.5, false},
+                {6.9, false},      // 1.9 m from the newest circle.
+                {7.0, true},       // 2 m from the newest circle.
+                {5.0, true},
+                {3.5, false},
+                {null, true},      // No accuracy information.
+                {null, false},
+                {4.0, true},
+                {12.0, true},
+        };
+
+        for (int i = 0; i < trace.length; i++) {
+            assertEquals("Row " + i, trace[i][1], history.add(i, 0, (Double) trace[i][0]));
+        }
+        assertEquals(6, history.size());
+        assertEquals(4, history.getPrunedCount());
+        assertEquals(7.0, history.getAccuracyInMeters(1), 0);
+        assertNull(history.getAccuracyInMeters(3));
+    }
+
+    @Test
+    public void pruningComparesWithTheNewestCircleAfterWraparound() {
+        AccuracyCircleHistory<FakeCircle> history = new AccuracyCircleHistory<>(renderer, 2);
+        history.setMinAccuracyDifferenceInMeters(2);
+        history.add(1, 0, 5.0);
+        history.add(2, 0, 10.0);
+        history.add(3, 0, 15.0);
+
+        // The newest circle has 15 m, the oldest 10 m.
+        assertFalse(history.add(4, 0, 14.0));
+        assertTrue(history.add(5, 0, 10.0));
+        assertEquals(15.0, history.getAccuracyInMeters(0), 0);
+        assertEquals(10.0, history.getAccuracyInMeters(1), 0);
+    }
+
+    @Test
+    public void withoutPruningEveryLocationGetsACircle() {
+        AccuracyCircleHistory<FakeCircle> history = new AccuracyCircleHistory<>(renderer, 10);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(history.add(i, 0, 5.0));
+        }
+
+        assertEquals(5, history.size());
+        assertEquals(0, history.getPrunedCount());
+    }
+
+    @Test
+    public void clearRemovesAllCirclesFromTheMap() {
+        AccuracyCircleHistory<FakeCircle> history = new AccuracyCircleHistory<>(renderer, 3);
+        for (int i = 1; i <= 5; i++) {
+            history.add(i, 0, (double) i);
+        }
+
+        history.clear();
+
+        assertEquals(0, history.size());
+        assertEquals(0, renderer.circlesOnMap.size());
+
+        history.add(6, 0, 6.0);
+        assertEquals(6, history.get(0).latitude, 0);
+    }
+
+    @Test
+    public void toStringContainsTheCounters() {
+        AccuracyCircleHistory<FakeCircle> history = new AccuracyCircleHistory<>(renderer, 2);
+        history.setMinAccuracyDifferenceInMeters(1);
+        history.add(1, 0, 5.0);
+        history.add(2, 0, 5.0);
+        history.add(3, 0, 8.0);
+        history.add(4, 0, 12.0);
+
+        assertEquals("AccuracyCircleHistory{size=2/2, added=2, reused=1, pruned=1}", history.toString());
+    }
+}
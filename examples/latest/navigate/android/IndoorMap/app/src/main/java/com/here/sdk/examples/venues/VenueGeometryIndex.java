@@ -0,0 +1,352 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.sdk.examples.venues;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// A search index over the names, addresses and icon names of the geometries of a venue.
+// It is built once when a venue is selected. A geometry matches a query, when each word of the query
+// is the prefix of a word in one of the searched fields, for example, "gate a1" matches "Gate A12".
+// While the user is typing, each query usually extends the previous one, so the previous
+// results are refined instead of searching the whole venue again. When a character is deleted,
+// the result of the shorter query is still known.
+// The class does not depend on the HERE SDK, T is, for example, a VenueGeometry.
+public class VenueGeometryIndex<T> {
+
+    // Fields that can be searched, they can be combined, for example, NAME | ADDRESS.
+    public static final int NAME = 1;
+    public static final int ADDRESS = 2;
+    public static final int ICON_NAME = 4;
+    private static final int[] FIELDS = {NAME, ADDRESS, ICON_NAME};
+    private static final String[] NO_WORDS = new String[0];
+
+    public interface FieldExtractor<T> {
+        // Returns null, if the geometry has no value for the field.
+        String getField(T geometry, int field);
+    }
+
+    public interface LabelProvider {
+        String getLabel(int geometryId);
+    }
+
+    // The distinct words of a field, sorted. The IDs of the geometries that contain
+    // words[i] are stored in geometryIds, from offsets[i] to offsets[i + 1].
+    private static final class WordIndex {
+        final String[] words;
+        final int[] offsets;
+        final int[] geometryIds;
+        // The words of each geometry, to check candidates without a lookup.
+        final String[][] wordsByGeometry;
+
+        WordIndex(String[] words, int[] offsets, int[] geometryIds, String[][] wordsByGeometry) {
+            this.words = words;
+            this.offsets = offsets;
+            this.geometryIds = geometryIds;
+            this.wordsByGeometry = wordsByGeometry;
+        }
+    }
+
+    private static final class IdList {
+        int[] ids = new int[4];
+        int size = 0;
+
+        void add(int id) {
+            // A word may appear twice in the same field, for example, "Terminal 1, Level 1".
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+
+    private final List<T> geometries;
+    private final WordIndex[] wordIndices = new WordIndex[FIELDS.length];
+
+    // The results of the queries that led to the current query, for example, "g", "ga" and "gat".
+    // When a character is deleted, the result of the shorter query is taken from here.
+    private static final int MAX_HISTORY_SIZE = 64;
+    private final ArrayDeque<QueryResult> history = new ArrayDeque<>();
+
+    private static final class QueryResult {
+        final String query;
+        final int fields;
+        final int[] result;
+
+        QueryResult(String query, int fields, int[] result) {
+            this.query = query;
+            this.fields = fields;
+            this.result = result;
+        }
+    }
+
+    private int lookupCount = 0;
+    private int refinementCount = 0;
+    private int historyHitCount = 0;
+
+    // The IDs of the geometries are their positions in the given list, results keep this order.
+    public VenueGeometryIndex(List<T> geometries, FieldExtractor<T> fieldExtractor) {
+        this.geometries = new ArrayList<>(geometries);
+        for (int i = 0; i < FIELDS.length; i++) {
+            wordIndices[i] = createWordIndex(FIELDS[i], fieldExtractor);
+        }
+    }
+
+    private WordIndex createWordIndex(int field, FieldExtractor<T> fieldExtractor) {
+        // Names and addresses share many words, so only the distinct words need to be sorted.
+        String[][] wordsByGeometry = new String[geometries.size()][];
+        Map<String, IdList> idsByWord = new HashMap<>();
+        int idCount = 0;
+        for (int id = 0; id < geometries.size(); id++) {
+            wordsByGeometry[id] = splitIntoWords(fieldExtractor.getField(geometries.get(id), field));
+            for (String word : wordsByGeometry[id]) {
+                IdList idList = idsByWord.get(word);
+                if (idList == null) {
+                    idList = new IdList();
+                    idsByWord.put(word, idList);
+                }
+                int previousSize = idList.size;
+                idList.add(id);
+                idCount += idList.size - previousSize;
+            }
+        }
+
+        String[] words = idsByWord.keySet().toArray(NO_WORDS);
+        Arrays.sort(words);
+        int[] offsets = new int[words.length + 1];
+        int[] geometryIds = new int[idCount];
+        for (int i = 0; i < words.length; i++) {
+            IdList idList = idsByWord.get(words[i]);
+            System.arraycopy(idList.ids, 0, geometryIds, offsets[i], idList.size);
+            offsets[i + 1] = offsets[i] + idList.size;
+        }
+        return new WordIndex(words, offsets, geometryIds, wordsByGeometry);
+    }
+
+    // Returns the sorted IDs of all geometries that match the query in one of the given fields.
+    // An empty query matches all geometries. The returned array must not be modified.
+    public int[] search(String query, int fields) {
+        String normalizedQuery = query == null ? "" : query.toLowerCase(Locale.ROOT);
+        String[] queryWords = splitIntoWords(normalizedQuery);
+
+        if (queryWords.length == 0) {
+            history.clear();
+            int[] result = new int[geometries.size()];
+            for (int id = 0; id < result.length; id++) {
+                result[id] = id;
+            }
+            return result;
+        }
+
+        // Drop the results that can't be refined to the new query.
+        while (!history.isEmpty()
+                && (history.peekLast().fields != fields || !normalizedQuery.startsWith(history.peekLast().query))) {
+            history.pollLast();
+        }
+
+        int[] result;
+        QueryResult previous = history.peekLast();
+        if (previous != null && previous.query.equals(normalizedQuery)) {
+            historyHitCount++;
+            return previous.result;
+        } else if (previous != null) {
+            // Typing more characters can only remove geometries from the previous result.
+            refinementCount++;
+            result = filter(previous.result, queryWords, fields);
+        } else {
+            lookupCount++;
+            result = lookup(queryWords, fields);
+        }
+
+        if (history.size() == MAX_HISTORY_SIZE) {
+            history.pollFirst();
+        }
+        history.addLast(new QueryResult(normalizedQuery, fields, result));
+        return result;
+    }
+
+    private int[] lookup(String[] queryWords, int fields) {
+        // Start with the longest word, as it usually matches the fewest geometries.
+        String longestWord = queryWords[0];
+        for (String queryWord : queryWords) {
+            if (queryWord.length() > longestWord.length()) {
+                longestWord = queryWord;
+            }
+        }
+
+        boolean[] isCandidate = new boolean[geometries.size()];
+        for (int i = 0; i < FIELDS.length; i++) {
+            if ((fields & FIELDS[i]) == 0) {
+                continue;
+            }
+            WordIndex wordIndex = wordIndices[i];
+            for (int position = lowerBound(wordIndex.words, longestWord);
+                 position < wordIndex.words.length && wordIndex.words[position].startsWith(longestWord);
+                 position++) {
+                for (int idPosition = wordIndex.offsets[position]; idPosition < wordIndex.offsets[position + 1]; idPosition++) {
+                    isCandidate[wordIndex.geometryIds[idPosition]] = true;
+                }
+            }
+        }
+
+        int candidateCount = 0;
+        for (boolean candidate : isCandidate) {
+            if (candidate) {
+                candidateCount++;
+            }
+        }
+        int[] candidates = new int[candidateCount];
+        int position = 0;
+        for (int id = 0; id < isCandidate.length; id++) {
+            if (isCandidate[id]) {
+                candidates[position++] = id;
+            }
+        }
+        return queryWords.length == 1 ? candidates : filter(candidates, queryWords, fields);
+    }
+
+    private int[] filter(int[] candidates, String[] queryWords, int fields) {
+        int[] result = new int[candidates.length];
+        int resultCount = 0;
+        for (int id : candidates) {
+            if (matches(id, queryWords, fields)) {
+                result[resultCount++] = id;
+            }
+        }
+        return Arrays.copyOf(result, resultCount);
+    }
+
+    private boolean matches(int id, String[] queryWords, int fields) {
+        for (String queryWord : queryWords) {
+            if (!matchesWord(id, queryWord, fields)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesWord(int id, String queryWord, int fields) {
+        for (int i = 0; i < FIELDS.length; i++) {
+            if ((fields & FIELDS[i]) == 0) {
+                continue;
+            }
+            for (String word : wordIndices[i].wordsByGeometry[id]) {
+                if (word.startsWith(queryWord)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int lowerBound(String[] words, String prefix) {
+        int low = 0;
+        int high = words.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (words[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    static String[] splitIntoWords(String text) {
+        if (text == null || text.isEmpty()) {
+            return NO_WORDS;
+        }
+        List<String> words = new ArrayList<>();
+        String lowerCaseText = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lowerCaseText.length(); i++) {
+            boolean isWordCharacter = i < lowerCaseText.length()
+                    && Character.isLetterOrDigit(lowerCaseText.charAt(i));
+            if (isWordCharacter && start < 0) {
+                start = i;
+            } else if (!isWordCharacter && start >= 0) {
+                words.add(lowerCaseText.substring(start, i));
+                start = -1;
+            }
+        }
+        return words.toArray(NO_WORDS);
+    }
+
+    public T getGeometry(int id) {
+        return geometries.get(id);
+    }
+
+    public int size() {
+        return geometries.size();
+    }
+
+    // The number of queries that needed a lookup in the index.
+    public int getLookupCount() {
+        return lookupCount;
+    }
+
+    // The number of queries that refined the previous result.
+    public int getRefinementCount() {
+        return refinementCount;
+    }
+
+    // The number of queries that were answered with the result of an earlier query, for example, after a deletion.
+    public int getHistoryHitCount() {
+        return historyHitCount;
+    }
+
+    // Updates a list of labels that shows the oldIds, so that it shows the newIds.
+    // Both arrays must be sorted. Labels of geometries that are shown before and after the update
+    // are kept, only the labels of new geometries are created. Returns the number of changed entries.
+    public static int updateLabels(List<String> labels, int[] oldIds, int[] newIds, LabelProvider labelProvider) {
+        List<String> updatedLabels = new ArrayList<>(newIds.length);
+        int oldPosition = 0;
+        int changeCount = 0;
+        for (int newId : newIds) {
+            while (oldPosition < oldIds.length && oldIds[oldPosition] < newId) {
+                // Removed.
+                oldPosition++;
+                changeCount++;
+            }
+            if (oldPosition < oldIds.length && oldIds[oldPosition] == newId) {
+                updatedLabels.add(labels.get(oldPosition++));
+            } else {
+                updatedLabels.add(labelProvider.getLabel(newId));
+                changeCount++;
+            }
+        }
+        changeCount += oldIds.length - oldPosition;
+
+        if (changeCount > 0) {
+            labels.clear();
+            labels.addAll(updatedLabels);
+        }
+        return changeCount;
+    }
+}
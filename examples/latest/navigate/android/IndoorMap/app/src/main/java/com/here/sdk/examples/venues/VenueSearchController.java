@@ -24,6 +24,7 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 import android.text.Editable;
 import android.text.TextWatcher;
+import android.util.Log;
 import android.view.View;
 import android.view.inputmethod.InputMethodManager;
 import android.widget.AdapterView;
@@ -43,6 +44,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class VenueSearchController {
+    private static final String TAG = VenueSearchController.class.getName();
     final VenueMap venueMap;
     final VenueTapController tapController;
     final View venueSearchLayout;
@@ -55,6 +57,11 @@ public class VenueSearchController {
     private VenueGeometryFilterType searchType = VenueGeometryFilterType.NAME;
     private boolean visible = false;
     private List<VenueGeometry> geometries;
+    // Built once per selected venue, so that typing does not scan all geometries of the venue.
+    private VenueGeometryIndex<VenueGeometry> geometryIndex;
+    private int[] shownGeometryIds = new int[0];
+    private final List<String> names = new ArrayList<>();
+    private StringArrayAdapter adapter;
 
     public VenueSearchController(VenueMap venueMap,
                                  VenueTapController tapController,
@@ -94,6 +101,8 @@ public class VenueSearchController {
             VenueGeometryFilterType type = VenueGeometryFilterType.values()[position];
             if (type != searchType) {
                 searchType = type;
+                // The labels depend on the search type.
+                resetAdapter();
                 filterGeometries();
             }
         }
@@ -154,39 +163,101 @@ public class VenueSearchController {
             return;
         }
         this.venue = venue;
+        geometryIndex = venue == null ? null : createGeometryIndex(venue);
+        resetAdapter();
         filterGeometries();
     }
 
+    private VenueGeometryIndex<VenueGeometry> createGeometryIndex(Venue venue) {
+        long startTime = System.nanoTime();
+        VenueGeometryIndex<VenueGeometry> index = new VenueGeometryIndex<>(
+                venue.getVenueModel().getGeometriesByName(),
+                (geometry, field) -> {
+                    switch (field) {
+                        case VenueGeometryIndex.NAME:
+                            return geometry.getName();
+                        case VenueGeometryIndex.ADDRESS:
+                            return geometry.getInternalAddress() != null
+                                    ? geometry.getInternalAddress().getAddress()
+                                    : null;
+                        case VenueGeometryIndex.ICON_NAME:
+                            return geometry.getLookupType() == VenueGeometry.LookupType.ICON
+                                    ? geometry.getLabelName()
+                                    : null;
+                        default:
+                            return null;
+                    }
+                });
+        Log.d(TAG, "Indexed " + index.size() + " geometries in "
+                + (System.nanoTime() - startTime) / 1000000 + " ms.");
+        return index;
+    }
+
+    private static int getSearchFields(VenueGeometryFilterType searchType) {
+        switch (searchType) {
+            case ADDRESS:
+                return VenueGeometryIndex.ADDRESS;
+            case NAME_OR_ADDRESS:
+                return VenueGeometryIndex.NAME | VenueGeometryIndex.ADDRESS;
+            case ICON_NAME:
+                return VenueGeometryIndex.ICON_NAME;
+            default:
+                return VenueGeometryIndex.NAME;
+        }
+    }
+
+    // Starts with an empty list, for example, when the labels need to be created again.
+    private void resetAdapter() {
+        names.clear();
+        shownGeometryIds = new int[0];
+        adapter = null;
+    }
+
     private void filterGeometries() {
-        if (venue == null)
+        if (venue == null || geometryIndex == null)
         {
+            geometries = null;
             geometriesList.setAdapter(null);
             return;
         }
-        geometries = filter.isEmpty()
-                ? venue.getVenueModel().getGeometriesByName()
-                : venue.getVenueModel().filterGeometry(filter, searchType);
-        List<String> names = new ArrayList<>();
-        for (VenueGeometry geometry : geometries) {
-            StringBuilder name = new StringBuilder();
-            name.append(geometry.getName()).append(", ").append(geometry.getLevel().getName());
-            if ((searchType == VenueGeometryFilterType.ADDRESS
-                    || searchType == VenueGeometryFilterType.NAME_OR_ADDRESS)
-                    && geometry.getInternalAddress() != null)
-            {
-                name.append("\n(Address: ").append(geometry.getInternalAddress().getAddress())
-                        .append(")");
-            }
-            else if (searchType == VenueGeometryFilterType.ICON_NAME
-                    && geometry.getLookupType() == VenueGeometry.LookupType.ICON)
-            {
-                name.append("\n(Icon: ").append(geometry.getLabelName()).append(")");
-            }
-            names.add(name.toString());
+
+        long startTime = System.nanoTime();
+        int[] geometryIds = geometryIndex.search(filter, getSearchFields(searchType));
+        geometries = new ArrayList<>(geometryIds.length);
+        for (int id : geometryIds) {
+            geometries.add(geometryIndex.getGeometry(id));
+        }
+
+        // Only the labels of geometries that were not shown before are created.
+        int changeCount = VenueGeometryIndex.updateLabels(names, shownGeometryIds, geometryIds,
+                id -> createLabel(geometryIndex.getGeometry(id)));
+        shownGeometryIds = geometryIds;
+        if (adapter == null) {
+            adapter = new StringArrayAdapter(geometriesList.getContext(), names);
+            geometriesList.setAdapter(adapter);
+        } else if (changeCount > 0) {
+            adapter.notifyDataSetChanged();
+        }
+        Log.d(TAG, "Found " + geometryIds.length + " geometries, " + changeCount + " changes in "
+                + (System.nanoTime() - startTime) / 1000 + " us.");
+    }
+
+    private String createLabel(VenueGeometry geometry) {
+        StringBuilder name = new StringBuilder();
+        name.append(geometry.getName()).append(", ").append(geometry.getLevel().getName());
+        if ((searchType == VenueGeometryFilterType.ADDRESS
+                || searchType == VenueGeometryFilterType.NAME_OR_ADDRESS)
+                && geometry.getInternalAddress() != null)
+        {
+            name.append("\n(Address: ").append(geometry.getInternalAddress().getAddress())
+                    .append(")");
+        }
+        else if (searchType == VenueGeometryFilterType.ICON_NAME
+                && geometry.getLookupType() == VenueGeometry.LookupType.ICON)
+        {
+            name.append("\n(Icon: ").append(geometry.getLabelName()).append(")");
         }
-        final StringArrayAdapter adapter =
-                new StringArrayAdapter(geometriesList.getContext(), names);
-        geometriesList.setAdapter(adapter);
+        return name.toString();
     }
 
     private final VenueSelectionListener venueSelectionListener =
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.sdk.examples.venues;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class VenueGeometryIndexTest {
+
+    private static class Geometry {
+        final String name;
+        final String address;
+        final String iconName;
+
+        Geometry(String name, String address, String iconName) {
+            this.name = name;
+            this.address = address;
+            this.iconName = iconName;
+        }
+    }
+
+    private static final VenueGeometryIndex.FieldExtractor<Geometry> FIELDS = (geometry, field) -> {
+        switch (field) {
+            case VenueGeometryIndex.NAME:
+                return geometry.name;
+            case VenueGeometryIndex.ADDRESS:
+                return geometry.address;
+            default:
+                return geometry.iconName;
+        }
+    };
+
+    private static final String[] NAME_WORDS = {"Gate", "Café", "Restroom", "Starbucks", "Duty-Free",
+            "Lounge", "Pharmacy", "Baggage", "Claim", "Security", "Check-In", "Zara", "H&M", "Food", "Court"};
+
+    @Test
+    public void wordPrefixesMatch() {
+        List<Geometry> geometries = Arrays.asList(
+                new Geometry("Gate A12", "Terminal 1, Level 2", null),
+                new Geometry("Gate B3", "Terminal 2", null),
+                new Geometry("Café Nero", "Terminal 1", "coffee"),
+                new Geometry("Restroom", null, "toilet"));
+        VenueGeometryIndex<Geometry> index = new VenueGeometryIndex<>(geometries, FIELDS);
+
+        assertArrayEquals(new int[]{0, 1}, index.search("gate", VenueGeometryIndex.NAME));
+        assertArrayEquals(new int[]{0}, index.search("GATE a1", VenueGeometryIndex.NAME));
+        assertArrayEquals(new int[]{0}, index.search("a1 gat", VenueGeometryIndex.NAME));
+        // Only prefixes of words match.
+        assertArrayEquals(new int[0], index.search("ate", VenueGeometryIndex.NAME));
+        assertArrayEquals(new int[]{2}, index.search("café", VenueGeometryIndex.NAME));
+        assertArrayEquals(new int[]{0, 2}, index.search("terminal 1", VenueGeometryIndex.ADDRESS));
+        // Words of a query can match in different fields.
+        assertArrayEquals(new int[]{0}, index.search("gate terminal 1",
+                VenueGeometryIndex.NAME | VenueGeometryIndex.ADDRESS));
+        assertArrayEquals(new int[]{3}, index.search("toi", VenueGeometryIndex.ICON_NAME));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, index.search(" ", VenueGeometryIndex.NAME));
+        assertSame(geometries.get(3), index.getGeometry(3));
+    }
+
+    @Test
+    public void typingMatchesBruteForceAndRefinesResults() {
+        Random random = new Random(11);
+        List<Geometry> geometries = createRandomGeometries(random, 2000);
+        VenueGeometryIndex<Geometry> index = new VenueGeometryIndex<>(geometries, FIELDS);
+        int fields = VenueGeometryIndex.NAME | VenueGeometryIndex.ADDRESS;
+
+        for (int i = 0; i < 20; i++) {
+            Geometry typedGeometry = geometries.get(random.nextInt(geometries.size()));
+            String typedText = typedGeometry.name + " " + typedGeometry.address;
+            // Type the text character by character, sometimes deleting the last character.
+            String query = "";
+            for (int length = 1; length <= typedText.length(); length++) {
+                query = typedText.substring(0, length);
+                assertArrayEquals(query, bruteForce(geometries, query, fields), index.search(query, fields));
+                if (random.nextInt(5) == 0) {
+                    String shorterQuery = query.substring(0, query.length() - 1);
+                    assertArrayEquals(shorterQuery, bruteForce(geometries, shorterQuery, fields),
+                            index.search(shorterQuery, fields));
+                }
+            }
+            assertArrayEquals(bruteForce(geometries, query, VenueGeometryIndex.NAME),
+                    index.search(query, VenueGeometryIndex.NAME));
+        }
+
+        // Most keystrokes only refine the previous result, deletions are answered from the history.
+        assertTrue(index.getRefinementCount() > 10 * index.getLookupCount());
+        assertTrue(index.getHistoryHitCount() > 0);
+    }
+
+    @Test
+    public void labelsOfKeptGeometriesAreReused() {
+        List<String> labels = new ArrayList<>();
+        List<Integer> createdLabels = new ArrayList<>();
+        VenueGeometryIndex.LabelProvider labelProvider = id -> {
+            createdLabels.add(id);
+            return "label-" + id;
+        };
+
+        assertEquals(4, VenueGeometryIndex.updateLabels(labels, new int[0], new int[]{1, 3, 5, 7}, labelProvider));
+        String keptLabel = labels.get(1);
+        createdLabels.clear();
+
+        int changeCount = VenueGeometryIndex.updateLabels(labels, new int[]{1, 3, 5, 7}, new int[]{2, 3, 7, 8},
+                labelProvider);
+
+        assertEquals(Arrays.asList("label-2", "label-3", "label-7", "label-8"), labels);
+        assertSame(keptLabel, labels.get(1));
+        assertEquals(Arrays.asList(2, 8), createdLabels);
+        // Two removed and two added.
+        assertEquals(4, changeCount);
+        assertEquals(0, VenueGeometryIndex.updateLabels(labels, new int[]{2, 3, 7, 8}, new int[]{2, 3, 7, 8},
+                labelProvider));
+    }
+
+    static List<Geometry> createRandomGeometries(Random random, int count) {
+        List<Geometry> geometries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String name = NAME_WORDS[random.nextInt(NAME_WORDS.length)] + " "
+                    + (char) ('A' + random.nextInt(26)) + random.nextInt(100);
+            String address = "Terminal " + (1 + random.nextInt(3)) + ", Level " + random.nextInt(5);
+            geometries.add(new Geometry(name, address, random.nextBoolean() ? "icon" + random.nextInt(20) : null));
+        }
+        return geometries;
+    }
+
+    // Checks each geometry, independent of the index.
+    private static int[] bruteForce(List<Geometry> geometries, String query, int fields) {
+        String[] queryWords = query.toLowerCase().split("[^\\p{L}\\p{Nd}]+");
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 0; id < geometries.size(); id++) {
+            List<String> words = new ArrayList<>();
+            for (int field : new int[]{VenueGeometryIndex.NAME, VenueGeometryIndex.ADDRESS,
+                    VenueGeometryIndex.ICON_NAME}) {
+                String value = FIELDS.getField(geometries.get(id), field);
+                if ((fields & field) != 0 && value != null) {
+                    words.addAll(Arrays.asList(value.toLowerCase().split("[^\\p{L}\\p{Nd}]+")));
+                }
+            }
+            boolean isMatch = true;
+            for (String queryWord : queryWords) {
+                if (queryWord.isEmpty()) {
+                    continue;
+                }
+                boolean isWordMatch = false;
+                for (String word : words) {
+                    isWordMatch |= word.startsWith(queryWord);
+                }
+                isMatch &= isWordMatch;
+            }
+            if (isMatch) {
+                ids.add(id);
+            }
+        }
+        int[] result = new int[ids.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids.get(i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.mapitems;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A thread-safe LRU cache for decoded images, keyed by resource ID.
+// Once the maximum number of entries is reached, the least recently used image is evicted.
+// The class does not depend on Android or the HERE SDK, so it can be tested on the JVM.
+public class ImageCache<T> {
+
+    // Decodes an image resource. Called at most once per cached key, outside of the cache lock.
+    public interface Decoder<T> {
+        T decode(int resourceId);
+    }
+
+    private final int maxEntries;
+    private final Decoder<T> decoder;
+    // With accessOrder set to true, iteration starts at the least recently used entry.
+    private final LinkedHashMap<Integer, T> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public ImageCache(int maxEntries, Decoder<T> decoder) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("The cache must hold at least one entry.");
+        }
+        this.maxEntries = maxEntries;
+        this.decoder = decoder;
+    }
+
+    public T get(int resourceId) {
+        synchronized (entries) {
+            T image = entries.get(resourceId);
+            if (image != null) {
+                hitCount.incrementAndGet();
+                return image;
+            }
+        }
+
+        // Decoding can be slow, so it is done without holding the lock.
+        missCount.incrementAndGet();
+        T decodedImage = decoder.decode(resourceId);
+        if (decodedImage == null) {
+            return null;
+        }
+
+        synchronized (entries) {
+            // Another thread may have decoded the same image meanwhile.
+            // Return the cached instance, so that all callers share the same image.
+            T image = entries.get(resourceId);
+            if (image != null) {
+                return image;
+            }
+            entries.put(resourceId, decodedImage);
+            trimToMaxEntries();
+        }
+        return decodedImage;
+    }
+
+    private void trimToMaxEntries() {
+        Iterator<Map.Entry<Integer, T>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictionCount.incrementAndGet();
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ImageCache{size=" + size() + "/" + maxEntries
+                + ", hits=" + getHitCount()
+                + ", misses=" + getMissCount()
+                + ", evictions=" + getEvictionCount() + "}";
+    }
+}
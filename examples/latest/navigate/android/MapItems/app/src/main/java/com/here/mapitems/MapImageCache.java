@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.mapitems;
+
+import android.content.Context;
+import android.content.res.Resources;
+
+import com.here.sdk.mapview.MapImage;
+import com.here.sdk.mapview.MapImageFactory;
+
+// Provides a process-wide cache for MapImage instances.
+// Decoding the same PNG resource for each map marker creates a lot of garbage when thousands of
+// markers are added. A MapImage can be shared between many map markers, so we decode it only once.
+public final class MapImageCache {
+
+    // The example uses only a few images. Keep the bound small, as each entry holds a decoded image.
+    private static final int MAX_ENTRIES = 32;
+
+    private static ImageCache<MapImage> instance;
+
+    private MapImageCache() {
+    }
+
+    public static synchronized ImageCache<MapImage> getInstance(Context context) {
+        if (instance == null) {
+            // Use the application context, so that the cache does not keep an activity alive.
+            Resources resources = context.getApplicationContext().getResources();
+            instance = new ImageCache<>(MAX_ENTRIES,
+                    resourceId -> MapImageFactory.fromResource(resources, resourceId));
+        }
+        return instance;
+    }
+
+    public static MapImage fromResource(Context context, int resourceId) {
+        return getInstance(context).get(resourceId);
+    }
+}
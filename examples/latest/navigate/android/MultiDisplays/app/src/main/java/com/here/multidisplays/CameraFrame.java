@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.multidisplays;
+
+import java.nio.ByteBuffer;
+
+// The camera state that is exchanged between the displays, encoded as a fixed-size binary frame:
+// latitude, longitude, heading, distance to the target (zoom), timestamp, sequence number and type.
+// A frame is either a camera update, where only the latest state matters, or an event, like adding
+// a circle, that must not be dropped.
+// Instances are mutable and meant to be reused, so that an update does not need to allocate.
+public final class CameraFrame {
+
+    public static final int SIZE_IN_BYTES = 6 * 8 + 4;
+
+    public static final int TYPE_CAMERA_UPDATE = 0;
+    public static final int TYPE_ADD_CIRCLE = 1;
+
+    private static final int LATITUDE_OFFSET = 0;
+    private static final int LONGITUDE_OFFSET = 8;
+    private static final int HEADING_OFFSET = 16;
+    private static final int DISTANCE_OFFSET = 24;
+    private static final int TIMESTAMP_OFFSET = 32;
+    private static final int SEQUENCE_NUMBER_OFFSET = 40;
+    private static final int TYPE_OFFSET = 48;
+
+    public double latitude;
+    public double longitude;
+    public double headingInDegrees;
+    public double distanceToTargetInMeters;
+    public long timestampInMilliseconds;
+    // Set by the DisplayChannel when the frame is published.
+    public long sequenceNumber;
+    public int type = TYPE_CAMERA_UPDATE;
+
+    public CameraFrame set(double latitude, double longitude, double headingInDegrees,
+                           double distanceToTargetInMeters, long timestampInMilliseconds) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.headingInDegrees = headingInDegrees;
+        this.distanceToTargetInMeters = distanceToTargetInMeters;
+        this.timestampInMilliseconds = timestampInMilliseconds;
+        return this;
+    }
+
+    public CameraFrame copyFrom(CameraFrame other) {
+        set(other.latitude, other.longitude, other.headingInDegrees,
+                other.distanceToTargetInMeters, other.timestampInMilliseconds);
+        sequenceNumber = other.sequenceNumber;
+        type = other.type;
+        return this;
+    }
+
+    // Events are delivered one by one, camera updates can be replaced by a newer one.
+    public boolean isEvent() {
+        return type != TYPE_CAMERA_UPDATE;
+    }
+
+    // Uses absolute positions, so the buffer can be shared without changing its position.
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putDouble(LATITUDE_OFFSET, latitude);
+        buffer.putDouble(LONGITUDE_OFFSET, longitude);
+        buffer.putDouble(HEADING_OFFSET, headingInDegrees);
+        buffer.putDouble(DISTANCE_OFFSET, distanceToTargetInMeters);
+        buffer.putLong(TIMESTAMP_OFFSET, timestampInMilliseconds);
+        buffer.putLong(SEQUENCE_NUMBER_OFFSET, sequenceNumber);
+        buffer.putInt(TYPE_OFFSET, type);
+    }
+
+    public CameraFrame readFrom(ByteBuffer buffer) {
+        latitude = buffer.getDouble(LATITUDE_OFFSET);
+        longitude = buffer.getDouble(LONGITUDE_OFFSET);
+        headingInDegrees = buffer.getDouble(HEADING_OFFSET);
+        distanceToTargetInMeters = buffer.getDouble(DISTANCE_OFFSET);
+        timestampInMilliseconds = buffer.getLong(TIMESTAMP_OFFSET);
+        sequenceNumber = buffer.getLong(SEQUENCE_NUMBER_OFFSET);
+        type = buffer.getInt(TYPE_OFFSET);
+        return this;
+    }
+
+    // For the broadcast fallback, where the frame is sent as a single byte array extra.
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[SIZE_IN_BYTES];
+        writeTo(ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    // Returns null, if the bytes are not a frame.
+    public static CameraFrame fromByteArray(byte[] bytes) {
+        if (bytes == null || bytes.length != SIZE_IN_BYTES) {
+            return null;
+        }
+        return new CameraFrame().readFrom(ByteBuffer.wrap(bytes));
+    }
+
+    @Override
+    public String toString() {
+        return "CameraFrame{lat=" + latitude
+                + ", lon=" + longitude
+                + ", heading=" + headingInDegrees
+                + ", distance=" + distanceToTargetInMeters
+                + ", timestamp=" + timestampInMilliseconds
+                + ", sequence=" + sequenceNumber
+                + ", type=" + type + "}";
+    }
+}
@@ -24,12 +24,13 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 
-import com.here.sdk.core.GeoCoordinates;
-
 // A BroadcastReceiver to send/receive messages between the two activities of this example app.
+// Within this app, the DisplayChannel is used instead. Broadcasts remain as fallback, for example,
+// when a display runs in another process.
 public abstract class DataBroadcast extends BroadcastReceiver {
     public static String MESSAGE_FROM_PRIMARY_DISPLAY = "com.here.example.multidisplays.broadcast.primary";
     public static String MESSAGE_FROM_SECONDARY_DISPLAY = "com.here.example.multidisplays.broadcast.secondary";
+    public static final String EXTRA_CAMERA_FRAME = "cameraFrame";
 
     public IntentFilter getFilter(String action) {
         IntentFilter filter = new IntentFilter();
@@ -37,19 +38,27 @@ public abstract class DataBroadcast extends BroadcastReceiver {
         return filter;
     }
 
-    public void sendMessageToPrimaryDisplay(Context context, GeoCoordinates geoCoordinates) {
-        sendMessage(context, MESSAGE_FROM_SECONDARY_DISPLAY, geoCoordinates);
-    }
-
-    public void sendMessageToSecondaryDisplay(Context context, GeoCoordinates geoCoordinates) {
-        sendMessage(context, MESSAGE_FROM_PRIMARY_DISPLAY, geoCoordinates);
-    }
-
-    private void sendMessage(Context context, String action, GeoCoordinates geoCoordinates) {
+    // Sends the frame as a single byte array extra. The latitude and longitude extras are kept,
+    // so that receivers that only know the old format still work.
+    public static void sendCameraFrame(Context context, String action, CameraFrame cameraFrame) {
         Intent intent = new Intent();
         intent.setAction(action);
-        intent.putExtra("latitude", geoCoordinates.latitude);
-        intent.putExtra("longitude", geoCoordinates.longitude);
+        intent.putExtra("latitude", cameraFrame.latitude);
+        intent.putExtra("longitude", cameraFrame.longitude);
+        intent.putExtra(EXTRA_CAMERA_FRAME, cameraFrame.toByteArray());
         context.sendBroadcast(intent);
     }
+
+    // Reads the frame of a received broadcast. A message of the old format asks to add a circle,
+    // only its coordinates are set.
+    public static CameraFrame getCameraFrame(Intent intent) {
+        CameraFrame cameraFrame = CameraFrame.fromByteArray(intent.getByteArrayExtra(EXTRA_CAMERA_FRAME));
+        if (cameraFrame == null) {
+            cameraFrame = new CameraFrame();
+            cameraFrame.latitude = intent.getDoubleExtra("latitude", 0);
+            cameraFrame.longitude = intent.getDoubleExtra("longitude", 0);
+            cameraFrame.type = CameraFrame.TYPE_ADD_CIRCLE;
+        }
+        return cameraFrame;
+    }
 }
@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.multidisplays;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+// An in-process publish/subscribe channel for camera frames between the displays of this app.
+// Both activities run in the same process, so a frame does not need to go through a broadcast:
+// - Each subscriber has a preallocated slot that holds the latest camera update. Publishing overwrites
+//   the slot, so a slow subscriber only receives the latest camera update instead of a backlog (coalescing).
+// - Events, like adding a circle, are queued instead, so that each of them is delivered.
+// - Frames are numbered when published. A subscriber never receives an older camera update after a newer
+//   one, and the frames of one delivery are passed on in the order of their numbers.
+// - Frames are delivered on the executor of the subscriber, for example, a Handler of the main thread.
+// - When a topic has no subscriber in this process, the frame is passed to a fallback, for example,
+//   to send it as a broadcast to another process.
+// The class does not depend on Android or the HERE SDK. publish() can be called from any thread.
+public class DisplayChannel {
+
+    public interface Subscriber {
+        // The frame can be reused for the next delivery, so it must not be kept.
+        void onFrame(CameraFrame frame);
+    }
+
+    public interface Fallback {
+        void publish(String topic, CameraFrame frame);
+    }
+
+    // A subscription with its own slot for the latest camera update and its own queue of events.
+    public final class Subscription {
+        private final String topic;
+        private final Executor executor;
+        private final Subscriber subscriber;
+        private final ByteBuffer latestFrame = ByteBuffer.allocate(CameraFrame.SIZE_IN_BYTES);
+        // A publisher on another thread can be late with an older event, so the events are ordered by number.
+        private final PriorityQueue<CameraFrame> queuedEvents =
+                new PriorityQueue<>(8, (a, b) -> Long.compare(a.sequenceNumber, b.sequenceNumber));
+        // Only used on the executor of the subscriber.
+        private final CameraFrame deliveredFrame = new CameraFrame();
+        private final List<CameraFrame> deliveredEvents = new ArrayList<>();
+        private final Runnable deliverTask = this::deliver;
+        private long latestSequenceNumber = -1;
+        private boolean hasCameraUpdate = false;
+        private boolean isPending = false;
+        private volatile boolean isActive = true;
+
+        private long deliveredCount = 0;
+        private long coalescedCount = 0;
+        private long staleCount = 0;
+        private long eventCount = 0;
+
+        private Subscription(String topic, Executor executor, Subscriber subscriber) {
+            this.topic = topic;
+            this.executor = executor;
+            this.subscriber = subscriber;
+        }
+
+        private void offer(CameraFrame frame) {
+            boolean needsDelivery;
+            synchronized (this) {
+                if (frame.isEvent()) {
+                    queuedEvents.add(new CameraFrame().copyFrom(frame));
+                    eventCount++;
+                } else {
+                    if (frame.sequenceNumber <= latestSequenceNumber) {
+                        // A publisher on another thread was faster with a newer camera update.
+                        staleCount++;
+                        return;
+                    }
+                    frame.writeTo(latestFrame);
+                    latestSequenceNumber = frame.sequenceNumber;
+                    if (hasCameraUpdate) {
+                        // The previous camera update was not delivered yet and is replaced.
+                        coalescedCount++;
+                    }
+                    hasCameraUpdate = true;
+                }
+                needsDelivery = !isPending;
+                isPending = true;
+            }
+            if (needsDelivery) {
+                executor.execute(deliverTask);
+            }
+        }
+
+        private void deliver() {
+            boolean hasDeliveredFrame;
+            synchronized (this) {
+                isPending = false;
+                hasDeliveredFrame = hasCameraUpdate;
+                if (hasCameraUpdate) {
+                    deliveredFrame.readFrom(latestFrame);
+                    hasCameraUpdate = false;
+                    deliveredCount++;
+                }
+                deliveredCount += queuedEvents.size();
+                CameraFrame event;
+                while ((event = queuedEvents.poll()) != null) {
+                    deliveredEvents.add(event);
+                }
+            }
+            // The camera update is passed on between the events that were published before and after it.
+            for (CameraFrame event : deliveredEvents) {
+                if (hasDeliveredFrame && event.sequenceNumber > deliveredFrame.sequenceNumber) {
+                    deliverIfActive(deliveredFrame);
+                    hasDeliveredFrame = false;
+                }
+                deliverIfActive(event);
+            }
+            if (hasDeliveredFrame) {
+                deliverIfActive(deliveredFrame);
+            }
+            deliveredEvents.clear();
+        }
+
+        private void deliverIfActive(CameraFrame frame) {
+            if (isActive) {
+                subscriber.onFrame(frame);
+            }
+        }
+
+        public void unsubscribe() {
+            isActive = false;
+            List<Subscription> subscriptions = subscriptionsByTopic.get(topic);
+            if (subscriptions != null) {
+                subscriptions.remove(this);
+            }
+        }
+
+        // The number of frames that were handed to the subscriber.
+        public synchronized long getDeliveredCount() {
+            return deliveredCount;
+        }
+
+        // The number of camera updates that were replaced by a newer one before they were delivered.
+        public synchronized long getCoalescedCount() {
+            return coalescedCount;
+        }
+
+        // The number of camera updates that arrived after a newer one and were dropped.
+        public synchronized long getStaleCount() {
+            return staleCount;
+        }
+
+        // The number of events that were queued, events are never coalesced.
+        public synchronized long getEventCount() {
+            return eventCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Subscription{topic=" + topic
+                    + ", delivered=" + getDeliveredCount()
+                    + ", coalesced=" + getCoalescedCount()
+                    + ", stale=" + getStaleCount()
+                    + ", events=" + getEventCount() + "}";
+        }
+    }
+
+    private static final DisplayChannel DEFAULT_CHANNEL = new DisplayChannel(null);
+
+    private final Map<String, List<Subscription>> subscriptionsByTopic = new ConcurrentHashMap<>();
+    private final AtomicLong nextSequenceNumber = new AtomicLong();
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong fallbackCount = new AtomicLong();
+    private volatile Fallback fallback;
+
+    public DisplayChannel(Fallback fallback) {
+        this.fallback = fallback;
+    }
+
+    // The channel shared by all activities of this process.
+    public static DisplayChannel getDefault() {
+        return DEFAULT_CHANNEL;
+    }
+
+    public void setFallback(Fallback fallback) {
+        this.fallback = fallback;
+    }
+
+    public Subscription subscribe(String topic, Executor executor, Subscriber subscriber) {
+        Subscription subscription = new Subscription(topic, executor, subscriber);
+        subscriptionsByTopic.computeIfAbsent(topic, key -> new CopyOnWriteArrayList<>()).add(subscription);
+        return subscription;
+    }
+
+    // Sets the sequence number of the frame and hands it to all subscribers of the topic.
+    // The frame is copied, so it can be reused by the caller right away.
+    // Returns false, if there was no subscriber in this process and the fallback was used instead.
+    public boolean publish(String topic, CameraFrame frame) {
+        frame.sequenceNumber = nextSequenceNumber.getAndIncrement();
+        publishedCount.incrementAndGet();
+
+        List<Subscription> subscriptions = subscriptionsByTopic.get(topic);
+        if (subscriptions == null || subscriptions.isEmpty()) {
+            Fallback currentFallback = fallback;
+            if (currentFallback != null) {
+                fallbackCount.incrementAndGet();
+                currentFallback.publish(topic, frame);
+            }
+            return false;
+        }
+
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(frame);
+        }
+        return true;
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    // The number of frames that were passed to the fallback, because no subscriber was found.
+    public long getFallbackCount() {
+        return fallbackCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "DisplayChannel{published=" + publishedCount.get()
+                + ", fallback=" + fallbackCount.get() + "}";
+    }
+}
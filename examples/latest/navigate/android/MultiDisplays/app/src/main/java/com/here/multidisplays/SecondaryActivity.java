@@ -3,6 +3,8 @@ package com.here.multidisplays;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.view.View;
 
@@ -12,6 +14,7 @@ import com.here.sdk.core.Color;
 import com.here.sdk.core.GeoCircle;
 import com.here.sdk.core.GeoCoordinates;
 import com.here.sdk.core.GeoPolygon;
+import com.here.sdk.mapview.MapCamera;
 import com.here.sdk.mapview.MapMeasure;
 import com.here.sdk.mapview.MapPolygon;
 import com.here.sdk.mapview.MapScheme;
@@ -22,18 +25,17 @@ public class SecondaryActivity extends AppCompatActivity {
     private static final String TAG = SecondaryActivity.class.getSimpleName();
     private MapView mapView;
 
-    // Handle messages coming from primary display.
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Reused for each published frame.
+    private final CameraFrame cameraFrame = new CameraFrame();
+    private DisplayChannel.Subscription displayChannelSubscription;
+
+    // Handle messages coming from primary display, when it runs in another process.
     private final DataBroadcast dataBroadcast = new DataBroadcast() {
         @Override
         public void onReceive(Context context, Intent intent) {
             if (intent.getAction().equals(DataBroadcast.MESSAGE_FROM_PRIMARY_DISPLAY)) {
-                double latitude = intent.getDoubleExtra("latitude", 0);
-                double longitude = intent.getDoubleExtra("longitude", 0);
-                Log.d(TAG, "Current center of secondary display: lat:" + latitude + ", lon: " + longitude);
-
-                // Add circle to this map view's center.
-                GeoCoordinates mapCenterGeoCoordinates = mapView.getCamera().getState().targetCoordinates;
-                addMapCircle(mapCenterGeoCoordinates);
+                onCameraFrameReceived(DataBroadcast.getCameraFrame(intent));
             }
         }
     };
@@ -47,6 +49,9 @@ public class SecondaryActivity extends AppCompatActivity {
         mapView = findViewById(R.id.map_view);
         mapView.onCreate(savedInstanceState);
 
+        // Frames from the primary display in this process are delivered on the main thread.
+        displayChannelSubscription = DisplayChannel.getDefault().subscribe(
+                DataBroadcast.MESSAGE_FROM_PRIMARY_DISPLAY, mainHandler::post, this::onCameraFrameReceived);
         registerReceiver(dataBroadcast, dataBroadcast.getFilter(DataBroadcast.MESSAGE_FROM_PRIMARY_DISPLAY));
         loadMapScene();
     }
@@ -66,8 +71,29 @@ public class SecondaryActivity extends AppCompatActivity {
 
     public void addButtonClicked(View view) {
         // Send message to primary display.
+        MapCamera.State cameraState = mapView.getCamera().getState();
+        cameraFrame.set(cameraState.targetCoordinates.latitude,
+                cameraState.targetCoordinates.longitude,
+                cameraState.orientationAtTarget.bearing,
+                cameraState.distanceToTargetInMeters,
+                System.currentTimeMillis());
+        // Each click adds a circle on the other display, so the frame is sent as an event that is not coalesced.
+        cameraFrame.type = CameraFrame.TYPE_ADD_CIRCLE;
+        DisplayChannel.getDefault().publish(DataBroadcast.MESSAGE_FROM_SECONDARY_DISPLAY, cameraFrame);
+    }
+
+    private void onCameraFrameReceived(CameraFrame frame) {
+        long latencyInMilliseconds = System.currentTimeMillis() - frame.timestampInMilliseconds;
+        Log.d(TAG, "Current center of primary display: lat:" + frame.latitude + ", lon: " + frame.longitude +
+                ", heading: " + frame.headingInDegrees + ", distance: " + frame.distanceToTargetInMeters +
+                ", latency: " + latencyInMilliseconds + " ms.");
+        if (frame.type != CameraFrame.TYPE_ADD_CIRCLE) {
+            return;
+        }
+
+        // Add circle to this map view's center.
         GeoCoordinates mapCenterGeoCoordinates = mapView.getCamera().getState().targetCoordinates;
-        dataBroadcast.sendMessageToPrimaryDisplay(this, mapCenterGeoCoordinates);
+        addMapCircle(mapCenterGeoCoordinates);
     }
 
     private void addMapCircle(GeoCoordinates geoCoordinates) {
@@ -93,6 +119,7 @@ public class SecondaryActivity extends AppCompatActivity {
 
     @Override
     protected void onDestroy() {
+        displayChannelSubscription.unsubscribe();
         unregisterReceiver(dataBroadcast);
         mapView.onDestroy();
 
@@ -20,6 +20,7 @@
 package com.here.navigation;
 
 import android.content.Context;
+import android.widget.FrameLayout;
 import android.widget.TextView;
 
 import androidx.appcompat.app.AlertDialog;
@@ -60,7 +61,7 @@ public class App {
     private final NavigationExample navigationExample;
     private final TextView messageView;
 
-    public App(Context context, MapView mapView, TextView messageView) {
+    public App(Context context, MapView mapView, TextView messageView, FrameLayout realisticViewLayout) {
         this.context = context;
         this.mapView = mapView;
         this.messageView = messageView;
@@ -69,7 +70,7 @@ public class App {
 
         routeCalculator = new RouteCalculator();
 
-        navigationExample = new NavigationExample(context, mapView, messageView);
+        navigationExample = new NavigationExample(context, mapView, messageView, realisticViewLayout);
         navigationExample.startLocationProvider();
 
         setLongPressGestureHandler();
@@ -95,6 +96,18 @@ public class App {
         clearMap();
     }
 
+    // Verbose events, like the SVG content of realistic views, are always recorded, but only printed on request.
+    public void setVerboseEventPrinting(boolean isEnabled) {
+        NavigationEventSink.Level printLevel = isEnabled
+                ? NavigationEventSink.Level.VERBOSE
+                : NavigationEventSink.Level.DEBUG;
+        navigationExample.setEventLogLevels(NavigationEventSink.Level.VERBOSE, printLevel);
+    }
+
+    public void dumpRecentNavigationEvents() {
+        navigationExample.dumpRecentEvents();
+    }
+
     public void toggleTrackingButtonOnClicked() {
         // By default, this is enabled.
         navigationExample.startCameraTracking();
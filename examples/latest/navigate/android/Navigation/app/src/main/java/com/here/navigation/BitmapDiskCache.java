@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.navigation;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+// Stores rendered realistic views as PNG files in a directory, for example, below Context.getCacheDir().
+// Reading a file marks it as recently used. When the files exceed maxSizeInBytes, the least recently
+// used files are deleted. All methods are expected to be called on the same background thread.
+public class BitmapDiskCache implements RealisticViewRasterizer.DiskCache<Bitmap> {
+
+    private static final String TAG = BitmapDiskCache.class.getName();
+    private static final String FILE_EXTENSION = ".png";
+
+    private final File directory;
+    private final long maxSizeInBytes;
+
+    public BitmapDiskCache(File directory, long maxSizeInBytes) {
+        this.directory = directory;
+        this.maxSizeInBytes = maxSizeInBytes;
+    }
+
+    @Override
+    public Bitmap read(String key) {
+        File file = new File(directory, key + FILE_EXTENSION);
+        if (!file.isFile()) {
+            return null;
+        }
+        Bitmap bitmap = BitmapFactory.decodeFile(file.getPath());
+        if (bitmap == null) {
+            // The file is corrupted, for example, because the app was killed while writing it.
+            file.delete();
+            return null;
+        }
+        file.setLastModified(System.currentTimeMillis());
+        return bitmap;
+    }
+
+    @Override
+    public void write(String key, Bitmap bitmap) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.e(TAG, "Cannot create cache directory: " + directory);
+            return;
+        }
+
+        // Write to a temporary file first, so that a reader never sees a partially written file.
+        File file = new File(directory, key + FILE_EXTENSION);
+        File temporaryFile = new File(directory, key + ".tmp");
+        try (FileOutputStream outputStream = new FileOutputStream(temporaryFile)) {
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, outputStream);
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot write cached image: " + e.getMessage());
+            temporaryFile.delete();
+            return;
+        }
+        if (!temporaryFile.renameTo(file)) {
+            temporaryFile.delete();
+            return;
+        }
+
+        trimToMaxSize();
+    }
+
+    private void trimToMaxSize() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(FILE_EXTENSION));
+        if (files == null) {
+            return;
+        }
+
+        long sizeInBytes = 0;
+        for (File file : files) {
+            sizeInBytes += file.length();
+        }
+        if (sizeInBytes <= maxSizeInBytes) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File file1, File file2) {
+                return Long.compare(file1.lastModified(), file2.lastModified());
+            }
+        });
+        for (File file : files) {
+            if (sizeInBytes <= maxSizeInBytes) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                sizeInBytes -= length;
+            }
+        }
+    }
+}
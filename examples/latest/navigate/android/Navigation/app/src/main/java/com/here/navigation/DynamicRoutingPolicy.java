@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.navigation;
+
+// Decides how the DynamicRoutingEngine is fed and which of its proposals are shown to the driver:
+// - A location is only forwarded when the vehicle has moved at least minDistanceInMeters or
+//   maxIntervalInMilliseconds have passed since the last forwarded location. A new route section
+//   is always forwarded, so the engine knows which part of the route is left.
+// - A better route is only proposed when it saves at least minTimeGainInSeconds and at least
+//   minTimeGainPercentage of the remaining travel time. Both conditions must be met, so that a short
+//   detour does not save a few seconds on a long trip or a large share of a trip that is almost over.
+// The class does not depend on Android or the HERE SDK. All methods are expected to be called on the
+// same thread, for example, the main thread on which the navigator delivers its events.
+public class DynamicRoutingPolicy {
+
+    // Provides a monotonic time, for example, SystemClock::elapsedRealtime.
+    public interface Clock {
+        long nowInMilliseconds();
+    }
+
+    private static final double EARTH_RADIUS_IN_METERS = 6371000;
+
+    private final Clock clock;
+    private final double minDistanceInMeters;
+    private final long maxIntervalInMilliseconds;
+    private final int minTimeGainInSeconds;
+    private final double minTimeGainPercentage;
+
+    private boolean hasForwardedLocation = false;
+    private double lastLatitude;
+    private double lastLongitude;
+    private int lastSectionIndex;
+    private long lastForwardTimeInMilliseconds;
+
+    private int forwardedCount = 0;
+    private int suppressedCount = 0;
+    private int proposedCount = 0;
+    private int rejectedCount = 0;
+
+    public DynamicRoutingPolicy(Clock clock,
+                                double minDistanceInMeters,
+                                long maxIntervalInMilliseconds,
+                                int minTimeGainInSeconds,
+                                double minTimeGainPercentage) {
+        this.clock = clock;
+        this.minDistanceInMeters = minDistanceInMeters;
+        this.maxIntervalInMilliseconds = maxIntervalInMilliseconds;
+        this.minTimeGainInSeconds = minTimeGainInSeconds;
+        this.minTimeGainPercentage = minTimeGainPercentage;
+    }
+
+    // Returns true, if the location should be forwarded with DynamicRoutingEngine.updateCurrentLocation().
+    public boolean shouldForwardLocation(double latitude, double longitude, int sectionIndex) {
+        final long now = clock.nowInMilliseconds();
+        final boolean shouldForward = !hasForwardedLocation
+                || sectionIndex != lastSectionIndex
+                || now - lastForwardTimeInMilliseconds >= maxIntervalInMilliseconds
+                || distanceInMeters(lastLatitude, lastLongitude, latitude, longitude) >= minDistanceInMeters;
+        if (!shouldForward) {
+            suppressedCount++;
+            return false;
+        }
+        hasForwardedLocation = true;
+        lastLatitude = latitude;
+        lastLongitude = longitude;
+        lastSectionIndex = sectionIndex;
+        lastForwardTimeInMilliseconds = now;
+        forwardedCount++;
+        return true;
+    }
+
+    // Returns true, if a route found by the DynamicRoutingEngine should be proposed to the driver.
+    // A positive etaDifferenceInSeconds means that the new route arrives earlier than the current one.
+    public boolean shouldProposeRoute(int etaDifferenceInSeconds, long remainingDurationInSeconds) {
+        final boolean hasEnoughGain = etaDifferenceInSeconds >= minTimeGainInSeconds
+                && etaDifferenceInSeconds > 0
+                && remainingDurationInSeconds > 0
+                && etaDifferenceInSeconds * 100.0 / remainingDurationInSeconds >= minTimeGainPercentage;
+        if (hasEnoughGain) {
+            proposedCount++;
+        } else {
+            rejectedCount++;
+        }
+        return hasEnoughGain;
+    }
+
+    // Call this when a new route is started, so that the next location is forwarded right away.
+    public void reset() {
+        hasForwardedLocation = false;
+    }
+
+    private static double distanceInMeters(double fromLatitude, double fromLongitude,
+                                           double toLatitude, double toLongitude) {
+        double lat1 = Math.toRadians(fromLatitude);
+        double lat2 = Math.toRadians(toLatitude);
+        double deltaLat = lat2 - lat1;
+        double deltaLon = Math.toRadians(toLongitude - fromLongitude);
+        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
+        return 2 * EARTH_RADIUS_IN_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // The number of locations that were forwarded to the DynamicRoutingEngine.
+    public int getForwardedCount() {
+        return forwardedCount;
+    }
+
+    // The number of locations that were not forwarded, because the thresholds were not exceeded.
+    public int getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    // The number of better routes that were proposed to the driver.
+    public int getProposedCount() {
+        return proposedCount;
+    }
+
+    // The number of better routes that were dropped, because they did not save enough time.
+    public int getRejectedCount() {
+        return rejectedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "DynamicRoutingPolicy{forwarded=" + forwardedCount
+                + ", suppressed=" + suppressedCount
+                + ", proposed=" + proposedCount
+                + ", rejected=" + rejectedCount + "}";
+    }
+}
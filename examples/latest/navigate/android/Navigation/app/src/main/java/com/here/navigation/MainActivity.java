@@ -30,6 +30,7 @@ import android.view.MenuInflater;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.WindowManager;
+import android.widget.FrameLayout;
 import android.widget.TextView;
 import android.widget.ToggleButton;
 
@@ -59,6 +60,7 @@ public class MainActivity extends AppCompatActivity {
     private MapView mapView;
     private App app;
     private TextView messageView;
+    private FrameLayout realisticViewLayout;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -82,6 +84,8 @@ public class MainActivity extends AppCompatActivity {
         messageView = findViewById(R.id.message_view);
         // Making the textView scrollable.
         messageView.setMovementMethod(new ScrollingMovementMethod());
+        // Get the layout that shows the realistic view of a junction ahead.
+        realisticViewLayout = findViewById(R.id.realistic_view);
 
         mapView.onCreate(savedInstanceState);
 
@@ -131,6 +135,18 @@ public class MainActivity extends AppCompatActivity {
                 Intent intent = new Intent(this, ConsentStateActivity.class);
                 startActivity(intent);
                 return true;
+            case R.id.print_verbose_events:
+                item.setChecked(!item.isChecked());
+                if (app != null) {
+                    app.setVerboseEventPrinting(item.isChecked());
+                }
+                return true;
+            case R.id.dump_navigation_events:
+                // Prints the recent navigation events to the log, for example, to attach them to an issue report.
+                if (app != null) {
+                    app.dumpRecentNavigationEvents();
+                }
+                return true;
             default:
                 return super.onOptionsItemSelected(item);
         }
@@ -164,7 +180,7 @@ public class MainActivity extends AppCompatActivity {
             public void onLoadScene(@Nullable MapError mapError) {
                 if (mapError == null) {
                     // Start the app that contains the logic to calculate routes & start TBT guidance.
-                    app = new App(MainActivity.this, mapView, messageView);
+                    app = new App(MainActivity.this, mapView, messageView, realisticViewLayout);
 
                     // Enable traffic flows by default.
                     Map<String, String> mapFeatures = new HashMap<>();
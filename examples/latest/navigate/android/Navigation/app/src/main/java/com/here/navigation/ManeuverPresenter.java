@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.navigation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Shows the next maneuver, for example, "New maneuver: LEFT_TURN on Karl-Marx-Allee in 250 m.",
+// while route progress is updated about once per second:
+// - The instruction of each maneuver is created once, when the route is set. A progress update
+//   only adds the distance to the instruction.
+// - The distance is quantized, the coarser the farther away the maneuver is. The text is only shown
+//   again, when the maneuver or the quantized distance changed, otherwise the update is skipped.
+// The class does not depend on Android or the HERE SDK. All methods are expected to be called on the
+// same thread, for example, the main thread on which the navigator delivers its events.
+public class ManeuverPresenter {
+
+    // Shows the text, for example, TextView::setText.
+    public interface Display {
+        void show(String text);
+    }
+
+    // Creates the instruction for a maneuver that was not part of the route that was set,
+    // for example, with VisualNavigator.getManeuver(). Returns null, if there is no such maneuver.
+    public interface InstructionProvider {
+        String getInstruction(int maneuverIndex);
+    }
+
+    private final Display display;
+    private final InstructionProvider instructionProvider;
+    private final List<String> instructions = new ArrayList<>();
+
+    private int shownManeuverIndex = -1;
+    private int shownDistanceInMeters = -1;
+
+    private int shownCount = 0;
+    private int skippedCount = 0;
+
+    public ManeuverPresenter(Display display, InstructionProvider instructionProvider) {
+        this.display = display;
+        this.instructionProvider = instructionProvider;
+    }
+
+    // Sets the instructions for all maneuvers of a route, in the order of their maneuver index.
+    public void setInstructions(List<String> instructions) {
+        this.instructions.clear();
+        this.instructions.addAll(instructions);
+        shownManeuverIndex = -1;
+        shownDistanceInMeters = -1;
+    }
+
+    public void clear() {
+        setInstructions(new ArrayList<String>());
+    }
+
+    // Call this for each route progress update. Returns true, if a new text was shown.
+    public boolean onManeuverProgress(int maneuverIndex, int remainingDistanceInMeters) {
+        final int distanceInMeters = quantizeDistanceInMeters(remainingDistanceInMeters);
+        if (maneuverIndex == shownManeuverIndex && distanceInMeters == shownDistanceInMeters) {
+            skippedCount++;
+            return false;
+        }
+
+        String instruction = getInstruction(maneuverIndex);
+        if (instruction == null) {
+            return false;
+        }
+
+        final boolean isNewManeuver = maneuverIndex != shownManeuverIndex;
+        shownManeuverIndex = maneuverIndex;
+        shownDistanceInMeters = distanceInMeters;
+        shownCount++;
+        // A maneuver update contains a different distance to reach the next maneuver.
+        display.show((isNewManeuver ? "New maneuver: " : "Maneuver update: ")
+                + instruction + " in " + formatDistance(distanceInMeters) + ".");
+        return true;
+    }
+
+    private String getInstruction(int maneuverIndex) {
+        if (maneuverIndex >= 0 && maneuverIndex < instructions.size()) {
+            return instructions.get(maneuverIndex);
+        }
+        return instructionProvider.getInstruction(maneuverIndex);
+    }
+
+    // Rounds to 10 m below 100 m, to 50 m below 1 km, to 100 m below 10 km and to 1 km beyond.
+    static int quantizeDistanceInMeters(int distanceInMeters) {
+        if (distanceInMeters <= 0) {
+            return 0;
+        }
+        final int step;
+        if (distanceInMeters < 100) {
+            step = 10;
+        } else if (distanceInMeters < 1000) {
+            step = 50;
+        } else if (distanceInMeters < 10000) {
+            step = 100;
+        } else {
+            step = 1000;
+        }
+        return (distanceInMeters + step / 2) / step * step;
+    }
+
+    // Formats a quantized distance, for example, "50 m", "1.2 km" or "12 km".
+    static String formatDistance(int distanceInMeters) {
+        if (distanceInMeters < 1000) {
+            return distanceInMeters + " m";
+        }
+        if (distanceInMeters < 10000) {
+            return distanceInMeters / 1000 + "." + distanceInMeters % 1000 / 100 + " km";
+        }
+        return distanceInMeters / 1000 + " km";
+    }
+
+    // The number of texts that were shown.
+    public int getShownCount() {
+        return shownCount;
+    }
+
+    // The number of progress updates that did not change the shown text.
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ManeuverPresenter{shown=" + shownCount
+                + ", skipped=" + skippedCount + "}";
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.navigation;
+
+// Collects the events of the navigation listeners without building log strings for each update:
+// - Events are written into a ring buffer of preallocated records. Arguments are kept as primitives
+//   or references, so recording an event does not allocate.
+// - Messages are only formatted when an event is printed or when the buffer is dumped,
+//   for example, after an issue was reported.
+// - Frequent callbacks, like route progress, can be sampled. All events of a sampled callback are kept or
+//   dropped together, so that no single message of a callback goes missing. Warnings and errors are never sampled.
+// - Which events are recorded and which are printed right away can be changed at runtime.
+// The class does not depend on Android or the HERE SDK. All methods are expected to be called on the
+// same thread, for example, the main thread on which the navigator delivers its events.
+public class NavigationEventSink {
+
+    public enum Level {
+        VERBOSE, DEBUG, INFO, WARN, ERROR
+    }
+
+    public enum Type {
+        ROUTE_PROGRESS, DESTINATION, MILESTONE, SPEED_WARNING, SPEED_LIMIT, NAVIGABLE_LOCATION,
+        ROUTE_DEVIATION, LANE_ASSISTANCE, JUNCTION_VIEW, ROAD_ATTRIBUTES, ROAD_SIGN, TRUCK_RESTRICTION,
+        REALISTIC_VIEW, DYNAMIC_ROUTING, GUIDANCE, MANEUVER
+    }
+
+    // Outputs a formatted event, for example, with android.util.Log.
+    public interface Printer {
+        void print(Level level, Type type, long timeInMilliseconds, String message);
+    }
+
+    public interface Clock {
+        long nowInMilliseconds();
+    }
+
+    // A record in the ring buffer. It is reused once the buffer wraps around, so it must not be kept.
+    // Each "{}" in the template is replaced with the next argument when the message is formatted.
+    public static final class Event {
+        private static final int MAX_ARGUMENTS = 4;
+        private static final byte KIND_LONG = 0;
+        private static final byte KIND_DOUBLE = 1;
+        private static final byte KIND_BOOLEAN = 2;
+        private static final byte KIND_OBJECT = 3;
+
+        private final NavigationEventSink sink;
+        private final boolean isEnabled;
+        private final byte[] kinds = new byte[MAX_ARGUMENTS];
+        private final long[] longs = new long[MAX_ARGUMENTS];
+        private final double[] doubles = new double[MAX_ARGUMENTS];
+        private final Object[] objects = new Object[MAX_ARGUMENTS];
+        private int argumentCount;
+        private long timeInMilliseconds;
+        private Level level;
+        private Type type;
+        private String template;
+
+        private Event(NavigationEventSink sink, boolean isEnabled) {
+            this.sink = sink;
+            this.isEnabled = isEnabled;
+        }
+
+        private void reset(long timeInMilliseconds, Level level, Type type, String template) {
+            this.timeInMilliseconds = timeInMilliseconds;
+            this.level = level;
+            this.type = type;
+            this.template = template;
+            for (int i = 0; i < argumentCount; i++) {
+                // Do not keep large payloads, like SVG content, alive longer than needed.
+                objects[i] = null;
+            }
+            argumentCount = 0;
+        }
+
+        public Event with(long value) {
+            if (isEnabled) {
+                longs[nextArgument(KIND_LONG)] = value;
+            }
+            return this;
+        }
+
+        public Event with(double value) {
+            if (isEnabled) {
+                doubles[nextArgument(KIND_DOUBLE)] = value;
+            }
+            return this;
+        }
+
+        public Event with(boolean value) {
+            if (isEnabled) {
+                longs[nextArgument(KIND_BOOLEAN)] = value ? 1 : 0;
+            }
+            return this;
+        }
+
+        // The object is only converted to a string when the message is formatted.
+        public Event with(Object value) {
+            if (isEnabled) {
+                objects[nextArgument(KIND_OBJECT)] = value;
+            }
+            return this;
+        }
+
+        // Prints the event right away, if its level is at or above the print level.
+        // Without this call, the event is only kept in the ring buffer.
+        public void commit() {
+            if (isEnabled) {
+                sink.onCommit(this);
+            }
+        }
+
+        private int nextArgument(byte kind) {
+            if (argumentCount == MAX_ARGUMENTS) {
+                throw new IllegalStateException("An event can have at most " + MAX_ARGUMENTS + " arguments.");
+            }
+            kinds[argumentCount] = kind;
+            return argumentCount++;
+        }
+
+        private void appendArgument(StringBuilder builder, int index, int maxArgumentLength) {
+            switch (kinds[index]) {
+                case KIND_LONG:
+                    builder.append(longs[index]);
+                    break;
+                case KIND_DOUBLE:
+                    builder.append(doubles[index]);
+                    break;
+                case KIND_BOOLEAN:
+                    builder.append(longs[index] != 0);
+                    break;
+                default:
+                    String text = String.valueOf(objects[index]);
+                    if (maxArgumentLength > 0 && text.length() > maxArgumentLength) {
+                        builder.append(text, 0, maxArgumentLength)
+                                .append("... (").append(text.length()).append(" chars)");
+                    } else {
+                        builder.append(text);
+                    }
+            }
+        }
+    }
+
+    private final Event[] events;
+    // Returned for events that are filtered, so that the calls of the caller have no effect.
+    private final Event disabledEvent;
+    private final Printer printer;
+    private final Clock clock;
+    private final int[] sampleIntervals = new int[Type.values().length];
+    private final int[] sampleCounters = new int[Type.values().length];
+    // Whether the events of the current callback of a type are recorded.
+    private final boolean[] isSampledIn = new boolean[Type.values().length];
+    private final StringBuilder messageBuilder = new StringBuilder(256);
+
+    private Level recordLevel = Level.VERBOSE;
+    private Level printLevel = Level.DEBUG;
+    private int maxArgumentLength = 0;
+    // The index of the record that is written next.
+    private int nextIndex = 0;
+    private int size = 0;
+
+    private long recordedCount = 0;
+    private long filteredCount = 0;
+    private long sampledOutCount = 0;
+    private long overwrittenCount = 0;
+    private long printedCount = 0;
+
+    public NavigationEventSink(int capacity, Printer printer, Clock clock) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be at least 1.");
+        }
+        this.printer = printer;
+        this.clock = clock;
+        events = new Event[capacity];
+        for (int i = 0; i < capacity; i++) {
+            events[i] = new Event(this, true);
+        }
+        disabledEvent = new Event(this, false);
+        for (int i = 0; i < sampleIntervals.length; i++) {
+            sampleIntervals[i] = 1;
+            isSampledIn[i] = true;
+        }
+    }
+
+    // Events below this level are dropped. Defaults to VERBOSE.
+    public void setRecordLevel(Level recordLevel) {
+        this.recordLevel = recordLevel;
+    }
+
+    // Events at or above this level are formatted and printed when they are committed. Defaults to DEBUG.
+    public void setPrintLevel(Level printLevel) {
+        this.printLevel = printLevel;
+    }
+
+    // Only the events below WARN of every n-th callback of the given type are recorded, see startCallback().
+    // An interval of 1 records all events.
+    public void setSampleInterval(Type type, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("The sample interval must be at least 1.");
+        }
+        sampleIntervals[type.ordinal()] = interval;
+        sampleCounters[type.ordinal()] = 0;
+        isSampledIn[type.ordinal()] = true;
+    }
+
+    // Call this once at the start of each callback that records events of a sampled type.
+    // Decides whether the events of the given type are recorded until the next callback starts.
+    public void startCallback(Type type) {
+        int typeIndex = type.ordinal();
+        int sampleCounter = sampleCounters[typeIndex];
+        isSampledIn[typeIndex] = sampleCounter == 0;
+        sampleCounters[typeIndex] = sampleCounter + 1 == sampleIntervals[typeIndex] ? 0 : sampleCounter + 1;
+    }
+
+    // Limits the length of object arguments in formatted messages. 0 means no limit.
+    public void setMaxArgumentLength(int maxArgumentLength) {
+        this.maxArgumentLength = maxArgumentLength;
+    }
+
+    public boolean isRecorded(Level level) {
+        return level.compareTo(recordLevel) >= 0;
+    }
+
+    // Starts a new event. Add arguments with Event.with() and finish with Event.commit().
+    public Event event(Level level, Type type, String template) {
+        if (!isRecorded(level)) {
+            filteredCount++;
+            return disabledEvent;
+        }
+
+        if (level.compareTo(Level.WARN) < 0 && !isSampledIn[type.ordinal()]) {
+            sampledOutCount++;
+            return disabledEvent;
+        }
+
+        Event event = events[nextIndex];
+        event.reset(clock.nowInMilliseconds(), level, type, template);
+        nextIndex = nextIndex + 1 == events.length ? 0 : nextIndex + 1;
+        if (size == events.length) {
+            overwrittenCount++;
+        } else {
+            size++;
+        }
+        recordedCount++;
+        return event;
+    }
+
+    // A shortcut for an event without arguments.
+    public void log(Level level, Type type, String message) {
+        event(level, type, message).commit();
+    }
+
+    private void onCommit(Event event) {
+        if (event.level.compareTo(printLevel) >= 0) {
+            printedCount++;
+            printer.print(event.level, event.type, event.timeInMilliseconds, format(event));
+        }
+    }
+
+    // Formats and prints all events in the buffer, from the oldest to the newest.
+    // Returns the number of printed events.
+    public int dump(Printer dumpPrinter) {
+        int index = nextIndex - size;
+        if (index < 0) {
+            index += events.length;
+        }
+        for (int i = 0; i < size; i++) {
+            Event event = events[index];
+            dumpPrinter.print(event.level, event.type, event.timeInMilliseconds, format(event));
+            index = index + 1 == events.length ? 0 : index + 1;
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Event event : events) {
+            event.reset(0, null, null, null);
+        }
+        nextIndex = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return events.length;
+    }
+
+    private String format(Event event) {
+        StringBuilder builder = messageBuilder;
+        builder.setLength(0);
+        String template = event.template;
+        int argumentIndex = 0;
+        int start = 0;
+        int placeholder;
+        while (argumentIndex < event.argumentCount && (placeholder = template.indexOf("{}", start)) >= 0) {
+            builder.append(template, start, placeholder);
+            event.appendArgument(builder, argumentIndex++, maxArgumentLength);
+            start = placeholder + 2;
+        }
+        builder.append(template, start, template.length());
+        // Arguments without a placeholder are appended, so that no information is lost.
+        while (argumentIndex < event.argumentCount) {
+            builder.append(' ');
+            event.appendArgument(builder, argumentIndex++, maxArgumentLength);
+        }
+        return builder.toString();
+    }
+
+    // The number of events that were written into the ring buffer.
+    public long getRecordedCount() {
+        return recordedCount;
+    }
+
+    // The number of events that were dropped, because their level was below the record level.
+    public long getFilteredCount() {
+        return filteredCount;
+    }
+
+    // The number of events that were dropped by sampling.
+    public long getSampledOutCount() {
+        return sampledOutCount;
+    }
+
+    // The number of events that were overwritten by newer events, as the ring buffer was full.
+    public long getOverwrittenCount() {
+        return overwrittenCount;
+    }
+
+    // The number of events that were formatted and printed when they were committed.
+    public long getPrintedCount() {
+        return printedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "NavigationEventSink{recorded=" + recordedCount
+                + ", filtered=" + filteredCount
+                + ", sampledOut=" + sampledOutCount
+                + ", overwritten=" + overwrittenCount
+                + ", printed=" + printedCount + "}";
+    }
+}
@@ -20,21 +20,33 @@
 package com.here.navigation;
 
 import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.RectF;
 import android.media.Ringtone;
 import android.media.RingtoneManager;
 import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.caverock.androidsvg.SVG;
+import com.caverock.androidsvg.SVGParseException;
 import com.here.sdk.core.GeoCoordinates;
 import com.here.sdk.core.LanguageCode;
 import com.here.sdk.core.Location;
 import com.here.sdk.core.UnitSystem;
 import com.here.sdk.core.engine.SDKNativeEngine;
 import com.here.sdk.core.errors.InstantiationErrorException;
+import com.here.sdk.examples.shared.LanguageCodeConverter;
 import com.here.sdk.location.LocationAccuracy;
 import com.here.sdk.mapview.MapView;
 import com.here.sdk.navigation.AspectRatio;
@@ -91,14 +103,19 @@ import com.here.sdk.routing.RoadTexts;
 import com.here.sdk.routing.RoadType;
 import com.here.sdk.routing.Route;
 import com.here.sdk.routing.RoutingError;
+import com.here.sdk.routing.Section;
 import com.here.sdk.trafficawarenavigation.DynamicRoutingEngine;
 import com.here.sdk.trafficawarenavigation.DynamicRoutingEngineOptions;
 import com.here.sdk.trafficawarenavigation.DynamicRoutingListener;
 import com.here.time.Duration;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 // Shows how to start and stop turn-by-turn navigation on a car route.
 // By default, tracking mode is enabled. When navigation is stopped, tracking mode is enabled again.
@@ -107,22 +124,79 @@ import java.util.Locale;
 public class NavigationExample {
 
     private static final String TAG = NavigationExample.class.getName();
+    private static final int EVENT_BUFFER_CAPACITY = 512;
+    // The current location is forwarded to the DynamicRoutingEngine after 250 m or 30 s, whatever comes first.
+    private static final double DYNAMIC_ROUTING_MIN_DISTANCE_IN_METERS = 250;
+    private static final long DYNAMIC_ROUTING_MAX_INTERVAL_IN_MILLISECONDS = 30 * 1000;
+    // A better route must save at least 1 minute and 5% of the remaining travel time.
+    private static final int DYNAMIC_ROUTING_MIN_TIME_GAIN_IN_SECONDS = 60;
+    private static final double DYNAMIC_ROUTING_MIN_TIME_GAIN_PERCENTAGE = 5;
+    // The navigator warns 2 m/s above speed limits below 25 m/s (90 km/h) and 4 m/s above higher speed limits.
+    private static final double SPEED_LIMIT_LOW_SPEED_OFFSET_IN_METERS_PER_SECOND = 2;
+    private static final double SPEED_LIMIT_HIGH_SPEED_OFFSET_IN_METERS_PER_SECOND = 4;
+    private static final double SPEED_LIMIT_HIGH_SPEED_BOUNDARY_IN_METERS_PER_SECOND = 25;
+    // After a warning, speeding only ends when the driver is 2 m/s below the warning threshold.
+    private static final double SPEED_WARNING_EXIT_HYSTERESIS_IN_METERS_PER_SECOND = 2;
+    // The alert sound is played at most once per 30 seconds.
+    private static final long SPEED_WARNING_MIN_ALERT_INTERVAL_IN_MILLISECONDS = 30 * 1000;
+    // Rendered realistic views are kept in memory up to 16 MB and on disk up to 32 MB.
+    private static final long REALISTIC_VIEW_MEMORY_CACHE_SIZE_IN_BYTES = 16 * 1024 * 1024;
+    private static final long REALISTIC_VIEW_DISK_CACHE_SIZE_IN_BYTES = 32 * 1024 * 1024;
+    private static final String JUNCTION_VIEW_TARGET = "junctionView";
+    private static final String SIGNPOST_TARGET = "signpost";
+    // prefetchAroundLocation() covers a radius of 2 km, so areas 3 km apart along the route overlap.
+    private static final double PREFETCH_SEGMENT_LENGTH_IN_METERS = 3000;
+    private static final double PREFETCH_LEAD_DISTANCE_IN_METERS = 15000;
+    // The map cache does not report the downloaded bytes, so an area is assumed to cost about 2 MB.
+    private static final long PREFETCH_ESTIMATED_BYTES_PER_SEGMENT = 2 * 1024 * 1024;
+    // At most 200 MB per route and 20 MB per minute.
+    private static final long PREFETCH_MAX_BYTES_PER_ROUTE = 200 * 1024 * 1024;
+    private static final long PREFETCH_MAX_BYTES_PER_INTERVAL = 20 * 1024 * 1024;
+    private static final long PREFETCH_INTERVAL_IN_MILLISECONDS = 60 * 1000;
 
     private final Context context;
     private final VisualNavigator visualNavigator;
     private final HEREPositioningProvider herePositioningProvider;
     private final HEREPositioningSimulator herePositioningSimulator;
     private DynamicRoutingEngine dynamicRoutingEngine;
+    private final DynamicRoutingPolicy dynamicRoutingPolicy;
+    private long remainingDurationInSeconds;
     private final VoiceAssistant voiceAssistant;
+    private final SpeedWarningAlerter speedWarningAlerter;
     private int previousManeuverIndex = -1;
     private MapMatchedLocation lastMapMatchedLocation;
     private RoutePrefetcher routePrefetcher;
+    private final RoutePrefetchPlanner routePrefetchPlanner;
+    private int routeLengthInMeters;
 
     private final TextView messageView;
-
-    public NavigationExample(Context context, MapView mapView, TextView messageView) {
+    // Shows the next maneuver in the messageView.
+    private final ManeuverPresenter maneuverPresenter;
+    private final FrameLayout realisticViewLayout;
+    private final ImageView junctionViewImageView;
+    private final ImageView signpostImageView;
+    // Renders the SVGs of realistic views on a background thread.
+    private final ExecutorService realisticViewExecutor;
+    private final RealisticViewRasterizer<Bitmap> realisticViewRasterizer;
+    // Records the events of the navigation listeners. Frequent events are only formatted
+    // when they are printed or when the recent events are dumped.
+    private final NavigationEventSink eventSink;
+
+    public NavigationExample(Context context, MapView mapView, TextView messageView, FrameLayout realisticViewLayout) {
         this.context = context;
         this.messageView = messageView;
+        maneuverPresenter = new ManeuverPresenter(messageView::setText, this::createManeuverInstruction);
+        this.realisticViewLayout = realisticViewLayout;
+        junctionViewImageView = realisticViewLayout.findViewById(R.id.junction_view_image);
+        signpostImageView = realisticViewLayout.findViewById(R.id.signpost_image);
+
+        eventSink = new NavigationEventSink(EVENT_BUFFER_CAPACITY,
+                NavigationExample::printEvent, SystemClock::elapsedRealtime);
+        // Route progress and locations are updated about once per second, keep only the events of every 5th update.
+        eventSink.setSampleInterval(NavigationEventSink.Type.ROUTE_PROGRESS, 5);
+        eventSink.setSampleInterval(NavigationEventSink.Type.NAVIGABLE_LOCATION, 5);
+        // The SVG content of a realistic view can be several hundred KB.
+        eventSink.setMaxArgumentLength(256);
 
         // A class to receive real location events.
         herePositioningProvider = new HEREPositioningProvider();
@@ -131,6 +205,14 @@ public class NavigationExample {
         // The RoutePrefetcher downloads map data in advance into the map cache.
         // This is not mandatory, but can help to improve the guidance experience.
         routePrefetcher = new RoutePrefetcher(SDKNativeEngine.getSharedInstance());
+        // Decides which parts of the route are prefetched next.
+        routePrefetchPlanner = new RoutePrefetchPlanner(SystemClock::elapsedRealtime,
+                PREFETCH_SEGMENT_LENGTH_IN_METERS,
+                PREFETCH_LEAD_DISTANCE_IN_METERS,
+                PREFETCH_ESTIMATED_BYTES_PER_SEGMENT,
+                PREFETCH_MAX_BYTES_PER_ROUTE,
+                PREFETCH_MAX_BYTES_PER_INTERVAL,
+                PREFETCH_INTERVAL_IN_MILLISECONDS);
 
         try {
             // Without a route set, this starts tracking mode.
@@ -145,6 +227,37 @@ public class NavigationExample {
         // A helper class for TTS.
         voiceAssistant = new VoiceAssistant(context);
 
+        // The notification sound is resolved once, as this can take several milliseconds on some devices.
+        Uri ringtoneUri = RingtoneManager.getDefaultUri(RingtoneManager.TYPE_NOTIFICATION);
+        Ringtone speedWarningRingtone = RingtoneManager.getRingtone(context, ringtoneUri);
+        speedWarningAlerter = new SpeedWarningAlerter(SystemClock::elapsedRealtime, () -> {
+            // Can be null, if the device has no notification sound.
+            if (speedWarningRingtone != null && !speedWarningRingtone.isPlaying()) {
+                speedWarningRingtone.play();
+            }
+        }, SPEED_LIMIT_LOW_SPEED_OFFSET_IN_METERS_PER_SECOND,
+                SPEED_LIMIT_HIGH_SPEED_OFFSET_IN_METERS_PER_SECOND,
+                SPEED_LIMIT_HIGH_SPEED_BOUNDARY_IN_METERS_PER_SECOND,
+                SPEED_WARNING_EXIT_HYSTERESIS_IN_METERS_PER_SECOND,
+                SPEED_WARNING_MIN_ALERT_INTERVAL_IN_MILLISECONDS);
+
+        realisticViewExecutor = Executors.newSingleThreadExecutor();
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        realisticViewRasterizer = new RealisticViewRasterizer<>(
+                NavigationExample::renderSvg,
+                new BitmapDiskCache(new File(context.getCacheDir(), "realistic_views"),
+                        REALISTIC_VIEW_DISK_CACHE_SIZE_IN_BYTES),
+                Bitmap::getByteCount,
+                realisticViewExecutor,
+                mainHandler::post,
+                SystemClock::elapsedRealtime,
+                REALISTIC_VIEW_MEMORY_CACHE_SIZE_IN_BYTES);
+
+        dynamicRoutingPolicy = new DynamicRoutingPolicy(SystemClock::elapsedRealtime,
+                DYNAMIC_ROUTING_MIN_DISTANCE_IN_METERS,
+                DYNAMIC_ROUTING_MAX_INTERVAL_IN_MILLISECONDS,
+                DYNAMIC_ROUTING_MIN_TIME_GAIN_IN_SECONDS,
+                DYNAMIC_ROUTING_MIN_TIME_GAIN_PERCENTAGE);
         createDynamicRoutingEngine();
 
         setupListeners();
@@ -158,19 +271,35 @@ public class NavigationExample {
         herePositioningProvider.startLocating(visualNavigator, LocationAccuracy.NAVIGATION);
     }
 
-    private void prefetchMapData(GeoCoordinates currentGeoCoordinates) {
+    private void prefetchMapData(Route route) {
+        List<GeoCoordinates> vertices = route.getGeometry().vertices;
         // Prefetches map data around the provided location with a radius of 2 km into the map cache.
         // For the best experience, prefetchAroundLocation() should be called as early as possible.
-        routePrefetcher.prefetchAroundLocation(currentGeoCoordinates);
-        // Prefetches map data within a corridor along the route that is currently set to the provided Navigator instance.
-        // This happens continuously in discrete intervals.
-        // If no route is set, no data will be prefetched.
-        routePrefetcher.prefetchAroundRouteOnIntervals(visualNavigator);
+        routePrefetcher.prefetchAroundLocation(vertices.get(0));
+
+        // Instead of prefetchAroundRouteOnIntervals(), the areas along the route are prefetched
+        // with the RoutePrefetchPlanner, which limits how far ahead and how much data is prefetched.
+        double[] latitudes = new double[vertices.size()];
+        double[] longitudes = new double[vertices.size()];
+        for (int i = 0; i < vertices.size(); i++) {
+            latitudes[i] = vertices.get(i).latitude;
+            longitudes[i] = vertices.get(i).longitude;
+        }
+        routePrefetchPlanner.setRoute(latitudes, longitudes);
+        routeLengthInMeters = route.getLengthInMeters();
+        prefetchAlongRoute(0);
+    }
+
+    private void prefetchAlongRoute(double traveledDistanceInMeters) {
+        for (RoutePrefetchPlanner.Segment segment : routePrefetchPlanner.plan(traveledDistanceInMeters)) {
+            routePrefetcher.prefetchAroundLocation(new GeoCoordinates(segment.latitude, segment.longitude));
+        }
     }
 
     private void createDynamicRoutingEngine() {
         DynamicRoutingEngineOptions dynamicRoutingOptions = new DynamicRoutingEngineOptions();
         // We want an update for each poll iteration, so we specify 0 difference.
+        // The minimum gain is checked by the DynamicRoutingPolicy instead, so that rejected routes can be counted.
         dynamicRoutingOptions.minTimeDifference = Duration.ofSeconds(0);
         dynamicRoutingOptions.minTimeDifferencePercentage = 0.0;
         dynamicRoutingOptions.pollInterval = Duration.ofMinutes(5);
@@ -190,65 +319,49 @@ public class NavigationExample {
         visualNavigator.setRouteProgressListener(new RouteProgressListener() {
             @Override
             public void onRouteProgressUpdated(@NonNull RouteProgress routeProgress) {
+                eventSink.startCallback(NavigationEventSink.Type.ROUTE_PROGRESS);
                 List<SectionProgress> sectionProgressList = routeProgress.sectionProgress;
                 // sectionProgressList is guaranteed to be non-empty.
                 SectionProgress lastSectionProgress = sectionProgressList.get(sectionProgressList.size() - 1);
-                Log.d(TAG, "Distance to destination in meters: " + lastSectionProgress.remainingDistanceInMeters);
-                Log.d(TAG, "Traffic delay ahead in seconds: " + lastSectionProgress.trafficDelay.getSeconds());
+                remainingDurationInSeconds = lastSectionProgress.remainingDuration.getSeconds();
+                eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROUTE_PROGRESS,
+                        "Distance to destination in meters: {}, traffic delay ahead in seconds: {}")
+                        .with(lastSectionProgress.remainingDistanceInMeters)
+                        .with(lastSectionProgress.trafficDelay.getSeconds())
+                        .commit();
+
+                // Prefetches the next areas along the route, if the budgets allow it.
+                prefetchAlongRoute(routeLengthInMeters - lastSectionProgress.remainingDistanceInMeters);
 
                 // Contains the progress for the next maneuver ahead and the next-next maneuvers, if any.
                 List<ManeuverProgress> nextManeuverList = routeProgress.maneuverProgress;
 
                 ManeuverProgress nextManeuverProgress = nextManeuverList.get(0);
                 if (nextManeuverProgress == null) {
-                    Log.d(TAG, "No next maneuver available.");
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROUTE_PROGRESS,
+                            "No next maneuver available.");
                     return;
                 }
 
                 int nextManeuverIndex = nextManeuverProgress.maneuverIndex;
-                Maneuver nextManeuver = visualNavigator.getManeuver(nextManeuverIndex);
-                if (nextManeuver == null) {
-                    // Should never happen as we retrieved the next maneuver progress above.
-                    return;
-                }
-
-                ManeuverAction action = nextManeuver.getAction();
-                String roadName = getRoadName(nextManeuver);
-                String logMessage = action.name() + " on " + roadName +
-                        " in " + nextManeuverProgress.remainingDistanceInMeters + " meters.";
-
-                // Angle is null for some maneuvers like Depart, Arrive and Roundabout.
-                Double turnAngle = nextManeuver.getTurnAngleInDegrees();
-                if (turnAngle != null) {
-                    if (turnAngle > 10) {
-                        Log.d(TAG, "At the next maneuver: Make a right turn of " + turnAngle + " degrees.");
-                    } else if (turnAngle < -10) {
-                        Log.d(TAG, "At the next maneuver: Make a left turn of " + turnAngle + " degrees.");
-                    } else {
-                        Log.d(TAG, "At the next maneuver: Go straight.");
-                    }
-                }
-
-                // Angle is null when the roundabout maneuver is not an enter, exit or keep maneuver.
-                Double roundaboutAngle = nextManeuver.getRoundaboutAngleInDegrees();
-                if (roundaboutAngle != null) {
-                    // Note that the value is negative only for left-driving countries such as UK.
-                    Log.d(TAG, "At the next maneuver: Follow the roundabout for " +
-                            roundaboutAngle + " degrees to reach the exit.");
-                }
+                // The instructions are created when the route is set, only the distance is updated here.
+                // The text is only set when the rounded distance changes.
+                maneuverPresenter.onManeuverProgress(nextManeuverIndex, nextManeuverProgress.remainingDistanceInMeters);
 
+                // The following details only change with the next maneuver.
                 if (previousManeuverIndex != nextManeuverIndex) {
-                    messageView.setText("New maneuver: " + logMessage);
-                } else {
-                    // A maneuver update contains a different distance to reach the next maneuver.
-                    messageView.setText("Maneuver update: " + logMessage);
+                    logManeuverDetails(nextManeuverIndex);
                 }
-
                 previousManeuverIndex = nextManeuverIndex;
 
-                 if (lastMapMatchedLocation != null) {
-                    // Update the route based on the current location of the driver.
-                    // We periodically want to search for better traffic-optimized routes.
+                // Update the route based on the current location of the driver.
+                // We periodically want to search for better traffic-optimized routes.
+                // Route progress is updated about once per second, but the location is only forwarded
+                // when the driver has moved far enough or enough time has passed.
+                if (lastMapMatchedLocation != null && dynamicRoutingPolicy.shouldForwardLocation(
+                        lastMapMatchedLocation.coordinates.latitude,
+                        lastMapMatchedLocation.coordinates.longitude,
+                        routeProgress.sectionIndex)) {
                     dynamicRoutingEngine.updateCurrentLocation(lastMapMatchedLocation, routeProgress.sectionIndex);
                 }
             }
@@ -260,6 +373,7 @@ public class NavigationExample {
             public void onDestinationReached() {
                 String message = "Destination reached. Stopping turn-by-turn navigation.";
                 messageView.setText(message);
+                eventSink.log(NavigationEventSink.Level.INFO, NavigationEventSink.Type.DESTINATION, message);
                 stopNavigation();
             }
         });
@@ -269,20 +383,28 @@ public class NavigationExample {
             @Override
             public void onMilestoneStatusUpdated(@NonNull Milestone milestone, @NonNull MilestoneStatus milestoneStatus) {
                 if (milestone.waypointIndex != null && milestoneStatus == MilestoneStatus.REACHED) {
-                    Log.d(TAG, "A user-defined waypoint was reached, index of waypoint: " + milestone.waypointIndex);
-                    Log.d(TAG,"Original coordinates: " + milestone.originalCoordinates);
+                    eventSink.event(NavigationEventSink.Level.INFO, NavigationEventSink.Type.MILESTONE,
+                            "A user-defined waypoint was reached, index of waypoint: {}, original coordinates: {}")
+                            .with(milestone.waypointIndex)
+                            .with(milestone.originalCoordinates)
+                            .commit();
                 }
                 else if (milestone.waypointIndex != null && milestoneStatus == MilestoneStatus.MISSED) {
-                    Log.d(TAG, "A user-defined waypoint was missed, index of waypoint: " + milestone.waypointIndex);
-                    Log.d(TAG,"Original coordinates: " + milestone.originalCoordinates);
+                    eventSink.event(NavigationEventSink.Level.INFO, NavigationEventSink.Type.MILESTONE,
+                            "A user-defined waypoint was missed, index of waypoint: {}, original coordinates: {}")
+                            .with(milestone.waypointIndex)
+                            .with(milestone.originalCoordinates)
+                            .commit();
                 }
                 else if (milestone.waypointIndex == null && milestoneStatus == MilestoneStatus.REACHED) {
                     // For example, when transport mode changes due to a ferry a system-defined waypoint may have been added.
-                    Log.d(TAG, "A system-defined waypoint was reached at: " + milestone.mapMatchedCoordinates);
+                    eventSink.event(NavigationEventSink.Level.INFO, NavigationEventSink.Type.MILESTONE,
+                            "A system-defined waypoint was reached at: {}").with(milestone.mapMatchedCoordinates).commit();
                 }
                 else if (milestone.waypointIndex == null && milestoneStatus == MilestoneStatus.MISSED) {
                     // For example, when transport mode changes due to a ferry a system-defined waypoint may have been added.
-                    Log.d(TAG, "A system-defined waypoint was missed at: " + milestone.mapMatchedCoordinates);
+                    eventSink.event(NavigationEventSink.Level.INFO, NavigationEventSink.Type.MILESTONE,
+                            "A system-defined waypoint was missed at: {}").with(milestone.mapMatchedCoordinates).commit();
                 }
             }
         });
@@ -293,15 +415,21 @@ public class NavigationExample {
             public void onSpeedWarningStatusChanged(@NonNull SpeedWarningStatus speedWarningStatus) {
                 if (speedWarningStatus == SpeedWarningStatus.SPEED_LIMIT_EXCEEDED) {
                     // Driver is faster than current speed limit (plus an optional offset).
-                    // Play a notification sound to alert the driver.
                     // Note that this may not include temporary special speed limits, see SpeedLimitListener.
-                    Uri ringtoneUri = RingtoneManager.getDefaultUri(RingtoneManager.TYPE_NOTIFICATION);
-                    Ringtone ringtone = RingtoneManager.getRingtone(context, ringtoneUri);
-                    ringtone.play();
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.SPEED_WARNING,
+                            "Driver is faster than current speed limit (plus an optional offset).");
+
+                    // The SpeedWarningAlerter does not repeat the alert when the speed oscillates around the limit.
+                    if (speedWarningAlerter.onSpeedLimitExceeded()) {
+                        eventSink.log(NavigationEventSink.Level.INFO, NavigationEventSink.Type.SPEED_WARNING,
+                                "Played speed warning alert.");
+                    }
                 }
 
                 if (speedWarningStatus == SpeedWarningStatus.SPEED_LIMIT_RESTORED) {
-                    Log.d(TAG, "Driver is again slower than current speed limit (plus an optional offset).");
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.SPEED_WARNING,
+                            "Driver is again slower than current speed limit (plus an optional offset).");
+                    speedWarningAlerter.onSpeedLimitRestored();
                 }
             }
         });
@@ -311,13 +439,17 @@ public class NavigationExample {
             @Override
             public void onSpeedLimitUpdated(@NonNull SpeedLimit speedLimit) {
                 Double currentSpeedLimit = getCurrentSpeedLimit(speedLimit);
+                speedWarningAlerter.setSpeedLimit(currentSpeedLimit);
 
                 if (currentSpeedLimit == null) {
-                    Log.d(TAG, "Warning: Speed limits unknown, data could not be retrieved.");
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.SPEED_LIMIT,
+                            "Warning: Speed limits unknown, data could not be retrieved.");
                 } else if (currentSpeedLimit == 0) {
-                    Log.d(TAG, "No speed limits on this road! Drive as fast as you feel safe ...");
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.SPEED_LIMIT,
+                            "No speed limits on this road! Drive as fast as you feel safe ...");
                 } else {
-                    Log.d(TAG, "Current speed limit (m/s):" + currentSpeedLimit);
+                    eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.SPEED_LIMIT,
+                            "Current speed limit (m/s): {}").with(currentSpeedLimit).commit();
                 }
             }
         });
@@ -326,15 +458,22 @@ public class NavigationExample {
         visualNavigator.setNavigableLocationListener(new NavigableLocationListener() {
             @Override
             public void onNavigableLocationUpdated(@NonNull NavigableLocation currentNavigableLocation) {
+                eventSink.startCallback(NavigationEventSink.Type.NAVIGABLE_LOCATION);
                 lastMapMatchedLocation = currentNavigableLocation.mapMatchedLocation;
                 if (lastMapMatchedLocation == null) {
-                    Log.d(TAG, "The currentNavigableLocation could not be map-matched. Are you off-road?");
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.NAVIGABLE_LOCATION,
+                            "The currentNavigableLocation could not be map-matched. Are you off-road?");
                     return;
                 }
 
                 Double speed = currentNavigableLocation.originalLocation.speedInMetersPerSecond;
                 Double accuracy = currentNavigableLocation.originalLocation.speedAccuracyInMetersPerSecond;
-                Log.d(TAG, "Driving speed (m/s): " + speed + "plus/minus an accuracy of: " +accuracy);
+                eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.NAVIGABLE_LOCATION,
+                        "Driving speed (m/s): {} plus/minus an accuracy of: {}").with(speed).with(accuracy).commit();
+
+                if (speed != null) {
+                    speedWarningAlerter.onSpeedUpdated(speed);
+                }
             }
         });
 
@@ -360,12 +499,14 @@ public class NavigationExample {
                     lastGeoCoordinatesOnRoute = lastMapMatchedLocationOnRoute == null ?
                             routeDeviation.lastLocationOnRoute.originalLocation.coordinates : lastMapMatchedLocationOnRoute.coordinates;
                 } else {
-                    Log.d(TAG, "User was never following the route. So, we take the start of the route instead.");
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROUTE_DEVIATION,
+                            "User was never following the route. So, we take the start of the route instead.");
                     lastGeoCoordinatesOnRoute = route.getSections().get(0).getDeparturePlace().originalCoordinates;
                 }
 
                 int distanceInMeters = (int) currentGeoCoordinates.distanceTo(lastGeoCoordinatesOnRoute);
-                Log.d(TAG, "RouteDeviation in meters is " + distanceInMeters);
+                eventSink.event(NavigationEventSink.Level.INFO, NavigationEventSink.Type.ROUTE_DEVIATION,
+                        "RouteDeviation in meters is {}").with(distanceInMeters).commit();
 
                 // Now, an application needs to decide if the user has deviated far enough and
                 // what should happen next: For example, you can notify the user or simply try to
@@ -394,13 +535,14 @@ public class NavigationExample {
             public void onLaneAssistanceUpdated(@NonNull ManeuverViewLaneAssistance maneuverViewLaneAssistance) {
                 // This lane list is guaranteed to be non-empty.
                 List<Lane> lanes = maneuverViewLaneAssistance.lanesForNextManeuver;
-                logLaneRecommendations(lanes);
+                logLaneRecommendations(NavigationEventSink.Type.LANE_ASSISTANCE, lanes);
 
                 List<Lane> nextLanes = maneuverViewLaneAssistance.lanesForNextNextManeuver;
                 if (!nextLanes.isEmpty()) {
-                    Log.d(TAG, "Attention, the next next maneuver is very close.");
-                    Log.d(TAG, "Please take the following lane(s) after the next maneuver: ");
-                    logLaneRecommendations(nextLanes);
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.LANE_ASSISTANCE,
+                            "Attention, the next next maneuver is very close. " +
+                            "Please take the following lane(s) after the next maneuver: ");
+                    logLaneRecommendations(NavigationEventSink.Type.LANE_ASSISTANCE, nextLanes);
                 }
             }
         });
@@ -411,10 +553,12 @@ public class NavigationExample {
             public void onLaneAssistanceUpdated(@NonNull JunctionViewLaneAssistance junctionViewLaneAssistance) {
                 List<Lane> lanes = junctionViewLaneAssistance.lanesForNextJunction;
                 if (lanes.isEmpty()) {
-                    Log.d(TAG, "You have passed the complex junction.");
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.JUNCTION_VIEW,
+                            "You have passed the complex junction.");
                 } else {
-                    Log.d(TAG, "Attention, a complex junction is ahead.");
-                    logLaneRecommendations(lanes);
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.JUNCTION_VIEW,
+                            "Attention, a complex junction is ahead.");
+                    logLaneRecommendations(NavigationEventSink.Type.JUNCTION_VIEW, lanes);
                 }
             }
         });
@@ -427,58 +571,70 @@ public class NavigationExample {
                 // If all attributes are unchanged, no new event is fired.
                 // Note that a road can have more than one attribute at the same time.
 
-                Log.d(TAG, "Received road attributes update.");
+                eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROAD_ATTRIBUTES,
+                        "Received road attributes update.");
 
                 if (roadAttributes.isBridge) {
                     // Identifies a structure that allows a road, railway, or walkway to pass over another road, railway,
                     // waterway, or valley serving map display and route guidance functionalities.
-                    Log.d(TAG, "Road attributes: This is a bridge.");
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROAD_ATTRIBUTES,
+                            "Road attributes: This is a bridge.");
                 }
                 if (roadAttributes.isControlledAccess) {
                     // Controlled access roads are roads with limited entrances and exits that allow uninterrupted
                     // high-speed traffic flow.
-                    Log.d(TAG, "Road attributes: This is a controlled access road.");
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROAD_ATTRIBUTES,
+                            "Road attributes: This is a controlled access road.");
                 }
                 if (roadAttributes.isDirtRoad) {
                     // Indicates whether the navigable segment is paved.
-                    Log.d(TAG, "Road attributes: This is a dirt road.");
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROAD_ATTRIBUTES,
+                            "Road attributes: This is a dirt road.");
                 }
                 if (roadAttributes.isDividedRoad) {
                     // Indicates if there is a physical structure or painted road marking intended to legally prohibit
                     // left turns in right-side driving countries, right turns in left-side driving countries,
                     // and U-turns at divided intersections or in the middle of divided segments.
-                    Log.d(TAG, "Road attributes: This is a divided road.");
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROAD_ATTRIBUTES,
+                            "Road attributes: This is a divided road.");
                 }
                 if (roadAttributes.isNoThrough) {
                     // Identifies a no through road.
-                    Log.d(TAG, "Road attributes: This is a no through road.");
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROAD_ATTRIBUTES,
+                            "Road attributes: This is a no through road.");
                 }
                 if (roadAttributes.isPrivate) {
                     // Private identifies roads that are not maintained by an organization responsible for maintenance of
                     // public roads.
-                    Log.d(TAG, "Road attributes: This is a private road.");
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROAD_ATTRIBUTES,
+                            "Road attributes: This is a private road.");
                 }
                 if (roadAttributes.isRamp) {
                     // Range is a ramp: connects roads that do not intersect at grade.
-                    Log.d(TAG, "Road attributes: This is a ramp.");
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROAD_ATTRIBUTES,
+                            "Road attributes: This is a ramp.");
                 }
                 if (roadAttributes.isRightDrivingSide) {
                     // Indicates if vehicles have to drive on the right-hand side of the road or the left-hand side.
                     // For example, in New York it is always true and in London always false as the United Kingdom is
                     // a left-hand driving country.
-                    Log.d(TAG, "Road attributes: isRightDrivingSide = " + roadAttributes.isRightDrivingSide);
+                    eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROAD_ATTRIBUTES,
+                            "Road attributes: isRightDrivingSide = {}").with(roadAttributes.isRightDrivingSide).commit();
                 }
                 if (roadAttributes.isRoundabout) {
                     // Indicates the presence of a roundabout.
-                    Log.d(TAG, "Road attributes: This is a roundabout.");
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROAD_ATTRIBUTES,
+                            "Road attributes: This is a roundabout.");
                 }
                 if (roadAttributes.isTollway) {
                     // Identifies a road for which a fee must be paid to use the road.
-                    Log.d(TAG, "Road attributes change: This is a road with toll costs.");
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROAD_ATTRIBUTES,
+                            "Road attributes change: This is a road with toll costs.");
                 }
                 if (roadAttributes.isTunnel) {
                     // Identifies an enclosed (on all sides) passageway through or under an obstruction.
-                    Log.d(TAG, "Road attributes: This is a tunnel.");
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROAD_ATTRIBUTES,
+                            "Road attributes: This is a tunnel.");
                 }
             }
         });
@@ -492,12 +648,16 @@ public class NavigationExample {
         visualNavigator.setRoadSignWarningListener(new RoadSignWarningListener() {
             @Override
             public void onRoadSignWarningUpdated(@NonNull RoadSignWarning roadSignWarning) {
-                Log.d(TAG, "Road sign distance (m): " + roadSignWarning.distanceToRoadSignInMeters);
-                Log.d(TAG, "Road sign type: " + roadSignWarning.type.name());
+                eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROAD_SIGN,
+                        "Road sign distance (m): {}, road sign type: {}")
+                        .with(roadSignWarning.distanceToRoadSignInMeters)
+                        .with(roadSignWarning.type)
+                        .commit();
 
                 if (roadSignWarning.signValue != null) {
                     // Optional text as it is printed on the local road sign.
-                    Log.d(TAG, "Road sign text: " + roadSignWarning.signValue.text);
+                    eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROAD_SIGN,
+                            "Road sign text: {}").with(roadSignWarning.signValue.text).commit();
                 }
 
                 // For more road sign attributes, please check the API Reference.
@@ -516,12 +676,17 @@ public class NavigationExample {
                 // The list is guaranteed to be non-empty.
                 for (TruckRestrictionWarning truckRestrictionWarning : list) {
                     if (truckRestrictionWarning.distanceType == DistanceType.AHEAD) {
-                        Log.d(TAG, "TruckRestrictionWarning ahead in: "+ truckRestrictionWarning.distanceInMeters + " meters.");
+                        eventSink.event(NavigationEventSink.Level.INFO, NavigationEventSink.Type.TRUCK_RESTRICTION,
+                                "TruckRestrictionWarning ahead in: {} meters.")
+                                .with(truckRestrictionWarning.distanceInMeters)
+                                .commit();
                     } else if (truckRestrictionWarning.distanceType == DistanceType.REACHED) {
-                        Log.d(TAG, "A restriction has been reached.");
+                        eventSink.log(NavigationEventSink.Level.INFO, NavigationEventSink.Type.TRUCK_RESTRICTION,
+                                "A restriction has been reached.");
                     } else if (truckRestrictionWarning.distanceType == DistanceType.PASSED) {
                         // If not preceded by a "REACHED"-notification, this restriction was valid only for the passed location.
-                        Log.d(TAG, "A restriction just passed.");
+                        eventSink.log(NavigationEventSink.Level.INFO, NavigationEventSink.Type.TRUCK_RESTRICTION,
+                                "A restriction just passed.");
                     }
 
                     // One of the following restrictions applies ahead, if more restrictions apply at the same time,
@@ -529,16 +694,19 @@ public class NavigationExample {
                     if (truckRestrictionWarning.weightRestriction != null) {
                         WeightRestrictionType type = truckRestrictionWarning.weightRestriction.type;
                         int value = truckRestrictionWarning.weightRestriction.valueInKilograms;
-                        Log.d(TAG, "TruckRestriction for weight (kg): " + type.name() + ": " + value);
+                        eventSink.event(NavigationEventSink.Level.INFO, NavigationEventSink.Type.TRUCK_RESTRICTION,
+                                "TruckRestriction for weight (kg): {}: {}").with(type).with(value).commit();
                     } else if (truckRestrictionWarning.dimensionRestriction != null) {
                         // Can be either a length, width or height restriction of the truck. For example, a height
                         // restriction can apply for a tunnel. Other possible restrictions are delivered in
                         // separate TruckRestrictionWarning objects contained in the list, if any.
                         DimensionRestrictionType type = truckRestrictionWarning.dimensionRestriction.type;
                         int value = truckRestrictionWarning.dimensionRestriction.valueInCentimeters;
-                        Log.d(TAG, "TruckRestriction for dimension: " + type.name() + ": " + value);
+                        eventSink.event(NavigationEventSink.Level.INFO, NavigationEventSink.Type.TRUCK_RESTRICTION,
+                                "TruckRestriction for dimension: {}: {}").with(type).with(value).commit();
                     } else {
-                        Log.d(TAG, "TruckRestriction: General restriction - no trucks allowed.");
+                        eventSink.log(NavigationEventSink.Level.INFO, NavigationEventSink.Type.TRUCK_RESTRICTION,
+                                "TruckRestriction: General restriction - no trucks allowed.");
                     }
                 }
             }
@@ -577,14 +745,18 @@ public class NavigationExample {
                 // Note that DistanceType.REACHED is not used for Signposts and junction views
                 // as a junction is identified through a location instead of an area.
                 if (distanceType == DistanceType.AHEAD) {
-                    Log.d(TAG, "A RealisticView ahead in: "+ distance + " meters.");
+                    eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.REALISTIC_VIEW,
+                            "A RealisticView ahead in: {} meters.").with(distance).commit();
                 } else if (distanceType == DistanceType.PASSED) {
-                    Log.d(TAG, "A RealisticView just passed.");
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.REALISTIC_VIEW,
+                            "A RealisticView just passed.");
+                    hideRealisticView();
                 }
 
                 RealisticView realisticView = realisticViewWarning.realisticView;
                 if (realisticView == null) {
-                    Log.d(TAG, "A RealisticView just passed. No SVG data delivered.");
+                    eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.REALISTIC_VIEW,
+                            "A RealisticView just passed. No SVG data delivered.");
                     return;
                 }
 
@@ -596,12 +768,110 @@ public class NavigationExample {
                 // the junctionViewSvgImageContent.
                 // The images can be quite detailed, therefore it is recommended to show them on a secondary display
                 // in full size.
-                Log.d("signpostSvgImage", signpostSvgImageContent);
-                Log.d("junctionViewSvgImage", junctionViewSvgImageContent);
+                // The SVG content is only kept by reference and is not copied into a log message.
+                eventSink.event(NavigationEventSink.Level.VERBOSE, NavigationEventSink.Type.REALISTIC_VIEW,
+                        "signpostSvgImage: {}, junctionViewSvgImage: {}")
+                        .with(signpostSvgImageContent)
+                        .with(junctionViewSvgImageContent)
+                        .commit();
+
+                if (distanceType == DistanceType.AHEAD) {
+                    showRealisticView(signpostSvgImageContent, junctionViewSvgImageContent);
+                }
             }
         });
     }
 
+    // Parsing and rendering can take several hundred milliseconds for a detailed junction view,
+    // so both SVGs are rendered on a background thread. Repeated junctions are taken from the cache.
+    private void showRealisticView(String signpostSvgImageContent, String junctionViewSvgImageContent) {
+        // The images are rendered in the size of the view, so that they do not need to be scaled.
+        int widthInPixels = realisticViewLayout.getWidth();
+        int heightInPixels = realisticViewLayout.getHeight();
+        if (widthInPixels == 0 || heightInPixels == 0) {
+            // The layout is not measured yet.
+            return;
+        }
+        realisticViewRasterizer.rasterize(JUNCTION_VIEW_TARGET, junctionViewSvgImageContent,
+                widthInPixels, heightInPixels, this::onRealisticViewRasterized);
+        realisticViewRasterizer.rasterize(SIGNPOST_TARGET, signpostSvgImageContent,
+                widthInPixels, heightInPixels, this::onRealisticViewRasterized);
+    }
+
+    // Called on the main thread.
+    private void onRealisticViewRasterized(String target, @Nullable Bitmap bitmap) {
+        ImageView imageView = SIGNPOST_TARGET.equals(target) ? signpostImageView : junctionViewImageView;
+        imageView.setImageBitmap(bitmap);
+        realisticViewLayout.setVisibility(View.VISIBLE);
+    }
+
+    private void hideRealisticView() {
+        realisticViewRasterizer.cancel(JUNCTION_VIEW_TARGET);
+        realisticViewRasterizer.cancel(SIGNPOST_TARGET);
+        realisticViewLayout.setVisibility(View.INVISIBLE);
+        junctionViewImageView.setImageBitmap(null);
+        signpostImageView.setImageBitmap(null);
+    }
+
+    // Called on the background thread of the RealisticViewRasterizer.
+    @Nullable
+    private static Bitmap renderSvg(String svgContent, int widthInPixels, int heightInPixels) {
+        try {
+            SVG svg = SVG.getFromString(svgContent);
+            Bitmap bitmap = Bitmap.createBitmap(widthInPixels, heightInPixels, Bitmap.Config.ARGB_8888);
+            svg.renderToCanvas(new Canvas(bitmap), new RectF(0, 0, widthInPixels, heightInPixels));
+            return bitmap;
+        } catch (SVGParseException e) {
+            Log.e(TAG, "Parsing of SVG failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void logManeuverDetails(int maneuverIndex) {
+        Maneuver nextManeuver = visualNavigator.getManeuver(maneuverIndex);
+        if (nextManeuver == null) {
+            // Should never happen as we retrieved the next maneuver progress before.
+            return;
+        }
+
+        // Angle is null for some maneuvers like Depart, Arrive and Roundabout.
+        Double turnAngle = nextManeuver.getTurnAngleInDegrees();
+        if (turnAngle != null) {
+            if (turnAngle > 10) {
+                eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.MANEUVER,
+                        "At the next maneuver: Make a right turn of {} degrees.").with(turnAngle).commit();
+            } else if (turnAngle < -10) {
+                eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.MANEUVER,
+                        "At the next maneuver: Make a left turn of {} degrees.").with(turnAngle).commit();
+            } else {
+                eventSink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.MANEUVER,
+                        "At the next maneuver: Go straight.");
+            }
+        }
+
+        // Angle is null when the roundabout maneuver is not an enter, exit or keep maneuver.
+        Double roundaboutAngle = nextManeuver.getRoundaboutAngleInDegrees();
+        if (roundaboutAngle != null) {
+            // Note that the value is negative only for left-driving countries such as UK.
+            eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.MANEUVER,
+                    "At the next maneuver: Follow the roundabout for {} degrees to reach the exit.")
+                    .with(roundaboutAngle)
+                    .commit();
+        }
+    }
+
+    // Used for maneuvers that were not part of the route when navigation was started.
+    @Nullable
+    private String createManeuverInstruction(int maneuverIndex) {
+        Maneuver maneuver = visualNavigator.getManeuver(maneuverIndex);
+        return maneuver == null ? null : createManeuverInstruction(maneuver);
+    }
+
+    private String createManeuverInstruction(Maneuver maneuver) {
+        ManeuverAction action = maneuver.getAction();
+        return action.name() + " on " + getRoadName(maneuver);
+    }
+
     private String getRoadName(Maneuver maneuver) {
         RoadTexts currentRoadTexts = maneuver.getRoadTexts();
         RoadTexts nextRoadTexts = maneuver.getNextRoadTexts();
@@ -632,7 +902,7 @@ public class NavigationExample {
         return roadName;
     }
 
-    private void logLaneRecommendations(List<Lane> lanes) {
+    private void logLaneRecommendations(NavigationEventSink.Type type, List<Lane> lanes) {
         // The lane at index 0 is the leftmost lane adjacent to the middle of the road.
         // The lane at the last index is the rightmost lane.
         int laneNumber = 0;
@@ -642,17 +912,20 @@ public class NavigationExample {
             // but not to the maneuver after the next maneuver, while the highly recommended lane also leads
             // to this next next maneuver.
             if (lane.recommendationState == LaneRecommendationState.RECOMMENDED) {
-                Log.d(TAG,"Lane " + laneNumber + " leads to next maneuver, but not to the next next maneuver.");
+                eventSink.event(NavigationEventSink.Level.DEBUG, type,
+                        "Lane {} leads to next maneuver, but not to the next next maneuver.").with(laneNumber).commit();
             }
 
             // If laneAssistance.lanesForNextNextManeuver is not empty, this lane leads also to the
             // maneuver after the next maneuver.
             if (lane.recommendationState == LaneRecommendationState.HIGHLY_RECOMMENDED) {
-                Log.d(TAG,"Lane " + laneNumber + " leads to next maneuver and eventually to the next next maneuver.");
+                eventSink.event(NavigationEventSink.Level.DEBUG, type,
+                        "Lane {} leads to next maneuver and eventually to the next next maneuver.").with(laneNumber).commit();
             }
 
             if (lane.recommendationState == LaneRecommendationState.NOT_RECOMMENDED) {
-                Log.d(TAG,"Do not take lane " + laneNumber + " to follow the route.");
+                eventSink.event(NavigationEventSink.Level.DEBUG, type,
+                        "Do not take lane {} to follow the route.").with(laneNumber).commit();
             }
 
             laneNumber++;
@@ -663,25 +936,32 @@ public class NavigationExample {
         // Note that all values can be null if no data is available.
 
         // The regular speed limit if available. In case of unbounded speed limit, the value is zero.
-        Log.d(TAG,"speedLimitInMetersPerSecond: " + speedLimit.speedLimitInMetersPerSecond);
+        eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.SPEED_LIMIT,
+                "speedLimitInMetersPerSecond: {}").with(speedLimit.speedLimitInMetersPerSecond).commit();
 
         // A conditional school zone speed limit as indicated on the local road signs.
-        Log.d(TAG,"schoolZoneSpeedLimitInMetersPerSecond: " + speedLimit.schoolZoneSpeedLimitInMetersPerSecond);
+        eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.SPEED_LIMIT,
+                "schoolZoneSpeedLimitInMetersPerSecond: {}").with(speedLimit.schoolZoneSpeedLimitInMetersPerSecond).commit();
 
         // A conditional time-dependent speed limit as indicated on the local road signs.
         // It is in effect considering the current local time provided by the device's clock.
-        Log.d(TAG,"timeDependentSpeedLimitInMetersPerSecond: " + speedLimit.timeDependentSpeedLimitInMetersPerSecond);
+        eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.SPEED_LIMIT,
+                "timeDependentSpeedLimitInMetersPerSecond: {}").with(speedLimit.timeDependentSpeedLimitInMetersPerSecond).commit();
 
         // A conditional non-legal speed limit that recommends a lower speed,
         // for example, due to bad road conditions.
-        Log.d(TAG,"advisorySpeedLimitInMetersPerSecond: " + speedLimit.advisorySpeedLimitInMetersPerSecond);
+        eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.SPEED_LIMIT,
+                "advisorySpeedLimitInMetersPerSecond: {}").with(speedLimit.advisorySpeedLimitInMetersPerSecond).commit();
 
         // A weather-dependent speed limit as indicated on the local road signs.
         // The HERE SDK cannot detect the current weather condition, so a driver must decide
         // based on the situation if this speed limit applies.
-        Log.d(TAG,"fogSpeedLimitInMetersPerSecond: " + speedLimit.fogSpeedLimitInMetersPerSecond);
-        Log.d(TAG,"rainSpeedLimitInMetersPerSecond: " + speedLimit.rainSpeedLimitInMetersPerSecond);
-        Log.d(TAG,"snowSpeedLimitInMetersPerSecond: " + speedLimit.snowSpeedLimitInMetersPerSecond);
+        eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.SPEED_LIMIT,
+                "fogSpeedLimitInMetersPerSecond: {}").with(speedLimit.fogSpeedLimitInMetersPerSecond).commit();
+        eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.SPEED_LIMIT,
+                "rainSpeedLimitInMetersPerSecond: {}").with(speedLimit.rainSpeedLimitInMetersPerSecond).commit();
+        eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.SPEED_LIMIT,
+                "snowSpeedLimitInMetersPerSecond: {}").with(speedLimit.snowSpeedLimitInMetersPerSecond).commit();
 
         // For convenience, this returns the effective (lowest) speed limit between
         // - speedLimitInMetersPerSecond
@@ -691,14 +971,22 @@ public class NavigationExample {
     }
 
     public void startNavigation(Route route, boolean isSimulated) {
-        GeoCoordinates startGeoCoordinates = route.getGeometry().vertices.get(0);
-        prefetchMapData(startGeoCoordinates);
+        prefetchMapData(route);
 
         setupSpeedWarnings();
         setupVoiceGuidance();
 
         // Switches to navigation mode when no route was set before, otherwise navigation mode is kept.
         visualNavigator.setRoute(route);
+        // The maneuver index counts the maneuvers of all sections.
+        List<String> maneuverInstructions = new ArrayList<>();
+        for (Section section : route.getSections()) {
+            for (Maneuver maneuver : section.getManeuvers()) {
+                maneuverInstructions.add(createManeuverInstruction(maneuver));
+            }
+        }
+        maneuverPresenter.setInstructions(maneuverInstructions);
+        previousManeuverIndex = -1;
 
         // Enable auto-zoom during guidance.
         visualNavigator.setCameraBehavior(new DynamicCameraBehavior());
@@ -715,14 +1003,25 @@ public class NavigationExample {
     }
 
     private void startDynamicSearchForBetterRoutes(Route route) {
+        dynamicRoutingPolicy.reset();
         try {
             dynamicRoutingEngine.start(route, new DynamicRoutingListener() {
                 // Notifies on traffic-optimized routes that are considered better than the current route.
                 @Override
                 public void onBetterRouteFound(@NonNull Route newRoute, int etaDifferenceInSeconds, int distanceDifferenceInMeters) {
-                    Log.d(TAG, "DynamicRoutingEngine: Calculated a new route.");
-                    Log.d(TAG, "DynamicRoutingEngine: etaDifferenceInSeconds: " + etaDifferenceInSeconds + ".");
-                    Log.d(TAG, "DynamicRoutingEngine: distanceDifferenceInMeters: " + distanceDifferenceInMeters + ".");
+                    eventSink.event(NavigationEventSink.Level.INFO, NavigationEventSink.Type.DYNAMIC_ROUTING,
+                            "DynamicRoutingEngine: Calculated a new route. etaDifferenceInSeconds: {}, distanceDifferenceInMeters: {}.")
+                            .with(etaDifferenceInSeconds)
+                            .with(distanceDifferenceInMeters)
+                            .commit();
+
+                    if (!dynamicRoutingPolicy.shouldProposeRoute(etaDifferenceInSeconds, remainingDurationInSeconds)) {
+                        eventSink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.DYNAMIC_ROUTING,
+                                "The new route does not save enough of the remaining {} s.")
+                                .with(remainingDurationInSeconds)
+                                .commit();
+                        return;
+                    }
 
                     String logMessage = "Calculated a new route. etaDifferenceInSeconds: " + etaDifferenceInSeconds +
                             " distanceDifferenceInMeters: " + distanceDifferenceInMeters;
@@ -734,7 +1033,8 @@ public class NavigationExample {
 
                 @Override
                 public void onRoutingError(@NonNull RoutingError routingError) {
-                    Log.d(TAG,"Error while dynamically searching for a better route: " + routingError.name());
+                    eventSink.event(NavigationEventSink.Level.WARN, NavigationEventSink.Type.DYNAMIC_ROUTING,
+                            "Error while dynamically searching for a better route: {}").with(routingError).commit();
                 }
             });
         } catch (DynamicRoutingEngine.StartException e) {
@@ -753,7 +1053,24 @@ public class NavigationExample {
         messageView.setText("Tracking device's location.");
 
         dynamicRoutingEngine.stop();
-        routePrefetcher.stopPrefetchAroundRoute();
+        eventSink.event(NavigationEventSink.Level.INFO, NavigationEventSink.Type.DYNAMIC_ROUTING, "{}")
+                .with(dynamicRoutingPolicy)
+                .commit();
+        eventSink.event(NavigationEventSink.Level.INFO, NavigationEventSink.Type.SPEED_WARNING, "{}")
+                .with(speedWarningAlerter)
+                .commit();
+        eventSink.event(NavigationEventSink.Level.INFO, NavigationEventSink.Type.REALISTIC_VIEW, "{}")
+                .with(realisticViewRasterizer)
+                .commit();
+        eventSink.event(NavigationEventSink.Level.INFO, NavigationEventSink.Type.GUIDANCE, "{}")
+                .with(maneuverPresenter)
+                .commit();
+        maneuverPresenter.clear();
+        hideRealisticView();
+        eventSink.event(NavigationEventSink.Level.INFO, NavigationEventSink.Type.GUIDANCE, "{}")
+                .with(routePrefetchPlanner)
+                .commit();
+        routePrefetchPlanner.setRoute(new double[0], new double[0]);
     }
 
     // Provides simulated location updates based on the given route.
@@ -783,9 +1100,9 @@ public class NavigationExample {
 
     private void setupSpeedWarnings() {
         SpeedLimitOffset speedLimitOffset = new SpeedLimitOffset();
-        speedLimitOffset.lowSpeedOffsetInMetersPerSecond = 2;
-        speedLimitOffset.highSpeedOffsetInMetersPerSecond = 4;
-        speedLimitOffset.highSpeedBoundaryInMetersPerSecond = 25;
+        speedLimitOffset.lowSpeedOffsetInMetersPerSecond = SPEED_LIMIT_LOW_SPEED_OFFSET_IN_METERS_PER_SECOND;
+        speedLimitOffset.highSpeedOffsetInMetersPerSecond = SPEED_LIMIT_HIGH_SPEED_OFFSET_IN_METERS_PER_SECOND;
+        speedLimitOffset.highSpeedBoundaryInMetersPerSecond = SPEED_LIMIT_HIGH_SPEED_BOUNDARY_IN_METERS_PER_SECOND;
 
         visualNavigator.setSpeedWarningOptions(new SpeedWarningOptions(speedLimitOffset));
     }
@@ -824,6 +1141,41 @@ public class NavigationExample {
         return languageCodeForCurrenDevice;
     }
 
+    // Changes at runtime which navigation events are recorded and which are printed to the log right away.
+    // For example, use VERBOSE for both to also see the SVG content of realistic views in the log.
+    public void setEventLogLevels(NavigationEventSink.Level recordLevel, NavigationEventSink.Level printLevel) {
+        eventSink.setRecordLevel(recordLevel);
+        eventSink.setPrintLevel(printLevel);
+    }
+
+    // Prints the recently recorded navigation events, for example, when an issue was reported.
+    public void dumpRecentEvents() {
+        int count = eventSink.dump(NavigationExample::printEvent);
+        Log.d(TAG, "Dumped " + count + " recent navigation events: " + eventSink);
+    }
+
+    private static void printEvent(NavigationEventSink.Level level, NavigationEventSink.Type type,
+                                   long timeInMilliseconds, String message) {
+        int priority;
+        switch (level) {
+            case VERBOSE:
+                priority = Log.VERBOSE;
+                break;
+            case DEBUG:
+                priority = Log.DEBUG;
+                break;
+            case INFO:
+                priority = Log.INFO;
+                break;
+            case WARN:
+                priority = Log.WARN;
+                break;
+            default:
+                priority = Log.ERROR;
+        }
+        Log.println(priority, TAG, "[" + timeInMilliseconds + " " + type + "] " + message);
+    }
+
     public void stopLocating() {
         herePositioningProvider.stopLocating();
     }
@@ -832,5 +1184,6 @@ public class NavigationExample {
       // It is recommended to stop rendering before leaving an activity.
       // This also removes the current location marker.
       visualNavigator.stopRendering();
+      realisticViewExecutor.shutdownNow();
     }
 }
@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.navigation;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+// Turns the SVG strings of a realistic view into images without blocking the thread that requested them:
+// - Hashing, cache lookups and rendering run on a background executor. The result is delivered on the
+//   callback executor, for example, a Handler of the main thread.
+// - Images are cached by the SHA-256 hash of the SVG content and the requested size. The memory cache
+//   is bounded by the total size of its images and evicts the least recently used image first. Images
+//   that are not in memory are looked up in a disk cache, so that junctions that are passed every day
+//   do not need to be rendered again after a restart of the app.
+// - Each request is made for a target, for example, the signpost or the junction view. Only the result
+//   of the latest request for a target is delivered, older results are dropped as stale.
+// The class does not depend on Android or the HERE SDK. The background executor should use a single
+// thread, so that the same SVG is not rendered twice when it is requested twice in a row.
+public class RealisticViewRasterizer<B> {
+
+    // Renders an SVG into an image of the given size. Returns null, if the SVG could not be rendered.
+    public interface Renderer<B> {
+        B render(String svgContent, int widthInPixels, int heightInPixels);
+    }
+
+    // Stores images beyond the lifetime of the app, for example, as files in the cache directory.
+    // Only called on the background executor.
+    public interface DiskCache<B> {
+        // Returns null, if no image is stored for the key.
+        B read(String key);
+
+        void write(String key, B image);
+    }
+
+    public interface SizeCalculator<B> {
+        long sizeInBytes(B image);
+    }
+
+    public interface Callback<B> {
+        // The image is null, if the SVG could not be rendered.
+        void onRasterized(String target, B image);
+    }
+
+    // Provides a monotonic time, for example, SystemClock::elapsedRealtime.
+    public interface Clock {
+        long nowInMilliseconds();
+    }
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Renderer<B> renderer;
+    private final DiskCache<B> diskCache;
+    private final SizeCalculator<B> sizeCalculator;
+    private final Executor backgroundExecutor;
+    private final Executor callbackExecutor;
+    private final Clock clock;
+    private final long maxMemoryInBytes;
+
+    // With accessOrder set to true, iteration starts at the least recently used entry.
+    private final LinkedHashMap<String, B> memoryCache = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryInBytes = 0;
+    // The number of the latest request per target.
+    private final Map<String, Long> latestRequests = new HashMap<>();
+    private long requestCount = 0;
+
+    private long memoryHitCount = 0;
+    private long diskHitCount = 0;
+    private long renderCount = 0;
+    private long failedCount = 0;
+    private long staleCount = 0;
+    private long evictionCount = 0;
+    private long totalRenderTimeInMilliseconds = 0;
+    private long maxRenderTimeInMilliseconds = 0;
+
+    public RealisticViewRasterizer(Renderer<B> renderer,
+                                   DiskCache<B> diskCache,
+                                   SizeCalculator<B> sizeCalculator,
+                                   Executor backgroundExecutor,
+                                   Executor callbackExecutor,
+                                   Clock clock,
+                                   long maxMemoryInBytes) {
+        this.renderer = renderer;
+        this.diskCache = diskCache;
+        this.sizeCalculator = sizeCalculator;
+        this.backgroundExecutor = backgroundExecutor;
+        this.callbackExecutor = callbackExecutor;
+        this.clock = clock;
+        this.maxMemoryInBytes = maxMemoryInBytes;
+    }
+
+    // Requests an image for the target. A pending request for the same target becomes stale.
+    public void rasterize(final String target, final String svgContent,
+                          final int widthInPixels, final int heightInPixels, final Callback<B> callback) {
+        final long requestNumber;
+        synchronized (this) {
+            requestNumber = ++requestCount;
+            latestRequests.put(target, requestNumber);
+        }
+
+        backgroundExecutor.execute(() -> {
+            if (!isLatest(target, requestNumber)) {
+                // A newer request was made before this one was started.
+                countStale();
+                return;
+            }
+            final B image = getOrRender(svgContent, widthInPixels, heightInPixels);
+            callbackExecutor.execute(() -> {
+                if (!isLatest(target, requestNumber)) {
+                    countStale();
+                    return;
+                }
+                synchronized (this) {
+                    latestRequests.remove(target);
+                }
+                callback.onRasterized(target, image);
+            });
+        });
+    }
+
+    // Drops the pending request for the target, for example, when the junction was passed.
+    public synchronized void cancel(String target) {
+        latestRequests.remove(target);
+    }
+
+    private B getOrRender(String svgContent, int widthInPixels, int heightInPixels) {
+        final String key = createKey(svgContent, widthInPixels, heightInPixels);
+        synchronized (this) {
+            B image = memoryCache.get(key);
+            if (image != null) {
+                memoryHitCount++;
+                return image;
+            }
+        }
+
+        B image = diskCache.read(key);
+        if (image != null) {
+            synchronized (this) {
+                diskHitCount++;
+                putIntoMemory(key, image);
+            }
+            return image;
+        }
+
+        final long startTime = clock.nowInMilliseconds();
+        image = renderer.render(svgContent, widthInPixels, heightInPixels);
+        final long renderTime = clock.nowInMilliseconds() - startTime;
+        synchronized (this) {
+            if (image == null) {
+                failedCount++;
+                return null;
+            }
+            renderCount++;
+            totalRenderTimeInMilliseconds += renderTime;
+            maxRenderTimeInMilliseconds = Math.max(maxRenderTimeInMilliseconds, renderTime);
+            putIntoMemory(key, image);
+        }
+        diskCache.write(key, image);
+        return image;
+    }
+
+    private void putIntoMemory(String key, B image) {
+        final long sizeInBytes = sizeCalculator.sizeInBytes(image);
+        if (sizeInBytes > maxMemoryInBytes) {
+            // The image would evict all others, it is only kept on disk.
+            return;
+        }
+        B previousImage = memoryCache.put(key, image);
+        if (previousImage != null) {
+            memoryInBytes -= sizeCalculator.sizeInBytes(previousImage);
+        }
+        memoryInBytes += sizeInBytes;
+
+        Iterator<B> iterator = memoryCache.values().iterator();
+        while (memoryInBytes > maxMemoryInBytes && iterator.hasNext()) {
+            memoryInBytes -= sizeCalculator.sizeInBytes(iterator.next());
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    private synchronized boolean isLatest(String target, long requestNumber) {
+        Long latestRequestNumber = latestRequests.get(target);
+        return latestRequestNumber != null && latestRequestNumber == requestNumber;
+    }
+
+    private synchronized void countStale() {
+        staleCount++;
+    }
+
+    // The key contains the size, as the same SVG may be shown in views of different sizes.
+    static String createKey(String svgContent, int widthInPixels, int heightInPixels) {
+        return contentHash(svgContent) + "-" + widthInPixels + "x" + heightInPixels;
+    }
+
+    static String contentHash(String svgContent) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+        byte[] hash = digest.digest(svgContent.getBytes(UTF_8));
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(hash[i] >> 4) & 0xf];
+            hex[2 * i + 1] = HEX_DIGITS[hash[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+    public synchronized void clearMemory() {
+        memoryCache.clear();
+        memoryInBytes = 0;
+    }
+
+    public synchronized long getMemoryInBytes() {
+        return memoryInBytes;
+    }
+
+    // The number of images that were found in the memory cache.
+    public synchronized long getMemoryHitCount() {
+        return memoryHitCount;
+    }
+
+    // The number of images that were found in the disk cache.
+    public synchronized long getDiskHitCount() {
+        return diskHitCount;
+    }
+
+    // The number of images that were rendered.
+    public synchronized long getRenderCount() {
+        return renderCount;
+    }
+
+    // The number of SVGs that could not be rendered.
+    public synchronized long getFailedCount() {
+        return failedCount;
+    }
+
+    // The number of results that were dropped, because a newer request was made for the same target.
+    public synchronized long getStaleCount() {
+        return staleCount;
+    }
+
+    // The number of images that were evicted from the memory cache.
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized long getAverageRenderTimeInMilliseconds() {
+        return renderCount == 0 ? 0 : totalRenderTimeInMilliseconds / renderCount;
+    }
+
+    public synchronized long getMaxRenderTimeInMilliseconds() {
+        return maxRenderTimeInMilliseconds;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "RealisticViewRasterizer{memory=" + memoryInBytes + "/" + maxMemoryInBytes
+                + ", memoryHits=" + memoryHitCount
+                + ", diskHits=" + diskHitCount
+                + ", rendered=" + renderCount
+                + ", failed=" + failedCount
+                + ", stale=" + staleCount
+                + ", evictions=" + evictionCount
+                + ", averageRenderTime=" + getAverageRenderTimeInMilliseconds()
+                + ", maxRenderTime=" + maxRenderTimeInMilliseconds + "}";
+    }
+}
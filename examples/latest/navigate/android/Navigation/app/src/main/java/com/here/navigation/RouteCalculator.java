@@ -20,9 +20,13 @@
 package com.here.navigation;
 
 import com.here.sdk.core.errors.InstantiationErrorException;
+import com.here.sdk.examples.shared.HEREWaypointAccessor;
+import com.here.sdk.examples.shared.RouteCache;
 import com.here.sdk.routing.CalculateRouteCallback;
 import com.here.sdk.routing.CarOptions;
+import com.here.sdk.routing.Route;
 import com.here.sdk.routing.RoutingEngine;
+import com.here.sdk.routing.RoutingError;
 import com.here.sdk.routing.Waypoint;
 
 import java.util.ArrayList;
@@ -32,7 +36,12 @@ import java.util.List;
 // A class that creates car Routes with the HERE SDK.
 public class RouteCalculator {
 
+    private static final int ROUTE_CACHE_MAX_ENTRIES = 8;
+    // Routes consider the current traffic, so a cached route is only reused for a few minutes.
+    private static final long ROUTE_TIME_TO_LIVE_IN_MILLISECONDS = 5 * 60 * 1000;
+
     private final RoutingEngine routingEngine;
+    private final RouteCache<Waypoint, CarOptions, List<Route>, RoutingError> routeCache;
 
     public RouteCalculator() {
         try {
@@ -40,6 +49,14 @@ public class RouteCalculator {
         } catch (InstantiationErrorException e) {
             throw new RuntimeException("Initialization of RoutingEngine failed: " + e.error.name());
         }
+
+        // Requests with the same quantized waypoints and options are answered from the cache.
+        routeCache = new RouteCache<>(
+                (waypoints, carOptions, callback) ->
+                        routingEngine.calculateRoute(waypoints, carOptions, callback::onRouteCalculated),
+                new HEREWaypointAccessor(),
+                ROUTE_CACHE_MAX_ENTRIES,
+                ROUTE_TIME_TO_LIVE_IN_MILLISECONDS);
     }
 
     public void calculateRoute(Waypoint startWaypoint,
@@ -52,9 +69,9 @@ public class RouteCalculator {
         CarOptions routingOptions = new CarOptions();
         routingOptions.routeOptions.enableRouteHandle = true;
 
-        routingEngine.calculateRoute(
+        routeCache.calculateRoute(
                 waypoints,
                 routingOptions,
-                calculateRouteCallback);
+                calculateRouteCallback::onRouteCalculated);
     }
 }
@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.navigation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Plans which parts of a route are prefetched into the map cache while driving:
+// - The route is split into segments of segmentLengthInMeters. Each segment is prefetched once
+//   around its center, for example, with RoutePrefetcher.prefetchAroundLocation().
+// - Segments are prefetched in the order of the route, up to leadDistanceInMeters ahead of the vehicle.
+//   A segment that is already prefetched is never requested again.
+// - Each segment is assumed to cost estimatedBytesPerSegment, as the map cache does not report the
+//   downloaded bytes. The bytes are limited per route (maxBytesPerRoute) and per time interval
+//   (maxBytesPerInterval), so that a metered connection is not used up at once. A segment that does not
+//   fit into a budget is deferred, and so are all segments after it, so that the prefetched part of the
+//   route stays contiguous.
+// The class does not depend on Android or the HERE SDK. All methods are expected to be called on the
+// same thread, for example, the main thread on which the navigator delivers its events.
+public class RoutePrefetchPlanner {
+
+    // Provides a monotonic time, for example, SystemClock::elapsedRealtime.
+    public interface Clock {
+        long nowInMilliseconds();
+    }
+
+    public static final class Segment {
+        public final int index;
+        public final double startDistanceInMeters;
+        public final double endDistanceInMeters;
+        // The center of the segment along the route.
+        public final double latitude;
+        public final double longitude;
+
+        Segment(int index, double startDistanceInMeters, double endDistanceInMeters,
+                double latitude, double longitude) {
+            this.index = index;
+            this.startDistanceInMeters = startDistanceInMeters;
+            this.endDistanceInMeters = endDistanceInMeters;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+    }
+
+    private static final double EARTH_RADIUS_IN_METERS = 6371000;
+
+    private final Clock clock;
+    private final double segmentLengthInMeters;
+    private final double leadDistanceInMeters;
+    private final long estimatedBytesPerSegment;
+    private final long maxBytesPerRoute;
+    private final long maxBytesPerInterval;
+    private final long intervalInMilliseconds;
+
+    private List<Segment> segments = Collections.emptyList();
+    private boolean[] isPrefetched = new boolean[0];
+    // The segments before this index are prefetched or already passed.
+    private int nextSegmentIndex = 0;
+    // A segment is deferred on each update until it fits into the budgets, but only counted once.
+    private int lastDeferredSegmentIndex = -1;
+    private double traveledDistanceInMeters = 0;
+
+    private long intervalStartTimeInMilliseconds;
+    private boolean hasIntervalStarted = false;
+    private long bytesInInterval = 0;
+    private long bytesForRoute = 0;
+
+    private long bytesSpent = 0;
+    private int prefetchedCount = 0;
+    private int deferredCount = 0;
+
+    public RoutePrefetchPlanner(Clock clock,
+                                double segmentLengthInMeters,
+                                double leadDistanceInMeters,
+                                long estimatedBytesPerSegment,
+                                long maxBytesPerRoute,
+                                long maxBytesPerInterval,
+                                long intervalInMilliseconds) {
+        if (segmentLengthInMeters <= 0) {
+            throw new IllegalArgumentException("The segment length must be positive.");
+        }
+        this.clock = clock;
+        this.segmentLengthInMeters = segmentLengthInMeters;
+        this.leadDistanceInMeters = leadDistanceInMeters;
+        this.estimatedBytesPerSegment = estimatedBytesPerSegment;
+        this.maxBytesPerRoute = maxBytesPerRoute;
+        this.maxBytesPerInterval = maxBytesPerInterval;
+        this.intervalInMilliseconds = intervalInMilliseconds;
+    }
+
+    // Splits the route, given by the coordinates of its vertices, into segments.
+    // The budget per route starts again, the budget per interval and the metrics continue.
+    public void setRoute(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Each vertex needs a latitude and a longitude.");
+        }
+
+        final int vertexCount = latitudes.length;
+        double[] distances = new double[vertexCount];
+        for (int i = 1; i < vertexCount; i++) {
+            distances[i] = distances[i - 1]
+                    + distanceInMeters(latitudes[i - 1], longitudes[i - 1], latitudes[i], longitudes[i]);
+        }
+
+        List<Segment> newSegments = new ArrayList<>();
+        if (vertexCount > 0) {
+            final double lengthInMeters = distances[vertexCount - 1];
+            // The vertex at or before the center of the current segment.
+            int vertexIndex = 0;
+            double startDistance = 0;
+            do {
+                double endDistance = Math.min(startDistance + segmentLengthInMeters, lengthInMeters);
+                double centerDistance = (startDistance + endDistance) / 2;
+                while (vertexIndex < vertexCount - 2 && distances[vertexIndex + 1] <= centerDistance) {
+                    vertexIndex++;
+                }
+
+                double latitude = latitudes[vertexIndex];
+                double longitude = longitudes[vertexIndex];
+                if (vertexIndex < vertexCount - 1) {
+                    double vertexDistance = distances[vertexIndex + 1] - distances[vertexIndex];
+                    double fraction = vertexDistance == 0 ? 0 : (centerDistance - distances[vertexIndex]) / vertexDistance;
+                    latitude += (latitudes[vertexIndex + 1] - latitude) * fraction;
+                    longitude += (longitudes[vertexIndex + 1] - longitude) * fraction;
+                }
+                newSegments.add(new Segment(newSegments.size(), startDistance, endDistance, latitude, longitude));
+                startDistance = endDistance;
+            } while (startDistance < lengthInMeters);
+        }
+
+        segments = Collections.unmodifiableList(newSegments);
+        isPrefetched = new boolean[newSegments.size()];
+        nextSegmentIndex = 0;
+        lastDeferredSegmentIndex = -1;
+        traveledDistanceInMeters = 0;
+        bytesForRoute = 0;
+    }
+
+    // Call this for each route progress update. Returns the segments that should be prefetched now,
+    // in the order of the route. The returned segments are considered to be prefetched.
+    public List<Segment> plan(double traveledDistanceInMeters) {
+        this.traveledDistanceInMeters = traveledDistanceInMeters;
+
+        // Segments that were passed without being prefetched are not needed anymore.
+        while (nextSegmentIndex < segments.size()
+                && segments.get(nextSegmentIndex).endDistanceInMeters <= traveledDistanceInMeters) {
+            nextSegmentIndex++;
+        }
+
+        final double planningEndDistance = traveledDistanceInMeters + leadDistanceInMeters;
+        List<Segment> plannedSegments = Collections.emptyList();
+        while (nextSegmentIndex < segments.size()) {
+            Segment segment = segments.get(nextSegmentIndex);
+            if (segment.startDistanceInMeters >= planningEndDistance) {
+                break;
+            }
+            if (!isPrefetched[segment.index]) {
+                if (!tryToSpend(estimatedBytesPerSegment)) {
+                    if (segment.index != lastDeferredSegmentIndex) {
+                        lastDeferredSegmentIndex = segment.index;
+                        deferredCount++;
+                    }
+                    break;
+                }
+                isPrefetched[segment.index] = true;
+                prefetchedCount++;
+                if (plannedSegments.isEmpty()) {
+                    plannedSegments = new ArrayList<>();
+                }
+                plannedSegments.add(segment);
+            }
+            nextSegmentIndex++;
+        }
+        return plannedSegments;
+    }
+
+    private boolean tryToSpend(long bytes) {
+        if (bytesForRoute + bytes > maxBytesPerRoute) {
+            return false;
+        }
+
+        final long now = clock.nowInMilliseconds();
+        if (!hasIntervalStarted || now - intervalStartTimeInMilliseconds >= intervalInMilliseconds) {
+            hasIntervalStarted = true;
+            intervalStartTimeInMilliseconds = now;
+            bytesInInterval = 0;
+        }
+        if (bytesInInterval + bytes > maxBytesPerInterval) {
+            return false;
+        }
+
+        bytesInInterval += bytes;
+        bytesForRoute += bytes;
+        bytesSpent += bytes;
+        return true;
+    }
+
+    private static double distanceInMeters(double fromLatitude, double fromLongitude,
+                                           double toLatitude, double toLongitude) {
+        double lat1 = Math.toRadians(fromLatitude);
+        double lat2 = Math.toRadians(toLatitude);
+        double deltaLat = lat2 - lat1;
+        double deltaLon = Math.toRadians(toLongitude - fromLongitude);
+        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
+        return 2 * EARTH_RADIUS_IN_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    public List<Segment> getSegments() {
+        return segments;
+    }
+
+    public boolean isPrefetched(int segmentIndex) {
+        return isPrefetched[segmentIndex];
+    }
+
+    // How far the contiguously prefetched part of the route reaches ahead of the vehicle.
+    // 0, if the segment the vehicle is on is not prefetched.
+    public double getLeadDistanceInMeters() {
+        double endDistance = traveledDistanceInMeters;
+        for (Segment segment : segments) {
+            if (segment.endDistanceInMeters <= traveledDistanceInMeters) {
+                continue;
+            }
+            if (!isPrefetched[segment.index]) {
+                break;
+            }
+            endDistance = segment.endDistanceInMeters;
+        }
+        return endDistance - traveledDistanceInMeters;
+    }
+
+    // The estimated bytes of all prefetched segments, including earlier routes.
+    public long getBytesSpent() {
+        return bytesSpent;
+    }
+
+    // The number of segments that were prefetched, including earlier routes.
+    public int getPrefetchedCount() {
+        return prefetchedCount;
+    }
+
+    // The number of segments that had to wait, because they did not fit into a budget, including earlier routes.
+    public int getDeferredCount() {
+        return deferredCount;
+    }
+
+    @Override
+    public String toString() {
+        return "RoutePrefetchPlanner{prefetched=" + prefetchedCount + "/" + segments.size()
+                + ", deferred=" + deferredCount
+                + ", bytesSpent=" + bytesSpent
+                + ", leadDistance=" + (int) getLeadDistanceInMeters() + "}";
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.navigation;
+
+// Decides when the driver is alerted about speeding. The trigger is the speed warning status of the
+// navigator, which is exceeded when the speed is above the speed limit plus the configured SpeedLimitOffset:
+// - Hysteresis: A speeding episode starts with SPEED_LIMIT_EXCEEDED. After SPEED_LIMIT_RESTORED, it only
+//   ends when the speed has dropped exitHysteresisInMetersPerSecond below the threshold of the navigator.
+//   A speed that oscillates around the threshold results in a single speeding episode.
+// - Rate limit: A new speeding episode that starts within minAlertIntervalInMilliseconds after the
+//   last alert is counted, but does not play the alert again.
+// The offsets must be the same values that are set as SpeedLimitOffset for the navigator.
+// The alert itself is played by an AlertPlayer, which should be created once, for example, with a
+// preloaded Ringtone, so that nothing needs to be resolved or allocated when an alert is raised.
+// The class does not depend on Android or the HERE SDK. All methods are expected to be called on the
+// same thread, for example, the main thread on which the navigator delivers its events.
+public class SpeedWarningAlerter {
+
+    // Provides a monotonic time, for example, SystemClock::elapsedRealtime.
+    public interface Clock {
+        long nowInMilliseconds();
+    }
+
+    public interface AlertPlayer {
+        void play();
+    }
+
+    private final Clock clock;
+    private final AlertPlayer alertPlayer;
+    private final double lowSpeedOffsetInMetersPerSecond;
+    private final double highSpeedOffsetInMetersPerSecond;
+    private final double highSpeedBoundaryInMetersPerSecond;
+    private final double exitHysteresisInMetersPerSecond;
+    private final long minAlertIntervalInMilliseconds;
+
+    // Null, when no speed limit is known or when there is no speed limit on the current road.
+    private Double speedLimitInMetersPerSecond;
+    private Double speedInMetersPerSecond;
+    private boolean isSpeeding = false;
+    // True, after the navigator reported SPEED_LIMIT_RESTORED for the current speeding episode.
+    private boolean isRestored = false;
+    private boolean hasRaisedAlert = false;
+    private long lastAlertTimeInMilliseconds;
+
+    private int raisedCount = 0;
+    private int suppressedCount = 0;
+
+    public SpeedWarningAlerter(Clock clock,
+                               AlertPlayer alertPlayer,
+                               double lowSpeedOffsetInMetersPerSecond,
+                               double highSpeedOffsetInMetersPerSecond,
+                               double highSpeedBoundaryInMetersPerSecond,
+                               double exitHysteresisInMetersPerSecond,
+                               long minAlertIntervalInMilliseconds) {
+        if (exitHysteresisInMetersPerSecond < 0) {
+            throw new IllegalArgumentException("The exit hysteresis must not be negative.");
+        }
+        this.clock = clock;
+        this.alertPlayer = alertPlayer;
+        this.lowSpeedOffsetInMetersPerSecond = lowSpeedOffsetInMetersPerSecond;
+        this.highSpeedOffsetInMetersPerSecond = highSpeedOffsetInMetersPerSecond;
+        this.highSpeedBoundaryInMetersPerSecond = highSpeedBoundaryInMetersPerSecond;
+        this.exitHysteresisInMetersPerSecond = exitHysteresisInMetersPerSecond;
+        this.minAlertIntervalInMilliseconds = minAlertIntervalInMilliseconds;
+    }
+
+    // Null or 0 means that the speed limit is unknown or that there is no speed limit.
+    public void setSpeedLimit(Double speedLimitInMetersPerSecond) {
+        if (speedLimitInMetersPerSecond == null || speedLimitInMetersPerSecond <= 0) {
+            this.speedLimitInMetersPerSecond = null;
+        } else {
+            this.speedLimitInMetersPerSecond = speedLimitInMetersPerSecond;
+        }
+        updateSpeedingEpisode();
+    }
+
+    // Call this for each new driving speed. It is only used to end a speeding episode.
+    public void onSpeedUpdated(double speedInMetersPerSecond) {
+        this.speedInMetersPerSecond = speedInMetersPerSecond;
+        updateSpeedingEpisode();
+    }
+
+    // Call this for SpeedWarningStatus.SPEED_LIMIT_EXCEEDED. Returns true, if the alert was played.
+    public boolean onSpeedLimitExceeded() {
+        isRestored = false;
+        if (isSpeeding) {
+            // The speed was not low enough in between to end the last speeding episode.
+            return false;
+        }
+
+        isSpeeding = true;
+        final long now = clock.nowInMilliseconds();
+        if (hasRaisedAlert && now - lastAlertTimeInMilliseconds < minAlertIntervalInMilliseconds) {
+            suppressedCount++;
+            return false;
+        }
+
+        hasRaisedAlert = true;
+        lastAlertTimeInMilliseconds = now;
+        raisedCount++;
+        alertPlayer.play();
+        return true;
+    }
+
+    // Call this for SpeedWarningStatus.SPEED_LIMIT_RESTORED.
+    public void onSpeedLimitRestored() {
+        isRestored = true;
+        updateSpeedingEpisode();
+    }
+
+    public boolean isSpeeding() {
+        return isSpeeding;
+    }
+
+    // The speed at which the navigator reports SPEED_LIMIT_EXCEEDED for the given speed limit.
+    public double getThresholdInMetersPerSecond(double speedLimitInMetersPerSecond) {
+        double offset = speedLimitInMetersPerSecond < highSpeedBoundaryInMetersPerSecond
+                ? lowSpeedOffsetInMetersPerSecond
+                : highSpeedOffsetInMetersPerSecond;
+        return speedLimitInMetersPerSecond + offset;
+    }
+
+    private void updateSpeedingEpisode() {
+        if (!isSpeeding || !isRestored) {
+            return;
+        }
+        // Without a speed limit or a speed, the episode cannot be checked, so it ends with the navigator's status.
+        if (speedLimitInMetersPerSecond == null || speedInMetersPerSecond == null
+                || speedInMetersPerSecond <= getThresholdInMetersPerSecond(speedLimitInMetersPerSecond)
+                        - exitHysteresisInMetersPerSecond) {
+            isSpeeding = false;
+            isRestored = false;
+        }
+    }
+
+    // The number of speeding episodes for which the alert was played.
+    public int getRaisedCount() {
+        return raisedCount;
+    }
+
+    // The number of speeding episodes that started too soon after the last alert.
+    public int getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "SpeedWarningAlerter{raised=" + raisedCount
+                + ", suppressed=" + suppressedCount + "}";
+    }
+}
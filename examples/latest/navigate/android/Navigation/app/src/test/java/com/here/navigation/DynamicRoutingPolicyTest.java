@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.navigation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DynamicRoutingPolicyTest {
+
+    private static final double START_LATITUDE = 52.52;
+    private static final double START_LONGITUDE = 13.40;
+    // One degree of latitude is about 111.2 km.
+    private static final double METERS_PER_DEGREE_LATITUDE = 6371000 * Math.PI / 180;
+
+    private long now;
+    private DynamicRoutingPolicy policy;
+
+    @Before
+    public void setUp() {
+        now = 0;
+        policy = new DynamicRoutingPolicy(() -> now, 250, 30 * 1000, 60, 5);
+    }
+
+    @Test
+    public void forwardsLocationsAccordingToTheThresholds() {
+        // Each row: milliseconds since the previous row, meters driven north since the start,
+        // section index and whether the location is expected to be forwarded.
+        Object[][] trace = {
+                {0L, 0.0, 0, true},          // The first location is always forwarded.
+                {1000L, 15.0, 0, false},
+                {1000L, 30.0, 0, false},
+                {1000L, 240.0, 0, false},    // 240 m since the last forwarded location.
+                {1000L, 260.0, 0, true},     // 260 m since the last forwarded location.
+                {1000L, 270.0, 0, false},
+                {1000L, 280.0, 1, true},     // A new section is always forwarded.
+                {29000L, 290.0, 1, false},   // 29 s since the last forwarded location.
+                {1000L, 290.0, 1, true},     // 30 s since the last forwarded location, while standing still.
+                {1000L, 290.0, 1, false},
+        };
+
+        int expectedForwarded = 0;
+        int expectedSuppressed = 0;
+        for (int i = 0; i < trace.length; i++) {
+            now += (Long) trace[i][0];
+            double latitude = START_LATITUDE + (Double) trace[i][1] / METERS_PER_DEGREE_LATITUDE;
+            boolean expected = (Boolean) trace[i][3];
+
+            assertEquals("Row " + i, expected,
+                    policy.shouldForwardLocation(latitude, START_LONGITUDE, (Integer) trace[i][2]));
+            if (expected) {
+                expectedForwarded++;
+            } else {
+                expectedSuppressed++;
+            }
+        }
+        assertEquals(expectedForwarded, policy.getForwardedCount());
+        assertEquals(expectedSuppressed, policy.getSuppressedCount());
+    }
+
+    @Test
+    public void resetForwardsTheNextLocationRightAway() {
+        assertEquals(true, policy.shouldForwardLocation(START_LATITUDE, START_LONGITUDE, 0));
+        assertEquals(false, policy.shouldForwardLocation(START_LATITUDE, START_LONGITUDE, 0));
+
+        policy.reset();
+
+        assertEquals(true, policy.shouldForwardLocation(START_LATITUDE, START_LONGITUDE, 0));
+        assertEquals(2, policy.getForwardedCount());
+        assertEquals(1, policy.getSuppressedCount());
+    }
+
+    @Test
+    public void proposesRoutesThatSaveEnoughTime() {
+        // Each row: ETA difference in seconds, remaining duration in seconds and whether the route is expected
+        // to be proposed. The policy requires at least 60 s and at least 5% of the remaining duration.
+        Object[][] table = {
+                {60, 1200L, true},       // 60 s and 5%.
+                {59, 1000L, false},      // Less than 60 s, although more than 5%.
+                {120, 3600L, false},     // 120 s, but only 3.3% of an hour.
+                {180, 3600L, true},      // 180 s and 5% of an hour.
+                {300, 600L, true},
+                {0, 600L, false},
+                {-120, 600L, false},     // The new route arrives later.
+                {120, 0L, false},        // Already arrived.
+        };
+
+        int expectedProposed = 0;
+        for (int i = 0; i < table.length; i++) {
+            boolean expected = (Boolean) table[i][2];
+            assertEquals("Row " + i, expected,
+                    policy.shouldProposeRoute((Integer) table[i][0], (Long) table[i][1]));
+            if (expected) {
+                expectedProposed++;
+            }
+        }
+        assertEquals(expectedProposed, policy.getProposedCount());
+        assertEquals(table.length - expectedProposed, policy.getRejectedCount());
+    }
+
+    @Test
+    public void toStringContainsTheCounters() {
+        policy.shouldForwardLocation(START_LATITUDE, START_LONGITUDE, 0);
+        policy.shouldForwardLocation(START_LATITUDE, START_LONGITUDE, 0);
+        policy.shouldProposeRoute(600, 1200);
+
+        assertEquals("DynamicRoutingPolicy{forwarded=1, suppressed=1, proposed=1, rejected=0}", policy.toString());
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.navigation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ManeuverPresenterTest {
+
+    private final List<String> shownTexts = new ArrayList<>();
+    private final List<Integer> requestedIndexes = new ArrayList<>();
+    private ManeuverPresenter presenter;
+
+    @Before
+    public void setUp() {
+        shownTexts.clear();
+        requestedIndexes.clear();
+        presenter = new ManeuverPresenter(shownTexts::add, maneuverIndex -> {
+            requestedIndexes.add(maneuverIndex);
+            return maneuverIndex == 7 ? "LEFT_TURN on Detour" : null;
+        });
+        presenter.setInstructions(Arrays.asList("DEPART on Main Street", "RIGHT_TURN on Side Street"));
+    }
+
+    @Test
+    public void quantizesAtTheBoundaries() {
+        // Each row: the remaining distance and the expected quantized distance.
+        int[][] table = {
+                {-5, 0},
+                {0, 0},
+                {4, 0},
+                {5, 10},
+                {94, 90},
+                {95, 100},        // Still in the 10 m band, but rounded up.
+                {99, 100},
+                {100, 100},       // 50 m band.
+                {124, 100},
+                {125, 150},
+                {974, 950},
+                {975, 1000},
+                {999, 1000},
+                {1000, 1000},     // 100 m band.
+                {1049, 1000},
+                {1050, 1100},
+                {9949, 9900},
+                {9950, 10000},
+                {9999, 10000},
+                {10000, 10000},   // 1 km band.
+                {10499, 10000},
+                {10500, 11000},
+        };
+
+        for (int[] row : table) {
+            assertEquals("Distance " + row[0], row[1], ManeuverPresenter.quantizeDistanceInMeters(row[0]));
+        }
+    }
+
+    @Test
+    public void formatsMetersAndKilometers() {
+        assertEquals("0 m", ManeuverPresenter.formatDistance(0));
+        assertEquals("950 m", ManeuverPresenter.formatDistance(950));
+        assertEquals("1.0 km", ManeuverPresenter.formatDistance(1000));
+        assertEquals("1.2 km", ManeuverPresenter.formatDistance(1200));
+        assertEquals("9.9 km", ManeuverPresenter.formatDistance(9900));
+        assertEquals("10 km", ManeuverPresenter.formatDistance(10000));
+        assertEquals("123 km", ManeuverPresenter.formatDistance(123000));
+    }
+
+    @Test
+    public void showsTextOnlyWhenTheQuantizedDistanceChanges() {
+        // Approaching the first maneuver at about 14 m/s with one update per second.
+        int[] trace = {430, 416, 402, 388, 374, 360, 346};
+
+        for (int distance : trace) {
+            presenter.onManeuverProgress(0, distance);
+        }
+
+        // 430 -> 450, 416 -> 400, 402 -> 400, 388 -> 400, 374 -> 350, 360 -> 350, 346 -> 350.
+        assertEquals(Arrays.asList(
+                "New maneuver: DEPART on Main Street in 450 m.",
+                "Maneuver update: DEPART on Main Street in 400 m.",
+                "Maneuver update: DEPART on Main Street in 350 m."), shownTexts);
+        assertEquals(3, presenter.getShownCount());
+        assertEquals(4, presenter.getSkippedCount());
+    }
+
+    @Test
+    public void newManeuverIsShownEvenWithTheSameDistance() {
+        assertTrue(presenter.onManeuverProgress(0, 20));
+        assertTrue(presenter.onManeuverProgress(1, 20));
+
+        assertEquals("New maneuver: RIGHT_TURN on Side Street in 20 m.", shownTexts.get(1));
+        assertEquals(0, presenter.getSkippedCount());
+    }
+
+    @Test
+    public void unknownManeuverIsCreatedByTheProvider() {
+        assertTrue(presenter.onManeuverProgress(7, 1234));
+        assertFalse(presenter.onManeuverProgress(8, 1234));
+
+        assertEquals(Arrays.asList(7, 8), requestedIndexes);
+        assertEquals(Arrays.asList("New maneuver: LEFT_TURN on Detour in 1.2 km."), shownTexts);
+    }
+
+    @Test
+    public void newInstructionsShowTheNextUpdate() {
+        presenter.onManeuverProgress(0, 500);
+        presenter.setInstructions(Arrays.asList("DEPART on New Street"));
+        presenter.onManeuverProgress(0, 500);
+
+        assertEquals("New maneuver: DEPART on New Street in 500 m.", shownTexts.get(1));
+    }
+
+    @Test
+    public void toStringContainsTheCounters() {
+        presenter.onManeuverProgress(0, 500);
+        presenter.onManeuverProgress(0, 499);
+
+        assertEquals("ManeuverPresenter{shown=1, skipped=1}", presenter.toString());
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.navigation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NavigationEventSinkTest {
+
+    private static class RecordingPrinter implements NavigationEventSink.Printer {
+        final List<String> messages = new ArrayList<>();
+
+        @Override
+        public void print(NavigationEventSink.Level level, NavigationEventSink.Type type,
+                          long timeInMilliseconds, String message) {
+            messages.add(timeInMilliseconds + " " + message);
+        }
+    }
+
+    // Formats the arguments when called, so that a test can check that no message was formatted.
+    private static class CountingArgument {
+        int formatCount = 0;
+
+        @Override
+        public String toString() {
+            formatCount++;
+            return "argument";
+        }
+    }
+
+    private RecordingPrinter printer;
+    private long now;
+    private NavigationEventSink sink;
+
+    @Before
+    public void setUp() {
+        printer = new RecordingPrinter();
+        now = 0;
+        sink = new NavigationEventSink(3, printer, () -> now);
+        sink.setPrintLevel(NavigationEventSink.Level.WARN);
+    }
+
+    private List<String> dump() {
+        RecordingPrinter dumpPrinter = new RecordingPrinter();
+        sink.dump(dumpPrinter);
+        return dumpPrinter.messages;
+    }
+
+    private void logProgress(int distanceInMeters) {
+        now++;
+        sink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROUTE_PROGRESS, "Distance: {} m")
+                .with(distanceInMeters)
+                .commit();
+    }
+
+    @Test
+    public void keepsEventsInOrderUntilFull() {
+        logProgress(300);
+        logProgress(200);
+
+        assertEquals(2, sink.size());
+        assertEquals(Arrays.asList("1 Distance: 300 m", "2 Distance: 200 m"), dump());
+    }
+
+    @Test
+    public void overwritesOldestEventsWhenFull() {
+        for (int distance = 500; distance > 0; distance -= 100) {
+            logProgress(distance);
+        }
+
+        assertEquals(3, sink.size());
+        assertEquals(2, sink.getOverwrittenCount());
+        assertEquals(5, sink.getRecordedCount());
+        assertEquals(Arrays.asList("3 Distance: 300 m", "4 Distance: 200 m", "5 Distance: 100 m"), dump());
+    }
+
+    @Test
+    public void reusedRecordsDoNotKeepOldArguments() {
+        sink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.REALISTIC_VIEW, "SVG: {} {}")
+                .with("<svg/>")
+                .with(true)
+                .commit();
+        for (int i = 0; i < 3; i++) {
+            sink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.GUIDANCE, "No arguments.");
+        }
+
+        assertEquals(Arrays.asList("0 No arguments.", "0 No arguments.", "0 No arguments."), dump());
+    }
+
+    @Test
+    public void formatsOnlyWhenPrintedOrDumped() {
+        CountingArgument argument = new CountingArgument();
+        sink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROAD_SIGN, "Sign: {}")
+                .with(argument)
+                .commit();
+
+        assertEquals(0, argument.formatCount);
+        assertTrue(printer.messages.isEmpty());
+
+        assertEquals(Arrays.asList("0 Sign: argument"), dump());
+        assertEquals(1, argument.formatCount);
+    }
+
+    @Test
+    public void printsEventsAtOrAbovePrintLevel() {
+        sink.event(NavigationEventSink.Level.WARN, NavigationEventSink.Type.DYNAMIC_ROUTING, "Error: {}")
+                .with("OFFLINE")
+                .commit();
+        logProgress(100);
+
+        assertEquals(Arrays.asList("0 Error: OFFLINE"), printer.messages);
+        assertEquals(1, sink.getPrintedCount());
+
+        sink.setPrintLevel(NavigationEventSink.Level.DEBUG);
+        logProgress(50);
+        assertEquals("2 Distance: 50 m", printer.messages.get(1));
+    }
+
+    @Test
+    public void dropsEventsBelowRecordLevel() {
+        sink.setRecordLevel(NavigationEventSink.Level.INFO);
+        logProgress(100);
+        sink.log(NavigationEventSink.Level.INFO, NavigationEventSink.Type.DESTINATION, "Destination reached.");
+
+        assertEquals(1, sink.getFilteredCount());
+        assertEquals(Arrays.asList("1 Destination reached."), dump());
+    }
+
+    @Test
+    public void defaultsRecordAllEventsAndPrintFromDebug() {
+        sink = new NavigationEventSink(3, printer, () -> now);
+        sink.log(NavigationEventSink.Level.VERBOSE, NavigationEventSink.Type.REALISTIC_VIEW, "SVG.");
+        logProgress(100);
+
+        assertEquals(Arrays.asList("0 SVG.", "1 Distance: 100 m"), dump());
+        assertEquals(Arrays.asList("1 Distance: 100 m"), printer.messages);
+    }
+
+    @Test
+    public void samplesWholeCallbacksPerEventType() {
+        sink = new NavigationEventSink(10, printer, () -> now);
+        sink.setPrintLevel(NavigationEventSink.Level.WARN);
+        sink.setSampleInterval(NavigationEventSink.Type.ROUTE_PROGRESS, 2);
+        for (int distance = 400; distance > 0; distance -= 100) {
+            sink.startCallback(NavigationEventSink.Type.ROUTE_PROGRESS);
+            logProgress(distance);
+            sink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.ROUTE_PROGRESS, "Next maneuver.");
+            sink.log(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.SPEED_LIMIT, "Speed limit.");
+        }
+
+        assertEquals(4, sink.getSampledOutCount());
+        assertEquals(Arrays.asList(
+                "1 Distance: 400 m", "1 Next maneuver.", "1 Speed limit.",
+                "2 Speed limit.",
+                "3 Distance: 200 m", "3 Next maneuver.", "3 Speed limit.",
+                "4 Speed limit."), dump());
+    }
+
+    @Test
+    public void typesWithoutCallbacksAreNotSampled() {
+        sink.setSampleInterval(NavigationEventSink.Type.ROUTE_PROGRESS, 2);
+        logProgress(200);
+        logProgress(100);
+
+        assertEquals(0, sink.getSampledOutCount());
+        assertEquals(2, sink.size());
+    }
+
+    @Test
+    public void neverSamplesWarnings() {
+        sink.setSampleInterval(NavigationEventSink.Type.DYNAMIC_ROUTING, 10);
+        for (int i = 0; i < 3; i++) {
+            sink.startCallback(NavigationEventSink.Type.DYNAMIC_ROUTING);
+            sink.log(NavigationEventSink.Level.WARN, NavigationEventSink.Type.DYNAMIC_ROUTING, "Error.");
+        }
+
+        assertEquals(3, sink.size());
+        assertEquals(0, sink.getSampledOutCount());
+    }
+
+    @Test
+    public void formatsAllArgumentKindsAndTruncatesObjects() {
+        sink.setMaxArgumentLength(4);
+        sink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.GUIDANCE, "{} {} {}")
+                .with(12L)
+                .with(1.5)
+                .with(false)
+                .with("0123456789")
+                .commit();
+
+        // The argument without a placeholder is appended.
+        assertEquals(Arrays.asList("0 12 1.5 false 0123... (10 chars)"), dump());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsTooManyArguments() {
+        sink.event(NavigationEventSink.Level.DEBUG, NavigationEventSink.Type.GUIDANCE, "{}")
+                .with(1).with(2).with(3).with(4).with(5);
+    }
+
+    @Test
+    public void clearEmptiesBuffer() {
+        logProgress(100);
+        sink.clear();
+        assertEquals(0, sink.size());
+        assertTrue(dump().isEmpty());
+
+        logProgress(50);
+        assertEquals(Arrays.asList("2 Distance: 50 m"), dump());
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.navigation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class RealisticViewRasterizerTest {
+
+    // An image of the fake renderer. Its size is width * height bytes.
+    private static class FakeImage {
+        final String svgContent;
+        final int width;
+        final int height;
+
+        FakeImage(String svgContent, int width, int height) {
+            this.svgContent = svgContent;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    private static class FakeRenderer implements RealisticViewRasterizer.Renderer<FakeImage> {
+        final List<String> renderedSvgs = new ArrayList<>();
+        long renderTimeInMilliseconds = 0;
+
+        @Override
+        public FakeImage render(String svgContent, int widthInPixels, int heightInPixels) {
+            renderedSvgs.add(svgContent);
+            now += renderTimeInMilliseconds;
+            return svgContent.startsWith("<svg") ? new FakeImage(svgContent, widthInPixels, heightInPixels) : null;
+        }
+    }
+
+    private static class FakeDiskCache implements RealisticViewRasterizer.DiskCache<FakeImage> {
+        final Map<String, FakeImage> files = new HashMap<>();
+
+        @Override
+        public FakeImage read(String key) {
+            return files.get(key);
+        }
+
+        @Override
+        public void write(String key, FakeImage image) {
+            files.put(key, image);
+        }
+    }
+
+    // Runs tasks only when asked to, so that a test can control the order of the threads.
+    private static class QueueExecutor implements Executor {
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.poll().run();
+            }
+        }
+    }
+
+    private static long now;
+
+    private FakeRenderer renderer;
+    private FakeDiskCache diskCache;
+    private QueueExecutor backgroundExecutor;
+    private QueueExecutor callbackExecutor;
+    private RealisticViewRasterizer<FakeImage> rasterizer;
+    private final List<String> deliveredTargets = new ArrayList<>();
+    private final List<FakeImage> deliveredImages = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        now = 0;
+        renderer = new FakeRenderer();
+        diskCache = new FakeDiskCache();
+        backgroundExecutor = new QueueExecutor();
+        callbackExecutor = new QueueExecutor();
+        deliveredTargets.clear();
+        deliveredImages.clear();
+        // The memory holds two images of 10 x 10 pixels.
+        rasterizer = createRasterizer(diskCache);
+    }
+
+    private RealisticViewRasterizer<FakeImage> createRasterizer(FakeDiskCache diskCache) {
+        return new RealisticViewRasterizer<>(renderer, diskCache,
+                image -> (long) image.width * image.height,
+                backgroundExecutor, callbackExecutor, () -> now, 200);
+    }
+
+    private void rasterize(String target, String svgContent) {
+        rasterizer.rasterize(target, svgContent, 10, 10, (deliveredTarget, image) -> {
+            deliveredTargets.add(deliveredTarget);
+            deliveredImages.add(image);
+        });
+    }
+
+    private void runAll() {
+        backgroundExecutor.runAll();
+        callbackExecutor.runAll();
+    }
+
+    @Test
+    public void rendersOnTheBackgroundExecutorAndDeliversOnTheCallbackExecutor() {
+        rasterize("junction", "<svg>a</svg>");
+        assertEquals(0, renderer.renderedSvgs.size());
+
+        backgroundExecutor.runAll();
+        assertEquals(1, renderer.renderedSvgs.size());
+        assertEquals(0, deliveredImages.size());
+
+        callbackExecutor.runAll();
+        assertEquals(1, deliveredImages.size());
+        assertEquals("junction", deliveredTargets.get(0));
+        assertEquals("<svg>a</svg>", deliveredImages.get(0).svgContent);
+    }
+
+    @Test
+    public void repeatedSvgIsTakenFromMemory() {
+        rasterize("junction", "<svg>a</svg>");
+        runAll();
+        rasterize("junction", "<svg>a</svg>");
+        runAll();
+
+        assertEquals(1, renderer.renderedSvgs.size());
+        assertEquals(1, rasterizer.getRenderCount());
+        assertEquals(1, rasterizer.getMemoryHitCount());
+        assertSame(deliveredImages.get(0), deliveredImages.get(1));
+    }
+
+    @Test
+    public void svgFromAnEarlierSessionIsTakenFromDisk() {
+        rasterize("junction", "<svg>a</svg>");
+        runAll();
+        assertEquals(1, diskCache.files.size());
+
+        // A new rasterizer with an empty memory cache, for example, after a restart of the app.
+        rasterizer = createRasterizer(diskCache);
+        rasterize("junction", "<svg>a</svg>");
+        runAll();
+
+        assertEquals(1, renderer.renderedSvgs.size());
+        assertEquals(1, rasterizer.getDiskHitCount());
+        assertEquals(0, rasterizer.getRenderCount());
+        assertEquals(100, rasterizer.getMemoryInBytes());
+    }
+
+    @Test
+    public void memoryEvictsTheLeastRecentlyUsedImage() {
+        rasterize("junction", "<svg>a</svg>");
+        runAll();
+        rasterize("junction", "<svg>b</svg>");
+        runAll();
+        // Uses a again, so that b is the least recently used image.
+        rasterize("junction", "<svg>a</svg>");
+        runAll();
+        rasterize("junction", "<svg>c</svg>");
+        runAll();
+
+        assertEquals(1, rasterizer.getEvictionCount());
+        assertEquals(200, rasterizer.getMemoryInBytes());
+
+        // b was evicted from memory, but is still on disk.
+        rasterize("junction", "<svg>b</svg>");
+        runAll();
+        assertEquals(1, rasterizer.getDiskHitCount());
+        assertEquals(3, renderer.renderedSvgs.size());
+    }
+
+    @Test
+    public void onlyTheLatestRequestPerTargetIsDelivered() {
+        rasterize("junction", "<svg>a</svg>");
+        rasterize("signpost", "<svg>s</svg>");
+        rasterize("junction", "<svg>b</svg>");
+        runAll();
+
+        // The first junction request was never rendered.
+        assertEquals(2, renderer.renderedSvgs.size());
+        assertEquals(2, deliveredImages.size());
+        assertEquals("<svg>s</svg>", deliveredImages.get(0).svgContent);
+        assertEquals("<svg>b</svg>", deliveredImages.get(1).svgContent);
+        assertEquals(1, rasterizer.getStaleCount());
+    }
+
+    @Test
+    public void resultIsDroppedWhenANewerRequestIsMadeWhileRendering() {
+        rasterize("junction", "<svg>a</svg>");
+        backgroundExecutor.runAll();
+        rasterize("junction", "<svg>b</svg>");
+        runAll();
+
+        assertEquals(1, deliveredImages.size());
+        assertEquals("<svg>b</svg>", deliveredImages.get(0).svgContent);
+        assertEquals(1, rasterizer.getStaleCount());
+    }
+
+    @Test
+    public void cancelledRequestIsNotDelivered() {
+        rasterize("junction", "<svg>a</svg>");
+        backgroundExecutor.runAll();
+        rasterizer.cancel("junction");
+        callbackExecutor.runAll();
+
+        assertEquals(0, deliveredImages.size());
+        // The rendered image is cached anyway.
+        assertEquals(1, diskCache.files.size());
+    }
+
+    @Test
+    public void invalidSvgIsDeliveredAsNullAndNotCached() {
+        rasterize("junction", "not an svg");
+        runAll();
+
+        assertEquals(1, deliveredImages.size());
+        assertNull(deliveredImages.get(0));
+        assertEquals(1, rasterizer.getFailedCount());
+        assertEquals(0, diskCache.files.size());
+        assertEquals(0, rasterizer.getMemoryInBytes());
+    }
+
+    @Test
+    public void reportsRenderTimes() {
+        renderer.renderTimeInMilliseconds = 40;
+        rasterize("junction", "<svg>a</svg>");
+        runAll();
+        renderer.renderTimeInMilliseconds = 120;
+        rasterize("junction", "<svg>b</svg>");
+        runAll();
+        // Cached images do not count.
+        rasterize("junction", "<svg>a</svg>");
+        runAll();
+
+        assertEquals(80, rasterizer.getAverageRenderTimeInMilliseconds());
+        assertEquals(120, rasterizer.getMaxRenderTimeInMilliseconds());
+    }
+
+    @Test
+    public void keyDependsOnContentAndSize() {
+        String key = RealisticViewRasterizer.createKey("<svg>a</svg>", 300, 400);
+
+        assertEquals(key, RealisticViewRasterizer.createKey(new String("<svg>a</svg>"), 300, 400));
+        assertNotEquals(key, RealisticViewRasterizer.createKey("<svg>b</svg>", 300, 400));
+        assertNotEquals(key, RealisticViewRasterizer.createKey("<svg>a</svg>", 600, 800));
+        // The hex encoded SHA-256 hash plus the size.
+        assertEquals(64 + "-300x400".length(), key.length());
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.navigation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class RoutePrefetchPlannerTest {
+
+    private static final double START_LATITUDE = 52.0;
+    private static final double START_LONGITUDE = 13.0;
+    private static final double METERS_PER_DEGREE_LATITUDE = 6371000 * Math.PI / 180;
+    // Distances along the synthetic routes are computed with the haversine formula, so allow a few centimeters.
+    private static final double DELTA_IN_METERS = 0.1;
+
+    private long now;
+
+    @Before
+    public void setUp() {
+        now = 0;
+    }
+
+    // Segments of 3 km, prefetched up to 10 km ahead. Each segment costs 100 bytes.
+    private RoutePrefetchPlanner createPlanner(long maxBytesPerRoute, long maxBytesPerInterval) {
+        return new RoutePrefetchPlanner(() -> now, 3000, 10000, 100, maxBytesPerRoute, maxBytesPerInterval, 60 * 1000);
+    }
+
+    // A route to the north with one vertex per kilometer.
+    private static void setStraightRoute(RoutePrefetchPlanner planner, int lengthInKilometers) {
+        double[] latitudes = new double[lengthInKilometers + 1];
+        double[] longitudes = new double[lengthInKilometers + 1];
+        for (int i = 0; i <= lengthInKilometers; i++) {
+            latitudes[i] = START_LATITUDE + i * 1000 / METERS_PER_DEGREE_LATITUDE;
+            longitudes[i] = START_LONGITUDE;
+        }
+        planner.setRoute(latitudes, longitudes);
+    }
+
+    private static List<Integer> indexes(List<RoutePrefetchPlanner.Segment> segments) {
+        List<Integer> indexes = new ArrayList<>();
+        for (RoutePrefetchPlanner.Segment segment : segments) {
+            indexes.add(segment.index);
+        }
+        return indexes;
+    }
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> range = new ArrayList<>();
+        for (int i = from; i <= to; i++) {
+            range.add(i);
+        }
+        return range;
+    }
+
+    @Test
+    public void splitsTheRouteIntoSegmentsWithCentersOnTheRoute() {
+        RoutePrefetchPlanner planner = createPlanner(Long.MAX_VALUE, Long.MAX_VALUE);
+        setStraightRoute(planner, 10);
+
+        List<RoutePrefetchPlanner.Segment> segments = planner.getSegments();
+        assertEquals(4, segments.size());
+        assertEquals(0, segments.get(0).startDistanceInMeters, DELTA_IN_METERS);
+        assertEquals(3000, segments.get(0).endDistanceInMeters, DELTA_IN_METERS);
+        // The last segment is shorter.
+        assertEquals(9000, segments.get(3).startDistanceInMeters, DELTA_IN_METERS);
+        assertEquals(10000, segments.get(3).endDistanceInMeters, DELTA_IN_METERS);
+
+        // The center of the first segment is 1.5 km along the route, between two vertices.
+        assertEquals(START_LATITUDE + 1500 / METERS_PER_DEGREE_LATITUDE, segments.get(0).latitude, 1e-6);
+        assertEquals(START_LONGITUDE, segments.get(0).longitude, 1e-9);
+        assertEquals(START_LATITUDE + 9500 / METERS_PER_DEGREE_LATITUDE, segments.get(3).latitude, 1e-6);
+    }
+
+    @Test
+    public void singleVertexRouteHasOneSegment() {
+        RoutePrefetchPlanner planner = createPlanner(Long.MAX_VALUE, Long.MAX_VALUE);
+        planner.setRoute(new double[]{START_LATITUDE}, new double[]{START_LONGITUDE});
+
+        assertEquals(1, planner.getSegments().size());
+        assertEquals(START_LATITUDE, planner.getSegments().get(0).latitude, 1e-9);
+    }
+
+    @Test
+    public void prefetchesEachSegmentOnceUpToTheLeadDistance() {
+        RoutePrefetchPlanner planner = createPlanner(Long.MAX_VALUE, Long.MAX_VALUE);
+        setStraightRoute(planner, 30);
+
+        // 10 km ahead reach into the 4th segment (9 - 12 km).
+        assertEquals(range(0, 3), indexes(planner.plan(0)));
+        assertEquals(12000, planner.getLeadDistanceInMeters(), DELTA_IN_METERS);
+
+        // Nothing new until the lead distance reaches the 5th segment.
+        assertEquals(range(0, -1), indexes(planner.plan(1500)));
+        assertEquals(range(4, 4), indexes(planner.plan(2500)));
+        assertEquals(12500, planner.getLeadDistanceInMeters(), DELTA_IN_METERS);
+
+        // A jump, for example, after a tunnel without progress updates.
+        assertEquals(range(5, 7), indexes(planner.plan(11500)));
+        assertEquals(400 + 100 + 300, planner.getBytesSpent());
+        assertEquals(8, planner.getPrefetchedCount());
+    }
+
+    @Test
+    public void intervalBudgetDefersSegmentsUntilTheNextInterval() {
+        // Two segments per minute.
+        RoutePrefetchPlanner planner = createPlanner(Long.MAX_VALUE, 200);
+        setStraightRoute(planner, 30);
+
+        assertEquals(range(0, 1), indexes(planner.plan(0)));
+        assertEquals(1, planner.getDeferredCount());
+        assertEquals(6000, planner.getLeadDistanceInMeters(), DELTA_IN_METERS);
+
+        // The same segment is still waiting, it is not counted again.
+        now += 30 * 1000;
+        assertEquals(range(0, -1), indexes(planner.plan(1000)));
+        assertEquals(1, planner.getDeferredCount());
+
+        now += 30 * 1000;
+        assertEquals(range(2, 3), indexes(planner.plan(2000)));
+        assertEquals(10000, planner.getLeadDistanceInMeters(), DELTA_IN_METERS);
+    }
+
+    @Test
+    public void routeBudgetStopsPrefetchingUntilTheNextRoute() {
+        // Five segments per route.
+        RoutePrefetchPlanner planner = createPlanner(500, Long.MAX_VALUE);
+        setStraightRoute(planner, 30);
+
+        assertEquals(range(0, 3), indexes(planner.plan(0)));
+        assertEquals(range(4, 4), indexes(planner.plan(3000)));
+        assertEquals(range(0, -1), indexes(planner.plan(6000)));
+
+        // The lead distance shrinks while the vehicle drives on.
+        assertEquals(9000, planner.getLeadDistanceInMeters(), DELTA_IN_METERS);
+        assertEquals(500, planner.getBytesSpent());
+
+        // A new route has its own budget, the bytes spent continue.
+        setStraightRoute(planner, 30);
+        assertEquals(range(0, 3), indexes(planner.plan(0)));
+        assertEquals(900, planner.getBytesSpent());
+    }
+
+    @Test
+    public void passedSegmentsAreNotPrefetchedLate() {
+        // One segment per minute.
+        RoutePrefetchPlanner planner = createPlanner(Long.MAX_VALUE, 100);
+        setStraightRoute(planner, 30);
+
+        assertEquals(range(0, 0), indexes(planner.plan(0)));
+        // A minute later, the vehicle is already in the 3rd segment.
+        now += 60 * 1000;
+        assertEquals(range(2, 2), indexes(planner.plan(7000)));
+        assertEquals(2000, planner.getLeadDistanceInMeters(), DELTA_IN_METERS);
+        assertFalse(planner.isPrefetched(1));
+    }
+
+    @Test
+    public void leadDistanceIsZeroWhenTheCurrentSegmentIsNotPrefetched() {
+        RoutePrefetchPlanner planner = createPlanner(0, Long.MAX_VALUE);
+        setStraightRoute(planner, 30);
+
+        assertEquals(range(0, -1), indexes(planner.plan(4000)));
+        assertEquals(0, planner.getLeadDistanceInMeters(), DELTA_IN_METERS);
+    }
+
+    @Test
+    public void toStringContainsTheMetrics() {
+        RoutePrefetchPlanner planner = createPlanner(Long.MAX_VALUE, 200);
+        setStraightRoute(planner, 10);
+        planner.plan(0);
+
+        assertEquals("RoutePrefetchPlanner{prefetched=2/4, deferred=1, bytesSpent=200, leadDistance=6000}",
+                planner.toString());
+    }
+}
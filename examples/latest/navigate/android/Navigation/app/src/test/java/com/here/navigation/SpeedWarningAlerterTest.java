@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.navigation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpeedWarningAlerterTest {
+
+    // 50 km/h.
+    private static final double SPEED_LIMIT = 13.9;
+
+    private long now;
+    private int playCount;
+    private Double speedLimit;
+    private boolean isExceeded;
+    private SpeedWarningAlerter alerter;
+
+    @Before
+    public void setUp() {
+        now = 0;
+        playCount = 0;
+        isExceeded = false;
+        // The navigator warns 2 m/s above speed limits below 25 m/s and 4 m/s above higher ones.
+        // Speeding ends 2 m/s below that threshold and the alert is played at most once per 30 s.
+        alerter = new SpeedWarningAlerter(() -> now, () -> playCount++, 2, 4, 25, 2, 30 * 1000);
+        setSpeedLimit(SPEED_LIMIT);
+    }
+
+    private void setSpeedLimit(Double speedLimit) {
+        this.speedLimit = speedLimit;
+        alerter.setSpeedLimit(speedLimit);
+    }
+
+    // Feeds one speed per second together with the speed warning status changes of the navigator
+    // and returns the number of played alerts.
+    private int drive(double... speeds) {
+        int alerts = 0;
+        for (double speed : speeds) {
+            now += 1000;
+            alerter.onSpeedUpdated(speed);
+            boolean isAboveThreshold = speedLimit != null && speedLimit > 0
+                    && speed > alerter.getThresholdInMetersPerSecond(speedLimit);
+            if (isAboveThreshold && !isExceeded) {
+                isExceeded = true;
+                if (alerter.onSpeedLimitExceeded()) {
+                    alerts++;
+                }
+            } else if (!isAboveThreshold && isExceeded) {
+                isExceeded = false;
+                alerter.onSpeedLimitRestored();
+            }
+        }
+        return alerts;
+    }
+
+    @Test
+    public void staysQuietBelowTheThreshold() {
+        assertEquals(0, drive(10, 13.9, 15, 15.9, 15.5, 14));
+
+        assertFalse(alerter.isSpeeding());
+        assertEquals(0, playCount);
+    }
+
+    @Test
+    public void oscillatingAroundTheThresholdAlertsOnce() {
+        // The navigator's status flips around 15.9 m/s, but the speed never drops back to the speed limit.
+        assertEquals(1, drive(16.2, 15.6, 16.4, 15.7, 16.1, 15.8, 16.3, 14.5, 16.0));
+
+        assertTrue(alerter.isSpeeding());
+        assertEquals(1, playCount);
+        assertEquals(1, alerter.getRaisedCount());
+        assertEquals(0, alerter.getSuppressedCount());
+    }
+
+    @Test
+    public void oscillatingAroundTheSpeedLimitIsRateLimited() {
+        // Each cycle drops back to the speed limit and exceeds the threshold again, every 4 seconds.
+        assertEquals(1, drive(
+                17, 16, 13, 12,
+                17, 16, 13, 12,
+                17, 16, 13, 12,
+                17, 16, 13, 12));
+
+        assertEquals(1, playCount);
+        assertEquals(1, alerter.getRaisedCount());
+        assertEquals(3, alerter.getSuppressedCount());
+    }
+
+    @Test
+    public void alertsAgainAfterTheWindow() {
+        assertEquals(1, drive(17, 12));
+        now += 27 * 1000;
+        // 29 s after the first alert.
+        assertEquals(0, drive(17, 12));
+        // 32 s after the first alert.
+        assertEquals(1, drive(12, 17));
+
+        assertEquals(2, playCount);
+        assertEquals(1, alerter.getSuppressedCount());
+    }
+
+    @Test
+    public void highSpeedLimitsUseTheHighOffset() {
+        // 100 km/h: The navigator warns above 31.8 m/s and speeding ends at 29.8 m/s.
+        setSpeedLimit(27.8);
+        assertEquals(0, drive(30, 31.5));
+        assertEquals(1, drive(32, 30.5, 32));
+        assertTrue(alerter.isSpeeding());
+
+        assertEquals(0, drive(29.5));
+        assertFalse(alerter.isSpeeding());
+    }
+
+    @Test
+    public void unknownSpeedLimitEndsSpeedingWhenRestored() {
+        assertEquals(1, drive(17));
+        assertTrue(alerter.isSpeeding());
+
+        setSpeedLimit(null);
+        assertEquals(0, drive(40, 40));
+        assertFalse(alerter.isSpeeding());
+
+        // No speed limit on this road.
+        setSpeedLimit(0.0);
+        assertEquals(0, drive(40));
+        assertEquals(1, playCount);
+    }
+
+    @Test
+    public void lowerSpeedLimitStartsSpeeding() {
+        assertEquals(0, drive(15, 15));
+
+        // Entering a 30 km/h zone without slowing down.
+        setSpeedLimit(8.3);
+        assertEquals(1, drive(15, 15));
+        assertEquals(1, playCount);
+    }
+
+    @Test
+    public void toStringContainsTheCounters() {
+        drive(17, 12, 17);
+
+        assertEquals("SpeedWarningAlerter{raised=1, suppressed=1}", alerter.toString());
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.sdk.examples.shared;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.here.sdk.core.LanguageCode;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// The converter is compiled from the Shared folder, see sourceSets in build.gradle.
+public class LanguageCodeConverterTest {
+
+    @Test
+    public void everyLanguageCodeRoundTrips() {
+        for (LanguageCode languageCode : LanguageCode.values()) {
+            Locale locale = LanguageCodeConverter.getLocale(languageCode);
+
+            assertNotNull(languageCode.name(), locale);
+            assertEquals(languageCode.name(), languageCode, LanguageCodeConverter.getLanguageCode(locale));
+        }
+    }
+
+    @Test
+    public void everyLanguageCodeHasItsOwnLocale() {
+        Map<Locale, LanguageCode> seen = new HashMap<>();
+        for (LanguageCode languageCode : LanguageCode.values()) {
+            LanguageCode previous = seen.put(LanguageCodeConverter.getLocale(languageCode), languageCode);
+            assertTrue(languageCode + " has the same Locale as " + previous, previous == null);
+        }
+    }
+
+    @Test
+    public void equalLocalesThatAreNotTheSameInstanceAreFound() {
+        assertEquals(LanguageCode.DE_DE, LanguageCodeConverter.getLanguageCode(new Locale("de", "DE")));
+        assertEquals(LanguageCode.FR_CA, LanguageCodeConverter.getLanguageCode(Locale.CANADA_FRENCH));
+        assertEquals(LanguageCode.TA, LanguageCodeConverter.getLanguageCode(new Locale("ta")));
+    }
+
+    @Test
+    public void scriptAndVariantAreIgnored() {
+        Locale germanWithScript = new Locale.Builder().setLanguage("de").setRegion("DE").setScript("Latn").build();
+        Locale germanWithVariant = new Locale("de", "DE", "POSIX");
+
+        assertEquals(LanguageCode.DE_DE, LanguageCodeConverter.getLanguageCode(germanWithScript));
+        assertEquals(LanguageCode.DE_DE, LanguageCodeConverter.getLanguageCode(germanWithVariant));
+    }
+
+    @Test
+    public void unsupportedCountryFallsBackToTheLanguage() {
+        assertEquals(LanguageCode.DE_DE, LanguageCodeConverter.getLanguageCode(new Locale("de", "AT")));
+        // English has several entries, the first one listed is used.
+        assertEquals(LanguageCode.EN_US, LanguageCodeConverter.getLanguageCode(new Locale("en", "AU")));
+        // An entry without country is preferred.
+        assertEquals(LanguageCode.TA, LanguageCodeConverter.getLanguageCode(new Locale("ta", "LK")));
+    }
+
+    @Test
+    public void unsupportedLanguageFallsBackToAmericanEnglish() {
+        assertEquals(LanguageCode.EN_US, LanguageCodeConverter.getLanguageCode(new Locale("xx", "YY")));
+        assertEquals(LanguageCode.EN_US, LanguageCodeConverter.getLanguageCode(Locale.ROOT));
+    }
+}
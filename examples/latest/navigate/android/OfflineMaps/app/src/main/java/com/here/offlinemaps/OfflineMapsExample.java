@@ -19,6 +19,7 @@
 
 package com.here.offlinemaps;
 
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
@@ -60,12 +61,22 @@ import com.here.sdk.search.SearchError;
 import com.here.sdk.search.SearchOptions;
 import com.here.sdk.search.TextQuery;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 public class OfflineMapsExample {
 
+    private static final String TAG = OfflineMapsExample.class.getName();
+    // The German names of the regions to download, as we request the list of regions in German below.
+    private static final List<String> REGION_NAMES_IN_GERMAN = Arrays.asList("Schweiz", "Liechtenstein");
+    private static final String REGION_DOWNLOADS_STATE_FILE_NAME = "region_downloads.state";
+    private static final int MAX_CONCURRENT_REGION_DOWNLOADS = 2;
+    private static final int MAX_REGION_DOWNLOAD_ATTEMPTS = 3;
+
     private final MapView mapView;
     @Nullable
     private MapDownloader mapDownloader;
@@ -73,7 +84,11 @@ public class OfflineMapsExample {
     private MapUpdater mapUpdater;
     private final OfflineSearchEngine offlineSearchEngine;
     private List<Region> downloadableRegions = new ArrayList<>();
-    private final List<MapDownloaderTask> mapDownloaderTasks = new ArrayList<>();
+    // Built once per catalog, so that regions can be looked up without scanning the whole list.
+    @Nullable
+    private RegionCatalogIndex<Region> regionCatalogIndex;
+    @Nullable
+    private RegionDownloadScheduler<MapLoaderError> regionDownloadScheduler;
     private final Snackbar snackbar;
 
     public OfflineMapsExample(MapView mapView) {
@@ -141,11 +156,15 @@ public class OfflineMapsExample {
             @Override
             public void onMapDownloaderConstructedCompleted(@NonNull MapDownloader mapDownloader) {
                 OfflineMapsExample.this.mapDownloader = mapDownloader;
+                regionDownloadScheduler = createRegionDownloadScheduler(mapDownloader);
 
                 // Checks the status of already downloaded map data and eventually repairs it.
                 // Important: For production-ready apps, it is recommended to not do such operations silently in
                 // the background and instead inform the user.
                 checkInstallationStatus();
+
+                // Continues a batch of region downloads that was interrupted, for example, when the app was closed.
+                resumeRegionDownloads();
             }
         });
 
@@ -157,7 +176,7 @@ public class OfflineMapsExample {
             }
         });
 
-        String info = "This example allows to download the region Switzerland.";
+        String info = "This example allows to download the regions Switzerland and Liechtenstein.";
         snackbar = Snackbar.make(mapView, info, Snackbar.LENGTH_INDEFINITE);
         snackbar.show();
     }
@@ -197,6 +216,7 @@ public class OfflineMapsExample {
 
                 // If error is null, it is guaranteed that the list will not be null.
                 downloadableRegions = list;
+                updateRegionCatalogIndex(list);
 
                 for (Region region : downloadableRegions) {
                     Log.d("RegionsCallback", region.name);
@@ -223,100 +243,180 @@ public class OfflineMapsExample {
     }
 
     public void onDownloadMapClicked() {
-        if (mapDownloader == null) {
+        if (mapDownloader == null || regionDownloadScheduler == null) {
             String message = "MapDownloader instance not ready. Try again.";
             snackbar.setText(message).show();
             return;
         }
 
-        // Find region for Switzerland using the German name as identifier.
+        // Find the regions using the German names as identifier.
         // Note that we requested the list of regions in German above.
-        String swizNameInGerman = "Schweiz";
-        Region region = findRegion(swizNameInGerman);
+        List<RegionDownloadScheduler.Region> regions = new ArrayList<>();
+        for (String regionNameInGerman : REGION_NAMES_IN_GERMAN) {
+            Region region = findRegion(regionNameInGerman);
+            if (region == null) {
+                Log.e(TAG, "Region not found: " + regionNameInGerman);
+                continue;
+            }
+            regions.add(new RegionDownloadScheduler.Region(region.regionId.id, region.sizeOnDiskInBytes));
+        }
 
-        if (region == null ) {
-            String message = "Error: The Swiz region was not found. Click 'Regions' first.";
+        if (regions.isEmpty()) {
+            String message = "Error: The regions were not found. Click 'Regions' first.";
             snackbar.setText(message).show();
             return;
         }
 
-        // For this example we only download one country.
-        List<RegionId> regionIDs = Collections.singletonList(region.regionId);
-        MapDownloaderTask mapDownloaderTask = mapDownloader.downloadRegions(regionIDs,
-                new DownloadRegionsStatusListener() {
-                    @Override
-                    public void onDownloadRegionsComplete(@Nullable MapLoaderError mapLoaderError, @Nullable List<RegionId> list) {
-                        if (mapLoaderError != null) {
-                            String message = "Download regions completion error: " + mapLoaderError;
-                            snackbar.setText(message).show();
-                            return;
+        // The scheduler runs a limited number of downloads at once, smallest region first.
+        // Regions that are already part of the batch are not downloaded twice.
+        regionDownloadScheduler.download(regions);
+    }
+
+    private RegionDownloadScheduler<MapLoaderError> createRegionDownloadScheduler(MapDownloader mapDownloader) {
+        // Each region is downloaded with its own MapDownloaderTask, so that it can be retried on its own.
+        RegionDownloadScheduler.Downloader<MapLoaderError> downloader = (downloadRegionId, downloadListener) -> {
+            List<RegionId> regionIDs = Collections.singletonList(new RegionId(downloadRegionId));
+            MapDownloaderTask mapDownloaderTask = mapDownloader.downloadRegions(regionIDs,
+                    new DownloadRegionsStatusListener() {
+                        @Override
+                        public void onDownloadRegionsComplete(@Nullable MapLoaderError mapLoaderError, @Nullable List<RegionId> list) {
+                            downloadListener.onComplete(mapLoaderError);
                         }
 
-                        // If error is null, it is guaranteed that the list will not be null.
-                        // For this example we downloaded only one hardcoded region.
-                        String message = "Completed 100% for Switzerland! ID: " + list.get(0).id;
-                        snackbar.setText(message).show();
-                    }
+                        @Override
+                        public void onProgress(@NonNull RegionId regionId, int percentage) {
+                            downloadListener.onProgress(percentage);
+                        }
 
-                    @Override
-                    public void onProgress(@NonNull RegionId regionId, int percentage) {
-                        String message = "Download for Switzerland. ID: " + regionId.id +
-                            ". Progress: " + percentage + "%.";
-                        snackbar.setText(message).show();
-                    }
+                        @Override
+                        public void onPause(@Nullable MapLoaderError mapLoaderError) {
+                            // When an error is set, the task tried too often to retry the download.
+                            downloadListener.onPause(mapLoaderError);
+                        }
 
-                    @Override
-                    public void onPause(@Nullable MapLoaderError mapLoaderError) {
-                        if (mapLoaderError == null) {
-                            String message = "The download was paused by the user calling mapDownloaderTask.pause().";
-                            snackbar.setText(message).show();
-                        } else {
-                            String message = "Download regions onPause error. The task tried to often to retry the download: " + mapLoaderError;
-                            snackbar.setText(message).show();
+                        @Override
+                        public void onResume() {
+                            downloadListener.onResume();
                         }
-                    }
+                    });
 
-                    @Override
-                    public void onResume() {
-                        String message = "A previously paused download has been resumed.";
-                        snackbar.setText(message).show();
-                    }
-                });
+            return new RegionDownloadScheduler.Task() {
+                @Override
+                public void pause() {
+                    mapDownloaderTask.pause();
+                }
 
-        mapDownloaderTasks.add(mapDownloaderTask);
-    }
+                @Override
+                public void resume() {
+                    mapDownloaderTask.resume();
+                }
 
-    // Finds a region in the downloaded region list.
-    // Note that we ignore children of children (and so on).
-    private Region findRegion(String localizedRegionName) {
-        Region downloadableRegion = null;
-        for (Region region : downloadableRegions) {
-            if (region.name.equals(localizedRegionName)) {
-                downloadableRegion = region;
-                break;
+                @Override
+                public void cancel() {
+                    mapDownloaderTask.cancel();
+                }
+            };
+        };
+
+        RegionDownloadScheduler.Listener<MapLoaderError> listener = new RegionDownloadScheduler.Listener<MapLoaderError>() {
+            @Override
+            public void onProgress(RegionDownloadScheduler.Progress progress) {
+                long downloadedInMB = progress.downloadedBytes / (1024 * 1024);
+                long totalInMB = progress.totalBytes / (1024 * 1024);
+                String message = "Downloaded " + downloadedInMB + " of " + totalInMB + " MB" +
+                        " (" + progress.completedCount + "/" + progress.regionCount + " regions)" +
+                        ", " + (long) (progress.bytesPerSecond / 1024) + " KB/s" +
+                        (progress.etaInSeconds < 0 ? "" : ", " + progress.etaInSeconds + " s left") + ".";
+                snackbar.setText(message).show();
             }
-            List<Region> childRegions = region.childRegions;
-            if (childRegions == null) {
-                continue;
+
+            @Override
+            public void onRegionFailed(String regionId, MapLoaderError mapLoaderError, boolean willRetry) {
+                Log.e(TAG, "Download of region " + regionId + " failed: " + mapLoaderError +
+                        (willRetry ? ". Retrying." : ". Giving up."));
             }
-            for (Region childRegion : childRegions) {
-                if (childRegion.name.equals(localizedRegionName)) {
-                    downloadableRegion = childRegion;
-                    break;
+
+            @Override
+            public void onBatchCompleted(RegionDownloadScheduler.Progress progress) {
+                String message = "Completed " + progress.completedCount + " of " + progress.regionCount + " regions.";
+                if (progress.failedCount > 0) {
+                    message += " " + progress.failedCount + " failed, they are retried with the next download.";
                 }
+                snackbar.setText(message).show();
+                Log.d(TAG, "Region downloads completed: " + progress + ", " + regionDownloadScheduler);
             }
+
+            @Override
+            public void onStateFileError(IOException exception) {
+                Log.e(TAG, "Writing the region download state failed: " + exception.getMessage());
+            }
+        };
+
+        File stateFile = new File(mapView.getContext().getFilesDir(), REGION_DOWNLOADS_STATE_FILE_NAME);
+        return new RegionDownloadScheduler<>(downloader, stateFile, SystemClock::elapsedRealtime, listener,
+                MAX_CONCURRENT_REGION_DOWNLOADS, MAX_REGION_DOWNLOAD_ATTEMPTS);
+    }
+
+    private void resumeRegionDownloads() {
+        if (regionDownloadScheduler == null) {
+            return;
         }
 
-        return downloadableRegion;
+        try {
+            if (regionDownloadScheduler.resumeFromStateFile()) {
+                snackbar.setText("Resuming an interrupted download of regions.").show();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Reading the region download state failed: " + e.getMessage());
+        }
     }
 
-    public void onCancelMapDownloadClicked() {
-        for (MapDownloaderTask mapDownloaderTask : mapDownloaderTasks) {
-            mapDownloaderTask.cancel();
+    // Only builds a new index when the list of downloadable regions has changed, for example, after a map update.
+    private void updateRegionCatalogIndex(List<Region> regions) {
+        String catalogVersion = getCurrentMapVersion();
+        if (regionCatalogIndex != null && regionCatalogIndex.isBuiltFrom(regions, catalogVersion)) {
+            return;
         }
-        String message = "Cancelled " + mapDownloaderTasks.size() + " download tasks in list.";
+
+        long startTime = System.nanoTime();
+        regionCatalogIndex = new RegionCatalogIndex<>(regions, catalogVersion, new RegionCatalogIndex.RegionAccessor<Region>() {
+            @Override
+            public String getId(Region region) {
+                return region.regionId.id;
+            }
+
+            @Override
+            public String getName(Region region) {
+                return region.name;
+            }
+
+            @Override
+            public long getSizeInBytes(Region region) {
+                return region.sizeOnDiskInBytes;
+            }
+
+            @Override
+            public List<Region> getChildren(Region region) {
+                return region.childRegions;
+            }
+        });
+        Log.d(TAG, "Indexed " + regionCatalogIndex.size() + " regions in "
+                + (System.nanoTime() - startTime) / 1000 + " us.");
+    }
+
+    // Finds a region in the downloaded region list, including children of children (and so on).
+    @Nullable
+    private Region findRegion(String localizedRegionName) {
+        if (regionCatalogIndex == null) {
+            return null;
+        }
+        return regionCatalogIndex.findByName(localizedRegionName);
+    }
+
+    public void onCancelMapDownloadClicked() {
+        int cancelledCount = regionDownloadScheduler == null ? 0 : regionDownloadScheduler.cancel();
+        String message = "Cancelled " + cancelledCount + " download tasks in list.";
         snackbar.setText(message).show();
-        mapDownloaderTasks.clear();
     }
 
     public void onSwitchOnlineButtonClicked() {
@@ -498,6 +598,21 @@ public class OfflineMapsExample {
         Log.d("HERE SDK version: ", BuildConfig.VERSION_NAME);
     }
 
+    // Returns null, when the MapUpdater is not ready or the version cannot be fetched.
+    @Nullable
+    private String getCurrentMapVersion() {
+        if (mapUpdater == null) {
+            return null;
+        }
+
+        try {
+            return mapUpdater.getCurrentMapVersion().stringRepresentation(",");
+        } catch (MapLoaderException e) {
+            Log.e("MapLoaderError", "Fetching current map version failed: " + e.error.toString());
+            return null;
+        }
+    }
+
     private void logCurrentMapVersion() {
         if (mapUpdater == null) {
             String message = "MapUpdater instance not ready. Try again.";
@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.offlinemaps;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+// An in-memory index of the tree of downloadable regions, for example, as returned by
+// MapDownloader.getDownloadableRegions(). It is built once and then answers lookups without scanning the tree:
+// - By ID and by exact name in O(1).
+// - By name prefix with a binary search over the sorted names, for example, for a region picker.
+// - The parent and the children of a region.
+// Unlike a nested loop over the list, the index contains regions of all levels, not only continents and countries.
+// A new list from the MapDownloader only requires a new index when the catalog has actually changed,
+// see isBuiltFrom(). The catalog version is an opaque string, for example, the installed map version.
+// The class does not depend on Android or the HERE SDK.
+public class RegionCatalogIndex<T> {
+
+    // Reads the properties of a region, for example, of a HERE SDK Region.
+    public interface RegionAccessor<T> {
+        String getId(T region);
+
+        String getName(T region);
+
+        long getSizeInBytes(T region);
+
+        // Can be null, when a region has no children.
+        List<T> getChildren(T region);
+    }
+
+    private static final class Node<T> {
+        final T region;
+        final String lowerCaseName;
+        final Node<T> parent;
+        final List<T> children = new ArrayList<>();
+
+        Node(T region, String lowerCaseName, Node<T> parent) {
+            this.region = region;
+            this.lowerCaseName = lowerCaseName;
+            this.parent = parent;
+        }
+    }
+
+    // Identifies a catalog by its version, its number of regions and a hash of its content.
+    private static final class CatalogStamp {
+        final String version;
+        final long fingerprint;
+        int regionCount = 0;
+
+        <T> CatalogStamp(List<T> rootRegions, String version, RegionAccessor<T> regionAccessor) {
+            this.version = version;
+            fingerprint = addRegions(rootRegions, regionAccessor);
+        }
+
+        // Covers the structure of the tree and the ID, name and size of each region.
+        private <T> long addRegions(List<T> regions, RegionAccessor<T> regionAccessor) {
+            long hash = 17;
+            if (regions == null) {
+                return hash;
+            }
+            regionCount += regions.size();
+            hash = hash * 31 + regions.size();
+            for (T region : regions) {
+                hash = hash * 31 + regionAccessor.getId(region).hashCode();
+                hash = hash * 31 + regionAccessor.getName(region).hashCode();
+                hash = hash * 31 + regionAccessor.getSizeInBytes(region);
+                hash = hash * 31 + addRegions(regionAccessor.getChildren(region), regionAccessor);
+            }
+            return hash;
+        }
+
+        boolean isSameCatalog(CatalogStamp other) {
+            return regionCount == other.regionCount
+                    && fingerprint == other.fingerprint
+                    && Objects.equals(version, other.version);
+        }
+    }
+
+    private static final Comparator<Node<?>> BY_LOWER_CASE_NAME = (a, b) -> a.lowerCaseName.compareTo(b.lowerCaseName);
+
+    private final RegionAccessor<T> regionAccessor;
+    private final List<T> rootRegions;
+    private final Map<String, Node<T>> nodesById = new HashMap<>();
+    private final Map<String, T> regionsByName = new HashMap<>();
+    // All nodes sorted by their lower case name, so that all names with the same prefix are next to each other.
+    private final List<Node<T>> nodesByName;
+    private final String[] sortedLowerCaseNames;
+    private final CatalogStamp catalogStamp;
+    private int duplicateIdCount = 0;
+
+    // The catalog version can be null, when it is not known.
+    public RegionCatalogIndex(List<T> rootRegions, String catalogVersion, RegionAccessor<T> regionAccessor) {
+        this.regionAccessor = regionAccessor;
+        this.rootRegions = Collections.unmodifiableList(new ArrayList<>(rootRegions));
+
+        // Walks the tree depth-first in the order of the list, so that the first region with a given name
+        // is the same one a nested loop would find first.
+        List<Node<T>> nodes = new ArrayList<>();
+        Deque<Node<T>> stack = new ArrayDeque<>();
+        for (int i = rootRegions.size() - 1; i >= 0; i--) {
+            stack.push(createNode(rootRegions.get(i), null));
+        }
+        while (!stack.isEmpty()) {
+            Node<T> node = stack.pop();
+            String id = regionAccessor.getId(node.region);
+            if (nodesById.containsKey(id)) {
+                duplicateIdCount++;
+                continue;
+            }
+            nodesById.put(id, node);
+            nodes.add(node);
+            String name = regionAccessor.getName(node.region);
+            if (!regionsByName.containsKey(name)) {
+                regionsByName.put(name, node.region);
+            }
+
+            List<T> children = regionAccessor.getChildren(node.region);
+            if (children != null) {
+                node.children.addAll(children);
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    stack.push(createNode(children.get(i), node));
+                }
+            }
+        }
+
+        Collections.sort(nodes, BY_LOWER_CASE_NAME);
+        nodesByName = nodes;
+        sortedLowerCaseNames = new String[nodesByName.size()];
+        for (int i = 0; i < sortedLowerCaseNames.length; i++) {
+            sortedLowerCaseNames[i] = nodesByName.get(i).lowerCaseName;
+        }
+        catalogStamp = new CatalogStamp(rootRegions, catalogVersion, regionAccessor);
+    }
+
+    private Node<T> createNode(T region, Node<T> parent) {
+        return new Node<>(region, toLowerCase(regionAccessor.getName(region)), parent);
+    }
+
+    // Returns true, if the given list and version describe the same catalog as this index, so the index can be kept.
+    // The version and the number of regions must match, as well as the hash of the content, so that a
+    // hash collision alone cannot keep an outdated index. This walks the tree once, but is much cheaper
+    // than building a new index.
+    public boolean isBuiltFrom(List<T> rootRegions, String catalogVersion) {
+        return catalogStamp.isSameCatalog(new CatalogStamp(rootRegions, catalogVersion, regionAccessor));
+    }
+
+    public T findById(String id) {
+        Node<T> node = nodesById.get(id);
+        return node == null ? null : node.region;
+    }
+
+    // Returns the first region with exactly this name, or null.
+    public T findByName(String name) {
+        return regionsByName.get(name);
+    }
+
+    // Returns up to maxResults regions whose name starts with the given prefix, ignoring case, sorted by name.
+    public List<T> findByNamePrefix(String prefix, int maxResults) {
+        String lowerCasePrefix = toLowerCase(prefix);
+        int index = Arrays.binarySearch(sortedLowerCaseNames, lowerCasePrefix);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        // binarySearch() finds any of several equal names, the results should start with the first one.
+        while (index > 0 && sortedLowerCaseNames[index - 1].equals(lowerCasePrefix)) {
+            index--;
+        }
+
+        List<T> results = new ArrayList<>();
+        while (index < sortedLowerCaseNames.length
+                && results.size() < maxResults
+                && sortedLowerCaseNames[index].startsWith(lowerCasePrefix)) {
+            results.add(nodesByName.get(index).region);
+            index++;
+        }
+        return results;
+    }
+
+    // Returns null for a continent or an unknown ID.
+    public T getParent(String id) {
+        Node<T> node = nodesById.get(id);
+        return node == null || node.parent == null ? null : node.parent.region;
+    }
+
+    public List<T> getChildren(String id) {
+        Node<T> node = nodesById.get(id);
+        return node == null ? Collections.<T>emptyList() : Collections.unmodifiableList(node.children);
+    }
+
+    // The regions on the path from the continent to the region with the given ID, or an empty list.
+    public List<T> getPath(String id) {
+        List<T> path = new ArrayList<>();
+        for (Node<T> node = nodesById.get(id); node != null; node = node.parent) {
+            path.add(node.region);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    public List<T> getRootRegions() {
+        return rootRegions;
+    }
+
+    public int size() {
+        return nodesById.size();
+    }
+
+    // The number of regions that were ignored, because a region with the same ID was indexed before.
+    public int getDuplicateIdCount() {
+        return duplicateIdCount;
+    }
+
+    private static String toLowerCase(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return "RegionCatalogIndex{regions=" + nodesById.size()
+                + ", duplicateIds=" + duplicateIdCount + "}";
+    }
+}
@@ -0,0 +1,594 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.offlinemaps;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Downloads a batch of regions with a limited number of concurrent downloads:
+// - Pending regions are started smallest first, so that as many regions as possible become usable early.
+// - Failed downloads are retried until the maximum number of attempts is reached.
+// - The state of each region is written to a state file, so that a batch that was interrupted,
+//   for example, by a crash, can be resumed after the next app start.
+// - The aggregated throughput in bytes/s and the estimated remaining time are reported for the
+//   whole batch. Time while the batch is paused is not counted.
+// The class does not depend on Android or the HERE SDK. All methods and callbacks are expected
+// to be called on the same thread, for example, the main thread.
+public class RegionDownloadScheduler<E> {
+
+    // A running download, for example, a HERE SDK MapDownloaderTask.
+    public interface Task {
+        void pause();
+
+        void resume();
+
+        void cancel();
+    }
+
+    public interface DownloadListener<E> {
+        void onProgress(int percentage);
+
+        // The error is null when the download was paused on request.
+        void onPause(E error);
+
+        void onResume();
+
+        // The error is null when the download has succeeded.
+        void onComplete(E error);
+    }
+
+    // Starts the download of a single region, for example, with MapDownloader.downloadRegions().
+    public interface Downloader<E> {
+        Task download(String regionId, DownloadListener<E> listener);
+    }
+
+    public interface Clock {
+        long nowInMilliseconds();
+    }
+
+    public interface Listener<E> {
+        void onProgress(Progress progress);
+
+        void onRegionFailed(String regionId, E error, boolean willRetry);
+
+        // Called once no pending or running regions are left.
+        void onBatchCompleted(Progress progress);
+
+        void onStateFileError(IOException exception);
+    }
+
+    public enum State {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+
+    public static final class Region {
+        public final String regionId;
+        public final long sizeInBytes;
+
+        public Region(String regionId, long sizeInBytes) {
+            this.regionId = regionId;
+            this.sizeInBytes = sizeInBytes;
+        }
+    }
+
+    public static final class Progress {
+        public final int regionCount;
+        public final int completedCount;
+        public final int failedCount;
+        public final long totalBytes;
+        public final long downloadedBytes;
+        public final double bytesPerSecond;
+        // -1 when no estimate is possible yet.
+        public final long etaInSeconds;
+
+        Progress(int regionCount, int completedCount, int failedCount, long totalBytes,
+                 long downloadedBytes, double bytesPerSecond, long etaInSeconds) {
+            this.regionCount = regionCount;
+            this.completedCount = completedCount;
+            this.failedCount = failedCount;
+            this.totalBytes = totalBytes;
+            this.downloadedBytes = downloadedBytes;
+            this.bytesPerSecond = bytesPerSecond;
+            this.etaInSeconds = etaInSeconds;
+        }
+
+        @Override
+        public String toString() {
+            return "Progress{completed=" + completedCount + "/" + regionCount
+                    + ", failed=" + failedCount
+                    + ", bytes=" + downloadedBytes + "/" + totalBytes
+                    + ", bytesPerSecond=" + (long) bytesPerSecond
+                    + ", etaInSeconds=" + etaInSeconds + "}";
+        }
+    }
+
+    private static final String STATE_FILE_VERSION = "1";
+    // The state file is not written for each progress callback, but only for each step of this size.
+    private static final int PERCENTAGE_STEP_TO_PERSIST = 10;
+
+    private static final class Entry {
+        final String regionId;
+        final long sizeInBytes;
+        State state = State.PENDING;
+        int percentage = 0;
+        int persistedPercentage = 0;
+        int attemptCount = 0;
+        Task task;
+        // Bytes that were already downloaded when this session started are not part of the throughput.
+        long bytesAtSessionStart = 0;
+
+        Entry(String regionId, long sizeInBytes) {
+            this.regionId = regionId;
+            this.sizeInBytes = sizeInBytes;
+        }
+
+        long getDownloadedBytes() {
+            return state == State.COMPLETED ? sizeInBytes : sizeInBytes * percentage / 100;
+        }
+    }
+
+    private final Downloader<E> downloader;
+    private final File stateFile;
+    private final Clock clock;
+    private final Listener<E> listener;
+    private final int maxConcurrentDownloads;
+    private final int maxAttempts;
+    // Keeps the order in which the regions were added.
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    private int runningCount = 0;
+    private boolean isPaused = false;
+    private boolean isStartingDownloads = false;
+    // Only time while downloads are running counts for the throughput.
+    private long activeTimeInMilliseconds = 0;
+    private long activeSinceInMilliseconds = -1;
+
+    private int startedCount = 0;
+    private int retriedCount = 0;
+    private int pauseCount = 0;
+    private int stateFileWriteCount = 0;
+
+    public RegionDownloadScheduler(Downloader<E> downloader,
+                                   File stateFile,
+                                   Clock clock,
+                                   Listener<E> listener,
+                                   int maxConcurrentDownloads,
+                                   int maxAttempts) {
+        if (maxConcurrentDownloads < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one concurrent download and one attempt are required.");
+        }
+        this.downloader = downloader;
+        this.stateFile = stateFile;
+        this.clock = clock;
+        this.listener = listener;
+        this.maxConcurrentDownloads = maxConcurrentDownloads;
+        this.maxAttempts = maxAttempts;
+    }
+
+    // Adds regions to the batch and starts downloading. Regions that are already part of an unfinished batch are
+    // not added twice, so calling this again for the same list after resuming does not download completed regions
+    // twice. Regions of the batch that failed get a new set of attempts. Once a batch is finished, the next call
+    // starts a new batch, so that its progress only covers the new regions.
+    public void download(List<Region> regions) {
+        if (!hasUnfinishedRegions()) {
+            entries.clear();
+            activeTimeInMilliseconds = 0;
+        }
+        for (Region region : regions) {
+            Entry entry = entries.get(region.regionId);
+            if (entry == null) {
+                entries.put(region.regionId, new Entry(region.regionId, region.sizeInBytes));
+            } else if (entry.state == State.FAILED) {
+                entry.state = State.PENDING;
+                entry.attemptCount = 0;
+            }
+        }
+        writeStateFile();
+        startPendingDownloads();
+    }
+
+    // Loads an interrupted batch from the state file and continues with the regions that have not completed.
+    // Regions that failed before get a new set of attempts. Returns false, if there was nothing to resume.
+    public boolean resumeFromStateFile() throws IOException {
+        if (!stateFile.exists() || runningCount > 0) {
+            return false;
+        }
+
+        List<Entry> loadedEntries = readStateFile();
+        entries.clear();
+        boolean hasUnfinishedRegions = false;
+        for (Entry entry : loadedEntries) {
+            if (entry.state != State.COMPLETED) {
+                // A region that was running when the app stopped needs to be started again.
+                entry.state = State.PENDING;
+                entry.attemptCount = 0;
+                hasUnfinishedRegions = true;
+            }
+            entry.bytesAtSessionStart = entry.getDownloadedBytes();
+            entries.put(entry.regionId, entry);
+        }
+
+        if (!hasUnfinishedRegions) {
+            entries.clear();
+            deleteStateFile();
+            return false;
+        }
+        startPendingDownloads();
+        return true;
+    }
+
+    public void pause() {
+        if (isPaused) {
+            return;
+        }
+        isPaused = true;
+        stopActiveTime();
+        for (Entry entry : entries.values()) {
+            if (entry.state == State.RUNNING) {
+                entry.task.pause();
+            }
+        }
+    }
+
+    public void resume() {
+        if (!isPaused) {
+            return;
+        }
+        isPaused = false;
+        for (Entry entry : entries.values()) {
+            if (entry.state == State.RUNNING) {
+                entry.task.resume();
+            }
+        }
+        startPendingDownloads();
+        if (runningCount > 0) {
+            startActiveTime();
+        }
+    }
+
+    // Cancels all running downloads and forgets the batch. Returns the number of cancelled downloads.
+    public int cancel() {
+        int cancelledCount = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.state == State.RUNNING) {
+                entry.task.cancel();
+                entry.task = null;
+                cancelledCount++;
+            }
+        }
+        entries.clear();
+        runningCount = 0;
+        isPaused = false;
+        stopActiveTime();
+        activeTimeInMilliseconds = 0;
+        deleteStateFile();
+        return cancelledCount;
+    }
+
+    public boolean isPaused() {
+        return isPaused;
+    }
+
+    public boolean isRunning() {
+        return runningCount > 0;
+    }
+
+    public State getState(String regionId) {
+        Entry entry = entries.get(regionId);
+        return entry == null ? null : entry.state;
+    }
+
+    public Progress getProgress() {
+        int completedCount = 0;
+        int failedCount = 0;
+        long totalBytes = 0;
+        long downloadedBytes = 0;
+        long sessionBytes = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.state == State.COMPLETED) {
+                completedCount++;
+            } else if (entry.state == State.FAILED) {
+                failedCount++;
+            }
+            totalBytes += entry.sizeInBytes;
+            long entryBytes = entry.getDownloadedBytes();
+            downloadedBytes += entryBytes;
+            sessionBytes += Math.max(0, entryBytes - entry.bytesAtSessionStart);
+        }
+
+        long activeTime = activeTimeInMilliseconds;
+        if (activeSinceInMilliseconds >= 0) {
+            activeTime += clock.nowInMilliseconds() - activeSinceInMilliseconds;
+        }
+        double bytesPerSecond = activeTime > 0 ? sessionBytes * 1000.0 / activeTime : 0;
+
+        long remainingBytes = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.state != State.FAILED) {
+                remainingBytes += entry.sizeInBytes - entry.getDownloadedBytes();
+            }
+        }
+        long etaInSeconds = -1;
+        if (remainingBytes == 0) {
+            etaInSeconds = 0;
+        } else if (bytesPerSecond > 0) {
+            etaInSeconds = (long) Math.ceil(remainingBytes / bytesPerSecond);
+        }
+
+        return new Progress(entries.size(), completedCount, failedCount,
+                totalBytes, downloadedBytes, bytesPerSecond, etaInSeconds);
+    }
+
+    private void startPendingDownloads() {
+        // A downloader that replies synchronously calls back into this method. The outer call picks up
+        // the free slot instead, so that the batch completion is only reported once.
+        if (isPaused || isStartingDownloads) {
+            return;
+        }
+
+        isStartingDownloads = true;
+        while (runningCount < maxConcurrentDownloads) {
+            Entry next = null;
+            for (Entry entry : entries.values()) {
+                if (entry.state == State.PENDING && (next == null || entry.sizeInBytes < next.sizeInBytes)) {
+                    next = entry;
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            start(next);
+        }
+        isStartingDownloads = false;
+
+        if (runningCount > 0) {
+            startActiveTime();
+        } else {
+            onIdle();
+        }
+    }
+
+    private void start(final Entry entry) {
+        entry.state = State.RUNNING;
+        entry.attemptCount++;
+        runningCount++;
+        startedCount++;
+        if (entry.attemptCount > 1) {
+            retriedCount++;
+        }
+        writeStateFile();
+
+        final Task[] task = new Task[1];
+        task[0] = downloader.download(entry.regionId, new DownloadListener<E>() {
+            @Override
+            public void onProgress(int percentage) {
+                if (entry.task != task[0] || entry.state != State.RUNNING) {
+                    // A late callback for a cancelled or replaced download.
+                    return;
+                }
+                entry.percentage = Math.max(entry.percentage, Math.min(percentage, 100));
+                if (entry.percentage - entry.persistedPercentage >= PERCENTAGE_STEP_TO_PERSIST) {
+                    writeStateFile();
+                }
+                listener.onProgress(getProgress());
+            }
+
+            @Override
+            public void onPause(E error) {
+                if (entry.task != task[0] || entry.state != State.RUNNING) {
+                    return;
+                }
+                if (error == null) {
+                    // Paused on request, the download keeps its slot.
+                    pauseCount++;
+                    return;
+                }
+                // The downloader gave up retrying on its own. The task is replaced with a new attempt.
+                if (task[0] != null) {
+                    task[0].cancel();
+                }
+                onDownloadFailed(entry, error);
+            }
+
+            @Override
+            public void onResume() {
+                // Nothing to do, the progress continues with the next onProgress() call.
+            }
+
+            @Override
+            public void onComplete(E error) {
+                if (entry.task != task[0] || entry.state != State.RUNNING) {
+                    return;
+                }
+                if (error != null) {
+                    onDownloadFailed(entry, error);
+                    return;
+                }
+                entry.task = null;
+                entry.state = State.COMPLETED;
+                entry.percentage = 100;
+                runningCount--;
+                writeStateFile();
+                listener.onProgress(getProgress());
+                startPendingDownloads();
+            }
+        });
+
+        // The downloader may have completed synchronously, for example, when the region was already installed.
+        if (entry.state == State.RUNNING && entry.task == null) {
+            entry.task = task[0];
+        }
+    }
+
+    private void onDownloadFailed(Entry entry, E error) {
+        entry.task = null;
+        runningCount--;
+        boolean willRetry = entry.attemptCount < maxAttempts;
+        entry.state = willRetry ? State.PENDING : State.FAILED;
+        writeStateFile();
+        listener.onRegionFailed(entry.regionId, error, willRetry);
+        startPendingDownloads();
+    }
+
+    private boolean hasUnfinishedRegions() {
+        for (Entry entry : entries.values()) {
+            if (entry.state == State.PENDING || entry.state == State.RUNNING) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void onIdle() {
+        stopActiveTime();
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        boolean hasFailedRegions = false;
+        for (Entry entry : entries.values()) {
+            if (entry.state == State.FAILED) {
+                hasFailedRegions = true;
+                break;
+            }
+        }
+        // The state file is kept for failed regions, so that they are retried when the batch is resumed.
+        if (!hasFailedRegions) {
+            deleteStateFile();
+        }
+        listener.onBatchCompleted(getProgress());
+    }
+
+    private void startActiveTime() {
+        if (activeSinceInMilliseconds < 0 && !isPaused) {
+            activeSinceInMilliseconds = clock.nowInMilliseconds();
+        }
+    }
+
+    private void stopActiveTime() {
+        if (activeSinceInMilliseconds >= 0) {
+            activeTimeInMilliseconds += clock.nowInMilliseconds() - activeSinceInMilliseconds;
+            activeSinceInMilliseconds = -1;
+        }
+    }
+
+    // One line per region: ID, size, state, percentage and attempts separated by tabs.
+    // The file is written to a temporary file first and then renamed, so that a crash while
+    // writing never leaves a truncated state file behind.
+    private void writeStateFile() {
+        File temporaryFile = new File(stateFile.getPath() + ".tmp");
+        try {
+            try (Writer writer = new OutputStreamWriter(
+                    new FileOutputStream(temporaryFile), StandardCharsets.UTF_8)) {
+                writer.write(STATE_FILE_VERSION + "\n");
+                for (Entry entry : entries.values()) {
+                    writer.write(entry.regionId + "\t" + entry.sizeInBytes + "\t" + entry.state.name()
+                            + "\t" + entry.percentage + "\t" + entry.attemptCount + "\n");
+                }
+            }
+            if (!temporaryFile.renameTo(stateFile)) {
+                throw new IOException("Cannot rename " + temporaryFile + " to " + stateFile);
+            }
+            stateFileWriteCount++;
+            for (Entry entry : entries.values()) {
+                entry.persistedPercentage = entry.percentage;
+            }
+        } catch (IOException e) {
+            listener.onStateFileError(e);
+        }
+    }
+
+    private List<Entry> readStateFile() throws IOException {
+        List<Entry> loadedEntries = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(stateFile), StandardCharsets.UTF_8))) {
+            String version = reader.readLine();
+            if (!STATE_FILE_VERSION.equals(version)) {
+                throw new IOException("Unsupported state file version: " + version);
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] fields = line.split("\t");
+                if (fields.length != 5) {
+                    throw new IOException("Malformed state file line: " + line);
+                }
+                try {
+                    Entry entry = new Entry(fields[0], Long.parseLong(fields[1]));
+                    entry.state = State.valueOf(fields[2]);
+                    entry.percentage = Integer.parseInt(fields[3]);
+                    entry.persistedPercentage = entry.percentage;
+                    entry.attemptCount = Integer.parseInt(fields[4]);
+                    loadedEntries.add(entry);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Malformed state file line: " + line, e);
+                }
+            }
+        }
+        return Collections.unmodifiableList(loadedEntries);
+    }
+
+    private void deleteStateFile() {
+        if (stateFile.exists() && !stateFile.delete()) {
+            listener.onStateFileError(new IOException("Cannot delete " + stateFile));
+        }
+    }
+
+    // The number of downloads that were started, including retries.
+    public int getStartedCount() {
+        return startedCount;
+    }
+
+    // The number of downloads that were started again after a failure.
+    public int getRetriedCount() {
+        return retriedCount;
+    }
+
+    // The number of times a running download reported that it was paused on request.
+    public int getPauseCount() {
+        return pauseCount;
+    }
+
+    public int getStateFileWriteCount() {
+        return stateFileWriteCount;
+    }
+
+    @Override
+    public String toString() {
+        return "RegionDownloadScheduler{started=" + startedCount
+                + ", retried=" + retriedCount
+                + ", paused=" + pauseCount
+                + ", stateFileWrites=" + stateFileWriteCount + "}";
+    }
+}
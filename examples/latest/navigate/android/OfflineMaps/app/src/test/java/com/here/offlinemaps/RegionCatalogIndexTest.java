@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.offlinemaps;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RegionCatalogIndexTest {
+
+    private static class TestRegion {
+        final String id;
+        final String name;
+        long sizeInBytes;
+        final List<TestRegion> children;
+
+        TestRegion(String id, String name, TestRegion... children) {
+            this.id = id;
+            this.name = name;
+            this.sizeInBytes = id.length() * 1000L;
+            this.children = children.length == 0 ? null : new ArrayList<>(Arrays.asList(children));
+        }
+    }
+
+    private static final String VERSION = "47.47,47.47";
+
+    private static final RegionCatalogIndex.RegionAccessor<TestRegion> ACCESSOR =
+            new RegionCatalogIndex.RegionAccessor<TestRegion>() {
+                @Override
+                public String getId(TestRegion region) {
+                    return region.id;
+                }
+
+                @Override
+                public String getName(TestRegion region) {
+                    return region.name;
+                }
+
+                @Override
+                public long getSizeInBytes(TestRegion region) {
+                    return region.sizeInBytes;
+                }
+
+                @Override
+                public List<TestRegion> getChildren(TestRegion region) {
+                    return region.children;
+                }
+            };
+
+    private TestRegion bavaria;
+    private TestRegion germany;
+    private TestRegion europe;
+    private List<TestRegion> catalog;
+
+    @Before
+    public void setUp() {
+        bavaria = new TestRegion("DE-BY", "Bayern");
+        germany = new TestRegion("DE", "Deutschland", bavaria, new TestRegion("DE-BE", "Berlin"));
+        europe = new TestRegion("EU", "Europa",
+                germany,
+                new TestRegion("CH", "Schweiz"),
+                new TestRegion("AT", "Österreich"));
+        TestRegion northAmerica = new TestRegion("NA", "Nordamerika",
+                new TestRegion("US", "Vereinigte Staaten"),
+                new TestRegion("CA", "Kanada"));
+        catalog = Arrays.asList(europe, northAmerica);
+    }
+
+    @Test
+    public void indexesAllLevels() {
+        RegionCatalogIndex<TestRegion> index = new RegionCatalogIndex<>(catalog, VERSION, ACCESSOR);
+
+        assertEquals(9, index.size());
+        assertSame(bavaria, index.findById("DE-BY"));
+        assertSame(bavaria, index.findByName("Bayern"));
+        assertNull(index.findById("XX"));
+        assertNull(index.findByName("bayern"));
+    }
+
+    @Test
+    public void navigatesParentsAndChildren() {
+        RegionCatalogIndex<TestRegion> index = new RegionCatalogIndex<>(catalog, VERSION, ACCESSOR);
+
+        assertSame(germany, index.getParent("DE-BY"));
+        assertSame(europe, index.getParent("DE"));
+        assertNull(index.getParent("EU"));
+        assertEquals(germany.children, index.getChildren("DE"));
+        assertTrue(index.getChildren("CH").isEmpty());
+        assertTrue(index.getChildren("XX").isEmpty());
+        assertEquals(Arrays.asList(europe, germany, bavaria), index.getPath("DE-BY"));
+    }
+
+    @Test
+    public void findsByNamePrefixIgnoringCase() {
+        RegionCatalogIndex<TestRegion> index = new RegionCatalogIndex<>(catalog, VERSION, ACCESSOR);
+
+        assertEquals(Arrays.asList(bavaria, index.findById("DE-BE")), index.findByNamePrefix("b", 10));
+        assertEquals(Collections.singletonList(bavaria), index.findByNamePrefix("BAY", 10));
+        assertEquals(Collections.singletonList(bavaria), index.findByNamePrefix("b", 1));
+        assertEquals(Collections.singletonList(index.findById("AT")), index.findByNamePrefix("öst", 10));
+        assertTrue(index.findByNamePrefix("xyz", 10).isEmpty());
+        assertEquals(9, index.findByNamePrefix("", 100).size());
+    }
+
+    @Test
+    public void prefixResultsIncludeAllEqualNames() {
+        List<TestRegion> regions = Arrays.asList(
+                new TestRegion("1", "Georgia"),
+                new TestRegion("2", "Georgia"),
+                new TestRegion("3", "Georgia"),
+                new TestRegion("4", "Germany"));
+        RegionCatalogIndex<TestRegion> index = new RegionCatalogIndex<>(regions, VERSION, ACCESSOR);
+
+        assertEquals(3, index.findByNamePrefix("georgia", 10).size());
+        assertEquals(4, index.findByNamePrefix("ge", 10).size());
+        // The first region with a name is found, same as with a scan of the list.
+        assertSame(regions.get(0), index.findByName("Georgia"));
+    }
+
+    @Test
+    public void matchesFirstRegionOfNestedScan() {
+        TestRegion first = new TestRegion("A-1", "Luxemburg");
+        TestRegion second = new TestRegion("B", "Luxemburg");
+        List<TestRegion> regions = Arrays.asList(new TestRegion("A", "Europa", first), second);
+        RegionCatalogIndex<TestRegion> index = new RegionCatalogIndex<>(regions, VERSION, ACCESSOR);
+
+        assertSame(first, index.findByName("Luxemburg"));
+    }
+
+    @Test
+    public void ignoresDuplicateIds() {
+        List<TestRegion> regions = Arrays.asList(new TestRegion("A", "First"), new TestRegion("A", "Second"));
+        RegionCatalogIndex<TestRegion> index = new RegionCatalogIndex<>(regions, VERSION, ACCESSOR);
+
+        assertEquals(1, index.size());
+        assertEquals(1, index.getDuplicateIdCount());
+        assertSame(regions.get(0), index.findById("A"));
+        assertNull(index.findByName("Second"));
+    }
+
+    @Test
+    public void detectsCatalogChanges() {
+        RegionCatalogIndex<TestRegion> index = new RegionCatalogIndex<>(catalog, VERSION, ACCESSOR);
+        assertTrue(index.isBuiltFrom(catalog, VERSION));
+
+        // A new list with equal content does not need a new index.
+        setUp();
+        assertTrue(index.isBuiltFrom(catalog, VERSION));
+
+        bavaria.sizeInBytes++;
+        assertFalse(index.isBuiltFrom(catalog, VERSION));
+
+        setUp();
+        germany.children.add(new TestRegion("DE-HH", "Hamburg"));
+        assertFalse(index.isBuiltFrom(catalog, VERSION));
+
+        // Moving a region to another parent changes the catalog, too.
+        setUp();
+        TestRegion berlin = germany.children.remove(1);
+        europe.children.add(berlin);
+        assertFalse(index.isBuiltFrom(catalog, VERSION));
+    }
+
+    @Test
+    public void detectsNewCatalogVersion() {
+        RegionCatalogIndex<TestRegion> index = new RegionCatalogIndex<>(catalog, VERSION, ACCESSOR);
+
+        // The regions can be the same, for example, when only the map data of a region has changed.
+        assertFalse(index.isBuiltFrom(catalog, "48.48,48.48"));
+        assertFalse(index.isBuiltFrom(catalog, null));
+        assertTrue(new RegionCatalogIndex<>(catalog, null, ACCESSOR).isBuiltFrom(catalog, null));
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.offlinemaps;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RegionDownloadSchedulerTest {
+
+    private static final int MB = 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    // Keeps all started downloads, so that a test can decide how each of them proceeds.
+    private static class FakeDownloader implements RegionDownloadScheduler.Downloader<String> {
+        final List<FakeTask> tasks = new ArrayList<>();
+
+        @Override
+        public RegionDownloadScheduler.Task download(String regionId,
+                                                     RegionDownloadScheduler.DownloadListener<String> listener) {
+            FakeTask task = new FakeTask(regionId, listener);
+            tasks.add(task);
+            return task;
+        }
+
+        FakeTask running(String regionId) {
+            for (int i = tasks.size() - 1; i >= 0; i--) {
+                FakeTask task = tasks.get(i);
+                if (task.regionId.equals(regionId) && !task.isCancelled) {
+                    return task;
+                }
+            }
+            throw new AssertionError("No download for " + regionId);
+        }
+
+        List<String> startedRegionIds() {
+            List<String> regionIds = new ArrayList<>();
+            for (FakeTask task : tasks) {
+                regionIds.add(task.regionId);
+            }
+            return regionIds;
+        }
+    }
+
+    private static class FakeTask implements RegionDownloadScheduler.Task {
+        final String regionId;
+        final RegionDownloadScheduler.DownloadListener<String> listener;
+        boolean isPaused = false;
+        boolean isCancelled = false;
+
+        FakeTask(String regionId, RegionDownloadScheduler.DownloadListener<String> listener) {
+            this.regionId = regionId;
+            this.listener = listener;
+        }
+
+        @Override
+        public void pause() {
+            isPaused = true;
+            listener.onPause(null);
+        }
+
+        @Override
+        public void resume() {
+            isPaused = false;
+            listener.onResume();
+        }
+
+        @Override
+        public void cancel() {
+            isCancelled = true;
+        }
+    }
+
+    private static class FakeClock implements RegionDownloadScheduler.Clock {
+        long now = 0;
+
+        @Override
+        public long nowInMilliseconds() {
+            return now;
+        }
+    }
+
+    private static class RecordingListener implements RegionDownloadScheduler.Listener<String> {
+        final List<String> failures = new ArrayList<>();
+        RegionDownloadScheduler.Progress lastProgress;
+        RegionDownloadScheduler.Progress completedProgress;
+        int batchCompletedCount = 0;
+
+        @Override
+        public void onProgress(RegionDownloadScheduler.Progress progress) {
+            lastProgress = progress;
+        }
+
+        @Override
+        public void onRegionFailed(String regionId, String error, boolean willRetry) {
+            failures.add(regionId + ":" + error + ":" + willRetry);
+        }
+
+        @Override
+        public void onBatchCompleted(RegionDownloadScheduler.Progress progress) {
+            batchCompletedCount++;
+            completedProgress = progress;
+        }
+
+        @Override
+        public void onStateFileError(IOException exception) {
+            throw new AssertionError(exception);
+        }
+    }
+
+    private FakeDownloader downloader;
+    private FakeClock clock;
+    private RecordingListener listener;
+    private File stateFile;
+
+    @Before
+    public void setUp() throws IOException {
+        downloader = new FakeDownloader();
+        clock = new FakeClock();
+        listener = new RecordingListener();
+        stateFile = new File(temporaryFolder.getRoot(), "downloads.state");
+    }
+
+    private RegionDownloadScheduler<String> createScheduler(int maxConcurrentDownloads, int maxAttempts) {
+        return new RegionDownloadScheduler<>(downloader, stateFile, clock, listener,
+                maxConcurrentDownloads, maxAttempts);
+    }
+
+    private static List<RegionDownloadScheduler.Region> regions() {
+        return Arrays.asList(
+                new RegionDownloadScheduler.Region("DE", 300L * MB),
+                new RegionDownloadScheduler.Region("CH", 100L * MB),
+                new RegionDownloadScheduler.Region("LI", 10L * MB),
+                new RegionDownloadScheduler.Region("AT", 200L * MB));
+    }
+
+    @Test
+    public void startsSmallestRegionsFirstWithinConcurrencyLimit() {
+        RegionDownloadScheduler<String> scheduler = createScheduler(2, 1);
+        scheduler.download(regions());
+
+        assertEquals(Arrays.asList("LI", "CH"), downloader.startedRegionIds());
+
+        downloader.running("LI").listener.onComplete(null);
+        assertEquals(Arrays.asList("LI", "CH", "AT"), downloader.startedRegionIds());
+
+        downloader.running("CH").listener.onComplete(null);
+        downloader.running("AT").listener.onComplete(null);
+        downloader.running("DE").listener.onComplete(null);
+
+        assertEquals(4, scheduler.getStartedCount());
+        assertEquals(1, listener.batchCompletedCount);
+        assertEquals(4, listener.completedProgress.completedCount);
+        assertFalse(scheduler.isRunning());
+        // Nothing is left to resume.
+        assertFalse(stateFile.exists());
+    }
+
+    @Test
+    public void retriesFailedDownloadsUntilMaxAttempts() {
+        RegionDownloadScheduler<String> scheduler = createScheduler(1, 2);
+        scheduler.download(Arrays.asList(new RegionDownloadScheduler.Region("CH", 100L * MB)));
+
+        downloader.running("CH").listener.onComplete("NETWORK");
+        assertEquals(RegionDownloadScheduler.State.RUNNING, scheduler.getState("CH"));
+
+        downloader.running("CH").listener.onComplete("NETWORK");
+        assertEquals(RegionDownloadScheduler.State.FAILED, scheduler.getState("CH"));
+
+        assertEquals(Arrays.asList("CH:NETWORK:true", "CH:NETWORK:false"), listener.failures);
+        assertEquals(1, scheduler.getRetriedCount());
+        assertEquals(1, listener.completedProgress.failedCount);
+        // The failed region is kept for the next resume.
+        assertTrue(stateFile.exists());
+    }
+
+    @Test
+    public void pauseWithErrorCancelsTaskAndRetries() {
+        RegionDownloadScheduler<String> scheduler = createScheduler(1, 3);
+        scheduler.download(Arrays.asList(new RegionDownloadScheduler.Region("CH", 100L * MB)));
+
+        FakeTask firstTask = downloader.running("CH");
+        firstTask.listener.onPause("TOO_MANY_RETRIES");
+
+        assertTrue(firstTask.isCancelled);
+        assertEquals(2, downloader.tasks.size());
+        assertEquals(Arrays.asList("CH:TOO_MANY_RETRIES:true"), listener.failures);
+
+        // Late callbacks of the cancelled task are ignored.
+        firstTask.listener.onComplete(null);
+        assertEquals(RegionDownloadScheduler.State.RUNNING, scheduler.getState("CH"));
+    }
+
+    @Test
+    public void pauseKeepsSlotsAndDoesNotStartNewDownloads() {
+        RegionDownloadScheduler<String> scheduler = createScheduler(1, 1);
+        scheduler.download(regions());
+
+        scheduler.pause();
+        assertTrue(downloader.running("LI").isPaused);
+        assertEquals(1, scheduler.getPauseCount());
+
+        // A download that completes while paused does not start the next one.
+        downloader.running("LI").listener.onComplete(null);
+        assertEquals(1, downloader.tasks.size());
+
+        scheduler.resume();
+        assertEquals(Arrays.asList("LI", "CH"), downloader.startedRegionIds());
+    }
+
+    @Test
+    public void reportsThroughputAndEtaWithoutPausedTime() {
+        RegionDownloadScheduler<String> scheduler = createScheduler(2, 1);
+        scheduler.download(Arrays.asList(
+                new RegionDownloadScheduler.Region("A", 100L * MB),
+                new RegionDownloadScheduler.Region("B", 100L * MB)));
+
+        clock.now = 10000;
+        downloader.running("A").listener.onProgress(50);
+        // 50 MB in 10 s, 150 MB remaining.
+        assertEquals(5.0 * MB, listener.lastProgress.bytesPerSecond, 1);
+        assertEquals(30, listener.lastProgress.etaInSeconds);
+
+        scheduler.pause();
+        clock.now = 100000;
+        scheduler.resume();
+
+        clock.now = 110000;
+        downloader.running("B").listener.onProgress(50);
+        // 100 MB in 20 s of active time.
+        assertEquals(5.0 * MB, listener.lastProgress.bytesPerSecond, 1);
+        assertEquals(20, listener.lastProgress.etaInSeconds);
+        assertEquals(100L * MB, listener.lastProgress.downloadedBytes);
+    }
+
+    @Test
+    public void resumesInterruptedBatchFromStateFile() throws IOException {
+        RegionDownloadScheduler<String> scheduler = createScheduler(2, 1);
+        scheduler.download(regions());
+        downloader.running("LI").listener.onComplete(null);
+        downloader.running("CH").listener.onProgress(40);
+        assertTrue(stateFile.exists());
+
+        // Simulate a crash: a new scheduler and downloader after the next app start.
+        downloader = new FakeDownloader();
+        RegionDownloadScheduler<String> resumedScheduler = createScheduler(2, 1);
+        assertTrue(resumedScheduler.resumeFromStateFile());
+
+        assertEquals(RegionDownloadScheduler.State.COMPLETED, resumedScheduler.getState("LI"));
+        // CH was running and starts again, the completed region is not downloaded twice.
+        assertEquals(Arrays.asList("CH", "AT"), downloader.startedRegionIds());
+
+        // Adding the same batch again does not add anything.
+        resumedScheduler.download(regions());
+        assertEquals(2, downloader.tasks.size());
+
+        RegionDownloadScheduler.Progress progress = resumedScheduler.getProgress();
+        assertEquals(4, progress.regionCount);
+        assertEquals(10L * MB + 40L * MB, progress.downloadedBytes);
+        // Bytes from the previous session are not counted as throughput.
+        clock.now = 1000;
+        assertEquals(0, resumedScheduler.getProgress().bytesPerSecond, 0);
+    }
+
+    @Test
+    public void failedRegionsAreRetriedWithTheNextDownload() {
+        RegionDownloadScheduler<String> scheduler = createScheduler(1, 1);
+        scheduler.download(Arrays.asList(
+                new RegionDownloadScheduler.Region("LI", 10L * MB),
+                new RegionDownloadScheduler.Region("CH", 100L * MB)));
+        downloader.running("LI").listener.onComplete(null);
+        downloader.running("CH").listener.onComplete("NETWORK");
+        assertEquals(RegionDownloadScheduler.State.FAILED, scheduler.getState("CH"));
+        assertEquals(1, listener.batchCompletedCount);
+
+        scheduler.download(Arrays.asList(new RegionDownloadScheduler.Region("CH", 100L * MB)));
+
+        assertEquals(Arrays.asList("LI", "CH", "CH"), downloader.startedRegionIds());
+        assertEquals(RegionDownloadScheduler.State.RUNNING, scheduler.getState("CH"));
+        // The finished batch was replaced by the new one.
+        assertNull(scheduler.getState("LI"));
+        downloader.running("CH").listener.onComplete(null);
+        assertEquals(2, listener.batchCompletedCount);
+        assertEquals(1, listener.completedProgress.regionCount);
+        assertEquals(0, listener.completedProgress.failedCount);
+        assertFalse(stateFile.exists());
+    }
+
+    @Test
+    public void completedRegionsAreDownloadedAgainInANewBatch() {
+        RegionDownloadScheduler<String> scheduler = createScheduler(1, 1);
+        scheduler.download(Arrays.asList(new RegionDownloadScheduler.Region("LI", 10L * MB)));
+        downloader.running("LI").listener.onComplete(null);
+
+        scheduler.download(Arrays.asList(new RegionDownloadScheduler.Region("LI", 10L * MB)));
+
+        assertEquals(Arrays.asList("LI", "LI"), downloader.startedRegionIds());
+        assertEquals(RegionDownloadScheduler.State.RUNNING, scheduler.getState("LI"));
+    }
+
+    @Test
+    public void regionThatFailedWithinARunningBatchGetsNewAttempts() {
+        RegionDownloadScheduler<String> scheduler = createScheduler(1, 1);
+        scheduler.download(Arrays.asList(
+                new RegionDownloadScheduler.Region("LI", 10L * MB),
+                new RegionDownloadScheduler.Region("CH", 100L * MB)));
+        downloader.running("LI").listener.onComplete("NETWORK");
+        assertEquals(RegionDownloadScheduler.State.FAILED, scheduler.getState("LI"));
+
+        scheduler.download(Arrays.asList(new RegionDownloadScheduler.Region("LI", 10L * MB)));
+        assertEquals(RegionDownloadScheduler.State.PENDING, scheduler.getState("LI"));
+
+        downloader.running("CH").listener.onComplete(null);
+        assertEquals(Arrays.asList("LI", "CH", "LI"), downloader.startedRegionIds());
+        downloader.running("LI").listener.onComplete(null);
+        assertEquals(2, listener.completedProgress.completedCount);
+        assertEquals(0, listener.completedProgress.failedCount);
+    }
+
+    @Test
+    public void nothingToResumeWithoutStateFile() throws IOException {
+        RegionDownloadScheduler<String> scheduler = createScheduler(2, 1);
+        assertFalse(scheduler.resumeFromStateFile());
+        assertTrue(downloader.tasks.isEmpty());
+    }
+
+    @Test
+    public void cancelStopsDownloadsAndDeletesStateFile() {
+        RegionDownloadScheduler<String> scheduler = createScheduler(3, 1);
+        scheduler.download(regions());
+
+        assertEquals(3, scheduler.cancel());
+        for (FakeTask task : downloader.tasks) {
+            assertTrue(task.isCancelled);
+        }
+        assertFalse(stateFile.exists());
+        assertFalse(scheduler.isRunning());
+    }
+
+    @Test
+    public void handlesSynchronousCompletion() {
+        RegionDownloadScheduler<String> scheduler = new RegionDownloadScheduler<>(
+                (regionId, downloadListener) -> {
+                    downloadListener.onComplete(null);
+                    return new FakeTask(regionId, downloadListener);
+                }, stateFile, clock, listener, 2, 1);
+        scheduler.download(regions());
+
+        assertEquals(1, listener.batchCompletedCount);
+        assertEquals(4, listener.completedProgress.completedCount);
+        assertFalse(scheduler.isRunning());
+    }
+}
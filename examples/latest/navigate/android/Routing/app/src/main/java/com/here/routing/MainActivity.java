@@ -116,6 +116,10 @@ public class MainActivity extends AppCompatActivity {
         routingExample.addWaypoints();
     }
 
+    public void refreshTrafficButtonClicked(View view) {
+        routingExample.refreshTrafficOnRoute();
+    }
+
     public void clearMapButtonClicked(View view) {
         routingExample.clearMap();
     }
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.routing;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+
+// Keeps the rendered traffic segments of a route in sync with the latest traffic information.
+// An update only adds the segments that are new and removes the segments that are gone,
+// segments that did not change stay on the map. The handle type H is, for example, a MapPolyline.
+public class TrafficOverlay<T, H> {
+
+    public interface Renderer<T, H> {
+        // Returns null, if the segment could not be rendered.
+        H add(TrafficSpanMerger.Segment<T> segment);
+
+        void remove(H handle);
+    }
+
+    private final Renderer<T, H> renderer;
+    private LinkedHashMap<TrafficSpanMerger.Segment<T>, H> renderedSegments = new LinkedHashMap<>();
+
+    private int lastAddedCount = 0;
+    private int lastRemovedCount = 0;
+    private int lastKeptCount = 0;
+
+    public TrafficOverlay(Renderer<T, H> renderer) {
+        this.renderer = renderer;
+    }
+
+    public void update(List<TrafficSpanMerger.Segment<T>> segments) {
+        LinkedHashMap<TrafficSpanMerger.Segment<T>, H> updatedSegments = new LinkedHashMap<>();
+        int addedCount = 0;
+        int keptCount = 0;
+
+        for (TrafficSpanMerger.Segment<T> segment : segments) {
+            if (updatedSegments.containsKey(segment)) {
+                // The same geometry with the same severity is already drawn.
+                continue;
+            }
+            H handle = renderedSegments.remove(segment);
+            if (handle != null) {
+                keptCount++;
+            } else {
+                handle = renderer.add(segment);
+                if (handle == null) {
+                    continue;
+                }
+                addedCount++;
+            }
+            updatedSegments.put(segment, handle);
+        }
+
+        // Whatever is left was not part of the update.
+        for (H handle : renderedSegments.values()) {
+            renderer.remove(handle);
+        }
+
+        lastRemovedCount = renderedSegments.size();
+        lastAddedCount = addedCount;
+        lastKeptCount = keptCount;
+        renderedSegments = updatedSegments;
+    }
+
+    public void clear() {
+        for (H handle : renderedSegments.values()) {
+            renderer.remove(handle);
+        }
+        lastRemovedCount = renderedSegments.size();
+        lastAddedCount = 0;
+        lastKeptCount = 0;
+        renderedSegments.clear();
+    }
+
+    public int size() {
+        return renderedSegments.size();
+    }
+
+    public int getLastAddedCount() {
+        return lastAddedCount;
+    }
+
+    public int getLastRemovedCount() {
+        return lastRemovedCount;
+    }
+
+    public int getLastKeptCount() {
+        return lastKeptCount;
+    }
+}
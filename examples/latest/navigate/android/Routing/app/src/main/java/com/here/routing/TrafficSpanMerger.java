@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.routing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Merges adjacent route spans with the same traffic severity into a single segment,
+// so that one polyline can be drawn per segment instead of one polyline per span.
+// Spans are adjacent, when the last vertex of a span equals the first vertex of the next span.
+// The class does not depend on the HERE SDK, the vertices can be of any type, for example, GeoCoordinates.
+public class TrafficSpanMerger<T> {
+
+    // Severity buckets, see RoutingExample.getTrafficColor() for the jam factor ranges.
+    public static final int SEVERITY_NONE = 0;
+    public static final int SEVERITY_MODERATE = 1;
+    public static final int SEVERITY_SEVERE = 2;
+    public static final int SEVERITY_BLOCKED = 3;
+
+    // A merged segment. Two segments are equal, when they have the same severity and geometry.
+    public static final class Segment<T> {
+        public final int severity;
+        public final List<T> vertices;
+        private final int hashCode;
+
+        Segment(int severity, List<T> vertices) {
+            this.severity = severity;
+            this.vertices = Collections.unmodifiableList(vertices);
+            this.hashCode = 31 * severity + vertices.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Segment)) {
+                return false;
+            }
+            Segment<?> segment = (Segment<?>) other;
+            return severity == segment.severity
+                    && hashCode == segment.hashCode
+                    && vertices.equals(segment.vertices);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private final List<Segment<T>> segments = new ArrayList<>();
+    private int currentSeverity = SEVERITY_NONE;
+    private List<T> currentVertices;
+    private int spanCount = 0;
+
+    public static int getSeverity(Double jamFactor) {
+        if (jamFactor == null || jamFactor < 4) {
+            return SEVERITY_NONE;
+        } else if (jamFactor < 8) {
+            return SEVERITY_MODERATE;
+        } else if (jamFactor < 10) {
+            return SEVERITY_SEVERE;
+        }
+        return SEVERITY_BLOCKED;
+    }
+
+    // Add the spans in the order they appear along the route. Spans with SEVERITY_NONE are not drawn.
+    public void addSpan(int severity, List<T> vertices) {
+        spanCount++;
+        if (severity == SEVERITY_NONE || vertices.size() < 2) {
+            finishSegment();
+            return;
+        }
+
+        if (currentVertices != null
+                && severity == currentSeverity
+                && currentVertices.get(currentVertices.size() - 1).equals(vertices.get(0))) {
+            // Skip the first vertex, it is shared with the previous span.
+            currentVertices.addAll(vertices.subList(1, vertices.size()));
+            return;
+        }
+
+        finishSegment();
+        currentSeverity = severity;
+        currentVertices = new ArrayList<>(vertices);
+    }
+
+    public List<Segment<T>> getSegments() {
+        finishSegment();
+        return new ArrayList<>(segments);
+    }
+
+    public int getSpanCount() {
+        return spanCount;
+    }
+
+    private void finishSegment() {
+        if (currentVertices != null) {
+            segments.add(new Segment<>(currentSeverity, currentVertices));
+            currentVertices = null;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.routing;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TrafficSpanMergerTest {
+
+    private static final int SPAN_COUNT = 1000;
+    private static final int VERTICES_PER_SPAN = 5;
+
+    // Jam factors that repeat every 10 spans: 4 spans without traffic, 3 moderate, 2 severe, 1 blocked.
+    private static final double[] JAM_FACTOR_PATTERN = {1, 2, 3, 0, 4, 5, 7.5, 8, 9.9, 10};
+
+    private static class FakeRenderer implements TrafficOverlay.Renderer<Integer, String> {
+        final List<String> polylines = new ArrayList<>();
+        int addCount = 0;
+        int removeCount = 0;
+
+        @Override
+        public String add(TrafficSpanMerger.Segment<Integer> segment) {
+            addCount++;
+            String polyline = "polyline-" + addCount;
+            polylines.add(polyline);
+            return polyline;
+        }
+
+        @Override
+        public void remove(String polyline) {
+            removeCount++;
+            polylines.remove(polyline);
+        }
+    }
+
+    @Test
+    public void severityBuckets() {
+        assertEquals(TrafficSpanMerger.SEVERITY_NONE, TrafficSpanMerger.getSeverity(null));
+        assertEquals(TrafficSpanMerger.SEVERITY_NONE, TrafficSpanMerger.getSeverity(3.99));
+        assertEquals(TrafficSpanMerger.SEVERITY_MODERATE, TrafficSpanMerger.getSeverity(4.0));
+        assertEquals(TrafficSpanMerger.SEVERITY_MODERATE, TrafficSpanMerger.getSeverity(7.99));
+        assertEquals(TrafficSpanMerger.SEVERITY_SEVERE, TrafficSpanMerger.getSeverity(8.0));
+        assertEquals(TrafficSpanMerger.SEVERITY_SEVERE, TrafficSpanMerger.getSeverity(9.99));
+        assertEquals(TrafficSpanMerger.SEVERITY_BLOCKED, TrafficSpanMerger.getSeverity(10.0));
+    }
+
+    @Test
+    public void syntheticRouteWithThousandSpans() {
+        double[] jamFactors = new double[SPAN_COUNT];
+        for (int i = 0; i < SPAN_COUNT; i++) {
+            jamFactors[i] = JAM_FACTOR_PATTERN[i % JAM_FACTOR_PATTERN.length];
+        }
+        List<TrafficSpanMerger.Segment<Integer>> segments = merge(jamFactors);
+
+        // Before, one polyline was drawn per span: 600 spans have a jam factor of 4 or more.
+        // Merged, each block of 10 spans results in 3 segments: moderate, severe and blocked.
+        assertEquals(300, segments.size());
+
+        FakeRenderer renderer = new FakeRenderer();
+        TrafficOverlay<Integer, String> trafficOverlay = new TrafficOverlay<>(renderer);
+        trafficOverlay.update(segments);
+        assertEquals(300, renderer.polylines.size());
+
+        // The first moderate segment spans 3 spans, the shared vertices are not duplicated.
+        TrafficSpanMerger.Segment<Integer> moderateSegment = segments.get(0);
+        assertEquals(TrafficSpanMerger.SEVERITY_MODERATE, moderateSegment.severity);
+        assertEquals(3 * (VERTICES_PER_SPAN - 1) + 1, moderateSegment.vertices.size());
+        assertEquals(Integer.valueOf(4 * (VERTICES_PER_SPAN - 1)), moderateSegment.vertices.get(0));
+    }
+
+    @Test
+    public void uniformTrafficIsMergedIntoSingleSegment() {
+        double[] jamFactors = new double[SPAN_COUNT];
+        Arrays.fill(jamFactors, 6);
+        List<TrafficSpanMerger.Segment<Integer>> segments = merge(jamFactors);
+
+        assertEquals(1, segments.size());
+        assertEquals(SPAN_COUNT * (VERTICES_PER_SPAN - 1) + 1, segments.get(0).vertices.size());
+    }
+
+    @Test
+    public void spansWithGapAreNotMerged() {
+        TrafficSpanMerger<Integer> trafficSpanMerger = new TrafficSpanMerger<>();
+        trafficSpanMerger.addSpan(TrafficSpanMerger.SEVERITY_SEVERE, Arrays.asList(0, 1));
+        // Does not start where the previous span ended.
+        trafficSpanMerger.addSpan(TrafficSpanMerger.SEVERITY_SEVERE, Arrays.asList(2, 3));
+        trafficSpanMerger.addSpan(TrafficSpanMerger.SEVERITY_SEVERE, Arrays.asList(3, 4));
+
+        List<TrafficSpanMerger.Segment<Integer>> segments = trafficSpanMerger.getSegments();
+        assertEquals(2, segments.size());
+        assertEquals(Arrays.asList(2, 3, 4), segments.get(1).vertices);
+    }
+
+    @Test
+    public void updateOnlyTouchesChangedSegments() {
+        double[] jamFactors = new double[SPAN_COUNT];
+        for (int i = 0; i < SPAN_COUNT; i++) {
+            jamFactors[i] = JAM_FACTOR_PATTERN[i % JAM_FACTOR_PATTERN.length];
+        }
+        FakeRenderer renderer = new FakeRenderer();
+        TrafficOverlay<Integer, String> trafficOverlay = new TrafficOverlay<>(renderer);
+        trafficOverlay.update(merge(jamFactors));
+        assertEquals(300, renderer.addCount);
+
+        // Same traffic again: nothing to do.
+        trafficOverlay.update(merge(jamFactors));
+        assertEquals(300, renderer.addCount);
+        assertEquals(0, renderer.removeCount);
+        assertEquals(300, trafficOverlay.getLastKeptCount());
+
+        // The jam in the first block clears up: moderate, severe and blocked segments are gone.
+        for (int i = 4; i < 10; i++) {
+            jamFactors[i] = 1;
+        }
+        // In the second block, the blocked span becomes severe: severe and blocked are replaced by one segment.
+        jamFactors[19] = 9;
+        trafficOverlay.update(merge(jamFactors));
+
+        assertEquals(1, trafficOverlay.getLastAddedCount());
+        assertEquals(5, trafficOverlay.getLastRemovedCount());
+        assertEquals(295, trafficOverlay.getLastKeptCount());
+        assertEquals(296, renderer.polylines.size());
+        assertEquals(296, trafficOverlay.size());
+
+        trafficOverlay.clear();
+        assertEquals(0, renderer.polylines.size());
+    }
+
+    @Test
+    public void failedSegmentsAreNotTracked() {
+        TrafficOverlay<Integer, String> trafficOverlay = new TrafficOverlay<>(
+                new TrafficOverlay.Renderer<Integer, String>() {
+                    @Override
+                    public String add(TrafficSpanMerger.Segment<Integer> segment) {
+                        return null;
+                    }
+
+                    @Override
+                    public void remove(String handle) {
+                        assertNull("Nothing was rendered.", handle);
+                    }
+                });
+        trafficOverlay.update(merge(new double[]{5, 5, 9}));
+
+        assertEquals(0, trafficOverlay.size());
+        assertEquals(0, trafficOverlay.getLastAddedCount());
+    }
+
+    // Creates a connected route: each span shares its first vertex with the last vertex of the previous span.
+    private static List<TrafficSpanMerger.Segment<Integer>> merge(double[] jamFactors) {
+        TrafficSpanMerger<Integer> trafficSpanMerger = new TrafficSpanMerger<>();
+        for (int i = 0; i < jamFactors.length; i++) {
+            List<Integer> vertices = new ArrayList<>();
+            for (int j = 0; j < VERTICES_PER_SPAN; j++) {
+                vertices.add(i * (VERTICES_PER_SPAN - 1) + j);
+            }
+            trafficSpanMerger.addSpan(TrafficSpanMerger.getSeverity(jamFactors[i]), vertices);
+        }
+        assertEquals(jamFactors.length, trafficSpanMerger.getSpanCount());
+        return trafficSpanMerger.getSegments();
+    }
+}
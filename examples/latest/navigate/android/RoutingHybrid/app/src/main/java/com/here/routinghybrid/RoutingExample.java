@@ -31,6 +31,8 @@ import com.here.sdk.core.GeoCoordinates;
 import com.here.sdk.core.GeoPolyline;
 import com.here.sdk.core.Point2D;
 import com.here.sdk.core.errors.InstantiationErrorException;
+import com.here.sdk.examples.shared.HEREWaypointAccessor;
+import com.here.sdk.examples.shared.RouteCache;
 import com.here.sdk.mapview.MapCamera;
 import com.here.sdk.mapview.MapImage;
 import com.here.sdk.mapview.MapImageFactory;
@@ -38,7 +40,6 @@ import com.here.sdk.mapview.MapMarker;
 import com.here.sdk.mapview.MapMeasure;
 import com.here.sdk.mapview.MapPolyline;
 import com.here.sdk.mapview.MapView;
-import com.here.sdk.routing.CalculateRouteCallback;
 import com.here.sdk.routing.CarOptions;
 import com.here.sdk.routing.Maneuver;
 import com.here.sdk.routing.ManeuverAction;
@@ -59,14 +60,20 @@ import java.util.Locale;
 public class RoutingExample {
 
     private static final String TAG = RoutingExample.class.getName();
+    private static final int ROUTE_CACHE_MAX_ENTRIES = 16;
+    // Routes of the online engine consider the current traffic, so they become outdated sooner.
+    private static final long ONLINE_ROUTE_TIME_TO_LIVE_IN_MILLISECONDS = 5 * 60 * 1000;
+    private static final long OFFLINE_ROUTE_TIME_TO_LIVE_IN_MILLISECONDS = 60 * 60 * 1000;
 
     private final Context context;
     private final MapView mapView;
     private final List<MapMarker> mapMarkerList = new ArrayList<>();
     private final List<MapPolyline> mapPolylines = new ArrayList<>();
-    private RoutingInterface routingEngine;
+    private RouteCache<Waypoint, CarOptions, List<Route>, RoutingError> routeCache;
     private final RoutingEngine onlineRoutingEngine;
     private final OfflineRoutingEngine offlineRoutingEngine;
+    private final RouteCache<Waypoint, CarOptions, List<Route>, RoutingError> onlineRouteCache;
+    private final RouteCache<Waypoint, CarOptions, List<Route>, RoutingError> offlineRouteCache;
     private GeoCoordinates startGeoCoordinates;
     private GeoCoordinates destinationGeoCoordinates;
     private boolean isDeviceConnected = true;
@@ -96,6 +103,21 @@ public class RoutingExample {
         } catch (InstantiationErrorException e) {
             throw new RuntimeException("Initialization of OfflineRoutingEngine failed: " + e.error.name());
         }
+
+        // Both engines implement the RoutingInterface, so both are wrapped the same way.
+        onlineRouteCache = createRouteCache(onlineRoutingEngine, ONLINE_ROUTE_TIME_TO_LIVE_IN_MILLISECONDS);
+        offlineRouteCache = createRouteCache(offlineRoutingEngine, OFFLINE_ROUTE_TIME_TO_LIVE_IN_MILLISECONDS);
+    }
+
+    // Requests with the same quantized waypoints and options are answered from the cache.
+    private RouteCache<Waypoint, CarOptions, List<Route>, RoutingError> createRouteCache(
+            RoutingInterface routingInterface, long timeToLiveInMilliseconds) {
+        return new RouteCache<>(
+                (waypoints, carOptions, callback) ->
+                        routingInterface.calculateRoute(waypoints, carOptions, callback::onRouteCalculated),
+                new HEREWaypointAccessor(),
+                ROUTE_CACHE_MAX_ENTRIES,
+                timeToLiveInMilliseconds);
     }
 
     // Calculates a route with two waypoints (start / destination).
@@ -110,10 +132,10 @@ public class RoutingExample {
         List<Waypoint> waypoints =
                 new ArrayList<>(Arrays.asList(startWaypoint, destinationWaypoint));
 
-        routingEngine.calculateRoute(
+        routeCache.calculateRoute(
                 waypoints,
                 new CarOptions(),
-                new CalculateRouteCallback() {
+                new RouteCache.Callback<List<Route>, RoutingError>() {
                     @Override
                     public void onRouteCalculated(@Nullable RoutingError routingError, @Nullable List<Route> routes) {
                         if (routingError == null) {
@@ -219,10 +241,10 @@ public class RoutingExample {
         List<Waypoint> waypoints = new ArrayList<>(Arrays.asList(new Waypoint(startGeoCoordinates),
                 waypoint1, waypoint2, new Waypoint(destinationGeoCoordinates)));
 
-        routingEngine.calculateRoute(
+        routeCache.calculateRoute(
                 waypoints,
                 new CarOptions(),
-                new CalculateRouteCallback() {
+                new RouteCache.Callback<List<Route>, RoutingError>() {
                     @Override
                     public void onRouteCalculated(@Nullable RoutingError routingError, @Nullable List<Route> routes) {
                         if (routingError == null) {
@@ -285,12 +307,12 @@ public class RoutingExample {
     }
 
     // Sets the OfflineRoutingEngine as main engine when the device is not connected, otherwise this will set the
-    // RoutingEngine that requires connectivity.
+    // RoutingEngine that requires connectivity. Each engine has its own cache, as their results differ.
     private void setRoutingEngine() {
         if (isDeviceConnected()) {
-            routingEngine = onlineRoutingEngine;
+            routeCache = onlineRouteCache;
         } else {
-            routingEngine = offlineRoutingEngine;
+            routeCache = offlineRouteCache;
         }
     }
 
@@ -0,0 +1,312 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.sdk.examples.shared;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class RouteCacheTest {
+
+    // A waypoint is {latitude, longitude} or {latitude, longitude, heading, type}.
+    private static final RouteCache.WaypointAccessor<double[]> LAT_LON =
+            new RouteCache.WaypointAccessor<double[]>() {
+                @Override
+                public double getLatitude(double[] waypoint) {
+                    return waypoint[0];
+                }
+
+                @Override
+                public double getLongitude(double[] waypoint) {
+                    return waypoint[1];
+                }
+
+                @Override
+                public Double getHeadingInDegrees(double[] waypoint) {
+                    return waypoint.length > 2 ? waypoint[2] : null;
+                }
+
+                @Override
+                public Object getType(double[] waypoint) {
+                    return waypoint.length > 3 ? (int) waypoint[3] : 0;
+                }
+            };
+
+    private static final long TIME_TO_LIVE = 60000;
+
+    private static class CarOptions {
+        int speedInKmh = 130;
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof CarOptions && ((CarOptions) other).speedInKmh == speedInKmh;
+        }
+
+        @Override
+        public int hashCode() {
+            return speedInKmh;
+        }
+    }
+
+    private static class TruckOptions extends CarOptions {
+    }
+
+    // Equal by its name, but all instances share one hash code.
+    private static class CollidingOptions {
+        final String name;
+
+        CollidingOptions(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof CollidingOptions && ((CollidingOptions) other).name.equals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 1;
+        }
+    }
+
+    // Counts invocations. Replies are either sent right away or held back until reply() is called.
+    private static class StubEngine implements RouteCache.Engine<double[], Object, String, String> {
+        final List<RouteCache.Callback<String, String>> pendingCallbacks = new ArrayList<>();
+        boolean isReplyingSynchronously = true;
+        String nextError = null;
+        int invocationCount = 0;
+
+        @Override
+        public void calculateRoute(List<double[]> waypoints, Object options,
+                                   RouteCache.Callback<String, String> callback) {
+            invocationCount++;
+            if (isReplyingSynchronously) {
+                reply(callback);
+            } else {
+                pendingCallbacks.add(callback);
+            }
+        }
+
+        void replyAll() {
+            for (RouteCache.Callback<String, String> callback : pendingCallbacks) {
+                reply(callback);
+            }
+            pendingCallbacks.clear();
+        }
+
+        private void reply(RouteCache.Callback<String, String> callback) {
+            if (nextError != null) {
+                callback.onRouteCalculated(nextError, null);
+            } else {
+                callback.onRouteCalculated(null, "route-" + invocationCount);
+            }
+        }
+    }
+
+    private static class Result implements RouteCache.Callback<String, String> {
+        String error;
+        String routes;
+        int callCount = 0;
+
+        @Override
+        public void onRouteCalculated(String error, String routes) {
+            this.error = error;
+            this.routes = routes;
+            callCount++;
+        }
+    }
+
+    private final double[] start = {52.520798, 13.409408};
+    private final double[] destination = {52.530932, 13.384915};
+    private StubEngine engine;
+    private long now;
+    private RouteCache<double[], Object, String, String> routeCache;
+
+    @Before
+    public void setUp() {
+        engine = new StubEngine();
+        now = 0;
+        routeCache = new RouteCache<>(engine, LAT_LON, 2, TIME_TO_LIVE, () -> now);
+    }
+
+    @Test
+    public void repeatedRequestIsAnsweredFromCache() {
+        Result first = calculate(new CarOptions(), start, destination);
+        now += 5000;
+        Result second = calculate(new CarOptions(), start, destination);
+
+        assertEquals(1, engine.invocationCount);
+        assertEquals("route-1", first.routes);
+        assertSame(first.routes, second.routes);
+        assertNull(second.error);
+        assertEquals(1, routeCache.getHitCount());
+        assertEquals(1, routeCache.getMissCount());
+    }
+
+    @Test
+    public void nearbyWaypointsShareKey() {
+        calculate(new CarOptions(), start, destination);
+        // Less than a meter away.
+        calculate(new CarOptions(), new double[]{start[0] + 0.000004, start[1] - 0.000004}, destination);
+        // About 100 meters away.
+        calculate(new CarOptions(), new double[]{start[0] + 0.001, start[1]}, destination);
+
+        assertEquals(2, engine.invocationCount);
+        assertEquals(1, routeCache.getHitCount());
+    }
+
+    @Test
+    public void waypointOrderAndCountArePartOfKey() {
+        calculate(new CarOptions(), start, destination);
+        calculate(new CarOptions(), destination, start);
+        calculate(new CarOptions(), start, start, destination);
+
+        assertEquals(3, engine.invocationCount);
+    }
+
+    @Test
+    public void optionsAndTransportModeArePartOfKey() {
+        calculate(new CarOptions(), start, destination);
+        // Equal options, but a different instance.
+        calculate(new CarOptions(), start, destination);
+        CarOptions slowCarOptions = new CarOptions();
+        slowCarOptions.speedInKmh = 80;
+        calculate(slowCarOptions, start, destination);
+        // Same hash code and equal by CarOptions.equals(), but a different transport mode.
+        calculate(new TruckOptions(), start, destination);
+
+        assertEquals(3, engine.invocationCount);
+        assertEquals(1, routeCache.getHitCount());
+    }
+
+    @Test
+    public void optionsWithSameHashCodeAreComparedWithEquals() {
+        Result fastest = calculate(new CollidingOptions("fastest"), start, destination);
+        Result shortest = calculate(new CollidingOptions("shortest"), start, destination);
+        Result fastestAgain = calculate(new CollidingOptions("fastest"), start, destination);
+
+        assertEquals(2, engine.invocationCount);
+        assertEquals("route-1", fastest.routes);
+        assertEquals("route-2", shortest.routes);
+        assertSame(fastest.routes, fastestAgain.routes);
+    }
+
+    @Test
+    public void waypointHeadingAndTypeArePartOfKey() {
+        double[] headingNorth = {start[0], start[1], 0, 0};
+        double[] headingSouth = {start[0], start[1], 180, 0};
+        double[] passThrough = {start[0], start[1], 0, 1};
+        calculate(new CarOptions(), start, destination);
+        calculate(new CarOptions(), headingNorth, destination);
+        calculate(new CarOptions(), headingSouth, destination);
+        calculate(new CarOptions(), passThrough, destination);
+        calculate(new CarOptions(), new double[]{start[0], start[1], 180, 0}, destination);
+
+        assertEquals(4, engine.invocationCount);
+        assertEquals(1, routeCache.getHitCount());
+    }
+
+    @Test
+    public void expiredRouteIsCalculatedAgain() {
+        calculate(new CarOptions(), start, destination);
+        now += TIME_TO_LIVE - 1;
+        calculate(new CarOptions(), start, destination);
+        now += 1;
+        Result result = calculate(new CarOptions(), start, destination);
+
+        assertEquals(2, engine.invocationCount);
+        assertEquals("route-2", result.routes);
+        assertEquals(1, routeCache.getExpiredCount());
+    }
+
+    @Test
+    public void leastRecentlyUsedRouteIsEvicted() {
+        double[] otherDestination = {52.5, 13.3};
+        double[] thirdDestination = {52.4, 13.2};
+        calculate(new CarOptions(), start, destination);
+        calculate(new CarOptions(), start, otherDestination);
+        // Makes the first route the most recently used one.
+        calculate(new CarOptions(), start, destination);
+        calculate(new CarOptions(), start, thirdDestination);
+
+        assertEquals(1, routeCache.getEvictionCount());
+        assertEquals(2, routeCache.size());
+        calculate(new CarOptions(), start, destination);
+        assertEquals(3, engine.invocationCount);
+        calculate(new CarOptions(), start, otherDestination);
+        assertEquals(4, engine.invocationCount);
+    }
+
+    @Test
+    public void errorsAreNotCached() {
+        engine.nextError = "NO_ROUTE_FOUND";
+        Result failed = calculate(new CarOptions(), start, destination);
+        engine.nextError = null;
+        Result succeeded = calculate(new CarOptions(), start, destination);
+
+        assertEquals("NO_ROUTE_FOUND", failed.error);
+        assertEquals("route-2", succeeded.routes);
+        assertEquals(2, engine.invocationCount);
+    }
+
+    @Test
+    public void identicalRunningRequestsAreCoalesced() {
+        engine.isReplyingSynchronously = false;
+        Result first = calculate(new CarOptions(), start, destination);
+        Result second = calculate(new CarOptions(), start, destination);
+        assertEquals(0, first.callCount);
+
+        engine.replyAll();
+
+        assertEquals(1, engine.invocationCount);
+        assertEquals(1, routeCache.getCoalescedCount());
+        assertEquals(1, first.callCount);
+        assertEquals(1, second.callCount);
+        assertSame(first.routes, second.routes);
+
+        // Once the result is there, it is cached.
+        calculate(new CarOptions(), start, destination);
+        assertEquals(1, engine.invocationCount);
+    }
+
+    @Test
+    public void disabledCacheAlwaysCallsEngine() {
+        routeCache = new RouteCache<>(engine, LAT_LON, 0, TIME_TO_LIVE, () -> now);
+        calculate(new CarOptions(), start, destination);
+        calculate(new CarOptions(), start, destination);
+
+        assertEquals(2, engine.invocationCount);
+        assertEquals(0, routeCache.size());
+    }
+
+    private Result calculate(Object options, double[]... waypoints) {
+        Result result = new Result();
+        routeCache.calculateRoute(Arrays.asList(waypoints), options, result);
+        return result;
+    }
+}
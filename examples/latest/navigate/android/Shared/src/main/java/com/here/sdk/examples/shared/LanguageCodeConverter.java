@@ -0,0 +1,444 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.sdk.examples.shared;
+
+import android.util.Log;
+
+import com.here.sdk.core.LanguageCode;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Converts from com.here.sdk.core.LanguageCode to java.util.Locale and vice versa.
+// Both language and country must be set, if available.
+// This class is shared by the Navigation and SpatialAudioNavigation example apps, see their build.gradle.
+// All maps are built once when the class is loaded and cannot be modified afterwards, so both directions
+// are a single hash lookup and the class can be used from any thread:
+// - LanguageCode to Locale.
+// - Locale to LanguageCode, for the language and country of a Locale.
+// - Language to LanguageCode, used as fallback when the country of a Locale is not supported.
+//   If a language has an entry without country, that entry is used. Otherwise, the first entry
+//   listed below for that language is used, for example, EN_US for "en".
+public final class LanguageCodeConverter {
+
+    private static final String TAG = LanguageCodeConverter.class.getName();
+    private static final LanguageCode FALLBACK_LANGUAGE_CODE = LanguageCode.EN_US;
+    private static final Locale FALLBACK_LOCALE = new Locale("en", "US");
+
+    private static final Map<LanguageCode, Locale> localesByLanguageCode;
+    private static final Map<Locale, LanguageCode> languageCodesByLocale;
+    private static final Map<String, LanguageCode> languageCodesByLanguage;
+
+    static {
+        // Keeps the order of the list below, which decides the fallback for each language.
+        final Map<LanguageCode, Locale> locales = new LinkedHashMap<>();
+        addLocales(locales);
+
+        final Map<Locale, LanguageCode> languageCodes = new HashMap<>();
+        final Map<String, LanguageCode> languageCodesForLanguage = new HashMap<>();
+        for (Map.Entry<LanguageCode, Locale> entry : locales.entrySet()) {
+            final Locale locale = entry.getValue();
+            languageCodes.put(locale, entry.getKey());
+            if (locale.getCountry().isEmpty() || !languageCodesForLanguage.containsKey(locale.getLanguage())) {
+                languageCodesForLanguage.put(locale.getLanguage(), entry.getKey());
+            }
+        }
+
+        localesByLanguageCode = Collections.unmodifiableMap(new EnumMap<>(locales));
+        languageCodesByLocale = Collections.unmodifiableMap(languageCodes);
+        languageCodesByLanguage = Collections.unmodifiableMap(languageCodesForLanguage);
+    }
+
+    private LanguageCodeConverter() {
+    }
+
+    public static Locale getLocale(LanguageCode languageCode) {
+        final Locale locale = localesByLanguageCode.get(languageCode);
+        if (locale != null) {
+            return locale;
+        }
+
+        // Should never happen, unless the list below was not updated
+        // to support the latest LanguageCodes from HERE SDK.
+        Log.e(TAG, "LanguageCode not found. Falling Back to en-US.");
+        return FALLBACK_LOCALE;
+    }
+
+    public static LanguageCode getLanguageCode(Locale locale) {
+        LanguageCode languageCode = languageCodesByLocale.get(locale);
+        if (languageCode != null) {
+            return languageCode;
+        }
+
+        // A device locale may contain a script or variant, for example, "sr_RS_#Latn".
+        if (!locale.getScript().isEmpty() || !locale.getVariant().isEmpty()) {
+            languageCode = languageCodesByLocale.get(new Locale(locale.getLanguage(), locale.getCountry()));
+            if (languageCode != null) {
+                return languageCode;
+            }
+        }
+
+        // The country is not supported, so any LanguageCode for the same language is better than none.
+        languageCode = languageCodesByLanguage.get(locale.getLanguage());
+        if (languageCode != null) {
+            return languageCode;
+        }
+
+        Log.e(TAG, "LanguageCode not found. Falling back to EN_US.");
+        return FALLBACK_LANGUAGE_CODE;
+    }
+
+    // / Language is always set, country may not be set.
+    private static void addLocales(Map<LanguageCode, Locale> locales) {
+        /// English (United States)
+        locales.put(LanguageCode.EN_US, new Locale("en", "US"));
+
+        /// Afrikaans
+        locales.put(LanguageCode.AF_ZA, new Locale("af", "ZA"));
+
+        /// Albanian
+        locales.put(LanguageCode.SQ_AL, new Locale("sq", "AL"));
+
+        /// Amharic (Ethiopia)
+        locales.put(LanguageCode.AM_ET, new Locale("am", "ET"));
+
+        /// Arabic (Saudi Arabia)
+        locales.put(LanguageCode.AR_SA, new Locale("ar", "SA"));
+
+        /// Armenian
+        locales.put(LanguageCode.HY_AM, new Locale("hy", "AM"));
+
+        /// Assamese (India)
+        locales.put(LanguageCode.AS_IN, new Locale("as", "IN"));
+
+        /// Azeri - Latin
+        locales.put(LanguageCode.AZ_LATN_AZ, new Locale("az", "LATN_AZ"));
+
+        /// Bangla (Bangladesh)
+        locales.put(LanguageCode.BN_BD, new Locale("bn", "BD"));
+
+        /// Bangla (India)
+        locales.put(LanguageCode.BN_IN, new Locale("bn", "IN"));
+
+        /// Basque
+        locales.put(LanguageCode.EU_ES, new Locale("eu", "ES"));
+
+        /// Belarusian
+        locales.put(LanguageCode.BE_BY, new Locale("be", "BY"));
+
+        /// Bosnian - Latin
+        locales.put(LanguageCode.BS_LATN_BA, new Locale("bs", "LATN_BA"));
+
+        /// Bulgarian
+        locales.put(LanguageCode.BG_BG, new Locale("bg", "BG"));
+
+        /// Catalan (Spain)
+        locales.put(LanguageCode.CA_ES, new Locale("ca", "ES"));
+
+        /// Central Kurdish - Arabic
+        locales.put(LanguageCode.KU_ARAB, new Locale("ku", "ARAB"));
+
+        /// Chinese (Simplified China)
+        locales.put(LanguageCode.ZH_CN, new Locale("zh", "CN"));
+
+        /// Chinese (Traditional Hong Kong)
+        locales.put(LanguageCode.ZH_HK, new Locale("zh", "HK"));
+
+        /// Chinese (Traditional Taiwan)
+        locales.put(LanguageCode.ZH_TW, new Locale("zh", "TW"));
+
+        /// Croatian
+        locales.put(LanguageCode.HR_HR, new Locale("hr", "HR"));
+
+        /// Czech
+        locales.put(LanguageCode.CS_CZ, new Locale("cs", "CZ"));
+
+        /// Danish
+        locales.put(LanguageCode.DA_DK, new Locale("da", "DK"));
+
+        /// Dari - Arabic (Afghanistan)
+        locales.put(LanguageCode.PRS_ARAB_AF, new Locale("prs", "ARAB_AF"));
+
+        /// Dutch
+        locales.put(LanguageCode.NL_NL, new Locale("nl", "NL"));
+
+        /// English (British)
+        locales.put(LanguageCode.EN_GB, new Locale("en", "GB"));
+
+        /// Estonian
+        locales.put(LanguageCode.ET_EE, new Locale("et", "EE"));
+
+        /// Farsi (Iran)
+        locales.put(LanguageCode.FA_IR, new Locale("fa", "IR"));
+
+        /// Filipino
+        locales.put(LanguageCode.FIL_PH, new Locale("fil", "PH"));
+
+        /// Finnish
+        locales.put(LanguageCode.FI_FI, new Locale("fi", "FI"));
+
+        /// French
+        locales.put(LanguageCode.FR_FR, new Locale("fr", "FR"));
+
+        /// French (Canada)
+        locales.put(LanguageCode.FR_CA, new Locale("fr", "CA"));
+
+        /// Galician
+        locales.put(LanguageCode.GL_ES, new Locale("gl", "ES"));
+
+        /// Georgian
+        locales.put(LanguageCode.KA_GE, new Locale("ka", "GE"));
+
+        /// German
+        locales.put(LanguageCode.DE_DE, new Locale("de", "DE"));
+
+        /// Greek
+        locales.put(LanguageCode.EL_GR, new Locale("el", "GR"));
+
+        /// Gujarati (India)
+        locales.put(LanguageCode.GU_IN, new Locale("gu", "IN"));
+
+        /// Hausa - Latin (Nigeria)
+        locales.put(LanguageCode.HA_LATN_NG, new Locale("ha", "LATN_NG"));
+
+        /// Hebrew
+        locales.put(LanguageCode.HE_IL, new Locale("he", "IL"));
+
+        /// Hindi
+        locales.put(LanguageCode.HI_IN, new Locale("hi", "IN"));
+
+        /// Hungarian
+        locales.put(LanguageCode.HU_HU, new Locale("hu", "HU"));
+
+        /// Icelandic
+        locales.put(LanguageCode.IS_IS, new Locale("is", "IS"));
+
+        /// Igbo - Latin (Nigera)
+        locales.put(LanguageCode.IG_LATN_NG, new Locale("ig", "LATN_NG"));
+
+        /// Indonesian (Bahasa)
+        locales.put(LanguageCode.ID_ID, new Locale("id", "ID"));
+
+        /// Irish
+        locales.put(LanguageCode.GA_IE, new Locale("ga", "IE"));
+
+        /// IsiXhosa
+        locales.put(LanguageCode.XH, new Locale("xh"));
+
+        /// IsiZulu (South Africa)
+        locales.put(LanguageCode.ZU_ZA, new Locale("zu", "ZA"));
+
+        /// Italian
+        locales.put(LanguageCode.IT_IT, new Locale("it", "IT"));
+
+        /// Japanese
+        locales.put(LanguageCode.JA_JP, new Locale("ja", "JP"));
+
+        /// Kannada (India)
+        locales.put(LanguageCode.KN_IN, new Locale("kn", "IN"));
+
+        /// Kazakh
+        locales.put(LanguageCode.KK_KZ, new Locale("kk", "KZ"));
+
+        /// Khmer (Cambodia)
+        locales.put(LanguageCode.KM_KH, new Locale("km", "KH"));
+
+        /// K'iche' - Latin (Guatemala)
+        locales.put(LanguageCode.QUC_LATN_GT, new Locale("quc", "LATN_GT"));
+
+        /// Kinyarwanda (Rwanda)
+        locales.put(LanguageCode.RW_RW, new Locale("rw", "RW"));
+
+        /// KiSwahili
+        locales.put(LanguageCode.SW, new Locale("sw"));
+
+        /// Konkani (India)
+        locales.put(LanguageCode.KOK_IN, new Locale("kok", "IN"));
+
+        /// Korean
+        locales.put(LanguageCode.KO_KR, new Locale("ko", "KR"));
+
+        /// Kyrgyz - Cyrillic
+        locales.put(LanguageCode.KY_CYRL_KG, new Locale("ky", "CYRL_KG"));
+
+        /// Latvian
+        locales.put(LanguageCode.LV_LV, new Locale("lv", "LV"));
+
+        /// Lithuanian
+        locales.put(LanguageCode.LT_LT, new Locale("lt", "LT"));
+
+        /// Luxembourgish
+        locales.put(LanguageCode.LB_LU, new Locale("lb", "LU"));
+
+        /// Macedonian
+        locales.put(LanguageCode.MK_MK, new Locale("mk", "MK"));
+
+        /// Malay (Bahasa)
+        locales.put(LanguageCode.MS_MY, new Locale("ms", "MY"));
+
+        /// Malayalam (India)
+        locales.put(LanguageCode.ML_IN, new Locale("ml", "IN"));
+
+        /// Maltese  (Malta)
+        locales.put(LanguageCode.MT_MT, new Locale("mt", "MT"));
+
+        /// Maori - Latin (New Zealand)
+        locales.put(LanguageCode.MI_LATN_NZ, new Locale("mi", "LATN_NZ"));
+
+        /// Marathi (India)
+        locales.put(LanguageCode.MR_IN, new Locale("mr", "IN"));
+
+        /// Mongolian - Cyrillic
+        locales.put(LanguageCode.MN_CYRL_MN, new Locale("mn", "CYRL_MN"));
+
+        /// Nepali (Nepal)
+        locales.put(LanguageCode.NE_NP, new Locale("ne", "NP"));
+
+        /// Norwegian (Bokmål)
+        locales.put(LanguageCode.NB_NO, new Locale("nb", "NO"));
+
+        /// Norwegian (Nynorsk)
+        locales.put(LanguageCode.NN_NO, new Locale("nn", "NO"));
+
+        /// Odia (India)
+        locales.put(LanguageCode.OR_IN, new Locale("or", "IN"));
+
+        /// Polish
+        locales.put(LanguageCode.PL_PL, new Locale("pl", "PL"));
+
+        /// Portuguese (Brazil)
+        locales.put(LanguageCode.PT_BR, new Locale("pt", "BR"));
+
+        /// Portuguese (Portugal)
+        locales.put(LanguageCode.PT_PT, new Locale("pt", "PT"));
+
+        /// Punjabi - Gurmukhi
+        locales.put(LanguageCode.PA_GURU, new Locale("pa", "GURU"));
+
+        /// Punjabi - Arabic
+        locales.put(LanguageCode.PA_ARAB, new Locale("pa", "ARAB"));
+
+        /// Quechua - Latin (Peru)
+        locales.put(LanguageCode.QU_LATN_PE, new Locale("qu", "LATN_PE"));
+
+        /// Romanian
+        locales.put(LanguageCode.RO_RO, new Locale("ro", "RO"));
+
+        /// Russian
+        locales.put(LanguageCode.RU_RU, new Locale("ru", "RU"));
+
+        /// Scottish Gaelic - Latin
+        locales.put(LanguageCode.GD_LATN_GB, new Locale("gd", "LATN_GB"));
+
+        /// Serbian - Cyrillic (Bosnia)
+        locales.put(LanguageCode.SR_CYRL_BA, new Locale("sr", "CYRL_BA"));
+
+        /// Serbian - Cyrillic (Serbia)
+        locales.put(LanguageCode.SR_CYRL_RS, new Locale("sr", "CYRL_RS"));
+
+        /// Serbian - Latin (Serbia)
+        locales.put(LanguageCode.SR_LATN_RS, new Locale("sr", "LATN_RS"));
+
+        /// Sesotho Sa Leboa (South Africa)
+        locales.put(LanguageCode.NSO_ZA, new Locale("nso", "ZA"));
+
+        /// Setswana
+        locales.put(LanguageCode.TN, new Locale("tn"));
+
+        /// Sindhi - Arabic
+        locales.put(LanguageCode.SD_ARAB, new Locale("sd", "ARAB"));
+
+        /// Sinhala (Sri Lanka)
+        locales.put(LanguageCode.SI_LK, new Locale("si", "LK"));
+
+        /// Slovak
+        locales.put(LanguageCode.SK_SK, new Locale("sk", "SK"));
+
+        /// Slovenian
+        locales.put(LanguageCode.SL_SI, new Locale("sl", "SI"));
+
+        /// Spanish (Mexico)
+        locales.put(LanguageCode.ES_MX, new Locale("es", "MX"));
+
+        /// Spanish (Spain)
+        locales.put(LanguageCode.ES_ES, new Locale("es", "ES"));
+
+        /// Swedish
+        locales.put(LanguageCode.SV_SE, new Locale("sv", "SE"));
+
+        /// Tajik - Cyrillic
+        locales.put(LanguageCode.TG_CYRL_TJ, new Locale("tg", "CYRL_TJ"));
+
+        /// Tamil
+        locales.put(LanguageCode.TA, new Locale("ta"));
+
+        /// Tatar - Cyrillic (Russia)
+        locales.put(LanguageCode.TT_CYRL_RU, new Locale("tt", "CYRL_RU"));
+
+        /// Telugu (India)
+        locales.put(LanguageCode.TE_IN, new Locale("te", "IN"));
+
+        /// Thai
+        locales.put(LanguageCode.TH_TH, new Locale("th", "TH"));
+
+        /// Tigrinya (Ethiopia)
+        locales.put(LanguageCode.TI_ET, new Locale("ti", "ET"));
+
+        /// Turkish
+        locales.put(LanguageCode.TR_TR, new Locale("tr", "TR"));
+
+        /// Turkmen - Latin
+        locales.put(LanguageCode.TK_LATN_TM, new Locale("tk", "LATN_TM"));
+
+        /// Ukrainian
+        locales.put(LanguageCode.UK_UA, new Locale("uk", "UA"));
+
+        /// Urdu
+        locales.put(LanguageCode.UR, new Locale("ur"));
+
+        /// Uyghur - Arabic
+        locales.put(LanguageCode.UG_ARAB, new Locale("ug", "ARAB"));
+
+        /// Uzbek - Cyrillic
+        locales.put(LanguageCode.UZ_CYRL_UZ, new Locale("uz", "CYRL_UZ"));
+
+        /// Uzbek - Latin
+        locales.put(LanguageCode.UZ_LATN_UZ, new Locale("uz", "LATN_UZ"));
+
+        /// Valencian (Spain)
+        locales.put(LanguageCode.CAT_ES, new Locale("cat", "ES"));
+
+        /// Vietnamese
+        locales.put(LanguageCode.VI_VN, new Locale("vi", "VN"));
+
+        /// Welsh
+        locales.put(LanguageCode.CY_GB, new Locale("cy", "GB"));
+
+        /// Wolof - Latin
+        locales.put(LanguageCode.WO_LATN, new Locale("wo", "LATN"));
+
+        /// Yoruba - Latin
+        locales.put(LanguageCode.YO_LATN, new Locale("yo", "LATN"));
+    }
+}
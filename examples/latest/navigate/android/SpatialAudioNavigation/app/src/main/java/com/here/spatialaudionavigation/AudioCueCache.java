@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.spatialaudionavigation;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Keeps the synthesized audio files of recently spoken phrases, for example, "Turn left onto Invalidenstraße.".
+// When a maneuver text is repeated, the file can be played right away without synthesizing it again.
+// The least recently used file is deleted when the cache is full.
+public class AudioCueCache {
+
+    public static final class AudioCue {
+        public final File file;
+        public final long durationInMilliseconds;
+
+        public AudioCue(File file, long durationInMilliseconds) {
+            this.file = file;
+            this.durationInMilliseconds = durationInMilliseconds;
+        }
+    }
+
+    private final int maxEntries;
+    // With accessOrder set to true, iteration starts at the least recently used entry.
+    private final LinkedHashMap<String, AudioCue> audioCues;
+    private int evictionCount = 0;
+
+    public AudioCueCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.audioCues = new LinkedHashMap<String, AudioCue>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AudioCue> eldest) {
+                if (size() > AudioCueCache.this.maxEntries) {
+                    evictionCount++;
+                    deleteFile(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized AudioCue get(String text) {
+        AudioCue audioCue = audioCues.get(text);
+        if (audioCue != null && !audioCue.file.exists()) {
+            // For example, the system has cleared the cache directory of the app.
+            audioCues.remove(text);
+            return null;
+        }
+        return audioCue;
+    }
+
+    public synchronized void put(String text, AudioCue audioCue) {
+        if (maxEntries <= 0) {
+            deleteFile(audioCue);
+            return;
+        }
+        AudioCue previousAudioCue = audioCues.put(text, audioCue);
+        if (previousAudioCue != null && !previousAudioCue.file.equals(audioCue.file)) {
+            deleteFile(previousAudioCue);
+        }
+    }
+
+    // Deletes all files, for example, when the language of the voice changes.
+    public synchronized void clear() {
+        for (AudioCue audioCue : audioCues.values()) {
+            deleteFile(audioCue);
+        }
+        audioCues.clear();
+    }
+
+    public synchronized int size() {
+        return audioCues.size();
+    }
+
+    public synchronized int getEvictionCount() {
+        return evictionCount;
+    }
+
+    private static void deleteFile(AudioCue audioCue) {
+        if (!audioCue.file.delete()) {
+            audioCue.file.deleteOnExit();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.spatialaudionavigation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+// Turns maneuver texts into audio cues that are ready to be played:
+// - Phrases that were spoken before are taken from an AudioCueCache, so they can be played right away.
+// - New phrases are synthesized into a file on a long-lived executor.
+// - The duration is computed from the length of the audio data instead of decoding the file.
+// Each cue reports how long it took until it was ready, so that the latency can be tracked.
+// The class does not depend on Android, the synthesizer is, for example, Android's TextToSpeech engine.
+public class AudioCuePipeline {
+
+    public interface SynthesisCallback {
+        void onDone();
+
+        void onError();
+    }
+
+    // The callback may be called on any thread.
+    public interface Synthesizer {
+        void synthesize(String text, File outputFile, SynthesisCallback callback);
+    }
+
+    public interface FileFactory {
+        File createFile() throws IOException;
+    }
+
+    // Returns a negative value, if the duration is unknown.
+    public interface DurationReader {
+        long readDurationInMilliseconds(File file);
+    }
+
+    public interface Clock {
+        long getTimeInMilliseconds();
+    }
+
+    public interface Listener {
+        void onAudioCueReady(String text, AudioCueCache.AudioCue audioCue, Timings timings);
+
+        void onAudioCueError(String text);
+    }
+
+    public static final class Timings {
+        public final boolean isFromCache;
+        // The time spent in the synthesizer, 0 for cached audio cues.
+        public final long synthesisTimeInMilliseconds;
+        // The time from the request until the audio cue was ready to be played.
+        public final long latencyInMilliseconds;
+
+        Timings(boolean isFromCache, long synthesisTimeInMilliseconds, long latencyInMilliseconds) {
+            this.isFromCache = isFromCache;
+            this.synthesisTimeInMilliseconds = synthesisTimeInMilliseconds;
+            this.latencyInMilliseconds = latencyInMilliseconds;
+        }
+
+        @Override
+        public String toString() {
+            return "Timings{fromCache=" + isFromCache
+                    + ", synthesis=" + synthesisTimeInMilliseconds + " ms"
+                    + ", latency=" + latencyInMilliseconds + " ms}";
+        }
+    }
+
+    private final Synthesizer synthesizer;
+    private final AudioCueCache audioCueCache;
+    private final FileFactory fileFactory;
+    private final DurationReader durationReader;
+    private final Executor synthesisExecutor;
+    private final Clock clock;
+
+    private int requestCount = 0;
+    private int cacheHitCount = 0;
+    private int synthesisCount = 0;
+    private int errorCount = 0;
+
+    public AudioCuePipeline(Synthesizer synthesizer,
+                            AudioCueCache audioCueCache,
+                            FileFactory fileFactory,
+                            DurationReader durationReader,
+                            Executor synthesisExecutor,
+                            Clock clock) {
+        this.synthesizer = synthesizer;
+        this.audioCueCache = audioCueCache;
+        this.fileFactory = fileFactory;
+        this.durationReader = durationReader;
+        this.synthesisExecutor = synthesisExecutor;
+        this.clock = clock;
+    }
+
+    public void prepare(final String text, final Listener listener) {
+        final long requestTime = clock.getTimeInMilliseconds();
+        synchronized (this) {
+            requestCount++;
+        }
+
+        AudioCueCache.AudioCue cachedAudioCue = audioCueCache.get(text);
+        if (cachedAudioCue != null) {
+            synchronized (this) {
+                cacheHitCount++;
+            }
+            listener.onAudioCueReady(text, cachedAudioCue,
+                    new Timings(true, 0, clock.getTimeInMilliseconds() - requestTime));
+            return;
+        }
+
+        synthesisExecutor.execute(() -> {
+            final File outputFile;
+            try {
+                outputFile = fileFactory.createFile();
+            } catch (IOException e) {
+                handleError(text, null, listener);
+                return;
+            }
+
+            final long synthesisStartTime = clock.getTimeInMilliseconds();
+            synthesizer.synthesize(text, outputFile, new SynthesisCallback() {
+                @Override
+                public void onDone() {
+                    long synthesisTime = clock.getTimeInMilliseconds() - synthesisStartTime;
+                    long durationInMilliseconds = durationReader.readDurationInMilliseconds(outputFile);
+                    if (durationInMilliseconds < 0) {
+                        handleError(text, outputFile, listener);
+                        return;
+                    }
+
+                    AudioCueCache.AudioCue audioCue = new AudioCueCache.AudioCue(outputFile, durationInMilliseconds);
+                    audioCueCache.put(text, audioCue);
+                    synchronized (AudioCuePipeline.this) {
+                        synthesisCount++;
+                    }
+                    listener.onAudioCueReady(text, audioCue,
+                            new Timings(false, synthesisTime, clock.getTimeInMilliseconds() - requestTime));
+                }
+
+                @Override
+                public void onError() {
+                    handleError(text, outputFile, listener);
+                }
+            });
+        });
+    }
+
+    private void handleError(String text, File outputFile, Listener listener) {
+        synchronized (this) {
+            errorCount++;
+        }
+        if (outputFile != null) {
+            outputFile.delete();
+        }
+        listener.onAudioCueError(text);
+    }
+
+    public synchronized int getRequestCount() {
+        return requestCount;
+    }
+
+    public synchronized int getCacheHitCount() {
+        return cacheHitCount;
+    }
+
+    public synchronized int getSynthesisCount() {
+        return synthesisCount;
+    }
+
+    public synchronized int getErrorCount() {
+        return errorCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "AudioCuePipeline{requests=" + requestCount
+                + ", cacheHits=" + cacheHitCount
+                + ", synthesized=" + synthesisCount
+                + ", errors=" + errorCount + "}";
+    }
+}
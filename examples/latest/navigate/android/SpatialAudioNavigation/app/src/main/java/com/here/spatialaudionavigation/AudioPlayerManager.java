@@ -3,14 +3,39 @@ package com.here.spatialaudionavigation;
 import android.media.AudioAttributes;
 import android.media.MediaPlayer;
 import android.net.Uri;
+import android.util.Log;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 public class AudioPlayerManager {
-    private MediaPlayer mediaPlayer;
+    private static final String TAG = AudioPlayerManager.class.getName();
+    // One player is playing, one is ready for the next audio cue.
+    private static final int MAX_IDLE_PLAYERS = 2;
+
+    // MediaPlayers are reused, as creating a new one for each audio cue adds latency.
+    private final PlayerPool<MediaPlayer> playerPool = new PlayerPool<>(new PlayerPool.Factory<MediaPlayer>() {
+        @Override
+        public MediaPlayer create() {
+            MediaPlayer mediaPlayer = new MediaPlayer();
+            setAudioAttributes(mediaPlayer);
+            return mediaPlayer;
+        }
+
+        @Override
+        public void reset(MediaPlayer mediaPlayer) {
+            mediaPlayer.reset();
+            setAudioAttributes(mediaPlayer);
+        }
+
+        @Override
+        public void destroy(MediaPlayer mediaPlayer) {
+            mediaPlayer.release();
+        }
+    }, MAX_IDLE_PLAYERS);
+
+    private volatile MediaPlayer mediaPlayer;
     private ExecutorService executorPlay;
 
     public AudioPlayerManager() {
@@ -18,7 +43,8 @@ public class AudioPlayerManager {
 
     public boolean isPlaying() {
         try {
-            return mediaPlayer != null && mediaPlayer.isPlaying();
+            MediaPlayer currentMediaPlayer = mediaPlayer;
+            return currentMediaPlayer != null && currentMediaPlayer.isPlaying();
         } catch (IllegalStateException ie) {
             //no-op.
         }
@@ -26,9 +52,14 @@ public class AudioPlayerManager {
     }
 
     public void initMediaPlayer() {
-        // Ensure next audio cue will be triggered in a new MediaPlayer
-        mediaPlayer = new MediaPlayer();
+        // A player that is still set, for example, because its audio cue was not stopped, is released first.
+        stopPlaying();
+        // Ensure next audio cue will be triggered in a MediaPlayer that is not used by another audio cue.
+        mediaPlayer = playerPool.acquire();
         mediaPlayer.setVolume(1, 1);
+    }
+
+    private static void setAudioAttributes(MediaPlayer mediaPlayer) {
         mediaPlayer.setAudioAttributes(new AudioAttributes.Builder()
                 .setUsage(AudioAttributes.USAGE_ASSISTANCE_NAVIGATION_GUIDANCE)
                 .setContentType(AudioAttributes.CONTENT_TYPE_MUSIC)
@@ -36,61 +67,81 @@ public class AudioPlayerManager {
     }
 
     // Plays the audio file which contains the audio file to be triggered.
+    // The file is not deleted, as it may be played again from the AudioCueCache.
     public void play(Uri uriToFile) {
+        final MediaPlayer player = mediaPlayer;
+        final long playRequestTime = System.nanoTime();
         initExecutorPlay();
         executorPlay.execute(() -> {
+            if (player == null || mediaPlayer != player) {
+                // The audio cue was stopped before it could be prepared.
+                return;
+            }
             // play the new audio file.
             try {
-                mediaPlayer.setDataSource(String.valueOf(uriToFile));
-                mediaPlayer.setOnPreparedListener(mp -> {
+                player.setDataSource(String.valueOf(uriToFile));
+                player.setOnPreparedListener(mp -> {
                     mp.setLooping(false);
                     mp.start();
+                    Log.d(TAG, "Audio cue started " + (System.nanoTime() - playRequestTime) / 1000000 + " ms after play()"
+                            + ", players created: " + playerPool.getCreatedCount()
+                            + ", reused: " + playerPool.getReusedCount());
                 });
-                mediaPlayer.setOnErrorListener((mp, what, extra) -> {
-                    mp.release();
-                    executorPlay.shutdown();
+                player.setOnErrorListener((mp, what, extra) -> {
+                    releasePlayer(mp);
                     return true;
                 });
-                mediaPlayer.setOnCompletionListener(mp -> {
-                    File audioFile = new File(uriToFile.getPath());
-                    audioFile.deleteOnExit();
-                    mp.release();
-                    executorPlay.shutdown();
-                });
+                player.setOnCompletionListener(this::releasePlayer);
 
-                mediaPlayer.prepareAsync();
+                player.prepareAsync();
 
-            } catch (IOException e) {
+            } catch (IOException | IllegalStateException e) {
                 e.printStackTrace();
-                executorPlay.shutdown();
+                releasePlayer(player);
             }
         });
     }
 
+    // Returns a player to the pool once it is no longer used.
+    private void releasePlayer(MediaPlayer player) {
+        if (mediaPlayer == player) {
+            mediaPlayer = null;
+        }
+        playerPool.release(player);
+    }
+
     // Set the volume of each of MediaPlayer's audio channels
     public void setVolumeMediaPlayer(float leftChannelGains, float rightChannelGains) {
-        mediaPlayer.setVolume(leftChannelGains, rightChannelGains);
+        MediaPlayer currentMediaPlayer = mediaPlayer;
+        if (currentMediaPlayer != null) {
+            currentMediaPlayer.setVolume(leftChannelGains, rightChannelGains);
+        }
     }
 
-    // Initializes the executor
+    // Initializes the executor. The executor is kept for all audio cues until shutdownExecutors() is called.
     public void initExecutorPlay() {
         if (executorPlay == null || executorPlay.isShutdown()) {
             executorPlay = Executors.newSingleThreadExecutor();
         }
     }
 
-    // Shuts down the executor
+    // Shuts down the executor and frees the players that are not in use.
     public void shutdownExecutors() {
         if (executorPlay != null && !executorPlay.isShutdown())
             executorPlay.shutdown();
+        playerPool.clear();
     }
 
     // Stops the current reproduction.
     public void stopPlaying() {
+        MediaPlayer currentMediaPlayer = mediaPlayer;
+        if (currentMediaPlayer == null) {
+            return;
+        }
         if (isPlaying()) {
-            mediaPlayer.stop();
-            mediaPlayer.release();
+            currentMediaPlayer.stop();
         }
+        releasePlayer(currentMediaPlayer);
     }
 
 }
@@ -34,6 +34,7 @@ import com.here.sdk.core.LocationListener;
 import com.here.sdk.core.UnitSystem;
 import com.here.sdk.core.engine.SDKOptions;
 import com.here.sdk.core.errors.InstantiationErrorException;
+import com.here.sdk.examples.shared.LanguageCodeConverter;
 import com.here.sdk.navigation.LocationSimulator;
 import com.here.sdk.navigation.LocationSimulatorOptions;
 import com.here.sdk.navigation.ManeuverNotificationOptions;
@@ -300,6 +301,9 @@ public class MainActivity extends AppCompatActivity {
         mapView.onDestroy();
         super.onDestroy();
         if (isFinishing()) {
+            if (spatialAudioExample != null) {
+                spatialAudioExample.stopSpatialAudio();
+            }
             disposeHERESDK();
         }
     }
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.spatialaudionavigation;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Computes the duration of a synthesized audio cue from the length of its PCM data.
+// Android's TextToSpeech.synthesizeToFile() writes WAV files, so the duration can be read
+// from the header without decoding the file, as MediaMetadataRetriever would do.
+public final class PcmDurationReader {
+
+    private PcmDurationReader() {
+    }
+
+    public static long computeDurationInMilliseconds(long pcmLengthInBytes,
+                                                     int sampleRateInHz,
+                                                     int channelCount,
+                                                     int bitsPerSample) {
+        long bytesPerSecond = (long) sampleRateInHz * channelCount * (bitsPerSample / 8);
+        if (bytesPerSecond <= 0) {
+            return -1;
+        }
+        return pcmLengthInBytes * 1000 / bytesPerSecond;
+    }
+
+    // Returns -1, if the file is not a PCM WAV file.
+    public static long readDurationInMilliseconds(File wavFile) {
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(wavFile))) {
+            if (readTag(inputStream) != tag("RIFF")) {
+                return -1;
+            }
+            readLittleEndianInt(inputStream);
+            if (readTag(inputStream) != tag("WAVE")) {
+                return -1;
+            }
+
+            int channelCount = 0;
+            int sampleRateInHz = 0;
+            int bitsPerSample = 0;
+            long position = 12;
+            while (true) {
+                int chunkTag = readTag(inputStream);
+                long chunkLength = readLittleEndianInt(inputStream) & 0xFFFFFFFFL;
+                position += 8;
+                if (chunkTag == tag("fmt ")) {
+                    if (chunkLength < 16) {
+                        return -1;
+                    }
+                    int audioFormat = readLittleEndianShort(inputStream);
+                    channelCount = readLittleEndianShort(inputStream);
+                    sampleRateInHz = readLittleEndianInt(inputStream);
+                    // Skip byte rate and block align, they are derived from the other values.
+                    skipFully(inputStream, 6);
+                    bitsPerSample = readLittleEndianShort(inputStream);
+                    skipFully(inputStream, chunkLength - 16 + (chunkLength & 1));
+                    if (audioFormat != 1) {
+                        // Not PCM.
+                        return -1;
+                    }
+                } else if (chunkTag == tag("data")) {
+                    // While streaming, some engines do not update the length of the data chunk.
+                    long availableLength = wavFile.length() - position;
+                    if (chunkLength == 0 || chunkLength == 0xFFFFFFFFL || chunkLength > availableLength) {
+                        chunkLength = availableLength;
+                    }
+                    return computeDurationInMilliseconds(chunkLength, sampleRateInHz, channelCount, bitsPerSample);
+                } else {
+                    // Chunks are padded to an even length.
+                    skipFully(inputStream, chunkLength + (chunkLength & 1));
+                }
+                position += chunkLength + (chunkLength & 1);
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static int tag(String name) {
+        return name.charAt(0) | name.charAt(1) << 8 | name.charAt(2) << 16 | name.charAt(3) << 24;
+    }
+
+    private static int readTag(InputStream inputStream) throws IOException {
+        return readLittleEndianInt(inputStream);
+    }
+
+    private static int readLittleEndianInt(InputStream inputStream) throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int next = inputStream.read();
+            if (next < 0) {
+                throw new EOFException();
+            }
+            value |= next << (8 * i);
+        }
+        return value;
+    }
+
+    private static int readLittleEndianShort(InputStream inputStream) throws IOException {
+        int low = inputStream.read();
+        int high = inputStream.read();
+        if (low < 0 || high < 0) {
+            throw new EOFException();
+        }
+        return low | high << 8;
+    }
+
+    private static void skipFully(InputStream inputStream, long length) throws IOException {
+        long remaining = length;
+        while (remaining > 0) {
+            long skipped = inputStream.skip(remaining);
+            if (skipped <= 0) {
+                if (inputStream.read() < 0) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+}
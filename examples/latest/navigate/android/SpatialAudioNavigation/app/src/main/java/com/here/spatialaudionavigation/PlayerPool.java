@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.spatialaudionavigation;
+
+import java.util.ArrayDeque;
+
+// A small pool of audio players, so that a player does not need to be created for each audio cue.
+// Players are reset when they are returned to the pool. At most maxIdlePlayers are kept,
+// any further player is destroyed. The class does not depend on Android, P is, for example, a MediaPlayer.
+public class PlayerPool<P> {
+
+    public interface Factory<P> {
+        P create();
+
+        // Brings a used player back into a state where it can play a new audio cue.
+        void reset(P player);
+
+        // Frees the resources of a player that is no longer needed.
+        void destroy(P player);
+    }
+
+    private final Factory<P> factory;
+    private final int maxIdlePlayers;
+    private final ArrayDeque<P> idlePlayers = new ArrayDeque<>();
+
+    private int createdCount = 0;
+    private int reusedCount = 0;
+    private int destroyedCount = 0;
+
+    public PlayerPool(Factory<P> factory, int maxIdlePlayers) {
+        this.factory = factory;
+        this.maxIdlePlayers = maxIdlePlayers;
+    }
+
+    public synchronized P acquire() {
+        P player = idlePlayers.pollFirst();
+        if (player != null) {
+            reusedCount++;
+            return player;
+        }
+        createdCount++;
+        return factory.create();
+    }
+
+    public synchronized void release(P player) {
+        if (player == null || idlePlayers.contains(player)) {
+            return;
+        }
+        if (idlePlayers.size() >= maxIdlePlayers) {
+            destroy(player);
+            return;
+        }
+        try {
+            factory.reset(player);
+        } catch (RuntimeException e) {
+            // A player in an undefined state is not reused.
+            destroy(player);
+            return;
+        }
+        idlePlayers.addFirst(player);
+    }
+
+    // Destroys all idle players, for example, when the audio cues are stopped.
+    public synchronized void clear() {
+        while (!idlePlayers.isEmpty()) {
+            destroy(idlePlayers.pollFirst());
+        }
+    }
+
+    public synchronized int getIdleCount() {
+        return idlePlayers.size();
+    }
+
+    public synchronized int getCreatedCount() {
+        return createdCount;
+    }
+
+    public synchronized int getReusedCount() {
+        return reusedCount;
+    }
+
+    public synchronized int getDestroyedCount() {
+        return destroyedCount;
+    }
+
+    private void destroy(P player) {
+        destroyedCount++;
+        factory.destroy(player);
+    }
+}
@@ -1,13 +1,12 @@
 package com.here.spatialaudionavigation;
 
 import android.content.Context;
-import android.media.AudioManager;
 import android.media.MediaMetadataRetriever;
 import android.net.Uri;
-import android.os.Bundle;
 import android.os.Handler;
-import android.speech.tts.TextToSpeech;
-import android.speech.tts.UtteranceProgressListener;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 
@@ -20,22 +19,29 @@ import com.here.time.Duration;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 public class SpatialAudioExample {
 
+    private static final String TAG = SpatialAudioExample.class.getName();
+    private static final String AUDIO_CUE_DIRECTORY = "audio_cues";
+    // Maneuver texts repeat often, for example, "Turn left." or "Continue on the highway.".
+    private static final int MAX_CACHED_AUDIO_CUES = 32;
+
     private final VoiceAssistant voiceAssistant;
     private final String FILE_NAME_PREFIX = "temp_audio_cue";
     private EncoderInterface encoder;
     private boolean isEncoderInitialized = false;
     private final MediaMetadataRetriever mmr = new MediaMetadataRetriever();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AudioCueCache audioCueCache = new AudioCueCache(MAX_CACHED_AUDIO_CUES);
+    private AudioCuePipeline audioCuePipeline;
 
     // Avoid IO operations run from main thread.
+    // The executors are kept for all audio cues and only shut down when spatial audio is stopped.
     private ExecutorService executorPanning;
     private ExecutorService executorSynthesization;
-    private ExecutorService executorPlayFile;
 
     public SpatialAudioExample(VoiceAssistant voiceAssistant) {
         this.voiceAssistant = voiceAssistant;
@@ -54,70 +60,70 @@ public class SpatialAudioExample {
             @Override
             public void run() {
                 encoder.setCurrentAzimuthDegrees((float) spatialTrajectoryData.azimuthInDegrees);
-                if (spatialTrajectoryData.completedSpatialTrajectory) {
-                    executorPanning.shutdown();
-                }
             }
         });
     }
 
-    // Synthesise the audio cue triggered by the SDK into an audio file.
+    // Synthesise the audio cue triggered by the SDK into an audio file, unless the same text was synthesized before.
     public void synthesizeStringToAudioFile(@NotNull final String audioCue, float initialAzimuthInDegrees, @NonNull SpatialManeuverAudioCuePanning spatialManeuverAudioCuePanning, Context context) {
-        executorSynthesization.execute(() -> {
-            final File outputDir = context.getCacheDir();
-            try {
-                File outputFile = File.createTempFile(FILE_NAME_PREFIX, ".mp3", outputDir);
-
-                if (outputFile.exists()) {
-                    // Set the path to the audio file to be played.
-                    final Uri uriToFile = Uri.parse(outputFile.getAbsolutePath());
-                    Bundle bundle = new Bundle();
-                    bundle.putInt(TextToSpeech.Engine.KEY_PARAM_STREAM, AudioManager.STREAM_MUSIC);
-                    bundle.putFloat(TextToSpeech.Engine.KEY_PARAM_VOLUME, 1.0f); // default
-
-                    // Synthesize the audio cue (string) into an audio file.
-                    voiceAssistant.getTextToSpeech().synthesizeToFile(audioCue, bundle, outputFile, outputFile.getName());
-                    setSpatialUtteranceProgressListener(uriToFile, initialAzimuthInDegrees, spatialManeuverAudioCuePanning, context);
-                }
-
-            } catch (IOException e) {
-                e.printStackTrace();
-                executorSynthesization.shutdown();
-            }
-
-        });
-    }
-
-    // Set utterance listener to call methods when synthesization has finished.
-    private void setSpatialUtteranceProgressListener(Uri uriToFile, float initialAzimuthInDegrees, @NonNull SpatialManeuverAudioCuePanning spatialManeuverAudioCuePanning, Context context) {
-        voiceAssistant.getTextToSpeech().setOnUtteranceProgressListener(new UtteranceProgressListener() {
+        getAudioCuePipeline(context).prepare(audioCue, new AudioCuePipeline.Listener() {
             @Override
-            public void onStart(String utteranceId) {
-            }
+            public void onAudioCueReady(String text, AudioCueCache.AudioCue preparedAudioCue, AudioCuePipeline.Timings timings) {
+                Log.d(TAG, "Audio cue ready: " + timings + ", " + audioCuePipeline);
 
-            @Override
-            public void onDone(String utteranceId) {
                 // Play the audio file.
-                playAudioFile(uriToFile, initialAzimuthInDegrees, context);
+                playAudioFile(Uri.parse(preparedAudioCue.file.getAbsolutePath()), initialAzimuthInDegrees);
 
                 // startPanning() can be called with new CustomPanningData if the data provided does not fulfil the expectations. For example,
                 // for a more accurate estimation of the audio cue duration we recommend using the duration granted by Android.
-                CustomPanningData customPanningData = new CustomPanningData(getFileDuration(uriToFile), null, null);
+                CustomPanningData customPanningData = new CustomPanningData(
+                        Duration.ofMillis(preparedAudioCue.durationInMilliseconds), null, null);
                 spatialManeuverAudioCuePanning.startPanning(customPanningData);
-                executorSynthesization.shutdown();
             }
 
             @Override
-            @SuppressWarnings("deprecation")
-            public void onError(String utteranceId) {
-                executorSynthesization.shutdown();
+            public void onAudioCueError(String text) {
+                Log.e(TAG, "Synthesizing the audio cue failed: " + text);
             }
         });
     }
 
+    private AudioCuePipeline getAudioCuePipeline(Context context) {
+        if (audioCuePipeline == null) {
+            final File audioCueDirectory = new File(context.getCacheDir(), AUDIO_CUE_DIRECTORY);
+            deleteAudioCueFiles(audioCueDirectory);
+            audioCuePipeline = new AudioCuePipeline(
+                    new TextToSpeechSynthesizer(voiceAssistant.getTextToSpeech()),
+                    audioCueCache,
+                    () -> {
+                        if (!audioCueDirectory.isDirectory() && !audioCueDirectory.mkdirs()) {
+                            Log.e(TAG, "Can't create directory for audio cues.");
+                        }
+                        return File.createTempFile(FILE_NAME_PREFIX, ".wav", audioCueDirectory);
+                    },
+                    this::getFileDuration,
+                    // The executor is looked up for each audio cue, as it may have been recreated.
+                    command -> executorSynthesization.execute(command),
+                    SystemClock::elapsedRealtime);
+        }
+        return audioCuePipeline;
+    }
+
+    // Files of a previous app session are not known to the AudioCueCache.
+    private void deleteAudioCueFiles(File audioCueDirectory) {
+        File[] files = audioCueDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.getName().startsWith(FILE_NAME_PREFIX)) {
+                file.delete();
+            }
+        }
+    }
+
     // Plays the synthesized audio file containing the audio cue for the next maneuver.
-    private void playAudioFile(Uri uriToFile, float initialAzimuthInDegrees, Context context) {
-        Handler mainHandler = new Handler(context.getMainLooper());
+    private void playAudioFile(Uri uriToFile, float initialAzimuthInDegrees) {
         // Set the animation timing to trigger and plays the audio file containing the current audio cue.
         Runnable playAudioFile = new Runnable() {
             @Override
@@ -129,36 +135,48 @@ public class SpatialAudioExample {
         mainHandler.post(playAudioFile);
     }
 
-    // Get the duration of the audio file.
-    private Duration getFileDuration(Uri uriToFile) {
-        mmr.setDataSource(String.valueOf(uriToFile));
-        String durationStr = mmr.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
-        return Duration.ofMillis(Integer.parseInt(durationStr));
+    // Get the duration of the audio file. Android's TextToSpeech engine writes WAV files,
+    // so the duration can be computed from the length of the PCM data. Other files are decoded.
+    private long getFileDuration(File file) {
+        long durationInMilliseconds = PcmDurationReader.readDurationInMilliseconds(file);
+        if (durationInMilliseconds >= 0) {
+            return durationInMilliseconds;
+        }
+        try {
+            synchronized (mmr) {
+                mmr.setDataSource(file.getAbsolutePath());
+                String durationStr = mmr.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
+                return Integer.parseInt(durationStr);
+            }
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Can't read the duration of " + file + ": " + e.getMessage());
+            return -1;
+        }
     }
 
-    // Stops playing the current audio cue and shutdown the executors required for spatial audio.
+    // Stops playing the current audio cue, shutdown the executors required for spatial audio
+    // and deletes the cached audio files.
     public void stopSpatialAudio() {
         if (encoder != null)
             encoder.stopPlayingAudioCue(); // Stops current spatial audio cue.
         shutdownExecutors();
+        audioCueCache.clear();
     }
 
-    // Initiates a new thread when required audio synthesization.
+    // Initiates the threads required for audio synthesization and panning, if not already running.
     public void initSpatialAudioExecutors() {
         if (executorSynthesization == null || executorSynthesization.isShutdown())
             executorSynthesization = Executors.newSingleThreadExecutor();
         if (executorPanning == null || executorPanning.isShutdown())
             executorPanning = Executors.newSingleThreadExecutor();
-        if (executorPlayFile == null || executorPlayFile.isShutdown())
-            executorPlayFile = Executors.newSingleThreadExecutor();
     }
 
     // Shuts down the initialized executors.
     public void shutdownExecutors() {
         if (executorSynthesization != null && !executorSynthesization.isShutdown())
             executorSynthesization.shutdown();
-        if (executorPlayFile != null && !executorPlayFile.isShutdown())
-            executorPlayFile.shutdown();
+        if (executorPanning != null && !executorPanning.isShutdown())
+            executorPanning.shutdown();
         if (encoder != null)
             encoder.shutdownEncoderExecutors();
     }
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.spatialaudionavigation;
+
+import android.media.AudioManager;
+import android.os.Bundle;
+import android.speech.tts.TextToSpeech;
+import android.speech.tts.UtteranceProgressListener;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Synthesizes texts into audio files with Android's TextToSpeech engine.
+// A single UtteranceProgressListener is set once, it forwards the result of each
+// request to the callback that belongs to its utterance ID.
+public class TextToSpeechSynthesizer implements AudioCuePipeline.Synthesizer {
+
+    private final TextToSpeech textToSpeech;
+    private final Map<String, AudioCuePipeline.SynthesisCallback> callbacks = new ConcurrentHashMap<>();
+    private final AtomicLong nextUtteranceId = new AtomicLong();
+
+    public TextToSpeechSynthesizer(TextToSpeech textToSpeech) {
+        this.textToSpeech = textToSpeech;
+        textToSpeech.setOnUtteranceProgressListener(new UtteranceProgressListener() {
+            @Override
+            public void onStart(String utteranceId) {
+            }
+
+            @Override
+            public void onDone(String utteranceId) {
+                AudioCuePipeline.SynthesisCallback callback = callbacks.remove(utteranceId);
+                if (callback != null) {
+                    callback.onDone();
+                }
+            }
+
+            @Override
+            @SuppressWarnings("deprecation")
+            public void onError(String utteranceId) {
+                AudioCuePipeline.SynthesisCallback callback = callbacks.remove(utteranceId);
+                if (callback != null) {
+                    callback.onError();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void synthesize(String text, File outputFile, AudioCuePipeline.SynthesisCallback callback) {
+        String utteranceId = "audio_cue_" + nextUtteranceId.incrementAndGet();
+        Bundle bundle = new Bundle();
+        bundle.putInt(TextToSpeech.Engine.KEY_PARAM_STREAM, AudioManager.STREAM_MUSIC);
+        bundle.putFloat(TextToSpeech.Engine.KEY_PARAM_VOLUME, 1.0f); // default
+
+        callbacks.put(utteranceId, callback);
+        if (textToSpeech.synthesizeToFile(text, bundle, outputFile, utteranceId) != TextToSpeech.SUCCESS) {
+            callbacks.remove(utteranceId);
+            callback.onError();
+        }
+    }
+}
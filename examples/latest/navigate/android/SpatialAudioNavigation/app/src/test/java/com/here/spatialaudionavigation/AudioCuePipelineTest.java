@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.spatialaudionavigation;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AudioCuePipelineTest {
+
+    private static final int SAMPLE_RATE_IN_HZ = 22050;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    // Writes a WAV file with 100 ms of silence per character, like a very slow TextToSpeech engine.
+    private class FakeSynthesizer implements AudioCuePipeline.Synthesizer {
+        final List<String> synthesizedTexts = new ArrayList<>();
+        boolean isFailing = false;
+
+        @Override
+        public void synthesize(String text, File outputFile, AudioCuePipeline.SynthesisCallback callback) {
+            synthesizedTexts.add(text);
+            now += 300;
+            if (isFailing) {
+                callback.onError();
+                return;
+            }
+            try {
+                writeWavFile(outputFile, text.length() * SAMPLE_RATE_IN_HZ / 10, 1);
+            } catch (IOException e) {
+                callback.onError();
+                return;
+            }
+            callback.onDone();
+        }
+    }
+
+    private static class RecordingListener implements AudioCuePipeline.Listener {
+        AudioCueCache.AudioCue audioCue;
+        AudioCuePipeline.Timings timings;
+        int errorCount = 0;
+
+        @Override
+        public void onAudioCueReady(String text, AudioCueCache.AudioCue audioCue, AudioCuePipeline.Timings timings) {
+            this.audioCue = audioCue;
+            this.timings = timings;
+        }
+
+        @Override
+        public void onAudioCueError(String text) {
+            errorCount++;
+        }
+    }
+
+    private long now = 0;
+    private FakeSynthesizer synthesizer;
+    private AudioCueCache audioCueCache;
+    private AudioCuePipeline audioCuePipeline;
+
+    @Before
+    public void setUp() {
+        synthesizer = new FakeSynthesizer();
+        audioCueCache = new AudioCueCache(2);
+        audioCuePipeline = new AudioCuePipeline(
+                synthesizer,
+                audioCueCache,
+                () -> temporaryFolder.newFile(),
+                PcmDurationReader::readDurationInMilliseconds,
+                Runnable::run,
+                () -> now);
+    }
+
+    @Test
+    public void newPhraseIsSynthesizedAndTimed() {
+        RecordingListener listener = prepare("Turn left.");
+
+        assertEquals(1, synthesizer.synthesizedTexts.size());
+        assertTrue(listener.audioCue.file.exists());
+        // 10 characters with 100 ms each.
+        assertEquals(1000, listener.audioCue.durationInMilliseconds);
+        assertFalse(listener.timings.isFromCache);
+        assertEquals(300, listener.timings.synthesisTimeInMilliseconds);
+        assertEquals(300, listener.timings.latencyInMilliseconds);
+    }
+
+    @Test
+    public void repeatedPhraseIsTakenFromCache() {
+        RecordingListener first = prepare("Turn left.");
+        RecordingListener second = prepare("Turn left.");
+
+        assertEquals(1, synthesizer.synthesizedTexts.size());
+        assertSame(first.audioCue, second.audioCue);
+        assertTrue(second.timings.isFromCache);
+        assertEquals(0, second.timings.latencyInMilliseconds);
+        assertEquals(2, audioCuePipeline.getRequestCount());
+        assertEquals(1, audioCuePipeline.getCacheHitCount());
+        assertEquals(1, audioCuePipeline.getSynthesisCount());
+    }
+
+    @Test
+    public void evictedPhraseIsDeletedAndSynthesizedAgain() {
+        RecordingListener first = prepare("Turn left.");
+        prepare("Turn right.");
+        prepare("Keep left.");
+
+        assertFalse(first.audioCue.file.exists());
+        assertEquals(1, audioCueCache.getEvictionCount());
+
+        prepare("Turn left.");
+        assertEquals(4, synthesizer.synthesizedTexts.size());
+    }
+
+    @Test
+    public void deletedFileIsSynthesizedAgain() {
+        RecordingListener first = prepare("Turn left.");
+        assertTrue(first.audioCue.file.delete());
+
+        RecordingListener second = prepare("Turn left.");
+
+        assertFalse(second.timings.isFromCache);
+        assertEquals(2, synthesizer.synthesizedTexts.size());
+    }
+
+    @Test
+    public void failedSynthesisIsReportedAndNotCached() {
+        synthesizer.isFailing = true;
+        RecordingListener listener = prepare("Turn left.");
+
+        assertEquals(1, listener.errorCount);
+        assertEquals(1, audioCuePipeline.getErrorCount());
+        assertEquals(0, audioCueCache.size());
+        // The file of the failed audio cue was deleted.
+        assertEquals(0, temporaryFolder.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void unknownDurationIsReportedAsError() throws IOException {
+        audioCuePipeline = new AudioCuePipeline(
+                synthesizer, audioCueCache, () -> temporaryFolder.newFile(), file -> -1, Runnable::run, () -> now);
+
+        RecordingListener listener = prepare("Turn left.");
+
+        assertEquals(1, listener.errorCount);
+        assertEquals(0, audioCueCache.size());
+    }
+
+    @Test
+    public void durationIsReadFromPcmLength() throws IOException {
+        File stereoFile = temporaryFolder.newFile();
+        // 2.5 seconds of 16 bit stereo.
+        writeWavFile(stereoFile, SAMPLE_RATE_IN_HZ * 5 / 2, 2);
+        assertEquals(2500, PcmDurationReader.readDurationInMilliseconds(stereoFile));
+
+        File notAWavFile = temporaryFolder.newFile();
+        try (FileOutputStream outputStream = new FileOutputStream(notAWavFile)) {
+            outputStream.write("ID3 an mp3 file".getBytes("US-ASCII"));
+        }
+        assertEquals(-1, PcmDurationReader.readDurationInMilliseconds(notAWavFile));
+
+        assertEquals(1000, PcmDurationReader.computeDurationInMilliseconds(44100 * 2, 44100, 1, 16));
+    }
+
+    private RecordingListener prepare(String text) {
+        RecordingListener listener = new RecordingListener();
+        audioCuePipeline.prepare(text, listener);
+        return listener;
+    }
+
+    // Writes a 16 bit PCM WAV file with an additional chunk before the audio data, as some engines do.
+    private static void writeWavFile(File file, int sampleCount, int channelCount) throws IOException {
+        int dataLength = sampleCount * channelCount * 2;
+        byte[] listChunk = "INFOISFT".getBytes("US-ASCII");
+        try (DataOutputStream outputStream = new DataOutputStream(new FileOutputStream(file))) {
+            outputStream.writeBytes("RIFF");
+            writeLittleEndianInt(outputStream, 4 + 24 + 8 + listChunk.length + 8 + dataLength);
+            outputStream.writeBytes("WAVE");
+            outputStream.writeBytes("fmt ");
+            writeLittleEndianInt(outputStream, 16);
+            writeLittleEndianShort(outputStream, 1);
+            writeLittleEndianShort(outputStream, channelCount);
+            writeLittleEndianInt(outputStream, SAMPLE_RATE_IN_HZ);
+            writeLittleEndianInt(outputStream, SAMPLE_RATE_IN_HZ * channelCount * 2);
+            writeLittleEndianShort(outputStream, channelCount * 2);
+            writeLittleEndianShort(outputStream, 16);
+            outputStream.writeBytes("LIST");
+            writeLittleEndianInt(outputStream, listChunk.length);
+            outputStream.write(listChunk);
+            outputStream.writeBytes("data");
+            writeLittleEndianInt(outputStream, dataLength);
+            outputStream.write(new byte[dataLength]);
+        }
+    }
+
+    private static void writeLittleEndianInt(DataOutputStream outputStream, int value) throws IOException {
+        outputStream.writeInt(Integer.reverseBytes(value));
+    }
+
+    private static void writeLittleEndianShort(DataOutputStream outputStream, int value) throws IOException {
+        outputStream.writeShort(Short.reverseBytes((short) value));
+    }
+}
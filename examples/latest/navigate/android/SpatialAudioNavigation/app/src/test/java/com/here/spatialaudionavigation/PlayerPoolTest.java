@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.spatialaudionavigation;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PlayerPoolTest {
+
+    private static class FakePlayer {
+        int resetCount = 0;
+        boolean isDestroyed = false;
+        boolean failsOnReset = false;
+    }
+
+    private static class FakePlayerFactory implements PlayerPool.Factory<FakePlayer> {
+        final List<FakePlayer> createdPlayers = new ArrayList<>();
+
+        @Override
+        public FakePlayer create() {
+            FakePlayer player = new FakePlayer();
+            createdPlayers.add(player);
+            return player;
+        }
+
+        @Override
+        public void reset(FakePlayer player) {
+            if (player.failsOnReset) {
+                throw new IllegalStateException("Player is in an undefined state.");
+            }
+            player.resetCount++;
+        }
+
+        @Override
+        public void destroy(FakePlayer player) {
+            player.isDestroyed = true;
+        }
+    }
+
+    private final FakePlayerFactory factory = new FakePlayerFactory();
+    private final PlayerPool<FakePlayer> playerPool = new PlayerPool<>(factory, 2);
+
+    @Test
+    public void releasedPlayerIsReusedAfterReset() {
+        FakePlayer first = playerPool.acquire();
+        playerPool.release(first);
+        FakePlayer second = playerPool.acquire();
+
+        assertSame(first, second);
+        assertEquals(1, second.resetCount);
+        assertEquals(1, playerPool.getCreatedCount());
+        assertEquals(1, playerPool.getReusedCount());
+    }
+
+    @Test
+    public void manyCuesNeedOnlyFewPlayers() {
+        // Like a new cue that interrupts the previous one: a new player is acquired before the old one is released.
+        FakePlayer playing = playerPool.acquire();
+        for (int i = 0; i < 100; i++) {
+            FakePlayer next = playerPool.acquire();
+            playerPool.release(playing);
+            playing = next;
+        }
+
+        assertEquals(2, factory.createdPlayers.size());
+        assertEquals(99, playerPool.getReusedCount());
+    }
+
+    @Test
+    public void playersAboveLimitAreDestroyed() {
+        FakePlayer first = playerPool.acquire();
+        FakePlayer second = playerPool.acquire();
+        FakePlayer third = playerPool.acquire();
+        playerPool.release(first);
+        playerPool.release(second);
+        playerPool.release(third);
+
+        assertEquals(2, playerPool.getIdleCount());
+        assertTrue(third.isDestroyed);
+        assertEquals(1, playerPool.getDestroyedCount());
+    }
+
+    @Test
+    public void doubleReleaseIsIgnored() {
+        FakePlayer player = playerPool.acquire();
+        playerPool.release(player);
+        playerPool.release(player);
+
+        assertEquals(1, playerPool.getIdleCount());
+        assertSame(player, playerPool.acquire());
+        assertNotSame(player, playerPool.acquire());
+    }
+
+    @Test
+    public void playerThatFailsToResetIsDestroyed() {
+        FakePlayer player = playerPool.acquire();
+        player.failsOnReset = true;
+        playerPool.release(player);
+
+        assertTrue(player.isDestroyed);
+        assertEquals(0, playerPool.getIdleCount());
+    }
+
+    @Test
+    public void clearDestroysIdlePlayers() {
+        FakePlayer first = playerPool.acquire();
+        FakePlayer second = playerPool.acquire();
+        playerPool.release(first);
+        playerPool.release(second);
+        playerPool.clear();
+
+        assertTrue(first.isDestroyed);
+        assertTrue(second.isDestroyed);
+        assertEquals(0, playerPool.getIdleCount());
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.traffic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// An R-tree over the segments of a set of polylines, for example, the polylines of traffic incidents.
+// It is built once for a fixed set of items and then answers nearest-segment queries
+// without checking every vertex of every polyline.
+// Coordinates are projected to a plane in meters around the mean latitude of all vertices.
+// This is accurate enough for the size of a traffic query area, but not for areas that
+// span large parts of the globe or cross the antimeridian.
+// The class does not depend on the HERE SDK, the vertices can be of any type, for example, GeoCoordinates.
+public class PolylineSpatialIndex<T> {
+
+    public interface CoordinatesAccessor<V> {
+        double getLatitude(V vertex);
+
+        double getLongitude(V vertex);
+    }
+
+    public static final class Nearest<T> {
+        public final T item;
+        public final double distanceInMeters;
+
+        Nearest(T item, double distanceInMeters) {
+            this.item = item;
+            this.distanceInMeters = distanceInMeters;
+        }
+    }
+
+    // Collects the polylines. Call build() once all items are added.
+    public static final class Builder<T, V> {
+        private final CoordinatesAccessor<V> coordinatesAccessor;
+        private final List<T> items = new ArrayList<>();
+        private final List<List<V>> polylines = new ArrayList<>();
+
+        public Builder(CoordinatesAccessor<V> coordinatesAccessor) {
+            this.coordinatesAccessor = coordinatesAccessor;
+        }
+
+        // A polyline with a single vertex is treated as a point.
+        public Builder<T, V> add(T item, List<V> vertices) {
+            if (!vertices.isEmpty()) {
+                items.add(item);
+                polylines.add(vertices);
+            }
+            return this;
+        }
+
+        public PolylineSpatialIndex<T> build() {
+            return new PolylineSpatialIndex<>(this);
+        }
+    }
+
+    private static final double EARTH_RADIUS_IN_METERS = 6371000;
+    private static final int MAX_CHILDREN = 16;
+
+    private static final class Node {
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        // Either children or a range of segments is set.
+        Node[] children;
+        int segmentStart;
+        int segmentEnd;
+
+        void include(double minX, double minY, double maxX, double maxY) {
+            this.minX = Math.min(this.minX, minX);
+            this.minY = Math.min(this.minY, minY);
+            this.maxX = Math.max(this.maxX, maxX);
+            this.maxY = Math.max(this.maxY, maxY);
+        }
+
+        double centerX() {
+            return (minX + maxX) / 2;
+        }
+
+        double centerY() {
+            return (minY + maxY) / 2;
+        }
+    }
+
+    private static final class QueueEntry {
+        final Node node;
+        final double distanceSquared;
+
+        QueueEntry(Node node, double distanceSquared) {
+            this.node = node;
+            this.distanceSquared = distanceSquared;
+        }
+    }
+
+    private final List<T> items;
+    private final double referenceLatitude;
+    private final double metersPerLongitudeRadian;
+    // The projected segments, ordered so that each leaf node covers a contiguous range.
+    private final double[] startX;
+    private final double[] startY;
+    private final double[] endX;
+    private final double[] endY;
+    private final int[] itemIndices;
+    private final Node root;
+
+    private <V> PolylineSpatialIndex(Builder<T, V> builder) {
+        items = new ArrayList<>(builder.items);
+        CoordinatesAccessor<V> accessor = builder.coordinatesAccessor;
+
+        int segmentCount = 0;
+        double latitudeSum = 0;
+        int vertexCount = 0;
+        for (List<V> polyline : builder.polylines) {
+            segmentCount += Math.max(1, polyline.size() - 1);
+            for (V vertex : polyline) {
+                latitudeSum += accessor.getLatitude(vertex);
+                vertexCount++;
+            }
+        }
+        referenceLatitude = vertexCount == 0 ? 0 : latitudeSum / vertexCount;
+        metersPerLongitudeRadian = EARTH_RADIUS_IN_METERS * Math.cos(Math.toRadians(referenceLatitude));
+
+        double[] unsortedStartX = new double[segmentCount];
+        double[] unsortedStartY = new double[segmentCount];
+        double[] unsortedEndX = new double[segmentCount];
+        double[] unsortedEndY = new double[segmentCount];
+        int[] unsortedItemIndices = new int[segmentCount];
+        int segment = 0;
+        for (int itemIndex = 0; itemIndex < builder.polylines.size(); itemIndex++) {
+            List<V> polyline = builder.polylines.get(itemIndex);
+            double previousX = projectX(accessor.getLongitude(polyline.get(0)));
+            double previousY = projectY(accessor.getLatitude(polyline.get(0)));
+            if (polyline.size() == 1) {
+                unsortedStartX[segment] = unsortedEndX[segment] = previousX;
+                unsortedStartY[segment] = unsortedEndY[segment] = previousY;
+                unsortedItemIndices[segment++] = itemIndex;
+                continue;
+            }
+            for (int i = 1; i < polyline.size(); i++) {
+                double x = projectX(accessor.getLongitude(polyline.get(i)));
+                double y = projectY(accessor.getLatitude(polyline.get(i)));
+                unsortedStartX[segment] = previousX;
+                unsortedStartY[segment] = previousY;
+                unsortedEndX[segment] = x;
+                unsortedEndY[segment] = y;
+                unsortedItemIndices[segment++] = itemIndex;
+                previousX = x;
+                previousY = y;
+            }
+        }
+
+        double[] centerX = new double[segmentCount];
+        double[] centerY = new double[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            centerX[i] = (unsortedStartX[i] + unsortedEndX[i]) / 2;
+            centerY[i] = (unsortedStartY[i] + unsortedEndY[i]) / 2;
+        }
+        int[] order = sortTileRecursive(centerX, centerY);
+
+        startX = new double[segmentCount];
+        startY = new double[segmentCount];
+        endX = new double[segmentCount];
+        endY = new double[segmentCount];
+        itemIndices = new int[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int index = order[i];
+            startX[i] = unsortedStartX[index];
+            startY[i] = unsortedStartY[index];
+            endX[i] = unsortedEndX[index];
+            endY[i] = unsortedEndY[index];
+            itemIndices[i] = unsortedItemIndices[index];
+        }
+
+        root = segmentCount == 0 ? null : buildTree();
+    }
+
+    // Sort-Tile-Recursive packing: sorts by x into vertical slices, then each slice by y.
+    // Returns the order in which the elements should be grouped into nodes.
+    private static int[] sortTileRecursive(double[] centerX, double[] centerY) {
+        int count = centerX.length;
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        sortByKey(order, 0, count, centerX);
+        int nodeCount = (count + MAX_CHILDREN - 1) / MAX_CHILDREN;
+        int sliceSize = (int) Math.ceil(Math.sqrt(nodeCount)) * MAX_CHILDREN;
+        for (int start = 0; start < count; start += sliceSize) {
+            sortByKey(order, start, Math.min(start + sliceSize, count), centerY);
+        }
+        return order;
+    }
+
+    // Sorts a range of indices by their keys. Each key is rounded to centimeters and packed
+    // together with its index into a long, so that a primitive sort can be used instead of boxed values.
+    private static void sortByKey(int[] indices, int from, int to, double[] keys) {
+        double minKey = Double.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            minKey = Math.min(minKey, keys[indices[i]]);
+        }
+        long[] packed = new long[to - from];
+        for (int i = from; i < to; i++) {
+            long key = Math.min(0xFFFFFFFFL, (long) ((keys[indices[i]] - minKey) * 100));
+            packed[i - from] = (key << 32) | indices[i];
+        }
+        Arrays.sort(packed);
+        for (int i = from; i < to; i++) {
+            indices[i] = (int) packed[i - from];
+        }
+    }
+
+    private Node buildTree() {
+        Node[] level = new Node[(startX.length + MAX_CHILDREN - 1) / MAX_CHILDREN];
+        for (int i = 0; i < level.length; i++) {
+            Node leaf = new Node();
+            leaf.segmentStart = i * MAX_CHILDREN;
+            leaf.segmentEnd = Math.min(leaf.segmentStart + MAX_CHILDREN, startX.length);
+            for (int segment = leaf.segmentStart; segment < leaf.segmentEnd; segment++) {
+                leaf.include(Math.min(startX[segment], endX[segment]), Math.min(startY[segment], endY[segment]),
+                        Math.max(startX[segment], endX[segment]), Math.max(startY[segment], endY[segment]));
+            }
+            level[i] = leaf;
+        }
+
+        while (level.length > 1) {
+            double[] centerX = new double[level.length];
+            double[] centerY = new double[level.length];
+            for (int i = 0; i < level.length; i++) {
+                centerX[i] = level[i].centerX();
+                centerY[i] = level[i].centerY();
+            }
+            int[] order = sortTileRecursive(centerX, centerY);
+
+            Node[] parents = new Node[(level.length + MAX_CHILDREN - 1) / MAX_CHILDREN];
+            for (int i = 0; i < parents.length; i++) {
+                Node parent = new Node();
+                int start = i * MAX_CHILDREN;
+                parent.children = new Node[Math.min(MAX_CHILDREN, level.length - start)];
+                for (int j = 0; j < parent.children.length; j++) {
+                    Node child = level[order[start + j]];
+                    parent.children[j] = child;
+                    parent.include(child.minX, child.minY, child.maxX, child.maxY);
+                }
+                parents[i] = parent;
+            }
+            level = parents;
+        }
+        return level[0];
+    }
+
+    // Returns the item with the segment that is closest to the given coordinates, or null if the index is empty.
+    public Nearest<T> findNearest(double latitude, double longitude) {
+        if (root == null) {
+            return null;
+        }
+
+        double x = projectX(longitude);
+        double y = projectY(latitude);
+        double bestDistanceSquared = Double.MAX_VALUE;
+        int bestSegment = -1;
+
+        // Best-first search: nodes are visited in the order of their distance to the query point,
+        // so the search stops as soon as no remaining node can contain a closer segment.
+        PriorityQueue<QueueEntry> queue =
+                new PriorityQueue<>(Comparator.comparingDouble((QueueEntry entry) -> entry.distanceSquared));
+        queue.add(new QueueEntry(root, 0));
+        while (!queue.isEmpty()) {
+            QueueEntry entry = queue.poll();
+            if (entry.distanceSquared >= bestDistanceSquared) {
+                break;
+            }
+            Node node = entry.node;
+            if (node.children == null) {
+                for (int segment = node.segmentStart; segment < node.segmentEnd; segment++) {
+                    double distanceSquared = distanceToSegmentSquared(x, y, segment);
+                    if (distanceSquared < bestDistanceSquared) {
+                        bestDistanceSquared = distanceSquared;
+                        bestSegment = segment;
+                    }
+                }
+            } else {
+                for (Node child : node.children) {
+                    double distanceSquared = distanceToBoxSquared(x, y, child);
+                    if (distanceSquared < bestDistanceSquared) {
+                        queue.add(new QueueEntry(child, distanceSquared));
+                    }
+                }
+            }
+        }
+
+        return new Nearest<>(items.get(itemIndices[bestSegment]), Math.sqrt(bestDistanceSquared));
+    }
+
+    public int getItemCount() {
+        return items.size();
+    }
+
+    public int getSegmentCount() {
+        return startX.length;
+    }
+
+    // The latitude the projection is centered on.
+    public double getReferenceLatitude() {
+        return referenceLatitude;
+    }
+
+    private double projectX(double longitude) {
+        return Math.toRadians(longitude) * metersPerLongitudeRadian;
+    }
+
+    private double projectY(double latitude) {
+        return Math.toRadians(latitude) * EARTH_RADIUS_IN_METERS;
+    }
+
+    private double distanceToSegmentSquared(double x, double y, int segment) {
+        double segmentX = endX[segment] - startX[segment];
+        double segmentY = endY[segment] - startY[segment];
+        double lengthSquared = segmentX * segmentX + segmentY * segmentY;
+        double t = 0;
+        if (lengthSquared > 0) {
+            t = ((x - startX[segment]) * segmentX + (y - startY[segment]) * segmentY) / lengthSquared;
+            t = Math.max(0, Math.min(1, t));
+        }
+        double dx = x - (startX[segment] + t * segmentX);
+        double dy = y - (startY[segment] + t * segmentY);
+        return dx * dx + dy * dy;
+    }
+
+    private static double distanceToBoxSquared(double x, double y, Node node) {
+        double dx = Math.max(0, Math.max(node.minX - x, x - node.maxX));
+        double dy = Math.max(0, Math.max(node.minY - y, y - node.maxY));
+        return dx * dx + dy * dy;
+    }
+}
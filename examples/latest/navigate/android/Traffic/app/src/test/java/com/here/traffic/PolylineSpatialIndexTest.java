@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2019-2023 HERE Europe B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * License-Filename: LICENSE
+ */
+
+package com.here.traffic;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PolylineSpatialIndexTest {
+
+    private static final PolylineSpatialIndex.CoordinatesAccessor<double[]> LAT_LON =
+            new PolylineSpatialIndex.CoordinatesAccessor<double[]>() {
+                @Override
+                public double getLatitude(double[] vertex) {
+                    return vertex[0];
+                }
+
+                @Override
+                public double getLongitude(double[] vertex) {
+                    return vertex[1];
+                }
+            };
+
+    private static class Incident {
+        final List<double[]> vertices;
+
+        Incident(List<double[]> vertices) {
+            this.vertices = vertices;
+        }
+    }
+
+    @Test
+    public void emptyIndex() {
+        PolylineSpatialIndex<Incident> index = new PolylineSpatialIndex.Builder<Incident, double[]>(LAT_LON).build();
+
+        assertNull(index.findNearest(52.5, 13.4));
+        assertEquals(0, index.getSegmentCount());
+    }
+
+    @Test
+    public void nearestSegmentIsFoundBetweenVertices() {
+        // A long incident passes close to the query point, but its vertices are far away.
+        Incident longIncident = new Incident(Arrays.asList(
+                new double[]{52.50, 13.30}, new double[]{52.50, 13.50}));
+        // A short incident has a vertex closer than the vertices of the long incident.
+        Incident shortIncident = new Incident(Arrays.asList(
+                new double[]{52.52, 13.40}, new double[]{52.53, 13.40}));
+        PolylineSpatialIndex<Incident> index = new PolylineSpatialIndex.Builder<Incident, double[]>(LAT_LON)
+                .add(longIncident, longIncident.vertices)
+                .add(shortIncident, shortIncident.vertices)
+                .build();
+
+        PolylineSpatialIndex.Nearest<Incident> nearest = index.findNearest(52.501, 13.40);
+
+        assertSame(longIncident, nearest.item);
+        // 0.001 degrees of latitude are about 111 meters.
+        assertEquals(111, nearest.distanceInMeters, 1);
+    }
+
+    @Test
+    public void singleVertexIsTreatedAsPoint() {
+        Incident incident = new Incident(Collections.singletonList(new double[]{52.5, 13.4}));
+        PolylineSpatialIndex<Incident> index = new PolylineSpatialIndex.Builder<Incident, double[]>(LAT_LON)
+                .add(incident, incident.vertices)
+                .add(new Incident(new ArrayList<>()), new ArrayList<>())
+                .build();
+
+        assertEquals(1, index.getItemCount());
+        assertSame(incident, index.findNearest(52.6, 13.4).item);
+        assertEquals(0, index.findNearest(52.5, 13.4).distanceInMeters, 1e-6);
+    }
+
+    @Test
+    public void matchesBruteForce() {
+        Random random = new Random(7);
+        List<Incident> incidents = createRandomIncidents(random, 2000);
+        PolylineSpatialIndex.Builder<Incident, double[]> builder = new PolylineSpatialIndex.Builder<>(LAT_LON);
+        for (Incident incident : incidents) {
+            builder.add(incident, incident.vertices);
+        }
+        PolylineSpatialIndex<Incident> index = builder.build();
+
+        for (int i = 0; i < 1000; i++) {
+            // Some queries are outside of the area that contains incidents.
+            double latitude = 52.3 + random.nextDouble() * 0.4;
+            double longitude = 13.1 + random.nextDouble() * 0.6;
+
+            Incident expectedIncident = null;
+            double expectedDistance = Double.MAX_VALUE;
+            for (Incident incident : incidents) {
+                double distance = bruteForceDistance(index.getReferenceLatitude(), latitude, longitude, incident);
+                if (distance < expectedDistance) {
+                    expectedDistance = distance;
+                    expectedIncident = incident;
+                }
+            }
+
+            PolylineSpatialIndex.Nearest<Incident> nearest = index.findNearest(latitude, longitude);
+            assertEquals(expectedDistance, nearest.distanceInMeters, 1e-6);
+            assertSame(expectedIncident, nearest.item);
+        }
+    }
+
+    private static List<Incident> createRandomIncidents(Random random, int count) {
+        List<Incident> incidents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            double latitude = 52.4 + random.nextDouble() * 0.2;
+            double longitude = 13.2 + random.nextDouble() * 0.4;
+            List<double[]> vertices = new ArrayList<>();
+            int vertexCount = 2 + random.nextInt(10);
+            for (int j = 0; j < vertexCount; j++) {
+                vertices.add(new double[]{latitude, longitude});
+                latitude += (random.nextDouble() - 0.5) * 0.002;
+                longitude += (random.nextDouble() - 0.5) * 0.002;
+            }
+            incidents.add(new Incident(vertices));
+        }
+        return incidents;
+    }
+
+    // Checks all segments of an incident in the same projection as the index uses.
+    private static double bruteForceDistance(double referenceLatitude, double latitude, double longitude,
+                                             Incident incident) {
+        double earthRadius = 6371000;
+        double scaleX = earthRadius * Math.cos(Math.toRadians(referenceLatitude));
+        double x = Math.toRadians(longitude) * scaleX;
+        double y = Math.toRadians(latitude) * earthRadius;
+        double nearest = Double.MAX_VALUE;
+        for (int i = 1; i < incident.vertices.size(); i++) {
+            double ax = Math.toRadians(incident.vertices.get(i - 1)[1]) * scaleX;
+            double ay = Math.toRadians(incident.vertices.get(i - 1)[0]) * earthRadius;
+            double bx = Math.toRadians(incident.vertices.get(i)[1]) * scaleX;
+            double by = Math.toRadians(incident.vertices.get(i)[0]) * earthRadius;
+            double lengthSquared = (bx - ax) * (bx - ax) + (by - ay) * (by - ay);
+            double t = lengthSquared == 0 ? 0 : ((x - ax) * (bx - ax) + (y - ay) * (by - ay)) / lengthSquared;
+            t = Math.max(0, Math.min(1, t));
+            nearest = Math.min(nearest, Math.hypot(x - (ax + t * (bx - ax)), y - (ay + t * (by - ay))));
+        }
+        return nearest;
+    }
+}